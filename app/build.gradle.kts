@@ -54,6 +54,10 @@ android {
 }
 
 dependencies {
+    // 탐지 디코드, NMS, 추적 (안드로이드 플랫폼에 있는 org.json은 APK에 넣지 않음)
+    implementation(project(":core")) {
+        exclude(group = "org.json", module = "json")
+    }
     implementation("androidx.appcompat:appcompat:1.7.0")
     implementation("com.google.android.material:material:1.12.0")
     implementation("androidx.constraintlayout:constraintlayout:2.2.1")
@@ -0,0 +1,31 @@
+package com.example.quantiztest;
+
+import android.util.Log;
+
+/**
+ * core 모듈의 로그를 android.util.Log로 출력
+ */
+public final class AndroidLogger implements Logger {
+    public static final AndroidLogger INSTANCE = new AndroidLogger();
+
+    private AndroidLogger() {
+    }
+
+    @Override
+    public void d(String tag, String msg) {
+        Log.d(tag, msg);
+    }
+
+    @Override
+    public void i(String tag, String msg) {
+        Log.i(tag, msg);
+    }
+
+    /**
+     * adb shell setprop log.tag.<tag> DEBUG 로 켬 (YoloImageProcessor의 디코드 로그와 같은 방식)
+     */
+    @Override
+    public boolean isDebugEnabled(String tag) {
+        return Log.isLoggable(tag, Log.DEBUG);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.quantiztest;
+
+import android.graphics.Bitmap;
+
+/**
+ * Bitmap을 탐지기 입력(PixelSource)으로 넘기는 어댑터
+ * 프레임마다 새로 만들지 않도록 set()으로 비트맵만 바꿔 재사용합니다.
+ */
+final class BitmapPixelSource implements PixelSource {
+    private Bitmap bitmap;
+
+    BitmapPixelSource set(Bitmap bitmap) {
+        this.bitmap = bitmap;
+        return this;
+    }
+
+    @Override
+    public int getWidth() {
+        return bitmap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return bitmap.getHeight();
+    }
+
+    @Override
+    public void readPixels(int[] dst) {
+        int width = bitmap.getWidth();
+        bitmap.getPixels(dst, 0, width, 0, 0, width, bitmap.getHeight());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.quantiztest;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 프레임 파이프라인을 따라 흘러가는 카메라 프레임 한 장과 단계별 결과
+ * 재사용 풀에서 꺼내 쓰고 처리가 끝나면 돌려보내므로, 픽셀 배열과 탐지 배치는 프레임마다 새로 만들지 않습니다.
+ */
+public class CameraFrame {
+
+    /**
+     * 이 프레임에서 트래커를 갱신하는 방법
+     */
+    enum TrackMode {
+        DETECT,      // 탐지기를 돌려서 트래커 갱신
+        HOLD,        // 움직임이 없어 탐지기를 건너뛰고 기존 객체 유지
+        EXTRAPOLATE  // 탐지 차례가 아니어서 트래커가 속도로 박스를 외삽
+    }
+
+    // 캡처 단계: 회전이 적용된 ARGB 프레임과 프리뷰 뷰 크기 (추적 좌표계)
+    int[] pixels = new int[0];
+    int width;
+    int height;
+    int viewWidth;
+    int viewHeight;
+    long timestamp; // 센서 캡처 시각 (ms, 단조 증가)
+
+    // 탐지 스케줄러와 움직임 게이트의 판단 (DETECT가 아니면 전처리 ~ 디코드 단계를 건너뛰고 추적 단계로 바로 감)
+    TrackMode trackMode = TrackMode.DETECT;
+    final MotionGate.Mask motion = new MotionGate.Mask();
+    // 디코드 단계까지 마쳐서 탐지 결과가 채워졌는지 (탐지 프레임이 중간에 버려졌는지 판단용)
+    boolean decoded;
+
+    // 전처리 ~ 디코드 단계: 이 프레임이 쓰는 입출력 버퍼 슬롯 (디코드 후 또는 버려질 때 반환)
+    YoloImageProcessor.Slot slot;
+
+    // 디코드 단계: 뷰 좌표로 변환된 탐지 결과
+    final DetectionBatch detections = new DetectionBatch();
+
+    // 디코드 단계에서 정한 텐서 기록기 (null이면 기록 안 함, 이후 단계도 이 값을 따름)와
+    // 슬롯을 돌려놓기 전에 복사해 둔 출력 텐서 (기록 중일 때만 채움)
+    TensorRecorder recorder;
+    final TensorRecorder.FrameCapture capture = new TensorRecorder.FrameCapture();
+
+    // 추적 단계: 추적 결과 스냅샷 (그리기/전송 스레드는 트래커의 재사용 목록 대신 이 복사본을 읽음)과
+    // 이번 프레임에서 확정된 사람 등장/사라짐
+    TrackingSnapshot snapshot = TrackingSnapshot.EMPTY;
+    final Set<Integer> appearedPersonIds = new HashSet<>();
+    final Set<Integer> disappearedPersonIds = new HashSet<>();
+
+    /**
+     * 최소 width * height 크기의 픽셀 배열을 준비합니다 (더 큰 프레임이 들어올 때만 다시 할당).
+     */
+    int[] preparePixels(int width, int height) {
+        if (pixels.length < width * height) {
+            pixels = new int[width * height];
+        }
+        this.width = width;
+        this.height = height;
+        return pixels;
+    }
+
+    /**
+     * 풀로 돌아가기 전에 이전 결과를 비웁니다.
+     */
+    void reset() {
+        trackMode = TrackMode.DETECT;
+        decoded = false;
+        detections.clear();
+        recorder = null;
+        capture.clear();
+        snapshot = TrackingSnapshot.EMPTY;
+        appearedPersonIds.clear();
+        disappearedPersonIds.clear();
+    }
+
+    boolean runsDetector() {
+        return trackMode == TrackMode.DETECT;
+    }
+
+    /**
+     * 전송 전에 버려진 프레임의 사람 이벤트가 남아 있는지
+     */
+    boolean hasPersonEvents() {
+        return !appearedPersonIds.isEmpty() || !disappearedPersonIds.isEmpty();
+    }
+}
@@ -2,263 +2,152 @@ package com.example.quantiztest;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Matrix;
 import android.util.Log;
 
 import org.tensorflow.lite.Interpreter;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class FaceDetector {
     private static final String TAG = "FaceDetector";
     private static final int INPUT_SIZE = 320; // 얼굴 검출 모델 입력 크기 (필요에 따라 조정)
     private static final int NUM_DETECTIONS = 100; // 최대 검출 수
+    private static final int MODEL_WIDTH = 640;  // 실제 모델 입력 너비 (그레이스케일)
+    private static final int MODEL_HEIGHT = 480; // 실제 모델 입력 높이
+    private static final int GRID_WIDTH = FaceOutputDecoder.GRID_WIDTH;
+    private static final int GRID_HEIGHT = FaceOutputDecoder.GRID_HEIGHT;
 
     private Interpreter interpreter;
     private Context context;
+    private final ModelDescriptor descriptor;
 
-    public FaceDetector(Context context, Interpreter interpreter) {
+    // 인터프리터 세션 동안 재사용하는 입출력 버퍼
+    private final TensorArena arena;
+    // 모델 출력은 평탄화된 direct 버퍼로 받아서 (y * GRID_WIDTH + x) 인덱스로 읽습니다
+    private final ByteBuffer outputHeatmap;   // 출력 텐서 #0: [1, 60, 80, 1]
+    private final ByteBuffer outputBoxes;     // 출력 텐서 #1: [1, 60, 80, 4]
+    private final ByteBuffer outputLandmarks; // 출력 텐서 #2: [1, 60, 80, 10]
+
+    // 히트맵, 박스 출력을 얼굴 박스로 바꾸는 디코더 (양자화 파라미터와 히트맵 원시 임계값은 모델 로드 시 고정)
+    private final FaceOutputDecoder decoder;
+
+    // 원본 픽셀에서 입력 버퍼로 바로 리사이즈 + 그레이스케일 변환
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor(MODEL_WIDTH, MODEL_HEIGHT,
+            ImagePreprocessor.ColorMode.GRAY, ImagePreprocessor.Sampling.NEAREST, false);
+
+    // 비트맵 입력 어댑터 (프레임마다 재사용)
+    private final BitmapPixelSource bitmapSource = new BitmapPixelSource();
+
+    // NMS까지 적용한 얼굴 배치 (프레임마다 재사용)
+    private final DetectionBatch faces = new DetectionBatch();
+
+    // 켜져 있으면 출력 텐서와 결과를 기록 (재생 회귀 테스트용, null이면 기록 안 함)
+    private volatile TensorRecorder recorder;
+
+    /**
+     * @param descriptor 모델 로드 시 만든 디스크립터 (얼굴 그리드 출력 형식인지 검사)
+     * @throws IllegalArgumentException 모델 형식이 기대하는 형식과 다른 경우
+     */
+    public FaceDetector(Context context, Interpreter interpreter, ModelDescriptor descriptor) {
         this.context = context;
         this.interpreter = interpreter;
+        this.descriptor = descriptor;
+        validate(descriptor);
+
+        this.decoder = new FaceOutputDecoder(descriptor);
+        this.decoder.setLogger(AndroidLogger.INSTANCE);
+        Log.d(TAG, "출력 양자화 파라미터: " + decoder.getHeatmapSpec() + ", " + decoder.getBoxSpec());
+
+        int cells = GRID_WIDTH * GRID_HEIGHT;
+        this.arena = new TensorArena(MODEL_WIDTH * MODEL_HEIGHT, MODEL_WIDTH * MODEL_HEIGHT);
+        this.outputHeatmap = arena.addDirectOutput(0, cells);
+        this.outputBoxes = arena.addDirectOutput(1, cells * 4);
+        this.outputLandmarks = arena.addDirectOutput(2, cells * 10);
+    }
+
+    /**
+     * 출력 텐서 기록기를 설정합니다 (null이면 기록 중지).
+     */
+    public void setRecorder(TensorRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public ModelDescriptor getDescriptor() {
+        return descriptor;
     }
 
     /**
      * 비트맵 이미지를 처리하고 얼굴 탐지를 수행합니다.
+     * 입출력 버퍼는 arena에서 재사용하므로 동시에 여러 스레드에서 호출하지 않도록 동기화합니다.
      * @param bitmap 처리할 이미지
+     * @param timestampMs 이미지를 찍은 프레임 시각 (텐서 기록용, 추적 프레임과 같은 기준)
      * @return 탐지된 얼굴 목록
      */
 
-    public List<Face> detectFaces(Bitmap bitmap) {
-        // 텐서 정보 출력
-        Log.d(TAG, "입력 텐서 수: " + interpreter.getInputTensorCount());
-        Log.d(TAG, "출력 텐서 수: " + interpreter.getOutputTensorCount());
-
-        for (int i = 0; i < interpreter.getOutputTensorCount(); i++) {
-            Log.d(TAG, "출력 텐서 #" + i + " 타입: " + interpreter.getOutputTensor(i).dataType());
-            Log.d(TAG, "출력 텐서 #" + i + " 형상: " + java.util.Arrays.toString(interpreter.getOutputTensor(i).shape()));
-        }
-
-        // 입력 이미지 준비
-        Bitmap resizedBitmap = resizeBitmap(bitmap, 640, 480);
-
-        // 양자화된 모델용 UINT8 입력 버퍼 준비
-        ByteBuffer inputBuffer = ByteBuffer.allocateDirect(1 * 480 * 640);
-        inputBuffer.order(ByteOrder.nativeOrder());
-
-        int[] pixels = new int[480 * 640];
-        resizedBitmap.getPixels(pixels, 0, 640, 0, 0, 640, 480);
+    public synchronized List<Face> detectFaces(Bitmap bitmap, long timestampMs) {
+        return detectFaces(bitmapSource.set(bitmap), timestampMs);
+    }
 
-        for (int i = 0; i < 480 * 640; ++i) {
-            int pixel = pixels[i];
-            int r = (pixel >> 16) & 0xFF;
-            int g = (pixel >> 8) & 0xFF;
-            int b = pixel & 0xFF;
-            int gray = (r + g + b) / 3;
-            inputBuffer.put((byte) gray);
-        }
-        inputBuffer.rewind(); // 버퍼 위치를 처음으로 되돌림
+    /**
+     * 픽셀 소스에서 얼굴을 탐지합니다 (좌표는 소스 크기 기준).
+     * @param timestampMs 이미지를 찍은 프레임 시각 (재생이 추적 프레임과 같은 순서로 얼굴 기록을 넣도록)
+     */
+    public synchronized List<Face> detectFaces(PixelSource source, long timestampMs) {
+        // 원본 픽셀을 모델 입력 크기로 샘플링하면서 그레이스케일 UINT8 입력 버퍼에 바로 채움
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        int[] pixels = arena.getPixels(sourceWidth * sourceHeight);
+        source.readPixels(pixels);
+        preprocessor.process(pixels, sourceWidth, sourceHeight, arena.beginFrame());
 
         try {
-            Log.d(TAG, "모델 입력 텐서 타입: " + interpreter.getInputTensor(0).dataType());
-            Log.d(TAG, "모델 입력 텐서 형상: " + java.util.Arrays.toString(interpreter.getInputTensor(0).shape()));
-
-            // 모델의 실제 출력 형식에 맞게 출력 버퍼 준비 - 마지막 차원 추가
-            byte[][][][] outputHeatmap = new byte[1][60][80][1];  // 출력 텐서 #0: [1, 60, 80, 1]
-            byte[][][][] outputBoxes = new byte[1][60][80][4];    // 출력 텐서 #1: [1, 60, 80, 4]
-            byte[][][][] outputLandmarks = new byte[1][60][80][10]; // 출력 텐서 #2: [1, 60, 80, 10]
-
-            // 모델 실행을 위한 입출력 매핑
-            Map<Integer, Object> outputs = new HashMap<>();
-            outputs.put(0, outputHeatmap);
-            outputs.put(1, outputBoxes);
-            outputs.put(2, outputLandmarks);
-
             long startTime = System.currentTimeMillis();
-            interpreter.runForMultipleInputsOutputs(new Object[]{inputBuffer}, outputs);
+            interpreter.runForMultipleInputsOutputs(arena.getInputs(), arena.getOutputs());
             long endTime = System.currentTimeMillis();
             Log.d(TAG, "얼굴 탐지 추론 시간: " + (endTime - startTime) + "ms");
 
-            // 히트맵 및 박스 양자화 파라미터
-            float heatmapScale = interpreter.getOutputTensor(0).quantizationParams().getScale();
-            int heatmapZeroPoint = interpreter.getOutputTensor(0).quantizationParams().getZeroPoint();
-            float boxScale = interpreter.getOutputTensor(1).quantizationParams().getScale();
-            int boxZeroPoint = interpreter.getOutputTensor(1).quantizationParams().getZeroPoint();
-            Log.d(TAG, "heatmapScale : "+ heatmapScale);
-            Log.d(TAG, "heatmapZeroPoint : "+ heatmapZeroPoint);
-            Log.d(TAG, "boxScale : "+ boxScale);
-            Log.d(TAG, "boxZeroPoint : "+ boxZeroPoint);
-
-
-            if (heatmapScale == 0 || Float.isNaN(heatmapScale)) {
-                heatmapScale = 0.01f;
-                heatmapZeroPoint = 0;
+            // 히트맵 기반 얼굴 검출 후 중복 제거
+            int count = decoder.decode(outputHeatmap, outputBoxes, sourceWidth, sourceHeight, faces);
+            TensorRecorder recorder = this.recorder;
+            if (recorder != null) {
+                recorder.recordFaces(timestampMs, sourceWidth, sourceHeight,
+                        outputHeatmap, outputBoxes, faces);
             }
 
-            if (boxScale == 0 || Float.isNaN(boxScale)) {
-                boxScale = 0.01f;
-                boxZeroPoint = 0;
+            // 살아남은 후보만 Face 객체로 변환
+            List<Face> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(new Face(faces.getConfidence(i), faces.getLeft(i), faces.getTop(i),
+                        faces.getRight(i), faces.getBottom(i)));
             }
-
-            Log.d(TAG, "heatmapScale : "+ heatmapScale);
-            Log.d(TAG, "heatmapZeroPoint : "+ heatmapZeroPoint);
-            Log.d(TAG, "boxScale : "+ boxScale);
-            Log.d(TAG, "boxZeroPoint : "+ boxZeroPoint);
-
-
-            // 얼굴 탐지 결과를 저장할 리스트
-            List<Face> allFaces = new ArrayList<>();
-            float confidenceThreshold = 0.1f;
-
-            // 히트맵 기반 얼굴 검출 부분 수정
-            for (int y = 0; y < 60; y++) {
-                for (int x = 0; x < 80; x++) {
-                    // 히트맵 원시 값
-                      //
-                    float rawValue = outputHeatmap[0][y][x][0] & 0xFF;
-                    float score = (rawValue - heatmapZeroPoint) * heatmapScale;
-
-                    float minScore = (0 - heatmapZeroPoint) * heatmapScale;
-                    float maxScore = (255 - heatmapZeroPoint) * heatmapScale;
-
-                    float normalizedScore = (score - minScore) / (maxScore - minScore);
-
-//                    float score = (rawValue - heatmapZeroPoint) * heatmapScale;
-
-                    // Log.d(TAG, "rawValue : "+ rawValue + " -> score : "+score + "normalizedScore : "+normalizedScore);
-                    // 신뢰도 계산 - 원시 값이 heatmapZeroPoint보다 큰 경우만 고려
-                    if (normalizedScore > 0.8) {
-                        // 박스 오프셋 구하기
-                        float offsetX = ((outputBoxes[0][y][x][0] & 0xFF) - boxZeroPoint) * boxScale;
-                        float offsetY = ((outputBoxes[0][y][x][1] & 0xFF) - boxZeroPoint) * boxScale;
-                        float offsetW = ((outputBoxes[0][y][x][2] & 0xFF) - boxZeroPoint) * boxScale;
-                        float offsetH = ((outputBoxes[0][y][x][3] & 0xFF) - boxZeroPoint) * boxScale;
-
-                        // 중심점 계산 (그리드 위치 + 오프셋)
-                        float centerX = x/80.f;  // 그리드 위치를 0-1 범위로 정규화
-                        float centerY = y/60.f;
-
-                        // 너비와 높이 계산
-                        float width = offsetW / 80.0f;  // 너비도 0-1 범위로 정규화
-                        float height = offsetH / 60.0f;
-
-
-                        // 너비와 높이 계산
-                        float realwidth = width*bitmap.getWidth(); // 너비도 0-1 범위로 정규화
-                        float realheight = height * bitmap.getHeight();
-
-
-                        float left = Math.max(0, centerX - width/2) * bitmap.getWidth()    - (realwidth*0.7f);
-                        float top = Math.max(0, centerY - height/2) * bitmap.getHeight() - (realheight*0.7f);
-                        float right = Math.min(1, centerX + width/2) * bitmap.getWidth()+ (realwidth*0.7f);
-                        float bottom = Math.min(1, centerY + height/2) * bitmap.getHeight()+ (realheight*0.7f);
-
-                        // 박스가 유효한지 확인
-                        if (right > left && bottom > top) {
-                            Face face = new Face(normalizedScore, left, top, right, bottom);
-                            allFaces.add(face);
-                            Log.d(TAG, "얼굴 탐지: 신뢰도=" + normalizedScore + ", 좌표=" + left + "," + top + "," + right + "," + bottom);
-                        }
-                    }
-                }
-            }
-
-
-
-            // 중복 제거
-            return applyNMS(allFaces, 0.1f);
+            return result;
 
         } catch (Exception e) {
             Log.e(TAG, "모델 실행 중 오류 발생: " + e.getMessage(), e);
             e.printStackTrace();
             return new ArrayList<>();
-        } finally {
-            // 리사이즈된 비트맵 메모리 해제
-            if (resizedBitmap != null && resizedBitmap != bitmap) {
-                resizedBitmap.recycle();
-            }
         }
     }
 
 
 
     /**
-     * 중복 탐지 제거를 위한 NMS 적용
+     * 모델 입출력이 입력 버퍼와 그리드 디코드가 기대하는 형식인지 확인합니다.
      */
-    private List<Face> applyNMS(List<Face> faces, float iouThreshold) {
-        if (faces.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        // 신뢰도 기준으로 내림차순 정렬
-        List<Face> sortedFaces = new ArrayList<>(faces);
-        Collections.sort(sortedFaces, (f1, f2) -> Float.compare(f2.getConfidence(), f1.getConfidence()));
-
-        List<Face> selectedFaces = new ArrayList<>();
-        boolean[] isRemoved = new boolean[sortedFaces.size()];
-
-        for (int i = 0; i < sortedFaces.size(); i++) {
-            if (isRemoved[i]) continue;
-
-            Face current = sortedFaces.get(i);
-            selectedFaces.add(current);
-
-            for (int j = i + 1; j < sortedFaces.size(); j++) {
-                if (isRemoved[j]) continue;
-
-                Face next = sortedFaces.get(j);
-
-                // IoU 계산
-                float iou = calculateIoU(current, next);
-
-                // IoU가 임계값보다 크면 중복으로 간주하고 제거
-                if (iou > iouThreshold) {
-                    isRemoved[j] = true;
-                }
-            }
+    private static void validate(ModelDescriptor descriptor) {
+        descriptor.require(descriptor.getLayout() == ModelDescriptor.Layout.FACE_GRID,
+                "얼굴 그리드(히트맵/박스/랜드마크) 출력 형식이 아닙니다");
+        descriptor.require(descriptor.getInputCount() == 1
+                        && descriptor.getInput(0).numElements() == MODEL_WIDTH * MODEL_HEIGHT
+                        && descriptor.getInput(0).isUint8(),
+                "입력은 UINT8 " + MODEL_WIDTH + "x" + MODEL_HEIGHT + " 그레이스케일이어야 합니다");
+        descriptor.require(descriptor.getOutput(0).hasShape(1, GRID_HEIGHT, GRID_WIDTH, 1),
+                "히트맵은 [1, " + GRID_HEIGHT + ", " + GRID_WIDTH + ", 1] 이어야 합니다");
+        for (int i = 0; i < 3; i++) {
+            descriptor.require(descriptor.getOutput(i).isUint8(), "출력 #" + i + "는 UINT8 이어야 합니다");
         }
-
-        Log.d(TAG, "NMS 적용 전 얼굴 수: " + faces.size() + ", 적용 후: " + selectedFaces.size());
-        return selectedFaces;
-    }
-
-    /**
-     * 두 바운딩 박스 간의 IoU(Intersection over Union)를 계산합니다.
-     */
-    private float calculateIoU(Face f1, Face f2) {
-        // 겹치는 영역 계산
-        float xLeft = Math.max(f1.getLeft(), f2.getLeft());
-        float yTop = Math.max(f1.getTop(), f2.getTop());
-        float xRight = Math.min(f1.getRight(), f2.getRight());
-        float yBottom = Math.min(f1.getBottom(), f2.getBottom());
-
-        // 겹치는 영역이 없으면 0 반환
-        if (xRight < xLeft || yBottom < yTop) return 0;
-
-        float intersectionArea = (xRight - xLeft) * (yBottom - yTop);
-
-        // 각 바운딩 박스의 면적 계산
-        float f1Area = (f1.getRight() - f1.getLeft()) * (f1.getBottom() - f1.getTop());
-        float f2Area = (f2.getRight() - f2.getLeft()) * (f2.getBottom() - f2.getTop());
-
-        // IoU 계산
-        return intersectionArea / (f1Area + f2Area - intersectionArea);
-    }
-
-    /**
-     * 비트맵을 지정된 크기로 리사이즈합니다.
-     */
-    private Bitmap resizeBitmap(Bitmap bitmap, int width, int height) {
-        float scaleWidth = ((float) width) / bitmap.getWidth();
-        float scaleHeight = ((float) height) / bitmap.getHeight();
-        Matrix matrix = new Matrix();
-        matrix.postScale(scaleWidth, scaleHeight);
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, false);
     }
 
     /**
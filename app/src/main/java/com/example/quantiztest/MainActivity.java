@@ -7,6 +7,7 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.DashPathEffect;
+import android.graphics.ImageFormat;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.PorterDuff;
@@ -19,9 +20,12 @@ import android.hardware.camera2.CameraDevice;
 import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CaptureRequest;
 import android.hardware.camera2.params.StreamConfigurationMap;
+import android.media.Image;
+import android.media.ImageReader;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.HandlerThread;
+import android.os.SystemClock;
 import android.util.Base64;
 import android.util.Log;
 import android.util.Size;
@@ -45,17 +49,22 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.socket.client.IO;
 import io.socket.client.Socket;
@@ -67,19 +76,12 @@ import io.socket.client.Socket;
 public class MainActivity extends AppCompatActivity implements TextureView.SurfaceTextureListener {
     // 대각선 가상 선 관련 변수
     // 대각선 가상 선 관련 변수 부분에 추가
-    // 객체가 선의 위에 있었는지 여부를 저장하는 맵
-    private Map<Integer, Boolean> wasAboveLine;
-    private float virtualLineStartX, virtualLineStartY; // 가상 선의 시작점
-    private float virtualLineEndX, virtualLineEndY; // 가상 선의 끝점
-    private Map<Integer, Float> previousDistanceToLine; // 객체별 이전 선과의 거리
-    private Map<Integer, Long> lastEventTime; // 객체별 마지막 이벤트 발생 시간
+    // 가상 선과 선 교차 상태 (선 좌표와 판정은 core의 LineCrossingDetector)
+    // onCreate에서 한 번 만들고 그리기, 캡처 오버레이 스레드에서 읽음
+    private volatile LineCrossingDetector lineCrossing;
     private TextView tvEvent; // 이벤트 표시용 TextView
     private static final long EVENT_COOLDOWN = 1000; // 이벤트 쿨다운 시간 (밀리초)
 
-    // 대각선 가상 선 관련 변수 부분에 이전 위치 추적을 위한 맵 추가
-    private Map<Integer, Float> previousCenterX; // 객체별 이전 X 좌표
-    private Map<Integer, Float> previousCenterY; // 객체별 이전 Y 좌표
-
     // 로그 태그 상수 (디버깅 시 로그를 필터링하는 데 사용)
     private static final String TAG = "MainActivity";
     // 권한 요청 코드 (권한 요청 결과를 식별하는 데 사용)
@@ -87,6 +89,12 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
 
     private SimpleTracker tracker;
 
+    // 모델 출력 텐서 기록기 (서버의 tensorRecording 요청으로 켜고 끔, null이면 기록 안 함)
+    private volatile TensorRecorder tensorRecorder;
+    // 추적 단계, 그리기 단계가 마지막으로 본 기록기 (기록을 시작하는 프레임에서 트래커와 선 교차 상태를 기록에 남김)
+    private TensorRecorder trackingRecorder;
+    private TensorRecorder renderingRecorder;
+
     // TFLite 모델을 로드하고 관리하는 클래스 인스턴스
     private TFLiteLoader tfliteLoader;
     private TFLiteLoader tfliteLoaderface;
@@ -113,20 +121,52 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
     private Handler backgroundHandler;
     private HandlerThread backgroundThread;
     private Semaphore cameraOpenCloseLock = new Semaphore(1);
-    private boolean isProcessingFrame = false;
+
+    // 모델 입력용 카메라 프레임 (TextureView는 화면 표시에만 사용)
+    private static final int CAPTURE_WIDTH = 640;  // 모델 입력 크기에 가까운 캡처 해상도
+    private static final int CAPTURE_HEIGHT = 480;
+    private static final long FRAME_INTERVAL_MS = 50;  // 프레임 처리 최소 간격 (화면, 선 교차 갱신 주기)
+    private ImageReader imageReader;
+    private Size captureSize;
+    private int sensorOrientation;
+    private int frameRotation; // 카메라 프레임을 화면 방향으로 돌리는 각도
+    private boolean sensorTimestampRealtime; // 센서 캡처 시각이 elapsedRealtime 기준인지 (아니면 uptimeMillis 기준)
+    private HandlerThread captureThread;
+    private Handler captureHandler;
+    private final YuvConverter yuvConverter = new YuvConverter();
+    private long lastFrameTime = 0;
+    // 정지된 장면에서는 탐지기를 건너뛰도록 프레임 변화를 먼저 확인
+    private final MotionGate motionGate = new MotionGate();
+    // 탐지기는 2~4프레임마다 돌리고 사이 프레임은 트래커 외삽 (추론 횟수는 기존 100ms 주기 이하로 유지)
+    private static final int MIN_DETECTION_INTERVAL = 2;
+    private static final int MAX_DETECTION_INTERVAL = 4;
+    private final DetectionScheduler detectionScheduler =
+            DetectionScheduler.adaptive(MIN_DETECTION_INTERVAL, MAX_DETECTION_INTERVAL, FRAME_INTERVAL_MS);
+
+    // 카메라 프레임 파이프라인 (전처리 -> 추론 -> 디코드 -> 추적 -> 그리기 -> 전송, 단계마다 작업 스레드 하나)
+    private static final int PIPELINE_QUEUE_SIZE = 1; // 단계 앞 큐 크기 (가득 차면 가장 오래된 프레임을 버림, 추적 단계는 PASS_THROUGH_FIRST)
+    private static final int FRAME_POOL_SIZE = 14;    // 캡처 1 + 단계 6개 x (큐 1 + 처리 중 1) + 여유 1
+    private static final long SLOT_WAIT_MS = 50;      // 전처리 단계가 빈 입출력 슬롯을 기다리는 최대 시간
+    private static final long STATS_LOG_INTERVAL_MS = 5000;
+    private FramePipeline<CameraFrame> framePipeline;
+    private final ArrayBlockingQueue<CameraFrame> framePool = new ArrayBlockingQueue<>(FRAME_POOL_SIZE);
+    private volatile long captureDropCount = 0; // 재사용 프레임이 없어서 버린 캡처 수
+    private long lastStatsLogTime = 0;
+    // 추적 단계가 매 프레임 교체하는 최신 추적 결과 (소켓 요청은 추가 추론 없이 이 스냅샷으로 응답)
+    private final AtomicReference<TrackingSnapshot> latestSnapshot = new AtomicReference<>(TrackingSnapshot.EMPTY);
+    // 전송 전에 버려진 프레임의 사람 이벤트 (다음 전송 프레임에 합쳐서 보냄)
+    private final Set<Integer> pendingAppearedIds = new HashSet<>();
+    private final Set<Integer> pendingDisappearedIds = new HashSet<>();
     private boolean isCameraMode = false;
     //ip변경부분
     final String connectUrl="https://6678-49-170-80-119.ngrok-free.app";
     private Socket mSocket;
 
-    // 지금까지 본 모든 사람 ID들
-    private Map<Integer, Integer> personIdCountMap = new HashMap<>(); // 사람 ID와 미싱 카운트를 저장
-    private static final int DISAPPEARANCE_THRESHOLD = 10; // 약 2초 (100ms 간격으로 20프레임)
 
 
 
     // 키오스크 영역 관련 변수 (대각선 가상 선 관련 변수 아래 부분에 추가)
-    private float kioskLeft, kioskTop, kioskRight, kioskBottom; // 키오스크 영역 좌표
+    private KioskZone kioskZone; // 키오스크 영역 (640x640 기준)
     private boolean showKioskArea = true; // 키오스크 영역 표시 여부
 
 
@@ -134,10 +174,25 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
     private FaceDetector faceDetector;
 
 
-    // 사람 ID별 연속 탐지 횟수를 저장할 맵
-    private Map<Integer, Integer> personAppearanceCount = new HashMap<>();
     // 연속 탐지 필요 횟수 상수
     private static final int APPEARANCE_THRESHOLD = 10;
+    // 사람 확정, 선 교차, 키오스크 판정에 쓰는 최소 신뢰도
+    private static final float MIN_CONFIDENCE = 0.7f;
+    // 트래커를 갱신 중인 프레임 (생명주기 이벤트를 이 프레임의 사람 이벤트로 기록, 추적 단계 스레드만 사용)
+    private CameraFrame trackingFrame;
+    // 사람 객체가 확정되면 등장, 확정된 사람이 트래커에서 제거되면 사라짐
+    private final TrackListener personEventListener = (event, obj) -> {
+        if (trackingFrame == null || !obj.isPerson()) {
+            return;
+        }
+        if (event == TrackListener.Event.CONFIRMED) {
+            trackingFrame.appearedPersonIds.add(obj.getId());
+            Log.d("person", "새로 등장한 사람(" + APPEARANCE_THRESHOLD + "프레임 연속 감지): " + obj.getId());
+        } else if (event == TrackListener.Event.REMOVED && obj.isConfirmed()) {
+            trackingFrame.disappearedPersonIds.add(obj.getId());
+            Log.d("person", "실제로 사라진 사람: " + obj.getId());
+        }
+    };
 
 
 
@@ -169,33 +224,18 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         FrameLayout previewContainer = findViewById(R.id.previewContainer);
         previewContainer.addView(tvEvent);
 
-        // 이전 위치 맵 초기화
-        previousCenterX = new HashMap<>();
-        previousCenterY = new HashMap<>();
-
 
-        // wasAboveLine 초기화
-        wasAboveLine = new HashMap<>();
 // 대각선 가상 선 초기화 (640x640 기준)
 // 왼쪽 상단에서 오른쪽 하단으로 대각선
         // onCreate 메서드 내에서 선 초기화 부분 수정
 // 방향을 반대로 바꿈
-        virtualLineStartX = 640;
-        virtualLineStartY = 500;
-        virtualLineEndX = 0;
-        virtualLineEndY = 500;
+        lineCrossing = createLineCrossing();
 
 
         // 키오스크 영역 초기화 (640x640 기준)
-        kioskLeft = 30;
-        kioskTop = 370;
-        kioskRight = 100;
-        kioskBottom = 420;
+        kioskZone = new KioskZone(30, 370, 100, 420);
 
 
-// 객체 추적 맵 초기화
-        previousDistanceToLine = new HashMap<>();
-        lastEventTime = new HashMap<>();
 
 
 
@@ -231,7 +271,7 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         textureView.setSurfaceTextureListener(this);
 
         // 초기화 코드 아래에 추가
-        tracker = new SimpleTracker();
+        tracker = createTracker();
 
         // 초기 UI 상태 설정
         textureView.setVisibility(View.GONE);
@@ -252,8 +292,14 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             Log.i("yolo", "YOLONas TFLite 모델이 성공적으로 로드되었습니다.");
             Toast.makeText(this, "yolo 모델 로드 성공!", Toast.LENGTH_SHORT).show();
 
-            // 이미지 프로세서 초기화 - 로드된 인터프리터 전달
-            imageProcessor = new YoloImageProcessor(this, tfliteLoader.getTfliteInterpreter());
+            // 이미지 프로세서 초기화 - 로드된 인터프리터와 모델 정보 전달
+            try {
+                imageProcessor = new YoloImageProcessor(this, tfliteLoader.getTfliteInterpreter(),
+                        tfliteLoader.getModelDescriptor());
+            } catch (IllegalArgumentException e) {
+                Log.e(TAG, "YOLONas 모델 형식 오류: " + e.getMessage());
+                Toast.makeText(this, "yolo 모델 형식 오류!", Toast.LENGTH_SHORT).show();
+            }
         } else {
             // 모델 로드 실패 시 로그 출력 및 토스트 메시지 표시
             Log.e(TAG, "YOLONas TFLite 모델 로드에 실패했습니다.");
@@ -265,7 +311,13 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             Log.i("face", "Face TFLite 모델이 성공적으로 로드되었습니다.");
             Toast.makeText(this, "face 모델 로드 성공!", Toast.LENGTH_SHORT).show();
             // FaceDetector 초기화
-            faceDetector = new FaceDetector(this, tfliteLoaderface.getTfliteInterpreter());
+            try {
+                faceDetector = new FaceDetector(this, tfliteLoaderface.getTfliteInterpreter(),
+                        tfliteLoaderface.getModelDescriptor());
+            } catch (IllegalArgumentException e) {
+                Log.e("face", "Face 모델 형식 오류: " + e.getMessage());
+                Toast.makeText(this, "face 모델 형식 오류!", Toast.LENGTH_SHORT).show();
+            }
         } else {
             // 모델 로드 실패 시 로그 출력 및 토스트 메시지 표시
             Log.e("face", "Face TFLite 모델 로드에 실패했습니다.");
@@ -295,6 +347,24 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
 
 
 
+    /**
+     * 탐지 간격이 스케줄러와 프레임 드롭으로 달라지므로 실제 경과 시간으로 예측하는 칼만 필터 사용
+     * (설정을 바꾸면 텐서 기록의 recordConfig도 같이 바꿔야 재생 결과가 맞음)
+     */
+    private SimpleTracker createTracker() {
+        SimpleTracker tracker = new SimpleTracker(KalmanMotionModel.FACTORY);
+        tracker.setConfirmation(APPEARANCE_THRESHOLD, MIN_CONFIDENCE);
+        tracker.setListener(personEventListener);
+        tracker.setLogger(AndroidLogger.INSTANCE);
+        return tracker;
+    }
+
+    private LineCrossingDetector createLineCrossing() {
+        LineCrossingDetector detector = new LineCrossingDetector(640, 500, 0, 500, EVENT_COOLDOWN, MIN_CONFIDENCE);
+        detector.setLogger(AndroidLogger.INSTANCE);
+        return detector;
+    }
+
     //웹소켓
     private void setupSocket() {
         try {
@@ -343,6 +413,32 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             }
         });
 
+        // 서버에서 상품 카탈로그 업데이트 수신 (다음 프레임부터 적용)
+        mSocket.on("productCatalog", args -> {
+            try {
+                if (imageProcessor != null) {
+                    imageProcessor.updateProductCatalog(args[0].toString());
+                    Log.d("socket", "상품 카탈로그 업데이트 적용");
+                }
+            } catch (Exception e) {
+                Log.e("socket", "상품 카탈로그 업데이트 오류: " + e.getMessage());
+            }
+        });
+
+        // 서버에서 텐서 기록 켜기/끄기 ({"enabled": true}), 기록 파일은 앱 외부 저장소 tensorlogs 폴더
+        mSocket.on("tensorRecording", args -> {
+            try {
+                JSONObject data = new JSONObject(args[0].toString());
+                if (data.optBoolean("enabled", false)) {
+                    startTensorRecording();
+                } else {
+                    stopTensorRecording();
+                }
+            } catch (Exception e) {
+                Log.e("socket", "텐서 기록 요청 처리 오류: " + e.getMessage());
+            }
+        });
+
         //personFaceFind 배열로 받은 얼굴찾아주기
         // 요청 핸들러 수정
         mSocket.on("requestPersonFaceFind", args -> {
@@ -366,6 +462,46 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         });
     }
 
+    /**
+     * 모델 출력 텐서, 프레임 시각, 추적 결과 기록을 시작합니다 (core의 ReplayRunner로 재생).
+     * 다음 디코드 프레임부터 기록하고, 재생이 같은 상태에서 이어가도록 그 프레임에서 현재 트래커와 선 교차 상태를 먼저 남깁니다.
+     * 트래커와 선 교차 감지는 그대로 쓰므로 기록을 켜고 꺼도 객체 ID와 서버로 보내는 이벤트는 달라지지 않습니다.
+     */
+    private synchronized void startTensorRecording() {
+        if (tensorRecorder != null || imageProcessor == null) {
+            return;
+        }
+        File file = new File(getExternalFilesDir("tensorlogs"), "tensors-" + System.currentTimeMillis() + ".bin");
+        try {
+            TensorRecorder recorder = new TensorRecorder(new BufferedOutputStream(new FileOutputStream(file), 1 << 16),
+                    imageProcessor.getDescriptor(), imageProcessor.getLabels(),
+                    faceDetector != null ? faceDetector.getDescriptor() : null);
+            recorder.setLogger(AndroidLogger.INSTANCE);
+            recorder.recordConfig("kalman", APPEARANCE_THRESHOLD, MIN_CONFIDENCE, lineCrossing, kioskZone, MIN_CONFIDENCE);
+            if (faceDetector != null) {
+                faceDetector.setRecorder(recorder);
+            }
+            tensorRecorder = recorder;
+            Log.i(TAG, "텐서 기록 시작: " + file.getAbsolutePath());
+        } catch (IOException e) {
+            Log.e(TAG, "텐서 기록 파일 생성 오류: " + e.getMessage());
+        }
+    }
+
+    private synchronized void stopTensorRecording() {
+        TensorRecorder recorder = tensorRecorder;
+        if (recorder == null) {
+            return;
+        }
+        tensorRecorder = null;
+        if (faceDetector != null) {
+            faceDetector.setRecorder(null);
+        }
+        // 아직 파이프라인에 남은 프레임의 기록 호출은 닫힌 기록기에서 무시됨
+        recorder.close();
+        Log.i(TAG, "텐서 기록 종료");
+    }
+
     /**
      * 필요한 권한을 확인하고 없으면 요청하는 메서드
      */
@@ -419,26 +555,24 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             }
         }
     }
-    //1)이미지 전송
+    //1)이미지 전송 (프레임 파이프라인의 전송 단계 작업 스레드에서 호출)
     private void sendImageViaWebSocket(Bitmap bitmap) {
-        new Thread(() -> {
-            try {
-                String base64Image=tobase64(bitmap);
-                // 이미지 데이터 JSON 구성
-                JSONObject imageData = new JSONObject();
-                imageData.put("type", "image");
-                imageData.put("image", base64Image);
-                imageData.put("timestamp", System.currentTimeMillis());
+        try {
+            String base64Image=tobase64(bitmap);
+            // 이미지 데이터 JSON 구성
+            JSONObject imageData = new JSONObject();
+            imageData.put("type", "image");
+            imageData.put("image", base64Image);
+            imageData.put("timestamp", System.currentTimeMillis());
 
-                // 이미지 데이터 전송
+            // 이미지 데이터 전송
 
-                mSocket.emit("message", imageData.toString());//mSocket이용하여 데이터 전송
-                Log.d("socket","이미지 전송 완료");
-            } catch (Exception e) {
-                Log.e("socket", "웹소켓 이미지 전송 중 오류: " + e.getMessage());
-                e.printStackTrace(); // 상세 스택 트레이스 출력
-            }
-        }).start();
+            mSocket.emit("message", imageData.toString());//mSocket이용하여 데이터 전송
+            Log.d("socket","이미지 전송 완료");
+        } catch (Exception e) {
+            Log.e("socket", "웹소켓 이미지 전송 중 오류: " + e.getMessage());
+            e.printStackTrace(); // 상세 스택 트레이스 출력
+        }
     }
     //2)person이벤트전송 : (사람이 탐지될 때, 사람의 id를 전송하기)
     // 새로 등장한 사람 이벤트 전송
@@ -452,14 +586,14 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         // JPEG으로 압축 및 Base64 인코딩
         ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         resizedBitmap.compress(Bitmap.CompressFormat.JPEG, 70, byteArrayOutputStream);
-        long compressTime = System.currentTimeMillis();
         resizedBitmap.recycle(); // 리사이즈된 비트맵 메모리 해제
 
         byte[] byteArray = byteArrayOutputStream.toByteArray();
         String base64Image = Base64.encodeToString(byteArray, Base64.DEFAULT);
-        long encodeTime = System.currentTimeMillis();
-        Log.d("socket", "이미지 인코딩 완료 - 크기: " + byteArray.length + "바이트, 소요시간: " +
-                (encodeTime - compressTime) + "ms");
+        // 전송 프레임마다 문자열을 만들지 않도록 디버그 로그가 켜진 경우에만 (adb shell setprop log.tag.socket DEBUG)
+        if (Log.isLoggable("socket", Log.DEBUG)) {
+            Log.d("socket", "이미지 인코딩 완료 - 크기: " + byteArray.length + "바이트");
+        }
 
         return base64Image;
     }
@@ -537,7 +671,7 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         return colors[id % colors.length];
     }
     // 캔버스에 직접 바운딩 박스 그리기 메서드
-    private void drawBoundingBoxesOnCanvas(Canvas canvas, List<SimpleTracker.TrackedObject> trackedObjects) {
+    private void drawBoundingBoxesOnCanvas(Canvas canvas, List<TrackingSnapshot.Track> trackedObjects) {
         int canvasWidth = canvas.getWidth();
         int canvasHeight = canvas.getHeight();
 
@@ -557,7 +691,7 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         Paint textBackgroundPaint = new Paint();
         textBackgroundPaint.setAlpha(180);
 //사람이랑 컵만 인식하도록********************
-        for (SimpleTracker.TrackedObject obj : trackedObjects) {
+        for (TrackingSnapshot.Track obj : trackedObjects) {
             if (obj.getConfidence() >= 0.7f) {
                 // 객체 ID 기반으로 색상 선택
                 boxPaint.setColor(getColorForId(obj.getId()));
@@ -608,6 +742,14 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         backgroundThread = new HandlerThread("CameraBackground");
         backgroundThread.start();
         backgroundHandler = new Handler(backgroundThread.getLooper());
+
+        // 카메라 프레임 변환은 별도 스레드에서, 이후 처리는 파이프라인 작업 스레드에서
+        captureThread = new HandlerThread("CameraCapture");
+        captureThread.start();
+        captureHandler = new Handler(captureThread.getLooper());
+
+        framePipeline = createFramePipeline();
+        framePipeline.start();
     }
 
     /**
@@ -624,6 +766,20 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                 Log.e(TAG, "백그라운드 스레드 중지 중 오류: " + e.getMessage());
             }
         }
+        if (captureThread != null) {
+            captureThread.quitSafely();
+            try {
+                captureThread.join();
+                captureThread = null;
+                captureHandler = null;
+            } catch (InterruptedException e) {
+                Log.e(TAG, "캡처 스레드 중지 중 오류: " + e.getMessage());
+            }
+        }
+        if (framePipeline != null) {
+            framePipeline.stop();
+            framePipeline = null;
+        }
     }
 
     /**
@@ -672,7 +828,13 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                     StreamConfigurationMap map = characteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
                     if (map != null) {
                         imageDimension = map.getOutputSizes(SurfaceTexture.class)[0];
+                        captureSize = chooseCaptureSize(map.getOutputSizes(ImageFormat.YUV_420_888));
                     }
+                    Integer orientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
+                    sensorOrientation = orientation != null ? orientation : 0;
+                    Integer timestampSource = characteristics.get(CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE);
+                    sensorTimestampRealtime = timestampSource != null
+                            && timestampSource == CameraCharacteristics.SENSOR_INFO_TIMESTAMP_SOURCE_REALTIME;
                     break;
                 }
             }
@@ -732,12 +894,20 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             texture.setDefaultBufferSize(imageDimension.getWidth(), imageDimension.getHeight());
             Surface surface = new Surface(texture);
 
+            // 모델 입력용 YUV 프레임을 받을 ImageReader (프리뷰와 같은 세션에 연결)
+            Size frameSize = captureSize != null ? captureSize : new Size(CAPTURE_WIDTH, CAPTURE_HEIGHT);
+            imageReader = ImageReader.newInstance(frameSize.getWidth(), frameSize.getHeight(), ImageFormat.YUV_420_888, 2);
+            imageReader.setOnImageAvailableListener(frameAvailableListener, captureHandler);
+            Surface frameSurface = imageReader.getSurface();
+            frameRotation = (sensorOrientation - getWindowManager().getDefaultDisplay().getRotation() * 90 + 360) % 360;
+
             // 캡처 요청 빌더 생성
             captureRequestBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
             captureRequestBuilder.addTarget(surface);
+            captureRequestBuilder.addTarget(frameSurface);
 
             // 세션 생성
-            cameraDevice.createCaptureSession(Arrays.asList(surface), new CameraCaptureSession.StateCallback() {
+            cameraDevice.createCaptureSession(Arrays.asList(surface, frameSurface), new CameraCaptureSession.StateCallback() {
                 @Override
                 public void onConfigured(@NonNull CameraCaptureSession session) {
                     if (cameraDevice == null) {
@@ -772,330 +942,532 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             cameraCaptureSession.setRepeatingRequest(
                     captureRequestBuilder.build(), null, backgroundHandler);
 
-            // 일정 간격으로 프레임 처리
-            backgroundHandler.post(new Runnable() {
-                @Override
-                public void run() {
-                    //계속해서 카메라결과를 보낸다.
-                    if (isCameraMode && !isProcessingFrame) {
-                        isProcessingFrame = true;
-
-                        runOnUiThread(() -> {
-                            if (textureView.isAvailable()) {
-                                Bitmap bitmap = textureView.getBitmap();
-                                if (bitmap != null) {
-
-
-                                    // 객체 탐지 수행 - 결과만 가져오고 따로 그리진 않음
-                                    processFrameForOverlay(bitmap);
-
-
-                                } else {
-                                    isProcessingFrame = false;
-                                }
-                            } else {
-                                isProcessingFrame = false;
-                            }
-                        });
-                    }
-
-                    // 다음 프레임 처리 예약 (더 짧은 간격으로 처리 가능)
-                    if (backgroundHandler != null) {
-                        backgroundHandler.postDelayed(this, 100); // 100ms 간격으로 수정
-                    }
-                }
-            });
-
+            // 프레임 처리는 ImageReader 콜백(frameAvailableListener)에서 수행
         } catch (CameraAccessException e) {
             Log.e(TAG, "카메라 프리뷰 업데이트 중 오류: " + e.getMessage());
         }
     }
 
-    private void processFrameForOverlay(Bitmap bitmap) {
-        if (imageProcessor != null) {
-            new Thread(() -> {
-                // 객체 탐지 및 추적 수행
-
-                long startTime = System.currentTimeMillis();
-
-
+    /**
+     * ImageReader 프레임 콜백 (캡처 스레드에서 호출)
+     * 가장 최근 프레임만 가져와 재사용 프레임에 회전을 적용한 ARGB로 변환하고 바로 닫은 뒤 파이프라인에 넘깁니다.
+     */
+    private final ImageReader.OnImageAvailableListener frameAvailableListener = new ImageReader.OnImageAvailableListener() {
+        @Override
+        public void onImageAvailable(ImageReader reader) {
+            Image image = reader.acquireLatestImage();
+            if (image == null) {
+                return;
+            }
+            // 센서 캡처 시각 (단조 증가, 시스템 시각 변경이나 콜백 지연의 영향을 받지 않음)
+            // 트래커의 속도, 예측, 만료는 모두 이 시각 사이의 경과 시간으로 계산
+            long now = image.getTimestamp() / 1_000_000L;
+            // stopCamera가 필드를 비워도 확인한 파이프라인에 넣도록 한 번만 읽음
+            FramePipeline<CameraFrame> pipeline = framePipeline;
+            CameraFrame frame = null;
+            try {
+                if (!isCameraMode || imageProcessor == null || pipeline == null
+                        || now - lastFrameTime < FRAME_INTERVAL_MS || !textureView.isAvailable()) {
+                    return;
+                }
+                frame = framePool.poll();
+                if (frame == null) {
+                    captureDropCount++;
+                    return;
+                }
+                lastFrameTime = now;
+                int width = YuvConverter.outputWidth(image.getWidth(), image.getHeight(), frameRotation);
+                int height = YuvConverter.outputHeight(image.getWidth(), image.getHeight(), frameRotation);
+                yuvConverter.convert(image, frameRotation, frame.preparePixels(width, height));
+                frame.viewWidth = textureView.getWidth();
+                frame.viewHeight = textureView.getHeight();
+                frame.timestamp = now;
+                if (!detectionScheduler.nextFrame()) {
+                    frame.trackMode = CameraFrame.TrackMode.EXTRAPOLATE;
+                } else if (!motionGate.update(frame.pixels, width, height, frame.motion)) {
+                    frame.trackMode = CameraFrame.TrackMode.HOLD;
+                }
+            } catch (RuntimeException e) {
+                // 변환에 실패한 프레임은 풀로 돌려보냄 (돌려보내지 않으면 풀이 비어서 캡처가 멈춤)
+                Log.e(TAG, "카메라 프레임 변환 오류: " + e.getMessage(), e);
+                if (frame != null) {
+                    frame.reset();
+                    framePool.offer(frame);
+                }
+                return;
+            } finally {
+                image.close();
+            }
 
+            pipeline.submit(frame);
+
+            if (now - lastStatsLogTime >= STATS_LOG_INTERVAL_MS) {
+                lastStatsLogTime = now;
+                List<FramePipeline.StageStats> stats = getPipelineStats();
+                Log.d(TAG, "프레임 파이프라인 - 캡처 버림: " + captureDropCount + ", 단계: " + stats);
+                double detectMillis = getDetectMillisPerFrame(stats);
+                Log.d(TAG, "움직임 게이트 - 탐지 건너뜀: " + motionGate.getFramesSkipped() + "/" + motionGate.getFramesChecked()
+                        + ", 절약 추정: " + Math.round(motionGate.getFramesSkipped() * detectMillis) + "ms"
+                        + ", 게이트 평균: " + String.format("%.2f", motionGate.getAverageCheckMillis()) + "ms");
+                Log.d(TAG, "탐지 스케줄 - 간격: " + detectionScheduler.getInterval()
+                        + ", 외삽 프레임: " + detectionScheduler.getFramesExtrapolated()
+                        + ", 절약 추정: " + Math.round(detectionScheduler.getFramesExtrapolated() * detectMillis) + "ms");
+            }
+        }
+    };
 
+    /**
+     * 프레임 시각(센서 캡처 시각)과 같은 기준의 현재 시각
+     */
+    private long frameClockNowMs() {
+        return sensorTimestampRealtime ? SystemClock.elapsedRealtime() : SystemClock.uptimeMillis();
+    }
 
+    /**
+     * 탐지 한 번에 드는 탐지 단계(전처리 + 추론 + 디코드) 평균 시간
+     * 건너뛰거나 외삽한 프레임은 탐지 단계에 들어가지 않으므로 평균 시간에 섞이지 않습니다.
+     * 건너뛴 프레임 수 x 이 값으로 아낀 연산 시간을 추정합니다.
+     */
+    private double getDetectMillisPerFrame(List<FramePipeline.StageStats> stats) {
+        double detectMillis = 0;
+        for (FramePipeline.StageStats stage : stats) {
+            if ("preprocess".equals(stage.name) || "infer".equals(stage.name) || "decode".equals(stage.name)) {
+                detectMillis += stage.averageMillis;
+            }
+        }
+        return detectMillis;
+    }
 
-                final List<SimpleTracker.TrackedObject> trackedObjects;
-                List<YoloImageProcessor.Detection> detections;
-                synchronized (imageLock){
-                    long anlstartTime = System.currentTimeMillis();
-                    detections=imageProcessor.processImage(bitmap);
-                    long anlendTime = System.currentTimeMillis();
-                    Log.i("worktime","imageProcessor processImage 작업시간 : "+(anlendTime-anlstartTime));
+    public MotionGate getMotionGate() {
+        return motionGate;
+    }
 
-                    long anlstartTime2 = System.currentTimeMillis();
-                    trackedObjects = tracker.update(detections);
-                    long anlendTime2 = System.currentTimeMillis();
-                    Log.i("worktime","tracker update 작업시간 : "+(anlendTime2-anlstartTime2));
-                }
+    public DetectionScheduler getDetectionScheduler() {
+        return detectionScheduler;
+    }
 
+    /**
+     * 가장 최근 추적 결과 (어느 스레드에서든 잠금 없이 읽을 수 있음)
+     */
+    public TrackingSnapshot getLatestSnapshot() {
+        return latestSnapshot.get();
+    }
 
+    /**
+     * 단계별 큐 길이, 버린 프레임 수, 평균 처리 시간
+     */
+    public List<FramePipeline.StageStats> getPipelineStats() {
+        FramePipeline<CameraFrame> pipeline = framePipeline;
+        return pipeline != null ? pipeline.getStats() : new ArrayList<FramePipeline.StageStats>();
+    }
 
+    public long getCaptureDropCount() {
+        return captureDropCount;
+    }
 
-                Bitmap workingCopy = bitmap.copy(bitmap.getConfig(), true);
-                final Bitmap resultBitmap = drawDetectionsDirectly(workingCopy, trackedObjects);
+    // 추적 단계 큐가 가득 차면 탐지기를 돌리지 않은 유지/외삽 프레임부터 버림
+    // (외삽 프레임이 대기 중인 탐지 결과를 밀어내면 탐지 결과를 잃고 다음 프레임에서 다시 탐지를 요청하게 됨)
+    private static final FrameQueue.DropPolicy<CameraFrame> PASS_THROUGH_FIRST = frame -> !frame.runsDetector();
 
+    // 유지/외삽 프레임은 탐지 단계를 건너뛰고 추적 단계로 바로 가서, 추론이 밀려 있어도 추적, 오버레이, 선 교차가 계속 돌아감
+    // 추적 단계 큐는 캡처 시각 순이고, 이미 추적한 탐지보다 오래된 외삽 프레임은 추적하지 않음
+    private static final FramePipeline.Bypass<CameraFrame> DETECTOR_BYPASS = new FramePipeline.Bypass<CameraFrame>() {
+        @Override
+        public boolean bypasses(CameraFrame frame) {
+            return !frame.runsDetector();
+        }
 
-                sendImageViaWebSocket(resultBitmap);
+        @Override
+        public long orderKey(CameraFrame frame) {
+            return frame.timestamp;
+        }
+    };
 
-                // 현재 프레임에서 감지된 사람 ID 수집
-                Set<Integer> currentPersonIds = new HashSet<>();
-                for (SimpleTracker.TrackedObject obj : trackedObjects) {
-                    if (obj.getConfidence() >= 0.7f && "person".equals(obj.getLabel())) {
-                        currentPersonIds.add(obj.getId());
+    /**
+     * 카메라 프레임 파이프라인 구성
+     * 각 단계는 자기 작업 스레드에서 순서대로 실행되고, 처리가 끝나거나 버려진 프레임은 풀로 돌아갑니다.
+     */
+    private FramePipeline<CameraFrame> createFramePipeline() {
+        if (framePool.isEmpty()) {
+            for (int i = 0; i < FRAME_POOL_SIZE; i++) {
+                framePool.offer(new CameraFrame());
+            }
+        }
+        return new FramePipeline<>("Frame", new FramePipeline.Callback<CameraFrame>() {
+            @Override
+            public void recycle(CameraFrame frame, boolean completed) {
+                // 디코드 전에 버려진 프레임이 잡고 있던 입출력 슬롯 반환
+                if (frame.slot != null) {
+                    imageProcessor.releaseSlot(frame.slot);
+                    frame.slot = null;
+                }
+                if (frame.runsDetector() && !frame.decoded) {
+                    // 탐지하기로 한 프레임이 탐지 전에 버려졌으면 다음 프레임에서 바로 탐지
+                    // (버려진 프레임이 움직임 게이트의 기준이 되었으므로 게이트도 다음 프레임은 비교 없이 통과)
+                    detectionScheduler.requestDetection();
+                    motionGate.forceNext();
+                }
+                if (!completed && frame.hasPersonEvents()) {
+                    // 전송되지 못한 사람 이벤트는 다음 전송 프레임으로 넘김
+                    synchronized (pendingAppearedIds) {
+                        pendingAppearedIds.addAll(frame.appearedPersonIds);
+                        pendingDisappearedIds.addAll(frame.disappearedPersonIds);
                     }
                 }
+                frame.reset();
+                framePool.offer(frame);
+            }
 
-                // 로깅
-                Log.d("person", "현재 프레임 사람들: " + currentPersonIds);
-                Log.d("person", "기존 관리 중인 사람들: " + personIdCountMap.keySet());
-                Log.d("person", "등장 카운트 중인 사람들: " + personAppearanceCount.keySet());
+            @Override
+            public void onError(String stage, Throwable error) {
+                Log.e(TAG, "프레임 파이프라인 " + stage + " 단계 오류: " + error.getMessage(), error);
+            }
+        })
+                .addStage("preprocess", PIPELINE_QUEUE_SIZE, this::preprocessFrame)
+                .addStage("infer", PIPELINE_QUEUE_SIZE, this::inferFrame)
+                .addStage("decode", PIPELINE_QUEUE_SIZE, this::decodeFrame)
+                .addMergeStage("track", PIPELINE_QUEUE_SIZE, this::trackFrame, PASS_THROUGH_FIRST, DETECTOR_BYPASS)
+                .addStage("render", PIPELINE_QUEUE_SIZE, this::renderFrame)
+                .addStage("publish", PIPELINE_QUEUE_SIZE, this::publishFrame);
+    }
 
-                // 각 ID별 연속 탐지 횟수 업데이트
-                Set<Integer> confirmedNewPersons = new HashSet<>();
+    /**
+     * 전처리 단계: 빈 입출력 슬롯을 잡고 프레임을 슬롯의 입력 버퍼에 채웁니다.
+     * 슬롯이 여러 개라서 앞 프레임이 추론, 디코드 중이어도 다음 프레임을 미리 준비할 수 있습니다.
+     */
+    private boolean preprocessFrame(CameraFrame frame) throws InterruptedException {
+        // 움직임이 없거나 탐지 차례가 아닌 프레임은 이 단계부터 디코드까지 오지 않음 (DETECTOR_BYPASS)
+        YoloImageProcessor processor = imageProcessor;
+        if (processor == null) {
+            return false;
+        }
+        frame.slot = processor.acquireSlot(SLOT_WAIT_MS);
+        if (frame.slot == null) {
+            // 모든 슬롯이 사용 중이면 이 프레임은 버림
+            return false;
+        }
+        processor.preprocess(frame.slot, frame.pixels, frame.width, frame.height);
+        return true;
+    }
 
-                // 현재 프레임에 있는 ID들의 카운트 증가
-                for (Integer id : currentPersonIds) {
-                    // 이미 등록된 사람은 처리하지 않음
-                    if (personIdCountMap.containsKey(id)) {
-                        // 기존에 있던 사람은 카운트 초기화
-                        personIdCountMap.put(id, 0);
-                    } else {
-                        // 새로운 사람 - 연속 탐지 횟수 증가
-                        int appearCount = personAppearanceCount.getOrDefault(id, 0) + 1;
-                        personAppearanceCount.put(id, appearCount);
-
-                        // 연속 탐지 임계값 도달 시 확정
-                        if (appearCount >= APPEARANCE_THRESHOLD) {
-                            confirmedNewPersons.add(id);
-                            // 확정된 사람은 관리 맵에 추가
-                            personIdCountMap.put(id, 0);
-                            // 연속 탐지 맵에서는 제거
-                            personAppearanceCount.remove(id);
-                        }
-                    }
-                }
+    /**
+     * 추론 단계: 인터프리터 실행 (가장 느린 단계, 앞뒤 단계는 다른 슬롯으로 동시에 진행)
+     */
+    private boolean inferFrame(CameraFrame frame) {
+        // 단계별 시간은 FramePipeline.StageStats로 주기적으로 남김 (프레임마다 로그 문자열을 만들지 않음)
+        imageProcessor.infer(frame.slot);
+        return true;
+    }
 
-                // 이전 프레임에서 탐지되었으나 현재 프레임에 없는 ID의 연속 탐지 카운트 리셋
-                Iterator<Map.Entry<Integer, Integer>> appearanceIterator = personAppearanceCount.entrySet().iterator();
-                while (appearanceIterator.hasNext()) {
-                    Map.Entry<Integer, Integer> entry = appearanceIterator.next();
-                    if (!currentPersonIds.contains(entry.getKey())) {
-                        // 연속성이 끊겼으므로 제거
-                        appearanceIterator.remove();
-                        Log.d("person", "ID " + entry.getKey() + " 연속 탐지 끊어짐, 카운트 리셋");
-                    }
-                }
+    /**
+     * 디코드 단계: 디코드와 NMS 결과를 프레임에 채우고 슬롯을 돌려놓은 뒤, 뷰 좌표로 바꿉니다.
+     */
+    private boolean decodeFrame(CameraFrame frame) {
+        // 기록 여부는 여기서 정하고 추적, 그리기 단계도 같은 기록기를 씀 (탐지하지 않는 프레임은 추적 단계에서 정함)
+        frame.recorder = tensorRecorder;
+        imageProcessor.decode(frame.slot, frame.detections);
+        if (frame.recorder != null) {
+            // 슬롯은 다음 프레임이 다시 쓰므로 출력 텐서를 프레임에 복사해 둠 (추적 단계에서 기록)
+            frame.capture.copy(frame.slot.outputBuffers, frame.slot.transform, frame.slot.catalog);
+        }
+        imageProcessor.releaseSlot(frame.slot);
+        frame.slot = null;
+        frame.decoded = true;
+        // 프레임 좌표를 트래커가 쓰는 화면(TextureView) 좌표로 변환 (프리뷰는 뷰 크기로 늘려서 표시됨)
+        FrameTransform.stretch(frame.viewWidth, frame.viewHeight, frame.width, frame.height).mapToSource(frame.detections);
+        return true;
+    }
 
-                // 새 사람 등장 이벤트 발생 (수정된 코드)
-                if (!confirmedNewPersons.isEmpty()) {
-                    sendPersonAppearanceEvent(confirmedNewPersons, resultBitmap);
-                    Log.d("person", "새로 등장한 사람들(3프레임 연속 감지): " + confirmedNewPersons);
+    /**
+     * 추적 단계: 트래커를 갱신하고 사람 등장/사라짐을 판단합니다. 탐지 단계를 건너뛴 유지/외삽 프레임도 여기서 합류합니다.
+     */
+    private boolean trackFrame(CameraFrame frame) {
+        final List<SimpleTracker.TrackedObject> trackedObjects;
+        if (!frame.runsDetector()) {
+            frame.recorder = tensorRecorder;
+        }
+        TensorRecorder recorder = frame.recorder;
+        trackingFrame = frame;
+        synchronized (imageLock){
+            if (recorder != trackingRecorder) {
+                trackingRecorder = recorder;
+                if (recorder != null) {
+                    // 기록의 첫 프레임 전에 현재 트래커 상태를 남김 (재생이 같은 ID와 움직임 상태에서 이어감)
+                    recorder.recordTrackerState(tracker);
                 }
+            }
+            switch (frame.trackMode) {
+                case EXTRAPOLATE:
+                    trackedObjects = tracker.extrapolate(frame.timestamp);
+                    break;
+                case HOLD:
+                    trackedObjects = tracker.hold(frame.motion, frame.viewWidth, frame.viewHeight, frame.timestamp);
+                    break;
+                default:
+                    trackedObjects = tracker.update(frame.detections, frame.timestamp);
+                    detectionScheduler.onTracksUpdated(trackedObjects);
+                    break;
+            }
+        }
+        trackingFrame = null;
+        if (recorder != null) {
+            recordFrame(recorder, frame, trackedObjects);
+        }
 
-                // 현재 프레임에 없는 사람 처리 (카운트 증가)
-                Set<Integer> missingPersons = new HashSet<>(personIdCountMap.keySet());
-                missingPersons.removeAll(currentPersonIds);
+        // 스냅샷 발행: 탐지한 프레임만 이미지를 복사하고, 나머지는 이전 이미지를 그대로 씀 (추적 단계 스레드만 교체)
+        TrackingSnapshot.FrameImage frameImage = frame.trackMode == CameraFrame.TrackMode.DETECT
+                ? TrackingSnapshot.copyFrame(frame.pixels, frame.width, frame.height, frame.timestamp)
+                : null;
+        TrackingSnapshot snapshot = latestSnapshot.get().next(trackedObjects, frame.timestamp,
+                frame.viewWidth, frame.viewHeight, frameImage);
+        latestSnapshot.set(snapshot);
+        frame.snapshot = snapshot;
 
-                // 사라진 사람들의 카운트 증가
-                for (Integer id : missingPersons) {
-                    int count = personIdCountMap.get(id);
-                    count++;
-                    personIdCountMap.put(id, count);
-                    Log.d("person", "사람 ID " + id + " 사라짐 카운트 증가: " + count);
-                }
+        // 사람 등장/사라짐은 트래커 갱신 중에 personEventListener가 이 프레임에 기록함 (전송 단계에서 이미지와 함께 보냄)
+        return true;
+    }
 
-                // 임계값 초과한 사람 확인 (실제로 사라진 사람)
-                Set<Integer> actuallyDisappeared = new HashSet<>();
-                for (Map.Entry<Integer, Integer> entry : personIdCountMap.entrySet()) {
-                    if (entry.getValue() >= DISAPPEARANCE_THRESHOLD) {
-                        actuallyDisappeared.add(entry.getKey());
-                    }
-                }
+    /**
+     * 이번 프레임의 트래커 입력(출력 텐서 또는 움직임 마스크)과 추적 결과를 기록합니다.
+     */
+    private void recordFrame(TensorRecorder recorder, CameraFrame frame,
+                             List<SimpleTracker.TrackedObject> trackedObjects) {
+        switch (frame.trackMode) {
+            case EXTRAPOLATE:
+                recorder.recordExtrapolateFrame(frame.timestamp, frame.viewWidth, frame.viewHeight);
+                break;
+            case HOLD:
+                recorder.recordHoldFrame(frame.timestamp, frame.viewWidth, frame.viewHeight, frame.motion);
+                break;
+            default:
+                recorder.recordDetectFrame(frame.timestamp, frame.width, frame.height,
+                        frame.viewWidth, frame.viewHeight, frame.capture);
+                break;
+        }
+        recorder.recordTracks(frame.timestamp, trackedObjects);
+    }
 
-                // 사라짐 이벤트 발생 및 목록에서 제거
-                if (!actuallyDisappeared.isEmpty()) {
-                    sendPersonDisappearanceEvent(actuallyDisappeared);
-                    Log.d("person", "실제로 사라진 사람들: " + actuallyDisappeared);
+    /**
+     * 그리기 단계: 오버레이와 결과 텍스트를 갱신합니다.
+     */
+    private boolean renderFrame(CameraFrame frame) {
+        final List<TrackingSnapshot.Track> trackedObjects = frame.snapshot.getTracks();
+        if (frame.recorder != renderingRecorder) {
+            renderingRecorder = frame.recorder;
+            if (renderingRecorder != null) {
+                // 트래커와 같이 선 교차 상태(쿨다운 포함)도 기록의 첫 그리기 전에 남김
+                renderingRecorder.recordLineState(lineCrossing);
+            }
+        }
 
-                    // 사라진 사람은 목록에서 제거
-                    for (Integer id : actuallyDisappeared) {
-                        personIdCountMap.remove(id);
-                    }
-                }
+        // 오버레이 업데이트
+        renderingFrame = frame;
+        updateCameraOverlay(trackedObjects);
+        renderingFrame = null;
 
-                // 오버레이 업데이트 (원본 비트맵은 변경하지 않음)
-                updateCameraOverlay(trackedObjects);
+        // 결과 텍스트 업데이트
+        runOnUiThread(() -> {
+            if (trackedObjects.isEmpty()) {
+                tvResult.setText("객체를 찾을 수 없습니다.");
+            } else {
+                // 결과 텍스트 구성
+                StringBuilder resultTextBuilder = new StringBuilder();
+                resultTextBuilder.append("추적 중인 객체: ").append(trackedObjects.size()).append("개\n");
 
-                // 결과 텍스트 업데이트
-                runOnUiThread(() -> {
-                    if (trackedObjects.isEmpty()) {
-                        tvResult.setText("객체를 찾을 수 없습니다.");
-                    } else {
-                        // 결과 텍스트 구성
-                        StringBuilder resultTextBuilder = new StringBuilder();
-                        resultTextBuilder.append("추적 중인 객체: ").append(trackedObjects.size()).append("개\n");
-
-                        for (SimpleTracker.TrackedObject obj : trackedObjects) {
-                            if (obj.getConfidence() >= 0.7f) {
-                                resultTextBuilder.append("ID ").append(obj.getId())
-                                        .append(": ").append(obj.getLabel())
-                                        .append(" (").append(String.format("%.1f", obj.getConfidence() * 100))
-                                        .append("%)\n");
-                            }
-                        }
-                        tvResult.setText(resultTextBuilder.toString());
+                for (TrackingSnapshot.Track obj : trackedObjects) {
+                    if (obj.getConfidence() >= 0.7f) {
+                        resultTextBuilder.append("ID ").append(obj.getId())
+                                .append(": ").append(obj.getLabel())
+                                .append(" (").append(String.format("%.1f", obj.getConfidence() * 100))
+                                .append("%)\n");
                     }
+                }
+                tvResult.setText(resultTextBuilder.toString());
+            }
 
-                    // 다음 프레임 처리 가능하도록 플래그 설정
-                    isProcessingFrame = false;
+            // 이미지뷰는 표시하지 않고, 텍스처뷰와 오버레이만 표시
+            textureView.setVisibility(View.VISIBLE);
+            overlayView.setVisibility(View.VISIBLE);
+            imageView.setVisibility(View.GONE);
+        });
 
-                    // 이미지뷰는 표시하지 않고, 텍스처뷰와 오버레이만 표시
-                    textureView.setVisibility(View.VISIBLE);
-                    overlayView.setVisibility(View.VISIBLE);
-                    imageView.setVisibility(View.GONE);
-                });
+        return true;
+    }
 
-                // 처리 후 비트맵 해제
-                bitmap.recycle();
+    /**
+     * 전송 단계: 박스를 그린 프레임 이미지와 사람 이벤트를 서버로 보냅니다.
+     */
+    private boolean publishFrame(CameraFrame frame) {
+        // 앞에서 버려진 프레임의 사람 이벤트도 함께 전송
+        synchronized (pendingAppearedIds) {
+            frame.appearedPersonIds.addAll(pendingAppearedIds);
+            frame.disappearedPersonIds.addAll(pendingDisappearedIds);
+            pendingAppearedIds.clear();
+            pendingDisappearedIds.clear();
+        }
 
-                long endTime = System.currentTimeMillis();
-                Log.i("worktime","작업시간 : "+(endTime-startTime));
+        // 서버 이미지는 탐지 주기로만 보냄 (외삽 프레임은 화면 표시용)
+        if (frame.trackMode == CameraFrame.TrackMode.EXTRAPOLATE && !frame.hasPersonEvents()) {
+            return true;
+        }
 
+        // 서버 전송용 이미지는 캡처 해상도 프레임에 그림
+        Bitmap bitmap = Bitmap.createBitmap(frame.width, frame.height, Bitmap.Config.ARGB_8888);
+        bitmap.setPixels(frame.pixels, 0, frame.width, 0, 0, frame.width, frame.height);
+        Bitmap resultBitmap = drawDetectionsDirectly(bitmap, frame.snapshot.getTracks(),
+                (float) frame.width / frame.viewWidth, (float) frame.height / frame.viewHeight);
+        bitmap.recycle();
 
-            }).start();
-        } else {
-            isProcessingFrame = false;
+        sendImageViaWebSocket(resultBitmap);
+        if (!frame.appearedPersonIds.isEmpty()) {
+            sendPersonAppearanceEvent(new HashSet<>(frame.appearedPersonIds), resultBitmap);
+        }
+        if (!frame.disappearedPersonIds.isEmpty()) {
+            sendPersonDisappearanceEvent(new HashSet<>(frame.disappearedPersonIds));
+        }
+        resultBitmap.recycle();
+        return true;
+    }
+
+    /**
+     * 모델 입력 크기에 가장 가까운 YUV 캡처 해상도를 고릅니다 (CAPTURE_WIDTH x CAPTURE_HEIGHT 이상 중 가장 작은 크기).
+     */
+    private static Size chooseCaptureSize(Size[] sizes) {
+        if (sizes == null || sizes.length == 0) {
+            return null;
         }
+        Size best = null;
+        for (Size size : sizes) {
+            if (size.getWidth() >= CAPTURE_WIDTH && size.getHeight() >= CAPTURE_HEIGHT
+                    && (best == null || size.getWidth() * size.getHeight() < best.getWidth() * best.getHeight())) {
+                best = size;
+            }
+        }
+        return best != null ? best : sizes[0];
     }
+
     private void captureAndSendNewFaces(List<Integer> newPersonIds) {
+        // 얼굴 탐지만 별도 스레드에서 수행 (객체 탐지, 트래커 갱신은 다시 하지 않고 최신 스냅샷 사용)
         new Thread(() -> {
+            Bitmap currentBitmap = null;
             try {
                 Log.i("capture","캡처요청"+newPersonIds);
-                // 최신 프레임을 기다림
-                Thread.sleep(100);
-                runOnUiThread(() -> {
-                    Map<Integer, String> faceInfo = new HashMap<>();
-                    Bitmap currentBitmap = textureView.getBitmap();
-
-                    // 객체 탐지 및 얼굴 감지 수행
-                    List<FaceDetector.Face> faces = faceDetector.detectFaces(currentBitmap);
-
-                    List<YoloImageProcessor.Detection> detections;
-                    synchronized (imageLock){
-                        detections=imageProcessor.processImage(currentBitmap);
+                TrackingSnapshot snapshot = latestSnapshot.get();
+                TrackingSnapshot.FrameImage frameImage = snapshot.getFrame();
+                if (frameImage == null) {
+                    Log.d("face", "아직 탐지한 프레임이 없습니다.");
+                    sendEmptyFaceInfo(newPersonIds);
+                    return;
+                }
+
+                Map<Integer, String> faceInfo = new HashMap<>();
+                currentBitmap = Bitmap.createBitmap(frameImage.getPixels(), frameImage.getWidth(),
+                        frameImage.getHeight(), Bitmap.Config.ARGB_8888);
+                // 얼굴은 프레임 좌표, 추적 객체는 뷰 좌표이므로 비교할 때 뷰 좌표로 변환
+                FrameTransform frameToView = FrameTransform.stretch(snapshot.getCoordWidth(), snapshot.getCoordHeight(),
+                        frameImage.getWidth(), frameImage.getHeight());
+
+                // 얼굴 감지 수행
+                List<FaceDetector.Face> faces = faceDetector.detectFaces(currentBitmap, frameImage.getTimestamp());
+
+                if (faces.isEmpty()) {
+                    Log.d("face", "프레임에서 얼굴을 찾을 수 없습니다.");
+                    // 얼굴이 없더라도 null 값으로 응답 전송
+                    sendEmptyFaceInfo(newPersonIds);
+                    return;
+                }
+
+                // 각 새 사람 ID에 대해 처리
+                for (Integer personId : newPersonIds) {
+                    // 해당 ID를 가진 사람 객체 찾기
+                    TrackingSnapshot.Track personObject = snapshot.findTrack(personId);
+                    if (personObject != null && !personObject.isPerson()) {
+                        personObject = null;
                     }
-                    final List<SimpleTracker.TrackedObject> trackedObjects = tracker.update(detections);
 
-                    if (faces.isEmpty()) {
-                        Log.d("face", "프레임에서 얼굴을 찾을 수 없습니다.");
-                        // 얼굴이 없더라도 null 값으로 응답 전송
-                        sendEmptyFaceInfo(newPersonIds);
-                        return;
+                    if (personObject == null) {
+                        // 사람 객체를 찾지 못했을 때 null 값 저장
+                        faceInfo.put(personId, null);
+                        Log.d("face", "사람 ID " + personId + "에 해당하는 객체를 찾을 수 없습니다.");
+                        continue;
                     }
 
-                    // 각 새 사람 ID에 대해 처리
-                    for (Integer personId : newPersonIds) {
-                        // 해당 ID를 가진 사람 객체 찾기
-                        SimpleTracker.TrackedObject personObject = null;
-                        for (SimpleTracker.TrackedObject obj : trackedObjects) {
-                            if (obj.getId() == personId && "person".equals(obj.getLabel())) {
-                                personObject = obj;
-                                break;
-                            }
-                        }
+                    // 사람 객체의 중심점 계산 (얼굴 쪽으로)
+                    float personCenterX = personObject.getCenterX();
+                    float personHeadY = personObject.getTop() + (personObject.getBottom() - personObject.getTop()) * 0.2f; // 상단 20% 지점
 
-                        if (personObject == null) {
-                            // 사람 객체를 찾지 못했을 때 null 값 저장
-                            faceInfo.put(personId, null);
-                            Log.d("face", "사람 ID " + personId + "에 해당하는 객체를 찾을 수 없습니다.");
-                            continue;
-                        }
+                    // 가장 가까운 얼굴 찾기
+                    FaceDetector.Face bestMatchFace = null;
+                    float minDistance = Float.MAX_VALUE;
 
-                        // 사람 객체의 중심점 계산 (얼굴 쪽으로)
-                        float personCenterX = (personObject.getLeft() + personObject.getRight()) / 2;
-                        float personHeadY = personObject.getTop() + (personObject.getBottom() - personObject.getTop()) * 0.2f; // 상단 20% 지점
+                    for (FaceDetector.Face face : faces) {
+                        float faceX = frameToView.toSourceX((face.getLeft() + face.getRight()) / 2);
+                        float faceY = frameToView.toSourceY((face.getTop() + face.getBottom()) / 2);
 
-                        // 가장 가까운 얼굴 찾기
-                        FaceDetector.Face bestMatchFace = null;
-                        float minDistance = Float.MAX_VALUE;
+                        // 거리 계산
+                        float distX = Math.abs(faceX - personCenterX);
+                        float distY = Math.abs(faceY - personHeadY) * 2; // Y축 거리에 가중치
+                        float distance = (float) Math.sqrt(distX * distX + distY * distY);
 
-                        for (FaceDetector.Face face : faces) {
-                            float faceX = (face.getLeft() + face.getRight()) / 2;
-                            float faceY = (face.getTop() + face.getBottom()) / 2;
+                        // 거리가 이전 최소값보다 작으면 업데이트
+                        if (distance < minDistance) {
+                            minDistance = distance;
+                            bestMatchFace = face;
+                        }
+                    }
 
-                            // 거리 계산
-                            float distX = Math.abs(faceX - personCenterX);
-                            float distY = Math.abs(faceY - personHeadY) * 2; // Y축 거리에 가중치
-                            float distance = (float) Math.sqrt(distX * distX + distY * distY);
+                    // 얼굴-사람 매칭이 적절한지 확인
+                    float maxMatchDistance = Math.min(snapshot.getCoordWidth(), snapshot.getCoordHeight()) * 0.3f;
 
-                            // 거리가 이전 최소값보다 작으면 업데이트
-                            if (distance < minDistance) {
-                                minDistance = distance;
-                                bestMatchFace = face;
-                            }
-                        }
+                    if (bestMatchFace != null && minDistance < maxMatchDistance) {
+                        Log.d("face", "사람 ID " + personId + "와 매칭된 얼굴 발견 (거리: " + minDistance + ")");
 
-                        // 얼굴-사람 매칭이 적절한지 확인
-                        float maxMatchDistance = Math.min(currentBitmap.getWidth(), currentBitmap.getHeight()) * 0.3f;
-
-                        if (bestMatchFace != null && minDistance < maxMatchDistance) {
-                            Log.d("face", "사람 ID " + personId + "와 매칭된 얼굴 발견 (거리: " + minDistance + ")");
-
-                            // 얼굴 영역 자르기
-                            Bitmap faceCrop = cropFace(currentBitmap, bestMatchFace);
-                            if (faceCrop != null) {
-                                String encodedFace = tobase64(faceCrop);
-                                faceInfo.put(personId, encodedFace);
-                                Log.d("face", "사람 ID " + personId + "의 얼굴 이미지 저장 완료");
-                                faceCrop.recycle(); // 메모리 누수 방지
-                            } else {
-                                faceInfo.put(personId, null);
-                                Log.d("face", "사람 ID " + personId + "의 얼굴 이미지 크롭 실패");
-                            }
+                        // 얼굴 영역 자르기
+                        Bitmap faceCrop = cropFace(currentBitmap, bestMatchFace);
+                        if (faceCrop != null) {
+                            String encodedFace = tobase64(faceCrop);
+                            faceInfo.put(personId, encodedFace);
+                            Log.d("face", "사람 ID " + personId + "의 얼굴 이미지 저장 완료");
+                            faceCrop.recycle(); // 메모리 누수 방지
                         } else {
                             faceInfo.put(personId, null);
-                            Log.d("face", "사람 ID " + personId + "와 매칭되는 얼굴이 없거나 너무 멀리 있습니다.");
+                            Log.d("face", "사람 ID " + personId + "의 얼굴 이미지 크롭 실패");
                         }
+                    } else {
+                        faceInfo.put(personId, null);
+                        Log.d("face", "사람 ID " + personId + "와 매칭되는 얼굴이 없거나 너무 멀리 있습니다.");
                     }
+                }
 
-                    // Map을 JSONObject로 변환
-                    JSONObject facesData = new JSONObject();
+                // Map을 JSONObject로 변환
+                JSONObject facesData = new JSONObject();
 
-                    // JSONObject에 faceInfo Map 데이터 추가 (수정된 부분)
-                    for (Map.Entry<Integer, String> entry : faceInfo.entrySet()) {
-                        try {
-                            facesData.put(String.valueOf(entry.getKey()), entry.getValue());
+                // JSONObject에 faceInfo Map 데이터 추가 (수정된 부분)
+                for (Map.Entry<Integer, String> entry : faceInfo.entrySet()) {
+                    try {
+                        facesData.put(String.valueOf(entry.getKey()), entry.getValue());
 
-                            // 최종 전송할 데이터 포맷 구성
-                            JSONObject dataToSend = new JSONObject();
-                            dataToSend.put("faces", facesData);
+                        // 최종 전송할 데이터 포맷 구성
+                        JSONObject dataToSend = new JSONObject();
+                        dataToSend.put("faces", facesData);
 
 
-                            // 서버로 전송
-                            mSocket.emit("findPersonFace", dataToSend);
-                            Log.d("socket", "얼굴 데이터 전송 완료");
+                        // 서버로 전송
+                        mSocket.emit("findPersonFace", dataToSend);
+                        Log.d("socket", "얼굴 데이터 전송 완료");
 
-                        } catch (JSONException e) {
-                            throw new RuntimeException(e);
-                        }
+                    } catch (JSONException e) {
+                        throw new RuntimeException(e);
                     }
-
-
-
-                });
+                }
 
             } catch (Exception e) {
                 Log.e("face", "얼굴 데이터 처리 오류: " + e.getMessage());
                 e.printStackTrace();
+            } finally {
+                if (currentBitmap != null) {
+                    currentBitmap.recycle();
+                }
             }
         }).start();
     }
@@ -1145,7 +1517,12 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
 
 
 
-    private Bitmap drawDetectionsDirectly(Bitmap bitmap, List<SimpleTracker.TrackedObject> trackedObjects) {
+    /**
+     * @param boxScaleX 추적 좌표를 이미지 좌표로 바꾸는 가로 배율
+     * @param boxScaleY 추적 좌표를 이미지 좌표로 바꾸는 세로 배율
+     */
+    private Bitmap drawDetectionsDirectly(Bitmap bitmap, List<TrackingSnapshot.Track> trackedObjects,
+                                          float boxScaleX, float boxScaleY) {
         // 원본 이미지를 변형하지 않기 위해 복사본 생성
         Bitmap mutableBitmap = bitmap.copy(Bitmap.Config.ARGB_8888, true);
         Canvas canvas = new Canvas(mutableBitmap);
@@ -1184,10 +1561,10 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
         int imageHeight = bitmap.getHeight();
 
         // 가상 선 그리기
-        float scaledStartX = virtualLineStartX * imageWidth / 640f;
-        float scaledStartY = virtualLineStartY * imageHeight / 640f;
-        float scaledEndX = virtualLineEndX * imageWidth / 640f;
-        float scaledEndY = virtualLineEndY * imageHeight / 640f;
+        float scaledStartX = lineCrossing.getStartX() * imageWidth / 640f;
+        float scaledStartY = lineCrossing.getStartY() * imageHeight / 640f;
+        float scaledEndX = lineCrossing.getEndX() * imageWidth / 640f;
+        float scaledEndY = lineCrossing.getEndY() * imageHeight / 640f;
 
         canvas.drawLine(scaledStartX, scaledStartY, scaledEndX, scaledEndY, linePaint);
         // 키오스크 영역 그리기
@@ -1198,10 +1575,10 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
             kioskPaint.setColor(Color.GREEN);
 
             // 캔버스 크기에 맞게 키오스크 좌표 변환
-            float canvasKioskLeft = kioskLeft * imageWidth / 640f;
-            float canvasKioskTop = kioskTop * imageHeight / 640f;
-            float canvasKioskRight = kioskRight * imageWidth / 640f;
-            float canvasKioskBottom = kioskBottom * imageHeight / 640f;
+            float canvasKioskLeft = kioskZone.getLeft() * imageWidth / 640f;
+            float canvasKioskTop = kioskZone.getTop() * imageHeight / 640f;
+            float canvasKioskRight = kioskZone.getRight() * imageWidth / 640f;
+            float canvasKioskBottom = kioskZone.getBottom() * imageHeight / 640f;
 
             // 키오스크 영역 그리기
             canvas.drawRect(canvasKioskLeft, canvasKioskTop, canvasKioskRight, canvasKioskBottom, kioskPaint);
@@ -1235,13 +1612,13 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
 
 
         // 모든 추적 객체에 대해 처리
-        for (SimpleTracker.TrackedObject obj : trackedObjects) {
+        for (TrackingSnapshot.Track obj : trackedObjects) {
             if (obj.getConfidence() >= 0.7f) {
                 // 바운딩 박스 좌표
-                float left = obj.getLeft();
-                float top = obj.getTop();
-                float right = obj.getRight();
-                float bottom = obj.getBottom();
+                float left = obj.getLeft() * boxScaleX;
+                float top = obj.getTop() * boxScaleY;
+                float right = obj.getRight() * boxScaleX;
+                float bottom = obj.getBottom() * boxScaleY;
 
                 // 이미지 경계 내로 제한
                 left = Math.max(0, Math.min(left, imageWidth));
@@ -1278,23 +1655,17 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
     }
 
     // 오버레이 업데이트 메서드 개선
-    private void updateCameraOverlay(List<SimpleTracker.TrackedObject> trackedObjects) {
+    private void updateCameraOverlay(List<TrackingSnapshot.Track> trackedObjects) {
         if (overlayHolder != null) {
             Canvas canvas = overlayHolder.lockCanvas();
             if (canvas != null) {
                 try {
-
-                    long startTime = System.currentTimeMillis();
-
                     // 캔버스 초기화
                     canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
 
-                    // 캔버스 크기와 객체 탐지 이미지 크기 로깅
                     int canvasWidth = canvas.getWidth();
                     int canvasHeight = canvas.getHeight();
 
-                    Log.d(TAG, "Canvas 크기: " + canvasWidth + "x" + canvasHeight);
-
                     // 대각선 가상 선 그리기
                     Paint linePaint = new Paint();
                     linePaint.setColor(Color.MAGENTA);
@@ -1303,10 +1674,10 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                     linePaint.setPathEffect(new DashPathEffect(new float[] {20, 10}, 0)); // 점선 효과
 
                     // 640x640 좌표계에서 캔버스 좌표계로 변환
-                    float scaledStartX = virtualLineStartX * canvasWidth / 640f;
-                    float scaledStartY = virtualLineStartY * canvasHeight / 640f;
-                    float scaledEndX = virtualLineEndX * canvasWidth / 640f;
-                    float scaledEndY = virtualLineEndY * canvasHeight / 640f;
+                    float scaledStartX = lineCrossing.getStartX() * canvasWidth / 640f;
+                    float scaledStartY = lineCrossing.getStartY() * canvasHeight / 640f;
+                    float scaledEndX = lineCrossing.getEndX() * canvasWidth / 640f;
+                    float scaledEndY = lineCrossing.getEndY() * canvasHeight / 640f;
 
                     canvas.drawLine(scaledStartX, scaledStartY, scaledEndX, scaledEndY, linePaint);
                     // 키오스크 영역 그리기
@@ -1317,10 +1688,10 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                         kioskPaint.setColor(Color.GREEN);
 
                         // 캔버스 크기에 맞게 키오스크 좌표 변환
-                        float canvasKioskLeft = kioskLeft * canvasWidth / 640f;
-                        float canvasKioskTop = kioskTop * canvasHeight / 640f;
-                        float canvasKioskRight = kioskRight * canvasWidth / 640f;
-                        float canvasKioskBottom = kioskBottom * canvasHeight / 640f;
+                        float canvasKioskLeft = kioskZone.getLeft() * canvasWidth / 640f;
+                        float canvasKioskTop = kioskZone.getTop() * canvasHeight / 640f;
+                        float canvasKioskRight = kioskZone.getRight() * canvasWidth / 640f;
+                        float canvasKioskBottom = kioskZone.getBottom() * canvasHeight / 640f;
 
                         // 키오스크 영역 그리기
                         canvas.drawRect(canvasKioskLeft, canvasKioskTop, canvasKioskRight, canvasKioskBottom, kioskPaint);
@@ -1355,8 +1726,6 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                     // 바운딩 박스 그리기
                     drawBoundingBoxesOnCanvas(canvas, trackedObjects);
 
-                    long endTime = System.currentTimeMillis();
-                    Log.i("worktime","캔버스에 그리는 작업시간 : "+(endTime-startTime));
                     // 가상 선과의 교차 감지
                     detectLineCrossing(trackedObjects, canvasWidth, canvasHeight);
 
@@ -1369,122 +1738,24 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
     }
 
 
-    // detectLineCrossing 메서드 내에서 수정
-    private void detectLineCrossing(List<SimpleTracker.TrackedObject> trackedObjects, int canvasWidth, int canvasHeight) {
-        long currentTime = System.currentTimeMillis();
-        StringBuilder eventBuilder = new StringBuilder();
-        boolean eventDetected = false;
-
-        // 각 객체에 대해 가상 선과의 교차 확인
-        for (SimpleTracker.TrackedObject obj : trackedObjects) {
-            if (obj.getConfidence() >= 0.7f && ("cup".equals(obj.getLabel()) || "apple".equals(obj.getLabel()) || "banana".equals(obj.getLabel()) )) {
-                int objectId = obj.getId();
-
-                // 객체의 중심점 계산 캔버스에서의위치인것
-                float objectCenterX = (obj.getLeft() + obj.getRight()) / 2;
-                float objectCenterY = (obj.getTop() + obj.getBottom()) / 2;
-
-                // 640x640에서의 위치로 바꾸기
-                float normalizedCenterX = objectCenterX * 640f / canvasWidth;
-                float normalizedCenterY = objectCenterY * 640f / canvasHeight;
-
-                // 선 위/아래 판단
-                boolean isAbove = signedDistanceFromPointToLine(
-                        normalizedCenterX, normalizedCenterY,
-                        virtualLineStartX, virtualLineStartY,
-                        virtualLineEndX, virtualLineEndY
-                );
-
-                //*********isAbove가 true라면 아래!!
-                //*******isAbove 가 false라면 위!!!!!
-
-                // 이전 위치 가져오기
-                Boolean wasAbove = wasAboveLine.get(objectId);
-
-                // 교차 감지: 이전 위치가 있고, 선을 건넜을 때
-                if (wasAbove != null && wasAbove != isAbove) {
-                    // 이전 이벤트와 충분한 시간이 지났는지 확인
-                    Long lastTime = lastEventTime.get(objectId);
-                    if (lastTime == null || (currentTime - lastTime) > EVENT_COOLDOWN) {
-                        // 이동 방향 결정
-                        String direction="";
-                        String movement="";
-
-
-
-
-                        //false->true 위 ->아래
-                        if (wasAbove==false && isAbove==true) {
-                            direction = "위에서 아래로 이동";
-                            movement = " 내려놓기";
-                        } else if(wasAbove==true && isAbove==false) {
-                            direction = "아래에서 위로 이동";
-                            movement = " 집기";
-                        }
-
-                        //가장 가까운 사람 찾기
-                        //지금은 기준이!! 캔버스로!!
-                        //640 640이 아니다!!
-                        SimpleTracker.TrackedObject nearestPerson = findNearestPerson(trackedObjects, objectCenterX, objectCenterY);
-                        String personInfo = "";
-                        if(nearestPerson==null){
-                            Log.d("person","사람없음");
-                        }else{
-                            Log.d("person",nearestPerson.getId()+"발견");
-                        }
-
-
-                        if (nearestPerson != null) {
-                            int personId = nearestPerson.getId();
-                            float personDistance = calculateDistance(
-                                    objectCenterX, objectCenterY,
-                                    (nearestPerson.getLeft() + nearestPerson.getRight()) / 2,
-                                    (nearestPerson.getTop() + nearestPerson.getBottom()) / 2
-                            );
-
-                            // 사람 정보 추가 (10픽셀 = 약 1.5cm 가정)
-                            personInfo = String.format(" - 사람 ID %d가 컵을%s (거리: %.1fpx)",
-                                    personId,
-                                    wasAbove == false && isAbove == true ? " 내려놓았습니다" : " 집었습니다",
-                                    personDistance);
-
-
-                            try {
-                                JSONObject actionEventData = new JSONObject();
-                                actionEventData.put("type", "action");
-                                actionEventData.put("personId", personId);
-                                actionEventData.put("object", obj.getLabel());
-                                actionEventData.put("act", wasAbove == false && isAbove == true ? 0 : 1);
-                                // 0 이면 -> 내려놓기 1이면 -> 집기*****
-                                mSocket.emit("message", actionEventData.toString());
-                            }catch (Exception e){
-
-                            }
-
-                        }
-
-                        // 이벤트 텍스트 생성
-                        eventBuilder.append("ID ").append(objectId)
-                                .append(": ").append(obj.getLabel())
-                                .append(" - ").append(direction)
-                                .append(personInfo)
-                                .append("\n");
-
-                        // 이벤트 시간 갱신
-                        lastEventTime.put(objectId, currentTime);
-                        eventDetected = true;
-                    }
-                }
-
-                // 현재 위치 저장
-                wasAboveLine.put(objectId, isAbove);
-            }
+    /**
+     * 가상 선과의 교차를 확인합니다. 교차한 상품과 가장 가까운 사람은 lineCrossingListener가 서버로 보냅니다.
+     */
+    private void detectLineCrossing(List<TrackingSnapshot.Track> trackedObjects, int canvasWidth, int canvasHeight) {
+        // 상품 카탈로그에 등록된 상품만 선 교차 이벤트 대상
+        ProductCatalog productCatalog = imageProcessor != null ? imageProcessor.getProductCatalog() : null;
+        lineEventBuilder.setLength(0);
+        long nowMs = System.currentTimeMillis();
+        CameraFrame frame = renderingFrame;
+        if (frame != null && frame.recorder != null) {
+            frame.recorder.recordRender(frame.timestamp, canvasWidth, canvasHeight, nowMs);
         }
-
+        int events = lineCrossing.update(trackedObjects, canvasWidth, canvasHeight, productCatalog,
+                nowMs, lineCrossingListener);
 
         // 이벤트가 발생했으면 UI 업데이트
-        if (eventDetected) {
-            final String eventText = eventBuilder.toString();
+        if (events > 0) {
+            final String eventText = lineEventBuilder.toString();
             runOnUiThread(() -> {
                 tvEvent.setText(eventText);
                 tvEvent.setVisibility(View.VISIBLE);
@@ -1494,205 +1765,120 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                 }, 1000);
             });
         }
-
-        // 오래된 객체 데이터 정리
-        cleanupOldObjects(trackedObjects);
     }
 
-    private void findNearestPersonToKiosk() {
-        new Thread(() -> {
-            try {
-                // 최신 프레임을 기다림
-                Thread.sleep(100);
+    // 선 교차 이벤트 텍스트 (그리기 단계 스레드에서만 사용)
+    private final StringBuilder lineEventBuilder = new StringBuilder();
+    // 그리는 중인 프레임 (선 교차 기록용, 그리기 단계 스레드만 사용)
+    private CameraFrame renderingFrame;
 
-                if (textureView.isAvailable()) {
-                    runOnUiThread(() -> {
-                        Bitmap bitmap = textureView.getBitmap();
-                        if (bitmap != null) {
-                            final List<SimpleTracker.TrackedObject> trackedObjects;
-                            List<YoloImageProcessor.Detection> detections;
-                            synchronized (imageLock){
-                                detections=imageProcessor.processImage(bitmap);
-                                trackedObjects = tracker.update(detections);
-                            }
-
-                            // 키오스크 영역 중심점 계산
-                            float kioskCenterX = (kioskLeft + kioskRight) / 2f;
-                            float kioskCenterY = (kioskTop + kioskBottom) / 2f;
-
-                            // 키오스크에 가장 가까운 사람 찾기
-                            SimpleTracker.TrackedObject nearestPerson = findNearestPerson(trackedObjects, kioskCenterX, kioskCenterY);
-
-                            // 결과 처리
-                            if (nearestPerson != null) {
-                                int personId = nearestPerson.getId();
-
-                                // 사람과 키오스크 간의 거리 계산
-                                float personCenterX = (nearestPerson.getLeft() + nearestPerson.getRight()) / 2f;
-                                float personCenterY = (nearestPerson.getTop() + nearestPerson.getBottom()) / 2f;
-                                float distance = calculateDistance(kioskCenterX, kioskCenterY, personCenterX, personCenterY);
-
-                                Log.d("kiosk", "키오스크에 가장 가까운 사람 ID: " + personId + ", 거리: " + distance);
-
-                                // 서버에 응답 전송
-                                try {
-                                    JSONObject responseData = new JSONObject();
-                                    responseData.put("type", "nearest_person_found");
-                                    responseData.put("personId", personId);
-                                    responseData.put("distance", distance);
-
-                                    mSocket.emit("nearest_person_found", responseData);
-
-                                    // 이벤트 표시
-                                    String eventText = "ID " + personId + ": 키오스크에서 가장 가까운 사람 감지";
-                                    runOnUiThread(() -> {
-                                        tvEvent.setText(eventText);
-                                        tvEvent.setVisibility(View.VISIBLE);
-                                        tvEvent.setBackgroundColor(Color.YELLOW);
-                                        new Handler().postDelayed(() -> {
-                                            tvEvent.setBackgroundColor(Color.parseColor("#22000000"));
-                                        }, 3000);
-                                    });
-                                } catch (Exception e) {
-                                    Log.e("kiosk", "응답 전송 오류: " + e.getMessage());
-                                }
-                            } else {
-                                // 가까운 사람이 없는 경우
-                                Log.d("kiosk", "키오스크 근처에 사람이 없습니다.");
-
-                                // 서버에 응답 전송 (사람 없음)
-                                try {
-                                    JSONObject responseData = new JSONObject();
-                                    responseData.put("type", "nearest_person_found");
-                                    responseData.put("personId", null);
-                                    responseData.put("distance", 0);
-
-                                    mSocket.emit("nearest_person_found", responseData);
-                                } catch (Exception e) {
-                                    Log.e("kiosk", "응답 전송 오류: " + e.getMessage());
-                                }
-                            }
-
-                            bitmap.recycle();
-                        }
-                    });
-                }
-            } catch (Exception e) {
-                Log.e("kiosk", "가장 가까운 사람 찾기 오류: " + e.getMessage());
-            }
-        }).start();
-    }
-
-    private SimpleTracker.TrackedObject findNearestPerson(List<SimpleTracker.TrackedObject> trackedObjects,
-                                                          float targetX, float targetY) {
-        SimpleTracker.TrackedObject nearestPerson = null;
-        float minDistance = Float.MAX_VALUE;
-
-        for (SimpleTracker.TrackedObject obj : trackedObjects) {
-            // person 객체이고 신뢰도가 충분히 높은 경우만 고려
-            if (obj.getConfidence() >= 0.7f && "person".equals(obj.getLabel())) {
-                // 사람 객체의 중심점 계산
-                float personCenterX = (obj.getLeft() + obj.getRight()) / 2;
-                float personCenterY = (obj.getTop() + obj.getBottom()) / 2;
-
-                // 두 점 사이의 거리 계산
-                float distance = calculateDistance(targetX, targetY, personCenterX, personCenterY);
-
-                // 최소 거리 업데이트
-                if (distance < minDistance) {
-                    minDistance = distance;
-                    nearestPerson = obj;
-                }
-            }
+    /**
+     * 상품이 선을 건널 때: 가장 가까운 사람이 집었는지 내려놓았는지 서버에 알리고 이벤트 텍스트를 만듭니다.
+     */
+    private final LineCrossingDetector.Listener lineCrossingListener = (obj, downward, nearestPerson, personDistance) -> {
+        CameraFrame frame = renderingFrame;
+        if (frame != null && frame.recorder != null) {
+            frame.recorder.recordCrossing(frame.timestamp, obj, downward, nearestPerson);
         }
 
+        // 위에서 아래로 = 내려놓기, 아래에서 위로 = 집기
+        String direction = downward ? "위에서 아래로 이동" : "아래에서 위로 이동";
+        String personInfo = "";
+        if (nearestPerson == null) {
+            Log.d("person", "사람없음");
+        } else {
+            Log.d("person", nearestPerson.getId() + "발견");
+            int personId = nearestPerson.getId();
 
-        return nearestPerson;
-    }
-
-    private float calculateDistance(float x1, float y1, float x2, float y2) {
-        return (float) Math.sqrt(Math.pow(x2 - x1, 2) + Math.pow(y2 - y1, 2));
-    }
-
+            // 사람 정보 추가 (10픽셀 = 약 1.5cm 가정)
+            personInfo = String.format(" - 사람 ID %d가 컵을%s (거리: %.1fpx)",
+                    personId, downward ? " 내려놓았습니다" : " 집었습니다", personDistance);
 
+            try {
+                JSONObject actionEventData = new JSONObject();
+                actionEventData.put("type", "action");
+                actionEventData.put("personId", personId);
+                actionEventData.put("object", obj.getLabel());
+                actionEventData.put("act", downward ? 0 : 1);
+                // 0 이면 -> 내려놓기 1이면 -> 집기*****
+                mSocket.emit("message", actionEventData.toString());
+            } catch (Exception e) {
 
+            }
+        }
 
-//점이 선위에있는지 아래있는지
-    /**
-     * 점이 선의 위에 있는지 아래에 있는지 판단하는 함수
-     * @return true: 점이 선의 위에 있음, false: 점이 선의 아래에 있음
-    /**
-     * 점이 대각선 위에 있는지 아래에 있는지 판단 (방향 벡터 사용)
-     * @return true: 위, false: 아래
-     */
+        // 이벤트 텍스트 생성
+        lineEventBuilder.append("ID ").append(obj.getId())
+                .append(": ").append(obj.getLabel())
+                .append(" - ").append(direction)
+                .append(personInfo)
+                .append("\n");
+    };
 
     /**
-     * 점과 직선 사이의 부호 있는 거리 계산
-     * 양수: 선의 한 쪽에 있음 (보통 "위")
-     * 음수: 선의 다른 쪽에 있음 (보통 "아래")
-     * 0: 선 위에 있음
+     * 최신 추적 스냅샷으로 키오스크에 가장 가까운 사람을 찾아 바로 응답합니다 (추가 탐지 없음).
      */
-    private boolean signedDistanceFromPointToLine(float pointX, float pointY,
-                                                  float lineStartX, float lineStartY,
-                                                  float lineEndX, float lineEndY) {
-        float lineLength = (float) Math.sqrt(
-                Math.pow(lineEndX - lineStartX, 2) + Math.pow(lineEndY - lineStartY, 2)
-        );
-
-        // 직선의 두 점과 주어진 점으로 이루어진 삼각형의 면적 (부호 있음)
-        float signedArea = (lineEndY - lineStartY) * pointX -
-                (lineEndX - lineStartX) * pointY +
-                lineEndX * lineStartY - lineEndY * lineStartX;
+    private void findNearestPersonToKiosk() {
+        try {
+            TrackingSnapshot snapshot = latestSnapshot.get();
 
-        // 면적을 직선의 길이로 나누면 높이(부호 있는 거리)가 됨
-        float signedDistance = signedArea / lineLength;
+            // 키오스크 영역 중심에 가장 가까운 사람 찾기
+            TrackingSnapshot.Track nearestPerson = kioskZone.findNearestPerson(snapshot, MIN_CONFIDENCE);
+            TensorRecorder recorder = tensorRecorder;
+            if (recorder != null) {
+                recorder.recordKiosk(snapshot.getTimestamp(), nearestPerson);
+            }
 
-        // 수직 거리의 절대값 (선까지의 실제 거리)
-        float absDistance = Math.abs(signedDistance);
+            // 결과 처리
+            if (nearestPerson != null) {
+                int personId = nearestPerson.getId();
 
-        // 상세 로그 출력
-        Log.d("LineTest", String.format(
-                "점(%.1f,%.1f)→선까지 거리: %.1f (절대값: %.1f), 위치: %s",
-                pointX, pointY, signedDistance, absDistance,
-                (signedDistance > 0 ? "아래" : "위"))
-        );
+                // 사람과 키오스크 간의 거리 계산
+                float distance = kioskZone.distanceTo(nearestPerson);
 
-        return signedDistance > 0 ? true : false;
-    }
-    private void cleanupOldObjects(List<SimpleTracker.TrackedObject> currentObjects) {
-        // 현재 존재하는 객체 ID 집합
-        Set<Integer> currentIds = new HashSet<>();
-        for (SimpleTracker.TrackedObject obj : currentObjects) {
-            currentIds.add(obj.getId());
-        }
+                Log.d("kiosk", "키오스크에 가장 가까운 사람 ID: " + personId + ", 거리: " + distance
+                        + " (스냅샷 " + (frameClockNowMs() - snapshot.getTimestamp()) + "ms 전)");
 
-        // 존재하지 않는 객체의 데이터 제거
-        Iterator<Map.Entry<Integer, Float>> prevDistIt = previousDistanceToLine.entrySet().iterator();
-        while (prevDistIt.hasNext()) {
-            if (!currentIds.contains(prevDistIt.next().getKey())) {
-                prevDistIt.remove();
-            }
-        }
+                // 서버에 응답 전송
+                try {
+                    JSONObject responseData = new JSONObject();
+                    responseData.put("type", "nearest_person_found");
+                    responseData.put("personId", personId);
+                    responseData.put("distance", distance);
 
-        Iterator<Map.Entry<Integer, Float>> prevXIt = previousCenterX.entrySet().iterator();
-        while (prevXIt.hasNext()) {
-            if (!currentIds.contains(prevXIt.next().getKey())) {
-                prevXIt.remove();
-            }
-        }
+                    mSocket.emit("nearest_person_found", responseData);
 
-        Iterator<Map.Entry<Integer, Float>> prevYIt = previousCenterY.entrySet().iterator();
-        while (prevYIt.hasNext()) {
-            if (!currentIds.contains(prevYIt.next().getKey())) {
-                prevYIt.remove();
-            }
-        }
+                    // 이벤트 표시
+                    String eventText = "ID " + personId + ": 키오스크에서 가장 가까운 사람 감지";
+                    runOnUiThread(() -> {
+                        tvEvent.setText(eventText);
+                        tvEvent.setVisibility(View.VISIBLE);
+                        tvEvent.setBackgroundColor(Color.YELLOW);
+                        new Handler().postDelayed(() -> {
+                            tvEvent.setBackgroundColor(Color.parseColor("#22000000"));
+                        }, 3000);
+                    });
+                } catch (Exception e) {
+                    Log.e("kiosk", "응답 전송 오류: " + e.getMessage());
+                }
+            } else {
+                // 가까운 사람이 없는 경우
+                Log.d("kiosk", "키오스크 근처에 사람이 없습니다.");
 
-        Iterator<Map.Entry<Integer, Long>> timeIt = lastEventTime.entrySet().iterator();
-        while (timeIt.hasNext()) {
-            if (!currentIds.contains(timeIt.next().getKey())) {
-                timeIt.remove();
+                // 서버에 응답 전송 (사람 없음)
+                try {
+                    JSONObject responseData = new JSONObject();
+                    responseData.put("type", "nearest_person_found");
+                    responseData.put("personId", null);
+                    responseData.put("distance", 0);
+
+                    mSocket.emit("nearest_person_found", responseData);
+                } catch (Exception e) {
+                    Log.e("kiosk", "응답 전송 오류: " + e.getMessage());
+                }
             }
+        } catch (Exception e) {
+            Log.e("kiosk", "가장 가까운 사람 찾기 오류: " + e.getMessage());
         }
     }
 
@@ -1707,6 +1893,13 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
                 cameraDevice.close();
                 cameraDevice = null;
             }
+            if (imageReader != null) {
+                imageReader.close();
+                imageReader = null;
+            }
+            // 다시 열면 장면이 달라져 있을 수 있으므로 기준 프레임을 버림
+            motionGate.reset();
+            detectionScheduler.reset();
         } catch (InterruptedException e) {
             Log.e(TAG, "카메라 닫기 중 인터럽트: " + e.getMessage());
         } finally {
@@ -1766,6 +1959,7 @@ public class MainActivity extends AppCompatActivity implements TextureView.Surfa
      */
     @Override
     protected void onDestroy() {
+        stopTensorRecording();
         // TFLite 모델 리소스 해제
         if (tfliteLoader != null) {
             tfliteLoader.close();
@@ -5,6 +5,7 @@ import android.content.res.AssetManager;
 import android.util.Log;
 
 import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -14,6 +15,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TFLiteLoader {
     private static final String TAG = "TFLiteLoader";
@@ -21,6 +24,7 @@ public class TFLiteLoader {
 
     private Interpreter tflite;
     private MappedByteBuffer tfliteModel;
+    private ModelDescriptor modelDescriptor;
     private Context context;
 
     public TFLiteLoader(Context context,String modelName) {
@@ -57,22 +61,9 @@ public class TFLiteLoader {
 
             tflite = new Interpreter(tfliteModel, options);
 
-            // 모델 텐서 정보 출력
-            Log.d(TAG, "Model loaded successfully: " + modelName);
-            Log.d(TAG, "Model input tensor count: " + tflite.getInputTensorCount());
-            Log.d(TAG, "Model output tensor count: " + tflite.getOutputTensorCount());
-
-            // 모든 입력 텐서 정보 출력
-            for (int i = 0; i < tflite.getInputTensorCount(); i++) {
-                Log.d(TAG, "Input tensor #" + i + " type: " + tflite.getInputTensor(i).dataType());
-                Log.d(TAG, "Input tensor #" + i + " shape: " + java.util.Arrays.toString(tflite.getInputTensor(i).shape()));
-            }
-
-            // 모든 출력 텐서 정보 출력
-            for (int i = 0; i < tflite.getOutputTensorCount(); i++) {
-                Log.d(TAG, "Output tensor #" + i + " type: " + tflite.getOutputTensor(i).dataType());
-                Log.d(TAG, "Output tensor #" + i + " shape: " + java.util.Arrays.toString(tflite.getOutputTensor(i).shape()));
-            }
+            // 모델 텐서 정보는 여기서 한 번만 읽어서 보관 (프레임마다 인터프리터에 묻지 않음)
+            modelDescriptor = describe(modelName, tflite);
+            Log.d(TAG, "Model loaded successfully: " + modelDescriptor);
 
             return true;
         } catch (IOException e) {
@@ -80,6 +71,27 @@ public class TFLiteLoader {
             return false;
         }
     }
+    /**
+     * 인터프리터의 입출력 텐서 정보를 모델 디스크립터로 만듭니다.
+     */
+    static ModelDescriptor describe(String name, Interpreter interpreter) {
+        List<TensorSpec> inputs = new ArrayList<>();
+        for (int i = 0; i < interpreter.getInputTensorCount(); i++) {
+            inputs.add(toSpec(interpreter.getInputTensor(i)));
+        }
+        List<TensorSpec> outputs = new ArrayList<>();
+        for (int i = 0; i < interpreter.getOutputTensorCount(); i++) {
+            outputs.add(toSpec(interpreter.getOutputTensor(i)));
+        }
+        return new ModelDescriptor(name, inputs, outputs);
+    }
+
+    private static TensorSpec toSpec(Tensor tensor) {
+        Tensor.QuantizationParams quantization = tensor.quantizationParams();
+        return new TensorSpec(tensor.name(), tensor.shape(), tensor.dataType().name(),
+                quantization.getScale(), quantization.getZeroPoint());
+    }
+
     /**
      * Assets에서 모델 파일을 읽어 MappedByteBuffer로 변환합니다.
      */
@@ -128,6 +140,13 @@ public class TFLiteLoader {
         return tflite;
     }
 
+    /**
+     * 로드 시 만든 모델 디스크립터를 반환합니다 (로드 전에는 null).
+     */
+    public ModelDescriptor getModelDescriptor() {
+        return modelDescriptor;
+    }
+
     /**
      * 리소스를 해제합니다.
      */
@@ -2,41 +2,111 @@ package com.example.quantiztest;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.Matrix;
 import android.util.Log;
 
+import org.json.JSONException;
 import org.tensorflow.lite.Interpreter;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class YoloImageProcessor {
     private static final String TAG = "YoloImageProcessor";
-    private static final int INPUT_SIZE = 640; // YOLONas 모델의 입력 크기, 모델에 맞게 조정 필요
-    private static final int NUM_DETECTIONS = 8400; // 모델 출력 형상에 맞게 수정 (8400개 탐지)
-    private static final int NUM_CLASSES = 80; // COCO 데이터셋 클래스 수
+    private static final String CATALOG_FILE = "product_catalog.json"; // 상품 카탈로그 (assets 또는 서버에서 받은 파일)
+    // 입출력 버퍼 슬롯 수 (전처리 중 1 + 추론 중 1 + 디코드 중 1)
+    public static final int PIPELINE_SLOTS = 3;
 
     private Interpreter interpreter;
     private List<String> labels;
     private Context context;
 
-    public YoloImageProcessor(Context context, Interpreter interpreter) {
+    // 인터프리터 세션 동안 재사용하는 입출력 버퍼 슬롯 중 사용 가능한 슬롯 목록
+    private final ArrayBlockingQueue<Slot> freeSlots;
+
+    // 인터프리터는 한 번에 한 프레임만, 디코더와 NMS 작업 배열도 한 번에 한 프레임만 사용
+    private final Object inferenceLock = new Object();
+    private final Object decodeLock = new Object();
+
+    // 모델 입력 크기 (모델 디스크립터에서 가져옴, 예: 640x640, 416x416, 320x320)
+    private final int inputWidth;
+    private final int inputHeight;
+
+    // 출력 레이아웃에 맞는 디코드와 NMS (기록된 텐서 재생과 같은 코드, 후보 배치는 프레임마다 재사용)
+    private final DetectionPostprocessor postprocessor;
+    private final ModelDescriptor descriptor;
+
+    // 최종 결과 배치 (프레임마다 재사용)
+    private final DetectionBatch results = new DetectionBatch();
+
+    // 추적 대상 클래스 목록 (서버에서 다른 스레드로 교체될 수 있음)
+    private volatile ProductCatalog productCatalog;
+
+    // 비트맵, 픽셀 소스 입력용 픽셀 배열 (detect(PixelSource)에서만 사용)
+    private int[] sourcePixels = new int[0];
+    private final BitmapPixelSource bitmapSource = new BitmapPixelSource();
+
+    /**
+     * @param descriptor 모델 로드 시 만든 디스크립터 (입력 크기, 후보 수, 출력 레이아웃을 여기서 가져옴)
+     * @throws IllegalArgumentException 모델 형식을 지원하지 않는 경우
+     */
+    public YoloImageProcessor(Context context, Interpreter interpreter, ModelDescriptor descriptor) {
         this.context = context;
         this.interpreter = interpreter;
+        validate(descriptor);
+
+        TensorSpec input = descriptor.getInput(0);
+        this.inputHeight = input.dim(1);
+        this.inputWidth = input.dim(2);
+        this.postprocessor = new DetectionPostprocessor(descriptor);
+        this.descriptor = descriptor;
+
+        this.freeSlots = new ArrayBlockingQueue<>(PIPELINE_SLOTS);
+        for (int s = 0; s < PIPELINE_SLOTS; s++) {
+            freeSlots.offer(new Slot(descriptor, inputWidth, inputHeight));
+        }
+
         try {
             this.labels = loadLabels();
         } catch (IOException e) {
             Log.e(TAG, "라벨 파일을 로드하는 중 오류 발생: " + e.getMessage());
             this.labels = new ArrayList<>();
         }
+        this.results.setLabels(labels);
+        this.productCatalog = loadProductCatalog();
+
+        Log.d(TAG, "탐지 모델: " + descriptor);
+    }
+
+    /**
+     * 모델 입출력이 이 프로세서의 입력 버퍼와 디코더가 지원하는 형식인지 확인합니다.
+     */
+    private static void validate(ModelDescriptor descriptor) {
+        descriptor.require(descriptor.getLayout() == ModelDescriptor.Layout.YOLO_NAS
+                        || descriptor.getLayout() == ModelDescriptor.Layout.FUSED,
+                "YOLONas 분리 출력 또는 단일 융합 출력 형식이 아닙니다");
+        TensorSpec input = descriptor.getInput(0);
+        descriptor.require(descriptor.getInputCount() == 1 && input.rank() == 4
+                        && input.dim(0) == 1 && input.dim(3) == 3 && input.isUint8(),
+                "입력은 UINT8 [1, H, W, 3] 이어야 합니다");
+        if (descriptor.getLayout() == ModelDescriptor.Layout.YOLO_NAS) {
+            for (int i = 0; i < 3; i++) {
+                descriptor.require(descriptor.getOutput(i).isUint8(), "출력 #" + i + "는 UINT8 이어야 합니다");
+            }
+        } else {
+            TensorSpec output = descriptor.getOutput(0);
+            descriptor.require(output.isUint8() || output.isFloat32(), "융합 출력은 UINT8 또는 FLOAT32 이어야 합니다");
+        }
     }
 
     /**
@@ -56,247 +126,242 @@ public class YoloImageProcessor {
     }
 
     /**
-     * 비트맵 이미지를 처리하고 객체 탐지를 수행합니다.
-     * @param bitmap 처리할 이미지
-     * @return 탐지된 객체 목록
+     * 상품 카탈로그를 로드합니다.
+     * 서버에서 받아 저장해 둔 파일이 있으면 우선 사용하고, 없으면 assets, 그것도 없으면 기본 목록을 사용합니다.
      */
-    public List<Detection> processImage(Bitmap bitmap) {
-        // 텐서 정보 출력
-        Log.d(TAG, "입력 텐서 수: " + interpreter.getInputTensorCount());
-        Log.d(TAG, "출력 텐서 수: " + interpreter.getOutputTensorCount());
-
-        for (int i = 0; i < interpreter.getOutputTensorCount(); i++) {
-            Log.d(TAG, "출력 텐서 #" + i + " 타입: " + interpreter.getOutputTensor(i).dataType());
-            Log.d(TAG, "출력 텐서 #" + i + " 형상: " + java.util.Arrays.toString(interpreter.getOutputTensor(i).shape()));
+    private ProductCatalog loadProductCatalog() {
+        String json = null;
+        File pushed = new File(context.getFilesDir(), CATALOG_FILE);
+        try {
+            if (pushed.exists()) {
+                json = readFully(new FileInputStream(pushed));
+            } else {
+                json = readFully(context.getAssets().open(CATALOG_FILE));
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "상품 카탈로그 파일이 없어 기본 목록을 사용합니다: " + e.getMessage());
         }
 
-        // 입력 이미지 준비
-        Bitmap resizedBitmap = resizeBitmap(bitmap, INPUT_SIZE, INPUT_SIZE);
-
-        // 양자화된 모델용 UINT8 입력 버퍼 준비 (ByteBuffer 사용)
-        ByteBuffer inputBuffer = ByteBuffer.allocateDirect(1 * INPUT_SIZE * INPUT_SIZE * 3);
-        inputBuffer.order(ByteOrder.nativeOrder());
-
-        // 이미지 데이터를 입력 버퍼에 복사
-        int[] pixels = new int[INPUT_SIZE * INPUT_SIZE];
-        resizedBitmap.getPixels(pixels, 0, INPUT_SIZE, 0, 0, INPUT_SIZE, INPUT_SIZE);
-
-        for (int i = 0; i < INPUT_SIZE * INPUT_SIZE; ++i) {
-            int pixel = pixels[i];
-            // RGB 채널 추출 (양자화된 모델은 0-255 범위 사용)
-            inputBuffer.put((byte) ((pixel >> 16) & 0xFF)); // R
-            inputBuffer.put((byte) ((pixel >> 8) & 0xFF));  // G
-            inputBuffer.put((byte) (pixel & 0xFF));         // B
+        if (json != null) {
+            try {
+                ProductCatalog catalog = ProductCatalog.fromJson(json, labels);
+                logUnknownLabels(catalog);
+                return catalog;
+            } catch (JSONException e) {
+                Log.e(TAG, "상품 카탈로그 파싱 오류, 기본 목록 사용: " + e.getMessage());
+            }
         }
+        return ProductCatalog.defaultCatalog(labels);
+    }
 
-        inputBuffer.rewind(); // 버퍼 위치를 처음으로 되돌림
-
-        // 출력 버퍼 준비 (UINT8 타입)
-        // YOLONas 모델의 출력은 3개의 텐서입니다:
-        // 1. 바운딩 박스 좌표 [1, 8400, 4]
-        // 2. 신뢰도 점수 [1, 8400]
-        // 3. 클래스 인덱스 [1, 8400]
-
-        // 양자화된 모델이므로 UINT8로 출력을 준비하고, 나중에 dequantize 합니다
-        byte[][][] outputBoxes = new byte[1][NUM_DETECTIONS][4];
-        byte[][] outputScores = new byte[1][NUM_DETECTIONS];
-        byte[][] outputClasses = new byte[1][NUM_DETECTIONS];
-
-        // 모델 실행을 위한 입출력 매핑
-        Map<Integer, Object> outputs = new HashMap<>();
-        outputs.put(0, outputBoxes);
-        outputs.put(1, outputScores);
-        outputs.put(2, outputClasses);
+    /**
+     * 서버에서 받은 상품 카탈로그를 적용하고 다음 실행을 위해 저장합니다.
+     * 다음 프레임부터 새 카탈로그가 적용됩니다.
+     */
+    public void updateProductCatalog(String json) throws JSONException {
+        ProductCatalog catalog = ProductCatalog.fromJson(json, labels);
+        logUnknownLabels(catalog);
+        this.productCatalog = catalog;
 
-        // 모델 실행
-        try {
-            Log.d(TAG, "모델 입력 텐서 타입: " + interpreter.getInputTensor(0).dataType());
-            Log.d(TAG, "모델 입력 텐서 형상: " + java.util.Arrays.toString(interpreter.getInputTensor(0).shape()));
+        try (FileOutputStream out = new FileOutputStream(new File(context.getFilesDir(), CATALOG_FILE))) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.e(TAG, "상품 카탈로그 저장 오류: " + e.getMessage());
+        }
+        Log.d(TAG, "상품 카탈로그 업데이트 완료");
+    }
 
-            long startTime = System.currentTimeMillis();
-            interpreter.runForMultipleInputsOutputs(new Object[]{inputBuffer}, outputs);
-            long endTime = System.currentTimeMillis();
+    public ProductCatalog getProductCatalog() {
+        return productCatalog;
+    }
 
-            Log.d("timecheck", "모델 추론 시간: " + (endTime - startTime) + "ms");
+    public List<String> getLabels() {
+        return labels;
+    }
 
-            // 출력 처리
-            List<Detection> detections = new ArrayList<>();
-            float confidenceThreshold = 0.4f;
+    public ModelDescriptor getDescriptor() {
+        return descriptor;
+    }
 
-            // 바운딩 박스 양자화 파라미터 (제대로 된 값으로 설정)
-            float boxScale = interpreter.getOutputTensor(0).quantizationParams().getScale();
-            int boxZeroPoint = interpreter.getOutputTensor(0).quantizationParams().getZeroPoint();
+    private void logUnknownLabels(ProductCatalog catalog) {
+        if (!catalog.getUnknownLabels().isEmpty()) {
+            Log.w(TAG, "라벨 목록에 없는 상품은 무시됩니다: " + catalog.getUnknownLabels());
+        }
+    }
 
-// 값이 0이거나 NaN이면 하드코딩된 값 사용
-            if (boxScale == 0 || Float.isNaN(boxScale)) {
-                boxScale = 0.01f;
-                boxZeroPoint = 0;
-            } else {
-                Log.d(TAG, "실제 바운딩 박스 양자화 스케일 사용: " + boxScale);
+    private static String readFully(InputStream in) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                builder.append(line).append('\n');
             }
+        }
+        return builder.toString();
+    }
 
-// 신뢰도 스케일
-            float scoreScale = interpreter.getOutputTensor(1).quantizationParams().getScale();
-            int scoreZeroPoint = interpreter.getOutputTensor(1).quantizationParams().getZeroPoint();
-            if (scoreScale == 0 || Float.isNaN(scoreScale)) {
-                scoreScale = 0.004f;
-                scoreZeroPoint = 0;
-            }
+    /**
+     * 비트맵 이미지를 처리하고 객체 탐지를 수행합니다.
+     * 기존 Detection 객체 목록이 필요한 UI 코드용으로, detect() 결과에서 높은 신뢰도 탐지만 변환해서 반환합니다.
+     * @param bitmap 처리할 이미지
+     * @return 탐지된 객체 목록
+     */
+    public synchronized List<Detection> processImage(Bitmap bitmap) {
+        DetectionBatch batch = detect(bitmap);
+        batch.removeLowConfidence();
+        return toDetections(batch);
+    }
 
-// 클래스 인덱스에 대한 양자화 파라미터
-            float classScale = interpreter.getOutputTensor(2).quantizationParams().getScale();
-            int classZeroPoint = interpreter.getOutputTensor(2).quantizationParams().getZeroPoint();
-            if (classScale == 0 || Float.isNaN(classScale)) {
-                classScale = 1.0f;
-                classZeroPoint = 0;
-            }
-            // 모든 탐지 결과를 저장할 리스트
-            List<Detection> allDetections = new ArrayList<>();
-
-            // 각 탐지 결과 처리
-            for (int i = 0; i < NUM_DETECTIONS; ++i) {
-                // 신뢰도 점수 dequantize (UINT8 -> float)
-                float confidence = ((outputScores[0][i] & 0xFF) - scoreZeroPoint) * scoreScale;
-                 confidence = Math.min(confidence, 1.0f);
-
-                // 신뢰도 임계값 이상인 결과만 처리
-                if (confidence > confidenceThreshold) {
-// 클래스 인덱스 dequantize
-                    int classIndex = (int)(((outputClasses[0][i] & 0xFF) - classZeroPoint) * classScale);
-                    if (classIndex >= 0 && classIndex < labels.size()) {
-                        String label = labels.get(classIndex);
-                        if(!label.equals("cup") && !label.equals("person") && !label.equals("apple") && !label.equals("banana")){ //********************여기서 상품등록하기!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!!
-                            continue;
-                        }
-
-                        // 바운딩 박스 좌표 dequantize (UINT8 -> float)
-                        float x1 = ((outputBoxes[0][i][0] & 0xFF) - boxZeroPoint) * boxScale;
-                        float y1 = ((outputBoxes[0][i][1] & 0xFF) - boxZeroPoint) * boxScale;
-                        float x2 = ((outputBoxes[0][i][2] & 0xFF) - boxZeroPoint) * boxScale;
-                        float y2 = ((outputBoxes[0][i][3] & 0xFF) - boxZeroPoint) * boxScale;
-                        // 모델에서 반환한 원시 좌표값 로그 출력
-                        Log.d(TAG, "원시 좌표 (모델 출력): x1=" + x1 + ", y1=" + y1 + ", x2=" + x2 + ", y2=" + y2);
-
-
-                        // 정규화 (0~1 범위로)
-                        x1 = x1 / INPUT_SIZE;
-                        y1 = y1 / INPUT_SIZE;
-                        x2 = x2 / INPUT_SIZE;
-                        y2 = y2 / INPUT_SIZE;
-
-                        float left = x1 * bitmap.getWidth();
-                        float top = y1 * bitmap.getHeight();
-                        float right = x2 * bitmap.getWidth();
-                        float bottom = y2 * bitmap.getHeight();
-                        // 변환된 좌표값 로그 출력
-                        Log.d(TAG, "변환된 좌표 (이미지 크기 적용): left=" + left + ", top=" + top + ", right=" + right + ", bottom=" + bottom);
-
-                        // 좌표가 유효한지 확인
-                        if (left < 0) left = 0;
-                        if (top < 0) top = 0;
-
-                        // 바운딩 박스 크기가 유효한지 확인
-                        if (right > left && bottom > top) {
-                            Detection detection = new Detection(label, confidence, left, top, right, bottom);
-                            allDetections.add(detection);
-                            Log.d(TAG, "탐지: " + label + ", 신뢰도: " + confidence + ", 좌표: " + left + "," + top + "," + right + "," + bottom);
-                        }
-                    }
-                }
-            }
+    /**
+     * 기존 Detection API를 쓰는 UI 코드를 위한 변환
+     */
+    static List<Detection> toDetections(DetectionBatch batch) {
+        List<Detection> detections = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            detections.add(new Detection(batch.getLabel(i), batch.getConfidence(i),
+                    batch.getLeft(i), batch.getTop(i), batch.getRight(i), batch.getBottom(i)));
+        }
+        return detections;
+    }
 
-            return  applyNMS(allDetections, 0.7f);
+    /**
+     * 비트맵 이미지를 처리하고 객체 탐지를 수행합니다.
+     * 입출력 버퍼와 결과 배치는 재사용하므로 동시에 여러 스레드에서 호출하지 않도록 동기화합니다.
+     * 반환된 배치는 다음 호출 전까지만 유효합니다.
+     * @param bitmap 처리할 이미지
+     * @return NMS까지 적용된 탐지 결과 배치
+     */
+    public synchronized DetectionBatch detect(Bitmap bitmap) {
+        return detect(bitmapSource.set(bitmap));
+    }
 
+    /**
+     * 픽셀 소스(예: 디코드한 이미지 파일, 기록된 프레임)에서 객체 탐지를 수행합니다.
+     * 원본 픽셀을 재사용하는 배열에 한 번만 읽어서 전처리에 넘깁니다.
+     * @return NMS까지 적용된 탐지 결과 배치 (다음 호출 전까지만 유효)
+     */
+    public synchronized DetectionBatch detect(PixelSource source) {
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        if (sourcePixels.length < sourceWidth * sourceHeight) {
+            sourcePixels = new int[sourceWidth * sourceHeight];
+        }
+        source.readPixels(sourcePixels);
+        return detect(sourcePixels, sourceWidth, sourceHeight);
+    }
+
+    /**
+     * 이미 ARGB 배열로 가져온 프레임(예: 카메라 YUV 프레임을 변환한 픽셀)에서 객체 탐지를 수행합니다.
+     * 슬롯 하나로 전처리, 추론, 디코드를 차례대로 실행합니다. 박스는 이 프레임의 좌표로 반환됩니다.
+     * @param pixels ARGB 픽셀 (행 간격 = sourceWidth)
+     * @return NMS까지 적용된 탐지 결과 배치 (다음 호출 전까지만 유효)
+     */
+    public synchronized DetectionBatch detect(int[] pixels, int sourceWidth, int sourceHeight) {
+        results.clear();
+        Slot slot = null;
+        try {
+            slot = freeSlots.take();
+            preprocess(slot, pixels, sourceWidth, sourceHeight);
+            infer(slot);
+            return decode(slot, results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            results.clear();
+            return results;
         } catch (Exception e) {
             Log.e(TAG, "모델 실행 중 오류 발생: " + e.getMessage(), e);
             e.printStackTrace();
-            return new ArrayList<>();
+            results.clear();
+            return results;
+        } finally {
+            releaseSlot(slot);
         }
     }
-    private List<Detection> applyNMS(List<Detection> detections, float iouThreshold) {
-        // 신뢰도가 없으면 빈 리스트 반환
-        if (detections.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        // 신뢰도 기준으로 내림차순 정렬
-        List<Detection> sortedDetections = new ArrayList<>(detections);
-        Collections.sort(sortedDetections, (d1, d2) -> Float.compare(d2.getConfidence(), d1.getConfidence()));
-
-        List<Detection> selectedDetections = new ArrayList<>();
-        boolean[] isRemoved = new boolean[sortedDetections.size()];
-
-        // 사람 클래스에 대해 더 높은 IoU 임계값 사용
-        float personIouThreshold = 0.65f;  // 사람 클래스에 대한 더 높은 임계값
-
-        for (int i = 0; i < sortedDetections.size(); i++) {
-            if (isRemoved[i]) continue;
-
-            Detection current = sortedDetections.get(i);
-            selectedDetections.add(current);
 
-            for (int j = i + 1; j < sortedDetections.size(); j++) {
-                if (isRemoved[j]) continue;
-
-                Detection next = sortedDetections.get(j);
-
-                // 같은 클래스의 객체만 비교
-                if (!current.getLabel().equals(next.getLabel())) {
-                    continue;
-                }
-
-                // IoU 계산
-                float iou = calculateIoU(current, next);
-
-                // 현재 클래스에 맞는 임계값 선택
-                float threshold = current.getLabel().equals("person") ? personIouThreshold : iouThreshold;
+    /**
+     * 사용 가능한 슬롯을 가져옵니다. 파이프라인에서 프레임마다 전처리 전에 호출합니다.
+     * @return 슬롯 (timeoutMs 안에 빈 슬롯이 없으면 null)
+     */
+    public Slot acquireSlot(long timeoutMs) throws InterruptedException {
+        return freeSlots.poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
 
-                // IoU가 임계값보다 크면 중복으로 간주하고 제거
-                if (iou > threshold) {
-                    isRemoved[j] = true;
-                }
-            }
+    /**
+     * 디코드를 마쳤거나 중간에 버려진 프레임의 슬롯을 돌려놓습니다.
+     */
+    public void releaseSlot(Slot slot) {
+        if (slot != null) {
+            freeSlots.offer(slot);
         }
-
-        Log.d(TAG, "NMS 적용 전 탐지 수: " + detections.size() + ", 적용 후: " + selectedDetections.size());
-        return selectedDetections;
     }
 
     /**
-     * 두 바운딩 박스 간의 IoU(Intersection over Union)를 계산합니다.
+     * 1단계: 프레임을 모델 입력 크기로 샘플링하면서 슬롯의 UINT8 입력 버퍼에 바로 채웁니다.
+     * 슬롯마다 버퍼와 전처리 작업 배열이 따로 있으므로 다른 슬롯의 추론, 디코드와 동시에 실행할 수 있습니다.
      */
-    private float calculateIoU(Detection d1, Detection d2) {
-        // 겹치는 영역 계산
-        float xLeft = Math.max(d1.getLeft(), d2.getLeft());
-        float yTop = Math.max(d1.getTop(), d2.getTop());
-        float xRight = Math.min(d1.getRight(), d2.getRight());
-        float yBottom = Math.min(d1.getBottom(), d2.getBottom());
-
-        // 겹치는 영역이 없으면 0 반환
-        if (xRight < xLeft || yBottom < yTop) return 0;
-
-        float intersectionArea = (xRight - xLeft) * (yBottom - yTop);
-
-        // 각 바운딩 박스의 면적 계산
-        float d1Area = (d1.getRight() - d1.getLeft()) * (d1.getBottom() - d1.getTop());
-        float d2Area = (d2.getRight() - d2.getLeft()) * (d2.getBottom() - d2.getTop());
-
-        // IoU 계산
-        return intersectionArea / (d1Area + d2Area - intersectionArea);
+    public void preprocess(Slot slot, int[] pixels, int sourceWidth, int sourceHeight) {
+        slot.transform = slot.preprocessor.process(pixels, sourceWidth, sourceHeight, slot.arena.beginFrame());
     }
 
+    /**
+     * 2단계: 슬롯의 입력 버퍼로 모델을 실행해서 슬롯의 출력 버퍼를 채웁니다.
+     */
+    public void infer(Slot slot) {
+        // 추론 시간은 파이프라인 단계 통계(infer)로 주기적으로 남김
+        synchronized (inferenceLock) {
+            interpreter.runForMultipleInputsOutputs(slot.arena.getInputs(), slot.arena.getOutputs());
+        }
+    }
 
-
+    /**
+     * 3단계: 슬롯의 출력 버퍼를 디코드하고 NMS까지 적용한 결과를 out에 채웁니다.
+     * 박스는 전처리에 넘긴 원본 프레임 좌표입니다.
+     * @return out
+     */
+    public DetectionBatch decode(Slot slot, DetectionBatch out) {
+        synchronized (decodeLock) {
+            // 카탈로그는 다른 스레드에서 교체될 수 있으므로 한 번만 읽어서 디코드와 NMS에 같이 사용
+            ProductCatalog catalog = productCatalog;
+            slot.catalog = catalog;
+
+            // 각 탐지 결과 처리 (클래스별 신뢰도 임계값은 양자화 영역에서 먼저 비교)
+            // 박스는 원본 프레임 좌표로 되돌린 뒤 클래스별 NMS, 카탈로그 임계값 이하는 낮은 신뢰도 탐지로 표시
+            postprocessor.process(slot.outputBuffers, slot.transform, catalog, labels, out);
+            // 프레임마다 문자열을 만들지 않도록 디버그 로그가 켜진 경우에만 (adb shell setprop log.tag.YoloImageProcessor DEBUG)
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "NMS 적용 전 탐지 수: " + postprocessor.getCandidateCount() + ", 적용 후: " + out.size()
+                        + " (낮은 신뢰도 " + postprocessor.getLowConfidenceCount() + ")");
+            }
+            return out;
+        }
+    }
 
     /**
-     * 비트맵을 지정된 크기로 리사이즈합니다.
+     * 프레임 하나의 전처리부터 디코드까지 쓰는 입출력 버퍼 묶음
+     * 슬롯이 여러 개이므로 한 프레임이 인터프리터 안에 있는 동안 다음 프레임을 다른 슬롯에 전처리하고,
+     * 이전 프레임은 또 다른 슬롯에서 디코드할 수 있습니다.
      */
-    private Bitmap resizeBitmap(Bitmap bitmap, int width, int height) {
-        float scaleWidth = ((float) width) / bitmap.getWidth();
-        float scaleHeight = ((float) height) / bitmap.getHeight();
-        Matrix matrix = new Matrix();
-        matrix.postScale(scaleWidth, scaleHeight);
-        return Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, false);
+    public static final class Slot {
+        // 입력 버퍼와 출력 버퍼 (모델 출력은 평탄화된 direct 버퍼로 받아서 인덱스 계산으로 읽음)
+        final TensorArena arena;
+        final ByteBuffer[] outputBuffers;
+        // 원본 픽셀에서 입력 버퍼로 바로 리사이즈 + RGB 변환 (필터링 없이, 기존 createBitmap(..., false)와 동일)
+        final ImagePreprocessor preprocessor;
+        // 마지막 전처리의 원본 <-> 모델 좌표 변환
+        FrameTransform transform;
+        // 마지막 디코드에 쓴 카탈로그 (텐서 기록용)
+        ProductCatalog catalog;
+
+        Slot(ModelDescriptor descriptor, int inputWidth, int inputHeight) {
+            // 원본 픽셀은 카메라 프레임이나 프로세서의 sourcePixels에서 받으므로 스크래치 픽셀 배열은 두지 않음
+            this.arena = new TensorArena(inputWidth * inputHeight * 3);
+            this.outputBuffers = new ByteBuffer[descriptor.getOutputCount()];
+            for (int i = 0; i < outputBuffers.length; i++) {
+                outputBuffers[i] = arena.addDirectOutput(i, descriptor.getOutput(i).numBytes());
+            }
+            this.preprocessor = new ImagePreprocessor(inputWidth, inputHeight,
+                    ImagePreprocessor.ColorMode.RGB, ImagePreprocessor.Sampling.NEAREST, false);
+        }
     }
 
     /**
@@ -0,0 +1,119 @@
+package com.example.quantiztest;
+
+import android.media.Image;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 카메라 YUV_420_888 프레임을 회전까지 적용한 ARGB 픽셀 배열로 변환
+ * TextureView.getBitmap()으로 화면 크기 비트맵을 매번 복사하는 대신,
+ * ImageReader 프레임을 작업 스레드에서 바로 변환해서 모델 전처리에 넘깁니다.
+ * 행 버퍼를 재사용하므로 한 인스턴스를 여러 스레드에서 동시에 쓰지 않습니다.
+ */
+public class YuvConverter {
+    // BT.601 전체 범위 (JFIF) 변환 계수, 16비트 고정소수점
+    private static final int COEFF_RV = 91881;  // 1.402
+    private static final int COEFF_GU = 22554;  // 0.344136
+    private static final int COEFF_GV = 46802;  // 0.714136
+    private static final int COEFF_BU = 116130; // 1.772
+    private static final int ROUND = 1 << 15;
+
+    // 한 줄씩 읽어 오는 평면 데이터 (프레임 크기가 커질 때만 다시 할당)
+    private byte[] yRow = new byte[0];
+    private byte[] uRow = new byte[0];
+    private byte[] vRow = new byte[0];
+
+    /**
+     * 회전 후 출력 너비
+     */
+    public static int outputWidth(int width, int height, int rotation) {
+        return rotation == 90 || rotation == 270 ? height : width;
+    }
+
+    /**
+     * 회전 후 출력 높이
+     */
+    public static int outputHeight(int width, int height, int rotation) {
+        return rotation == 90 || rotation == 270 ? width : height;
+    }
+
+    /**
+     * ImageReader에서 받은 프레임을 변환합니다.
+     * @param rotation 시계 방향 회전 각도 (0, 90, 180, 270)
+     * @param out 최소 width * height 크기의 ARGB 배열
+     */
+    public void convert(Image image, int rotation, int[] out) {
+        Image.Plane[] planes = image.getPlanes();
+        convert(planes[0].getBuffer(), planes[0].getRowStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(),
+                planes[1].getRowStride(), planes[1].getPixelStride(),
+                image.getWidth(), image.getHeight(), rotation, out);
+    }
+
+    /**
+     * Y, U, V 평면을 ARGB로 변환합니다. U/V는 가로, 세로 모두 절반 해상도입니다.
+     * 평면 버퍼의 위치는 변경될 수 있습니다.
+     */
+    public void convert(ByteBuffer yPlane, int yRowStride,
+                        ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                        int width, int height, int rotation, int[] out) {
+        int uvRowBytes = ((width + 1) / 2 - 1) * uvPixelStride + 1;
+        if (yRow.length < width) {
+            yRow = new byte[width];
+        }
+        if (uRow.length < uvRowBytes) {
+            uRow = new byte[uvRowBytes];
+            vRow = new byte[uvRowBytes];
+        }
+
+        for (int y = 0; y < height; y++) {
+            yPlane.position(y * yRowStride);
+            yPlane.get(yRow, 0, width);
+            if ((y & 1) == 0) {
+                // 색차 행은 두 줄마다 한 번만 읽음
+                int uvStart = (y >> 1) * uvRowStride;
+                uPlane.position(uvStart);
+                uPlane.get(uRow, 0, uvRowBytes);
+                vPlane.position(uvStart);
+                vPlane.get(vRow, 0, uvRowBytes);
+            }
+
+            // 회전에 따른 출력 시작 위치와 열 간격
+            int index;
+            int step;
+            switch (rotation) {
+                case 90:
+                    index = height - 1 - y;
+                    step = height;
+                    break;
+                case 180:
+                    index = (height - 1 - y) * width + width - 1;
+                    step = -1;
+                    break;
+                case 270:
+                    index = (width - 1) * height + y;
+                    step = -height;
+                    break;
+                default:
+                    index = y * width;
+                    step = 1;
+                    break;
+            }
+
+            for (int x = 0; x < width; x++, index += step) {
+                int uvIndex = (x >> 1) * uvPixelStride;
+                int luma = (yRow[x] & 0xFF) << 16;
+                int u = (uRow[uvIndex] & 0xFF) - 128;
+                int v = (vRow[uvIndex] & 0xFF) - 128;
+                int r = clamp((luma + COEFF_RV * v + ROUND) >> 16);
+                int g = clamp((luma - COEFF_GU * u - COEFF_GV * v + ROUND) >> 16);
+                int b = clamp((luma + COEFF_BU * u + ROUND) >> 16);
+                out[index] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+}
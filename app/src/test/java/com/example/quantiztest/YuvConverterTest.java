@@ -0,0 +1,122 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * YUV_420_888 평면 변환이 부동소수점 BT.601 변환과 같은지, 회전 배치가 맞는지 확인합니다.
+ */
+public class YuvConverterTest {
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+
+    @Test
+    public void convert_matchesFloatReference_forPlanarAndInterleavedChroma() {
+        for (int pixelStride : new int[]{1, 2}) {
+            Frame frame = new Frame(WIDTH, HEIGHT, pixelStride, 7);
+            int[] out = new int[WIDTH * HEIGHT];
+            new YuvConverter().convert(frame.y, frame.yRowStride, frame.u, frame.v, frame.uvRowStride, pixelStride,
+                    WIDTH, HEIGHT, 0, out);
+
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    int expected = frame.reference(x, y);
+                    int actual = out[y * WIDTH + x];
+                    String at = "stride " + pixelStride + " (" + x + ", " + y + ")";
+                    assertEquals(at, 0xFF, actual >>> 24);
+                    for (int shift = 0; shift <= 16; shift += 8) {
+                        assertEquals(at, (expected >> shift) & 0xFF, (actual >> shift) & 0xFF, 1);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void convert_appliesClockwiseRotation() {
+        Frame frame = new Frame(WIDTH, HEIGHT, 2, 3);
+        YuvConverter converter = new YuvConverter();
+        int[] upright = new int[WIDTH * HEIGHT];
+        converter.convert(frame.y, frame.yRowStride, frame.u, frame.v, frame.uvRowStride, 2, WIDTH, HEIGHT, 0, upright);
+
+        for (int rotation : new int[]{90, 180, 270}) {
+            int outW = YuvConverter.outputWidth(WIDTH, HEIGHT, rotation);
+            int outH = YuvConverter.outputHeight(WIDTH, HEIGHT, rotation);
+            int[] rotated = new int[outW * outH];
+            converter.convert(frame.y, frame.yRowStride, frame.u, frame.v, frame.uvRowStride, 2,
+                    WIDTH, HEIGHT, rotation, rotated);
+
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    int rx, ry;
+                    if (rotation == 90) {
+                        rx = HEIGHT - 1 - y;
+                        ry = x;
+                    } else if (rotation == 180) {
+                        rx = WIDTH - 1 - x;
+                        ry = HEIGHT - 1 - y;
+                    } else {
+                        rx = y;
+                        ry = WIDTH - 1 - x;
+                    }
+                    assertEquals(rotation + " (" + x + ", " + y + ")", upright[y * WIDTH + x], rotated[ry * outW + rx]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 행 끝 여백(row stride)이 있는 합성 YUV 프레임
+     */
+    private static class Frame {
+        final ByteBuffer y;
+        final ByteBuffer u;
+        final ByteBuffer v;
+        final int yRowStride;
+        final int uvRowStride;
+        final int pixelStride;
+
+        Frame(int width, int height, int pixelStride, long seed) {
+            Random random = new Random(seed);
+            this.pixelStride = pixelStride;
+            this.yRowStride = width + 16;
+            this.uvRowStride = (width / 2) * pixelStride + 8;
+            byte[] yBytes = new byte[yRowStride * height];
+            random.nextBytes(yBytes);
+            // 인터리브 배치에서는 U/V가 같은 메모리를 한 바이트 어긋나게 공유
+            byte[] uvBytes = new byte[uvRowStride * (height / 2) + 1];
+            random.nextBytes(uvBytes);
+            this.y = ByteBuffer.wrap(yBytes);
+            if (pixelStride == 2) {
+                this.u = ByteBuffer.wrap(uvBytes);
+                ByteBuffer shifted = ByteBuffer.wrap(uvBytes);
+                shifted.position(1);
+                this.v = shifted.slice();
+            } else {
+                byte[] vBytes = new byte[uvBytes.length];
+                random.nextBytes(vBytes);
+                this.u = ByteBuffer.wrap(uvBytes);
+                this.v = ByteBuffer.wrap(vBytes);
+            }
+        }
+
+        int reference(int x, int row) {
+            int luma = y.get(row * yRowStride + x) & 0xFF;
+            int uvIndex = (row / 2) * uvRowStride + (x / 2) * pixelStride;
+            int cb = (u.get(uvIndex) & 0xFF) - 128;
+            int cr = (v.get(uvIndex) & 0xFF) - 128;
+            int r = clamp(Math.round(luma + 1.402f * cr));
+            int g = clamp(Math.round(luma - 0.344136f * cb - 0.714136f * cr));
+            int b = clamp(Math.round(luma + 1.772f * cb));
+            return (r << 16) | (g << 8) | b;
+        }
+
+        private static int clamp(int value) {
+            return Math.max(0, Math.min(255, value));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+plugins {
+    `java-library`
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// 한글 주석이 있으므로 시스템 로케일과 관계없이 UTF-8로 컴파일 (jmh 소스 세트 포함)
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    // 디코드, NMS, 추적 코드는 안드로이드 API가 없는 core 모듈에 있음
+    implementation(project(":core"))
+    // 합성 YOLO 출력 텐서와 라벨은 core 테스트와 같은 것을 씀 (core/src/testFixtures)
+    implementation(testFixtures(project(":core")))
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    // 릴리스 전 회귀를 비교할 수 있도록 결과를 JSON으로 저장
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // 예: ./gradlew :benchmark:jmh -PjmhIncludes=Tracker
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
+    // DecodeBenchmark 입력을 현장에서 기록한 텐서 로그로 (없으면 합성 프레임)
+    // 예: ./gradlew :benchmark:jmh -PjmhIncludes=Decode -Plog=/path/to/tensors-1700000000000.bin
+    if (project.hasProperty("log")) {
+        benchmarkParameters.put("log", objects.listProperty<String>().value(listOf(project.property("log").toString())))
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.quantiztest;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 벤치마크 입력 생성 (시드가 고정되어 실행마다 같은 입력)
+ * 디코드용 출력 텐서는 core 테스트와 같은 SyntheticYoloOutputs를 씀
+ */
+final class BenchmarkScenes {
+    static final int IMAGE_WIDTH = 1280;
+    static final int IMAGE_HEIGHT = 720;
+    static final int NUM_CLASSES = SyntheticYoloOutputs.NUM_CLASSES;
+    static final int PERSON = SyntheticYoloOutputs.PERSON;
+    static final int CUP = SyntheticYoloOutputs.CUP;
+
+    static final List<String> LABELS = SyntheticYoloOutputs.labels();
+
+    private BenchmarkScenes() {
+    }
+
+    /**
+     * 디코드 입력: 탐지 모델 디스크립터, 라벨, 프레임별 출력 텐서 {boxes, scores, classes}와 원본 프레임 크기
+     */
+    static final class DecodeFrames {
+        final ModelDescriptor descriptor;
+        final List<String> labels;
+        final ByteBuffer[][] outputs;
+        final int[] widths;
+        final int[] heights;
+
+        DecodeFrames(ModelDescriptor descriptor, List<String> labels, ByteBuffer[][] outputs,
+                     int[] widths, int[] heights) {
+            this.descriptor = descriptor;
+            this.labels = labels;
+            this.outputs = outputs;
+            this.widths = widths;
+            this.heights = heights;
+        }
+    }
+
+    /**
+     * 합성 출력 텐서 count개 (원본 프레임은 IMAGE_WIDTH x IMAGE_HEIGHT)
+     */
+    static DecodeFrames syntheticDecodeFrames(int count, long seed) {
+        int[] widths = new int[count];
+        int[] heights = new int[count];
+        Arrays.fill(widths, IMAGE_WIDTH);
+        Arrays.fill(heights, IMAGE_HEIGHT);
+        return new DecodeFrames(SyntheticYoloOutputs.descriptor(), LABELS,
+                SyntheticYoloOutputs.frames(count, seed), widths, heights);
+    }
+
+    /**
+     * TensorRecorder 로그 앞쪽의 탐지 프레임 count개 (앱의 슬롯처럼 direct 버퍼로 복사)
+     * 로그의 탐지 프레임이 count개보다 적으면 처음부터 다시 씁니다.
+     * @throws IOException 로그를 읽지 못했거나 탐지 프레임이 없음
+     */
+    static DecodeFrames recordedDecodeFrames(String log, final int count) throws IOException {
+        final List<ByteBuffer[]> outputs = new ArrayList<>();
+        final List<int[]> sizes = new ArrayList<>();
+        ReplayRunner runner;
+        try (InputStream in = new FileInputStream(log)) {
+            runner = new ReplayRunner(in);
+            runner.setDetectFrameListener(new ReplayRunner.DetectFrameListener() {
+                @Override
+                public void onDetectFrame(long timestamp, ByteBuffer[] frame, int tensors, FrameTransform transform) {
+                    if (outputs.size() >= count) {
+                        return;
+                    }
+                    ByteBuffer[] copy = new ByteBuffer[tensors];
+                    for (int i = 0; i < tensors; i++) {
+                        ByteBuffer src = frame[i].duplicate();
+                        copy[i] = ByteBuffer.allocateDirect(src.remaining()).order(ByteOrder.nativeOrder());
+                        copy[i].put(src);
+                        copy[i].clear();
+                    }
+                    outputs.add(copy);
+                    sizes.add(new int[]{transform.getSourceWidth(), transform.getSourceHeight()});
+                }
+            });
+            runner.run();
+        }
+        if (outputs.isEmpty()) {
+            throw new IOException("탐지 프레임이 없는 텐서 로그입니다: " + log);
+        }
+
+        ByteBuffer[][] frames = new ByteBuffer[count][];
+        int[] widths = new int[count];
+        int[] heights = new int[count];
+        for (int f = 0; f < count; f++) {
+            frames[f] = outputs.get(f % outputs.size());
+            widths[f] = sizes.get(f % sizes.size())[0];
+            heights[f] = sizes.get(f % sizes.size())[1];
+        }
+        return new DecodeFrames(runner.getDetector(), runner.getLabels(), frames, widths, heights);
+    }
+
+    /**
+     * NMS 입력: 사람 위주로 몰려 있는 후보 박스 (같은 객체 주변에 여러 후보가 겹침)
+     */
+    static DetectionBatch crowdedCandidates(int count, long seed) {
+        Random random = new Random(seed);
+        DetectionBatch batch = new DetectionBatch(count);
+        int objects = Math.max(1, count / 8);
+        float[][] centers = new float[objects][];
+        for (int o = 0; o < objects; o++) {
+            centers[o] = new float[]{random.nextFloat() * IMAGE_WIDTH, random.nextFloat() * IMAGE_HEIGHT,
+                    20 + random.nextFloat() * 200, 20 + random.nextFloat() * 300};
+        }
+        for (int i = 0; i < count; i++) {
+            float[] c = centers[random.nextInt(objects)];
+            float cx = c[0] + random.nextFloat() * 20 - 10;
+            float cy = c[1] + random.nextFloat() * 20 - 10;
+            float w = c[2] * (0.8f + random.nextFloat() * 0.4f);
+            float h = c[3] * (0.8f + random.nextFloat() * 0.4f);
+            int classId = random.nextInt(3) == 0 ? random.nextInt(NUM_CLASSES) : PERSON;
+            batch.add(classId, random.nextFloat(), Math.max(0, cx - w / 2), Math.max(0, cy - h / 2),
+                    cx + w / 2, cy + h / 2);
+        }
+        return batch;
+    }
+
+    /**
+     * 사람 클래스만 IoU 임계값이 다른 클래스별 NMS 표 (기본 카탈로그와 같음)
+     */
+    static float[] nmsThresholds() {
+        float[] table = new float[NUM_CLASSES];
+        Arrays.fill(table, NmsEngine.DEFAULT_IOU_THRESHOLD);
+        table[PERSON] = ProductCatalog.PERSON_NMS_IOU;
+        return table;
+    }
+
+    /**
+     * 추적 입력: objects개의 사람/컵이 화면 안에서 움직이는 장면을 frames개 프레임으로 만듭니다.
+     * 객체마다 주기가 frames인 원 궤도를 돌아서 마지막 프레임 다음에 첫 프레임을 이어 붙여도 움직임이 끊기지 않습니다.
+     * noisy이면 탐지 누락(5%)과 낮은 신뢰도 탐지(10%)를 섞어서 실제 탐지 결과처럼 만들고,
+     * 아니면 모든 객체가 매 프레임 높은 신뢰도로 탐지됩니다.
+     */
+    static DetectionBatch[] trackingScene(int objects, int frames, long seed, boolean noisy) {
+        Random random = new Random(seed);
+        float[] cx = new float[objects];
+        float[] cy = new float[objects];
+        float[] radius = new float[objects];
+        float[] phase = new float[objects];
+        float[] width = new float[objects];
+        float[] height = new float[objects];
+        int[] classId = new int[objects];
+        for (int o = 0; o < objects; o++) {
+            boolean person = random.nextInt(3) > 0;
+            classId[o] = person ? PERSON : CUP;
+            width[o] = person ? 40 + random.nextFloat() * 60 : 15 + random.nextFloat() * 20;
+            height[o] = person ? 100 + random.nextFloat() * 120 : 20 + random.nextFloat() * 25;
+            radius[o] = 10 + random.nextFloat() * 60;
+            cx[o] = radius[o] + width[o] / 2 + random.nextFloat() * (IMAGE_WIDTH - 2 * radius[o] - width[o]);
+            cy[o] = radius[o] + height[o] / 2 + random.nextFloat() * (IMAGE_HEIGHT - 2 * radius[o] - height[o]);
+            phase[o] = random.nextFloat() * 2 * (float) Math.PI;
+        }
+
+        float[] lowThresholds = new float[NUM_CLASSES];
+        Arrays.fill(lowThresholds, 0.5f);
+        DetectionBatch[] scene = new DetectionBatch[frames];
+        for (int f = 0; f < frames; f++) {
+            DetectionBatch batch = new DetectionBatch(objects);
+            batch.setLabels(LABELS);
+            double angle = 2 * Math.PI * f / frames;
+            for (int o = 0; o < objects; o++) {
+                int roll = noisy ? random.nextInt(100) : 100;
+                if (roll < 5) {
+                    continue;
+                }
+                float confidence = roll < 15 ? 0.2f + random.nextFloat() * 0.3f : 0.6f + random.nextFloat() * 0.4f;
+                float x = cx[o] + radius[o] * (float) Math.cos(angle + phase[o]);
+                float y = cy[o] + radius[o] * (float) Math.sin(angle + phase[o]);
+                batch.add(classId[o], confidence, x - width[o] / 2, y - height[o] / 2,
+                        x + width[o] / 2, y + height[o] / 2);
+            }
+            batch.markLowConfidence(lowThresholds);
+            scene[f] = batch;
+        }
+        return scene;
+    }
+}
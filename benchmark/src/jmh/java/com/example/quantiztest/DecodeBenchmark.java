@@ -0,0 +1,79 @@
+package com.example.quantiztest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * YoloImageProcessor가 추론 후 호출하는 출력 디코드의 프레임당 시간
+ * 같은 uint8 출력 텐서 여러 프레임을 양자화 영역에서 거르는 YoloOutputDecoder(decode)와
+ * 기존 processImage 루프(baselineDecode, 모든 점수를 float로 변환 후 0.4와 비교)로 각각 디코드합니다.
+ * 두 쪽이 같은 탐지 결과를 내도록 디코더에는 기존 루프와 같은 클래스/임계값의 카탈로그를 씁니다.
+ *
+ * 입력은 log 파라미터의 TensorRecorder 로그에서 읽고, 비어 있으면 합성 프레임을 씁니다.
+ * 예: ./gradlew :benchmark:jmh -PjmhIncludes=Decode -Plog=/path/to/tensors-1700000000000.bin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DecodeBenchmark {
+    private static final int FRAMES = 32;
+
+    // 현장에서 기록한 텐서 로그 경로 (YOLO-NAS 출력만 지원, 비어 있으면 합성 프레임)
+    @Param({""})
+    public String log;
+
+    private ByteBuffer[][] frames;
+    private int[] widths;
+    private int[] heights;
+    private OutputDecoder decoder;
+    private BaselineYoloDecoder baseline;
+    private final DetectionBatch out = new DetectionBatch(256);
+
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkScenes.DecodeFrames input = log.isEmpty()
+                ? BenchmarkScenes.syntheticDecodeFrames(FRAMES, 42L)
+                : BenchmarkScenes.recordedDecodeFrames(log, FRAMES);
+        frames = input.outputs;
+        widths = input.widths;
+        heights = input.heights;
+        baseline = new BaselineYoloDecoder(input.descriptor, input.labels);
+        decoder = OutputDecoder.forModel(input.descriptor);
+        decoder.setCatalog(BaselineYoloDecoder.matchingCatalog(input.labels));
+        out.setLabels(input.labels);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public int decode() {
+        int total = 0;
+        for (int f = 0; f < frames.length; f++) {
+            out.clear();
+            total += decoder.decode(frames[f], widths[f], heights[f], out);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public int baselineDecode() {
+        int total = 0;
+        for (int f = 0; f < frames.length; f++) {
+            ByteBuffer[] frame = frames[f];
+            out.clear();
+            total += baseline.decode(frame[0], frame[1], frame[2], widths[f], heights[f], out);
+        }
+        return total;
+    }
+}
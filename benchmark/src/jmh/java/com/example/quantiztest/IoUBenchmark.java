@@ -0,0 +1,64 @@
+package com.example.quantiztest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimpleTracker의 IoU 계산 한 번당 시간 (표시 위치 기준과 예측 위치 기준)
+ * 50개 추적 객체와 다음 프레임 탐지 50개의 모든 쌍을 계산합니다 (겹치는 쌍과 안 겹치는 쌍이 섞임).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IoUBenchmark {
+    private static final int OBJECTS = 50;
+    private static final int PAIRS = OBJECTS * OBJECTS;
+
+    private SimpleTracker tracker;
+    private List<SimpleTracker.TrackedObject> tracked;
+    private DetectionBatch detections;
+
+    @Setup
+    public void setUp() {
+        // 누락 없는 장면이라 추적 객체와 탐지가 모두 OBJECTS개
+        DetectionBatch[] scene = BenchmarkScenes.trackingScene(OBJECTS, 16, 11L, false);
+        tracker = new SimpleTracker(KalmanMotionModel.FACTORY, () -> 0L);
+        tracked = tracker.update(scene[0]);
+        detections = scene[1];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public float calculateIoU() {
+        float sum = 0;
+        for (int k = 0; k < tracked.size(); k++) {
+            SimpleTracker.TrackedObject obj = tracked.get(k);
+            for (int i = 0; i < detections.size(); i++) {
+                sum += tracker.calculateIoU(obj, detections, i);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public float calculateIoUWithPrediction() {
+        float sum = 0;
+        for (int k = 0; k < tracked.size(); k++) {
+            SimpleTracker.TrackedObject obj = tracked.get(k);
+            for (int i = 0; i < detections.size(); i++) {
+                sum += tracker.calculateIoUWithPrediction(obj, detections, i);
+            }
+        }
+        return sum;
+    }
+}
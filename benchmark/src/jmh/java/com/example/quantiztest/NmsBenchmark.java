@@ -0,0 +1,46 @@
+package com.example.quantiztest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 두 NMS 구현의 프레임당 시간: 격자 기반 NmsEngine과 기존 O(n²) 전체 쌍 비교 (PairwiseNms)
+ * 후보 수는 보통 프레임(수백 개)부터 붐비는 프레임(수천 개)까지 비교합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NmsBenchmark {
+    @Param({"100", "1000", "4000"})
+    public int candidates;
+
+    private DetectionBatch batch;
+    private float[] thresholds;
+    private final NmsEngine grid = new NmsEngine();
+    private final PairwiseNms pairwise = new PairwiseNms();
+
+    @Setup
+    public void setUp() {
+        batch = BenchmarkScenes.crowdedCandidates(candidates, 3L);
+        thresholds = BenchmarkScenes.nmsThresholds();
+        grid.setIouThresholds(NmsEngine.DEFAULT_IOU_THRESHOLD, thresholds);
+    }
+
+    @Benchmark
+    public int gridNms() {
+        return grid.select(batch);
+    }
+
+    @Benchmark
+    public int pairwiseNms() {
+        return pairwise.select(batch, thresholds);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.quantiztest;
+
+import java.util.Arrays;
+
+/**
+ * 격자 NMS(NmsEngine) 이전의 applyNMS: 신뢰도 순 정렬 후 같은 클래스의 모든 쌍을 비교하는 O(n²) 탐욕 NMS
+ * NmsEngine과 비교하는 기준으로만 사용합니다 (정렬과 제거 순서가 같아 결과도 같음).
+ */
+final class PairwiseNms {
+    private Integer[] sorted = new Integer[0];
+    private boolean[] removed = new boolean[0];
+    private int[] selected = new int[0];
+
+    /**
+     * @return 남은 탐지 수 (인덱스는 getSelected로 신뢰도 순서대로 조회)
+     */
+    int select(DetectionBatch detections, float[] iouThresholds) {
+        int n = detections.size();
+        if (sorted.length < n) {
+            sorted = new Integer[n];
+            removed = new boolean[n];
+            selected = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+            removed[i] = false;
+        }
+        // 기존 구현과 같이 박싱된 인덱스를 안정 정렬
+        Arrays.sort(sorted, 0, n,
+                (a, b) -> Float.compare(detections.getConfidence(b), detections.getConfidence(a)));
+
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (removed[i]) continue;
+            int current = sorted[i];
+            selected[count++] = current;
+            int classId = detections.getClassId(current);
+            for (int j = i + 1; j < n; j++) {
+                if (removed[j]) continue;
+                int next = sorted[j];
+                if (detections.getClassId(next) != classId) continue;
+                if (iou(detections, current, next) > iouThresholds[classId]) {
+                    removed[j] = true;
+                }
+            }
+        }
+        return count;
+    }
+
+    int getSelected(int k) {
+        return selected[k];
+    }
+
+    private static float iou(DetectionBatch b, int i, int j) {
+        float xLeft = Math.max(b.getLeft(i), b.getLeft(j));
+        float yTop = Math.max(b.getTop(i), b.getTop(j));
+        float xRight = Math.min(b.getRight(i), b.getRight(j));
+        float yBottom = Math.min(b.getBottom(i), b.getBottom(j));
+        if (xRight < xLeft || yBottom < yTop) return 0;
+        float intersection = (xRight - xLeft) * (yBottom - yTop);
+        float area1 = (b.getRight(i) - b.getLeft(i)) * (b.getBottom(i) - b.getTop(i));
+        float area2 = (b.getRight(j) - b.getLeft(j)) * (b.getBottom(j) - b.getTop(j));
+        return intersection / (area1 + area2 - intersection);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.quantiztest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SimpleTracker.update 한 번(한 프레임)당 시간
+ * 객체 5개(평소 매장), 50개(붐비는 매장), 500개(한계 확인) 장면을 같은 트래커에 계속 이어서 넣습니다.
+ * 장면은 주기적으로 움직여서 끝에서 처음으로 돌아가도 ID가 유지되고, 누락과 낮은 신뢰도 탐지가 섞여 있습니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TrackerBenchmark {
+    private static final int FRAMES = 120;
+    private static final long FRAME_INTERVAL_MS = 100;
+
+    @Param({"5", "50", "500"})
+    public int objects;
+
+    private DetectionBatch[] scene;
+    private SimpleTracker tracker;
+    private int frame;
+    private long timestampMs;
+
+    @Setup
+    public void setUp() {
+        scene = BenchmarkScenes.trackingScene(objects, FRAMES, 5L, true);
+        tracker = new SimpleTracker(KalmanMotionModel.FACTORY);
+        // 객체가 모두 만들어지고 확정된 상태에서 측정 시작
+        for (int f = 0; f < FRAMES; f++) {
+            update();
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        DetectionBatch detections = scene[frame];
+        frame = (frame + 1) % FRAMES;
+        timestampMs += FRAME_INTERVAL_MS;
+        return tracker.update(detections, timestampMs).size();
+    }
+}
@@ -0,0 +1,33 @@
+plugins {
+    `java-library`
+    // src/testFixtures: core 테스트와 :benchmark가 같이 쓰는 합성 출력 텐서, 라벨
+    `java-test-fixtures`
+}
+
+// 안드로이드 API 없이 JVM에서 돌아가는 탐지 디코드, NMS, 추적, 선/키오스크 영역 판정
+// (앱, 벤치마크, 서버 재생에서 같이 사용)
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// 한글 주석이 있으므로 시스템 로케일과 관계없이 UTF-8로 컴파일
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    // ProductCatalog.fromJson (사용하는 쪽 컴파일 경로에는 노출하지 않음, 안드로이드에서는 플랫폼 org.json을 쓰므로 앱에서는 제외)
+    implementation("org.json:json:20231013")
+    testImplementation("junit:junit:4.13.2")
+}
+
+// 현장에서 기록한 텐서 로그를 재생해서 처리량, 단계별 시간, 정답과의 차이를 출력
+// 예: ./gradlew :core:replay -Plog=/path/to/tensors-1700000000000.bin
+tasks.register<JavaExec>("replay") {
+    group = "verification"
+    description = "기록된 텐서 로그를 디코드, NMS, 추적, 선/키오스크 판정에 다시 넣고 정답과 비교합니다"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.quantiztest.ReplayRunner")
+    args(project.findProperty("log")?.toString() ?: "")
+}
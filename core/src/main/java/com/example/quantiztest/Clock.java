@@ -0,0 +1,19 @@
+package com.example.quantiztest;
+
+/**
+ * 트래커가 프레임 시각을 받지 못했을 때 쓰는 현재 시각 (테스트에서 시간을 직접 넘길 수 있도록 주입)
+ */
+public interface Clock {
+
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long nowMs() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * 현재 시각 (밀리초)
+     */
+    long nowMs();
+}
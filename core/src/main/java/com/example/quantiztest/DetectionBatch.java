@@ -0,0 +1,179 @@
+package com.example.quantiztest;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 한 프레임의 탐지 결과를 객체 없이 병렬 배열(struct-of-arrays)로 보관하는 배치
+ * 디코드, NMS, 트래커가 같은 배치를 바로 읽고 쓰며, 프레임마다 clear() 후 재사용합니다.
+ * UI에서 쓰던 Detection 객체 목록은 YoloImageProcessor.toDetections()로 변환해서 얻습니다.
+ * 탐지마다 낮은 신뢰도 여부를 함께 보관하며, 트래커는 낮은 신뢰도 탐지로 새 객체를 만들지 않습니다.
+ */
+public class DetectionBatch {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private float[] left;
+    private float[] top;
+    private float[] right;
+    private float[] bottom;
+    private float[] confidence;
+    private int[] classId;
+    private boolean[] lowConfidence;
+    private int count;
+
+    // 클래스 ID -> 라벨 조회용 (UI 변환 및 새 추적 객체 생성 시에만 사용)
+    private List<String> labels;
+
+    public DetectionBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DetectionBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        left = new float[capacity];
+        top = new float[capacity];
+        right = new float[capacity];
+        bottom = new float[capacity];
+        confidence = new float[capacity];
+        classId = new int[capacity];
+        lowConfidence = new boolean[capacity];
+    }
+
+    /**
+     * 다음 프레임을 위해 비웁니다. 배열은 그대로 재사용합니다.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * 탐지 결과를 추가하고 인덱스를 반환합니다. 용량이 부족할 때만 배열을 늘립니다.
+     */
+    public int add(int classId, float confidence, float left, float top, float right, float bottom) {
+        if (count == this.left.length) {
+            grow(count * 2);
+        }
+        int i = count++;
+        this.classId[i] = classId;
+        this.confidence[i] = confidence;
+        this.left[i] = left;
+        this.top[i] = top;
+        this.right[i] = right;
+        this.bottom[i] = bottom;
+        this.lowConfidence[i] = false;
+        return i;
+    }
+
+    /**
+     * 다른 배치의 index번째 탐지 결과를 복사해서 추가합니다 (신뢰도 단계 포함).
+     */
+    public int addFrom(DetectionBatch other, int index) {
+        int i = add(other.classId[index], other.confidence[index],
+                other.left[index], other.top[index], other.right[index], other.bottom[index]);
+        lowConfidence[i] = other.lowConfidence[index];
+        return i;
+    }
+
+    /**
+     * index번째 탐지 결과를 덮어씁니다 (제자리 변환/압축용).
+     */
+    public void set(int index, int classId, float confidence, float left, float top, float right, float bottom) {
+        this.classId[index] = classId;
+        this.confidence[index] = confidence;
+        this.left[index] = left;
+        this.top[index] = top;
+        this.right[index] = right;
+        this.bottom[index] = bottom;
+    }
+
+    /**
+     * 클래스별 임계값 이하인 탐지를 낮은 신뢰도로 표시합니다 (디코드는 낮은 신뢰도 하한으로 하고, NMS 뒤에 호출).
+     * @param thresholds 클래스 ID -> 신뢰도 임계값 (이 값을 넘어야 높은 신뢰도)
+     * @return 낮은 신뢰도 탐지 수
+     */
+    public int markLowConfidence(float[] thresholds) {
+        int low = 0;
+        for (int i = 0; i < count; i++) {
+            int id = classId[i];
+            lowConfidence[i] = id >= 0 && id < thresholds.length && !(confidence[i] > thresholds[id]);
+            if (lowConfidence[i]) {
+                low++;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 낮은 신뢰도 탐지를 빼고 순서를 유지한 채 앞으로 모읍니다 (높은 신뢰도만 필요한 UI용).
+     */
+    public void removeLowConfidence() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (lowConfidence[i]) continue;
+            if (kept != i) {
+                set(kept, classId[i], confidence[i], left[i], top[i], right[i], bottom[i]);
+                lowConfidence[kept] = false;
+            }
+            kept++;
+        }
+        count = kept;
+    }
+
+    /**
+     * 앞의 count개만 남깁니다.
+     */
+    public void truncate(int count) {
+        this.count = Math.min(this.count, count);
+    }
+
+    private void grow(int capacity) {
+        left = Arrays.copyOf(left, capacity);
+        top = Arrays.copyOf(top, capacity);
+        right = Arrays.copyOf(right, capacity);
+        bottom = Arrays.copyOf(bottom, capacity);
+        confidence = Arrays.copyOf(confidence, capacity);
+        classId = Arrays.copyOf(classId, capacity);
+        lowConfidence = Arrays.copyOf(lowConfidence, capacity);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int capacity() {
+        return left.length;
+    }
+
+    public void setLabels(List<String> labels) {
+        this.labels = labels;
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public int getClassId(int i) { return classId[i]; }
+    public float getConfidence(int i) { return confidence[i]; }
+    public float getLeft(int i) { return left[i]; }
+    public float getTop(int i) { return top[i]; }
+    public float getRight(int i) { return right[i]; }
+    public float getBottom(int i) { return bottom[i]; }
+    public float getCenterX(int i) { return (left[i] + right[i]) / 2; }
+    public float getCenterY(int i) { return (top[i] + bottom[i]) / 2; }
+    public boolean isLowConfidence(int i) { return lowConfidence[i]; }
+
+    /**
+     * 클래스 ID에 해당하는 라벨을 반환합니다.
+     */
+    public String getLabel(int i) {
+        int id = classId[i];
+        if (labels == null || id < 0 || id >= labels.size()) {
+            return String.valueOf(id);
+        }
+        return labels.get(id);
+    }
+}
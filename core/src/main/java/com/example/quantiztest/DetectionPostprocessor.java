@@ -0,0 +1,96 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * 탐지 모델 출력 텐서에서 최종 탐지 결과까지의 후처리 (디코드 -> 원본 좌표 변환 -> 클래스별 NMS -> 낮은 신뢰도 표시)
+ * 앱의 디코드 단계와 기록된 텐서 재생(ReplayRunner)이 같은 코드를 쓰도록 한곳에 모았습니다.
+ * 후보 배치와 NMS 작업 배열을 재사용하므로 한 인스턴스를 여러 스레드에서 동시에 쓰지 않습니다.
+ */
+public class DetectionPostprocessor {
+    private final OutputDecoder decoder;
+    private final int inputWidth;
+    private final int inputHeight;
+
+    // 디코드 후보 (프레임마다 재사용)
+    private final DetectionBatch candidates = new DetectionBatch(256);
+    private final NmsEngine nms = new NmsEngine();
+    private int lowConfidenceCount;
+
+    /**
+     * @param descriptor 탐지 모델 디스크립터 (입력 크기와 출력 레이아웃)
+     * @throws IllegalArgumentException 지원하지 않는 출력 레이아웃
+     */
+    public DetectionPostprocessor(ModelDescriptor descriptor) {
+        TensorSpec input = descriptor.getInput(0);
+        this.inputHeight = input.dim(1);
+        this.inputWidth = input.dim(2);
+        this.decoder = OutputDecoder.forModel(descriptor);
+    }
+
+    /**
+     * 디코드부터 낮은 신뢰도 표시까지 한 번에 실행합니다.
+     * @param outputs 출력 텐서 버퍼 (디스크립터의 출력 순서)
+     * @param transform 전처리의 원본 <-> 모델 좌표 변환
+     * @param catalog 이번 프레임에 쓸 카탈로그 (디코드와 NMS에 같이 사용)
+     * @return out
+     */
+    public DetectionBatch process(ByteBuffer[] outputs, FrameTransform transform, ProductCatalog catalog,
+                                  List<String> labels, DetectionBatch out) {
+        decode(outputs, transform, catalog);
+        return suppress(catalog, labels, out);
+    }
+
+    /**
+     * 출력 텐서를 디코드해서 원본 프레임 좌표의 후보로 만듭니다.
+     * 클래스별 신뢰도 임계값은 양자화 영역에서 먼저 비교합니다.
+     * @return 후보 수
+     */
+    public int decode(ByteBuffer[] outputs, FrameTransform transform, ProductCatalog catalog) {
+        decoder.setCatalog(catalog);
+        candidates.clear();
+        // 박스는 모델 입력 좌표로 디코드한 뒤 원본 프레임 좌표로 되돌림
+        decoder.decode(outputs, inputWidth, inputHeight, candidates);
+        transform.mapToSource(candidates);
+        return candidates.size();
+    }
+
+    /**
+     * 후보에 클래스별 NMS를 적용해서 out에 채우고, 카탈로그 임계값 이하는 낮은 신뢰도 탐지로 표시합니다.
+     * @return out
+     */
+    public DetectionBatch suppress(ProductCatalog catalog, List<String> labels, DetectionBatch out) {
+        // 클래스별 NMS (IoU 임계값은 카탈로그의 클래스별 표 사용)
+        candidates.setLabels(labels);
+        out.setLabels(labels);
+        nms.setIouThresholds(NmsEngine.DEFAULT_IOU_THRESHOLD, catalog.getNmsIouThresholds());
+        nms.apply(candidates, out);
+
+        // 낮은 신뢰도 탐지는 트래커가 기존 객체를 이어 붙이는 데만 사용
+        lowConfidenceCount = out.markLowConfidence(catalog.getThresholds());
+        return out;
+    }
+
+    /**
+     * 마지막 디코드의 NMS 전 후보 수
+     */
+    public int getCandidateCount() {
+        return candidates.size();
+    }
+
+    /**
+     * 마지막 suppress에서 낮은 신뢰도로 표시된 탐지 수
+     */
+    public int getLowConfidenceCount() {
+        return lowConfidenceCount;
+    }
+
+    public int getInputWidth() {
+        return inputWidth;
+    }
+
+    public int getInputHeight() {
+        return inputHeight;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.quantiztest;
+
+import java.util.List;
+
+/**
+ * 몇 프레임마다 탐지기를 돌릴지 정하는 스케줄러
+ * 탐지하지 않는 프레임에서는 트래커가 속도로 박스를 외삽하므로, 화면과 선 교차 판단은 카메라 속도로 돌고 추론 비용은 늘지 않습니다.
+ * ADAPTIVE 모드는 추적 객체가 빠르게 움직이거나 많을수록 간격을 줄이고, 느리고 적을수록 늘립니다.
+ */
+public class DetectionScheduler {
+
+    public enum Mode {
+        EVERY_FRAME, // 매 프레임 탐지 (기존 동작)
+        FIXED,       // 정해진 간격마다 탐지
+        ADAPTIVE     // 추적 객체 수와 속도로 간격 조절
+    }
+
+    // 외삽으로 허용할 최대 이동량 (박스 크기 대비 비율, 이보다 멀리 갈 것 같으면 간격을 줄임)
+    private static final float MAX_DRIFT_RATIO = 0.3f;
+    // 이보다 추적 객체가 많으면 간격을 한 단계 줄임 (교차, 가림으로 ID가 바뀌기 쉬움)
+    private static final int CROWDED_TRACK_COUNT = 6;
+    // 프레임 간격을 따로 주지 않았을 때 쓰는 값
+    private static final long DEFAULT_FRAME_INTERVAL_MS = 100;
+
+    private final Mode mode;
+    private final int minInterval;
+    private final int maxInterval;
+    // 초당 속도를 프레임당 이동량으로 바꿀 때 쓰는 프레임 간격 (초)
+    private final float frameIntervalSec;
+
+    private int interval;
+    private int framesSinceDetection;
+    private boolean detectionRequested = true;
+
+    // 통계
+    private long framesScheduled = 0;
+    private long framesExtrapolated = 0;
+
+    /**
+     * @param minInterval ADAPTIVE 모드의 최소 간격 (FIXED 모드에서는 고정 간격)
+     * @param maxInterval ADAPTIVE 모드의 최대 간격
+     */
+    public DetectionScheduler(Mode mode, int minInterval, int maxInterval) {
+        this(mode, minInterval, maxInterval, DEFAULT_FRAME_INTERVAL_MS);
+    }
+
+    /**
+     * @param frameIntervalMs 프레임 간격 (추적 속도는 초당 값이라, 간격 안에 움직일 거리를 계산할 때 사용)
+     */
+    public DetectionScheduler(Mode mode, int minInterval, int maxInterval, long frameIntervalMs) {
+        this.mode = mode;
+        this.frameIntervalSec = Math.max(1, frameIntervalMs) / 1000f;
+        this.minInterval = Math.max(1, minInterval);
+        this.maxInterval = Math.max(this.minInterval, maxInterval);
+        this.interval = mode == Mode.EVERY_FRAME ? 1 : this.minInterval;
+    }
+
+    public static DetectionScheduler everyFrame() {
+        return new DetectionScheduler(Mode.EVERY_FRAME, 1, 1);
+    }
+
+    public static DetectionScheduler fixed(int interval) {
+        return new DetectionScheduler(Mode.FIXED, interval, interval);
+    }
+
+    public static DetectionScheduler adaptive(int minInterval, int maxInterval) {
+        return new DetectionScheduler(Mode.ADAPTIVE, minInterval, maxInterval);
+    }
+
+    public static DetectionScheduler adaptive(int minInterval, int maxInterval, long frameIntervalMs) {
+        return new DetectionScheduler(Mode.ADAPTIVE, minInterval, maxInterval, frameIntervalMs);
+    }
+
+    /**
+     * 새 프레임에서 탐지기를 돌릴 차례인지 판단하고 프레임 수를 셉니다.
+     * @return 탐지할 프레임이면 true, 트래커 외삽으로 넘길 프레임이면 false
+     */
+    public synchronized boolean nextFrame() {
+        if (detectionRequested || framesSinceDetection + 1 >= interval) {
+            detectionRequested = false;
+            framesSinceDetection = 0;
+            framesScheduled++;
+            return true;
+        }
+        framesSinceDetection++;
+        framesExtrapolated++;
+        return false;
+    }
+
+    /**
+     * 탐지하기로 한 프레임이 탐지 없이 끝났을 때 (움직임 없음, 파이프라인에서 버려짐 등) 다음 프레임에서 바로 탐지하도록 합니다.
+     */
+    public synchronized void requestDetection() {
+        detectionRequested = true;
+    }
+
+    /**
+     * 탐지 후 추적 결과로 다음 간격을 정합니다 (ADAPTIVE 모드에서만).
+     * 객체가 한 프레임에 박스 크기 대비 speed만큼 움직인다면, 외삽 오차가 MAX_DRIFT_RATIO를 넘기 전에 다시 탐지합니다.
+     */
+    public synchronized void onTracksUpdated(List<SimpleTracker.TrackedObject> trackedObjects) {
+        if (mode != Mode.ADAPTIVE) {
+            return;
+        }
+        if (trackedObjects.isEmpty()) {
+            // 추적 중인 객체가 없으면 새로 들어오는 객체를 빨리 잡도록 최소 간격
+            interval = minInterval;
+            return;
+        }
+        float maxSpeed = 0f;
+        for (SimpleTracker.TrackedObject obj : trackedObjects) {
+            float size = Math.max(1f, Math.min(obj.getRight() - obj.getLeft(), obj.getBottom() - obj.getTop()));
+            float vx = obj.getVelocityX();
+            float vy = obj.getVelocityY();
+            // 한 프레임 동안 박스 크기 대비 이동량
+            float speed = (float) Math.sqrt(vx * vx + vy * vy) * frameIntervalSec / size;
+            maxSpeed = Math.max(maxSpeed, speed);
+        }
+        int next = maxSpeed <= 0f ? maxInterval : (int) (MAX_DRIFT_RATIO / maxSpeed);
+        if (trackedObjects.size() > CROWDED_TRACK_COUNT) {
+            next--;
+        }
+        interval = Math.max(minInterval, Math.min(maxInterval, next));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public synchronized int getInterval() {
+        return interval;
+    }
+
+    public synchronized long getFramesScheduled() {
+        return framesScheduled;
+    }
+
+    public synchronized long getFramesExtrapolated() {
+        return framesExtrapolated;
+    }
+
+    /**
+     * 카메라를 다시 열 때 다음 프레임부터 탐지로 시작합니다.
+     */
+    public synchronized void reset() {
+        framesSinceDetection = 0;
+        detectionRequested = true;
+        interval = mode == Mode.EVERY_FRAME ? 1 : minInterval;
+    }
+}
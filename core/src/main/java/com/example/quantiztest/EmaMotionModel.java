@@ -0,0 +1,115 @@
+package com.example.quantiztest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 중심점 속도의 지수 이동 평균으로 움직임을 추정하는 기본 움직임 모델
+ * 속도는 마지막 보정 이후 실제 경과 시간으로 나눈 초당 이동량이라, 프레임 간격이 바뀌거나 탐지를 건너뛰어도 같은 값이 나옵니다.
+ * 예측과 외삽은 마지막 탐지 박스를 경과 시간만큼 속도로 옮깁니다.
+ */
+public class EmaMotionModel implements MotionModel {
+    public static final Factory FACTORY = new Factory() {
+        @Override
+        public MotionModel create() {
+            return new EmaMotionModel();
+        }
+    };
+
+    private static final float VELOCITY_WEIGHT = 0.7f;
+
+    // 초당 이동량 (px/s)
+    private float velocityX;
+    private float velocityY;
+    private long lastTimestampMs;
+    // 마지막 보정 박스 (예측, 외삽의 시작점)
+    private float lastLeft;
+    private float lastTop;
+    private float lastRight;
+    private float lastBottom;
+
+    @Override
+    public void init(float left, float top, float right, float bottom, long timestampMs) {
+        velocityX = 0;
+        velocityY = 0;
+        lastTimestampMs = timestampMs;
+        rememberBox(left, top, right, bottom);
+    }
+
+    @Override
+    public void correct(float left, float top, float right, float bottom, long timestampMs) {
+        // 속도 업데이트 (이동 평균 사용, 같은 시각의 보정은 속도를 계산할 수 없으므로 위치만 갱신)
+        float dt = elapsedSec(timestampMs);
+        if (dt > 0) {
+            float dx = (left + right) / 2 - (lastLeft + lastRight) / 2;
+            float dy = (top + bottom) / 2 - (lastTop + lastBottom) / 2;
+            velocityX = VELOCITY_WEIGHT * dx / dt + (1 - VELOCITY_WEIGHT) * velocityX;
+            velocityY = VELOCITY_WEIGHT * dy / dt + (1 - VELOCITY_WEIGHT) * velocityY;
+            lastTimestampMs = timestampMs;
+        }
+        rememberBox(left, top, right, bottom);
+    }
+
+    @Override
+    public void predict(long timestampMs, boolean missed, float[] box) {
+        shift(timestampMs, box);
+    }
+
+    @Override
+    public void extrapolate(long timestampMs, float[] box) {
+        shift(timestampMs, box);
+    }
+
+    private void shift(long timestampMs, float[] box) {
+        float dt = elapsedSec(timestampMs);
+        float dx = velocityX * dt;
+        float dy = velocityY * dt;
+        box[0] = lastLeft + dx;
+        box[1] = lastTop + dy;
+        box[2] = lastRight + dx;
+        box[3] = lastBottom + dy;
+    }
+
+    private float elapsedSec(long timestampMs) {
+        return Math.max(0, timestampMs - lastTimestampMs) / 1000f;
+    }
+
+    private void rememberBox(float left, float top, float right, float bottom) {
+        lastLeft = left;
+        lastTop = top;
+        lastRight = right;
+        lastBottom = bottom;
+    }
+
+    @Override
+    public float getVelocityX() { return velocityX; }
+
+    @Override
+    public float getVelocityY() { return velocityY; }
+
+    @Override
+    public void boostVelocity(float factor) {
+        velocityX *= factor;
+        velocityY *= factor;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeFloat(velocityX);
+        out.writeFloat(velocityY);
+        out.writeLong(lastTimestampMs);
+        out.writeFloat(lastLeft);
+        out.writeFloat(lastTop);
+        out.writeFloat(lastRight);
+        out.writeFloat(lastBottom);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        velocityX = in.readFloat();
+        velocityY = in.readFloat();
+        lastTimestampMs = in.readLong();
+        rememberBox(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 얼굴 검출 모델의 그리드 출력(히트맵 [1, 60, 80, 1], 박스 [1, 60, 80, 4])을 얼굴 박스로 변환하는 디코더
+ * 앱의 FaceDetector와 기록된 텐서 재생(ReplayRunner)이 같은 코드를 씁니다.
+ * 후보 배치와 NMS 작업 배열을 재사용하므로 한 인스턴스를 여러 스레드에서 동시에 쓰지 않습니다.
+ */
+public class FaceOutputDecoder {
+    private static final String TAG = "FaceDetector";
+    public static final int GRID_WIDTH = 80;    // 출력 그리드 너비
+    public static final int GRID_HEIGHT = 60;   // 출력 그리드 높이
+    static final double HEATMAP_THRESHOLD = 0.8; // 정규화된 히트맵 점수 임계값
+    static final float NMS_IOU_THRESHOLD = 0.1f; // 얼굴 박스는 조금만 겹쳐도 중복으로 간주
+
+    // 출력 텐서 정보 (모델 로드 시 고정)
+    private final TensorSpec heatmapSpec;
+    private final TensorSpec boxSpec;
+    // 정규화 점수 임계값을 히트맵 원시 값 기준으로 미리 변환한 값
+    private final int minRawHeatmap;
+
+    // 얼굴 후보 배치와 NMS (프레임마다 재사용)
+    private final DetectionBatch candidates = new DetectionBatch();
+    private final NmsEngine nms = new NmsEngine();
+    private Logger logger = Logger.NONE;
+
+    /**
+     * @param descriptor 얼굴 모델 디스크립터 (양자화 파라미터가 없으면 기본값 사용)
+     */
+    public FaceOutputDecoder(ModelDescriptor descriptor) {
+        // 양자화 파라미터와 히트맵 원시 임계값은 모델 로드 시 한 번만 계산
+        this.heatmapSpec = descriptor.getOutput(0).withDefaultQuantization(0.01f, 0);
+        this.boxSpec = descriptor.getOutput(1).withDefaultQuantization(0.01f, 0);
+        this.minRawHeatmap = minHeatmapRawAbove(HEATMAP_THRESHOLD, heatmapSpec.getScale(), heatmapSpec.getZeroPoint());
+
+        // 얼굴은 단일 클래스이므로 기본 임계값 하나만 사용
+        this.nms.setIouThresholds(NMS_IOU_THRESHOLD, null);
+    }
+
+    public void setLogger(Logger logger) {
+        this.logger = logger != null ? logger : Logger.NONE;
+    }
+
+    public TensorSpec getHeatmapSpec() {
+        return heatmapSpec;
+    }
+
+    public TensorSpec getBoxSpec() {
+        return boxSpec;
+    }
+
+    /**
+     * 히트맵과 박스 출력을 디코드하고 NMS를 적용한 얼굴 박스를 신뢰도 내림차순으로 out에 채웁니다.
+     * @param sourceWidth 원본 이미지 너비 (박스 좌표 기준)
+     * @return 얼굴 수
+     */
+    public int decode(ByteBuffer heatmap, ByteBuffer boxes, int sourceWidth, int sourceHeight, DetectionBatch out) {
+        // 모델 로드 시 고정한 양자화 파라미터
+        final float heatmapScale = heatmapSpec.getScale();
+        final int heatmapZeroPoint = heatmapSpec.getZeroPoint();
+        final float boxScale = boxSpec.getScale();
+        final int boxZeroPoint = boxSpec.getZeroPoint();
+
+        candidates.clear();
+        // 로그 문자열은 디버그 로그가 켜진 경우에만 만듦 (프레임마다 한 번만 확인)
+        final boolean debug = logger.isDebugEnabled(TAG);
+
+        // 히트맵 기반 얼굴 검출
+        for (int y = 0; y < GRID_HEIGHT; y++) {
+            for (int x = 0; x < GRID_WIDTH; x++) {
+                int cell = y * GRID_WIDTH + x;
+                // 히트맵 원시 값을 양자화 영역에서 바로 비교 (대부분의 셀은 여기서 걸러짐)
+                int rawValue = heatmap.get(cell) & 0xFF;
+                if (rawValue < minRawHeatmap) {
+                    continue;
+                }
+
+                // 살아남은 셀만 정규화 점수 계산
+                float normalizedScore = normalizeHeatmap(rawValue, heatmapScale, heatmapZeroPoint);
+
+                // 박스 오프셋 구하기 (x, y 오프셋은 쓰지 않음)
+                int boxOffset = cell * 4;
+                float offsetW = ((boxes.get(boxOffset + 2) & 0xFF) - boxZeroPoint) * boxScale;
+                float offsetH = ((boxes.get(boxOffset + 3) & 0xFF) - boxZeroPoint) * boxScale;
+
+                // 중심점 계산 (그리드 위치를 0-1 범위로 정규화)
+                float centerX = x / 80.f;
+                float centerY = y / 60.f;
+
+                // 너비와 높이도 0-1 범위로 정규화
+                float width = offsetW / 80.0f;
+                float height = offsetH / 60.0f;
+
+                // 원본 이미지 기준 너비와 높이
+                float realwidth = width * sourceWidth;
+                float realheight = height * sourceHeight;
+
+                float left = Math.max(0, centerX - width / 2) * sourceWidth - (realwidth * 0.7f);
+                float top = Math.max(0, centerY - height / 2) * sourceHeight - (realheight * 0.7f);
+                float right = Math.min(1, centerX + width / 2) * sourceWidth + (realwidth * 0.7f);
+                float bottom = Math.min(1, centerY + height / 2) * sourceHeight + (realheight * 0.7f);
+
+                // 박스가 유효한지 확인
+                if (right > left && bottom > top) {
+                    candidates.add(0, normalizedScore, left, top, right, bottom);
+                    if (debug) {
+                        logger.d(TAG, "얼굴 탐지: 신뢰도=" + normalizedScore + ", 좌표=" + left + "," + top + "," + right + "," + bottom);
+                    }
+                }
+            }
+        }
+
+        // 중복 제거 후 살아남은 후보만 남김
+        int count = nms.apply(candidates, out);
+        if (debug) {
+            logger.d(TAG, "NMS 적용 전 얼굴 수: " + candidates.size() + ", 적용 후: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * 히트맵 원시 값을 0~1 범위의 정규화 점수로 변환합니다.
+     */
+    static float normalizeHeatmap(int rawValue, float heatmapScale, int heatmapZeroPoint) {
+        float score = (rawValue - heatmapZeroPoint) * heatmapScale;
+
+        float minScore = (0 - heatmapZeroPoint) * heatmapScale;
+        float maxScore = (255 - heatmapZeroPoint) * heatmapScale;
+
+        return (score - minScore) / (maxScore - minScore);
+    }
+
+    /**
+     * normalizeHeatmap(raw) > threshold 를 만족하는 가장 작은 히트맵 원시 값을 구합니다.
+     * 루프와 같은 계산으로 0~255를 한 번씩 검사하므로 경계값 판정이 달라지지 않습니다.
+     */
+    static int minHeatmapRawAbove(double threshold, float heatmapScale, int heatmapZeroPoint) {
+        for (int raw = 0; raw < 256; raw++) {
+            if (normalizeHeatmap(raw, heatmapScale, heatmapZeroPoint) > threshold) {
+                return raw;
+            }
+        }
+        return Quantization.NO_RAW_VALUE;
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.quantiztest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 카메라 프레임을 여러 단계(탐지, 추적, 그리기, 전송 등)로 나눠 처리하는 파이프라인
+ * 단계마다 오래 사는 작업 스레드 하나가 있고, 단계 사이는 가장 오래된 프레임을 버리는 고정 크기 큐로 연결됩니다.
+ * 프레임마다 스레드를 만들지 않고, 느린 단계가 있어도 큐 길이가 정해져 있어 메모리와 지연이 늘어나지 않습니다.
+ * 합류 단계를 두면 앞 단계가 필요 없는 프레임은 그 단계들을 건너뛰고 바로 합류 단계 큐로 들어가므로,
+ * 앞 단계(예: 탐지기)가 밀려 있어도 뒤 단계(예: 추적, 그리기)는 계속 돌아갑니다.
+ * 처리를 마쳤거나 중간에 버려진 프레임은 모두 Callback.recycle()로 돌려보냅니다.
+ */
+public class FramePipeline<T> {
+
+    /**
+     * 파이프라인 한 단계의 처리
+     */
+    public interface Stage<T> {
+        /**
+         * @return 다음 단계로 넘기면 true, 이 프레임의 처리를 여기서 끝내면 false
+         */
+        boolean process(T frame) throws Exception;
+    }
+
+    /**
+     * 합류 단계 앞의 단계를 건너뛸 프레임과 합류 단계에서의 순서
+     * 합류 단계 큐는 순서 키(예: 캡처 시각) 순으로 정렬되고, 이미 처리한 프레임보다 오래된 건너뛴 프레임은 처리하지 않고 버립니다.
+     */
+    public interface Bypass<T> extends FrameQueue.OrderKey<T> {
+        /**
+         * @return 합류 단계 앞의 단계를 모두 건너뛰면 true (예: 탐지기를 돌리지 않는 유지/외삽 프레임)
+         */
+        boolean bypasses(T frame);
+    }
+
+    /**
+     * 프레임 재사용과 오류 보고
+     */
+    public interface Callback<T> {
+        /**
+         * 마지막 단계까지 처리했거나, 큐에서 밀려났거나, 단계에서 중단된 프레임을 돌려받습니다.
+         * @param completed 마지막 단계까지 처리되었으면 true
+         */
+        void recycle(T frame, boolean completed);
+
+        void onError(String stage, Throwable error);
+    }
+
+    /**
+     * 단계별 통계 (스냅샷)
+     */
+    public static class StageStats {
+        public final String name;
+        public final int queueDepth;
+        public final int queueCapacity;
+        public final int maxQueueDepth;
+        public final long received;
+        public final long dropped;
+        public final long processed;
+        public final long failed;
+        public final float averageMillis;
+
+        StageStats(String name, int queueDepth, int queueCapacity, int maxQueueDepth, long received,
+                   long dropped, long processed, long failed, float averageMillis) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.maxQueueDepth = maxQueueDepth;
+            this.received = received;
+            this.dropped = dropped;
+            this.processed = processed;
+            this.failed = failed;
+            this.averageMillis = averageMillis;
+        }
+
+        @Override
+        public String toString() {
+            return name + " 큐 " + queueDepth + "/" + queueCapacity + " (최대 " + maxQueueDepth + ")"
+                    + ", 처리 " + processed + ", 버림 " + dropped + ", 오류 " + failed
+                    + ", 평균 " + String.format("%.1f", averageMillis) + "ms";
+        }
+    }
+
+    // 작업 스레드가 종료 여부를 확인하는 간격
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final String name;
+    private final Callback<T> callback;
+    private final List<StageWorker> workers = new ArrayList<>();
+    private StageWorker merge;
+    private volatile boolean running = false;
+
+    public FramePipeline(String name, Callback<T> callback) {
+        this.name = name;
+        this.callback = callback;
+    }
+
+    /**
+     * 단계를 순서대로 추가합니다. start() 전에만 호출해야 합니다.
+     * @param queueCapacity 이 단계 앞 큐의 크기
+     */
+    public FramePipeline<T> addStage(String stageName, int queueCapacity, Stage<T> stage) {
+        return addStage(stageName, queueCapacity, stage, null);
+    }
+
+    /**
+     * @param dropPolicy 이 단계 앞 큐가 가득 찼을 때 먼저 버릴 프레임 (null이면 가장 오래된 프레임)
+     */
+    public FramePipeline<T> addStage(String stageName, int queueCapacity, Stage<T> stage,
+                                     FrameQueue.DropPolicy<T> dropPolicy) {
+        if (running) {
+            throw new IllegalStateException("pipeline already started");
+        }
+        workers.add(new StageWorker(stageName, new FrameQueue<T>(queueCapacity, dropPolicy), stage, null));
+        return this;
+    }
+
+    /**
+     * 건너뛴 프레임이 다시 합류하는 단계를 추가합니다. 파이프라인마다 하나만 둘 수 있습니다.
+     * @param bypass 앞 단계를 건너뛸 프레임과 이 단계 큐에서의 순서
+     */
+    public FramePipeline<T> addMergeStage(String stageName, int queueCapacity, Stage<T> stage,
+                                          FrameQueue.DropPolicy<T> dropPolicy, Bypass<T> bypass) {
+        if (running) {
+            throw new IllegalStateException("pipeline already started");
+        }
+        if (merge != null) {
+            throw new IllegalStateException("merge stage already added: " + merge.name);
+        }
+        merge = new StageWorker(stageName, new FrameQueue<T>(queueCapacity, dropPolicy, bypass), stage, bypass);
+        workers.add(merge);
+        return this;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers.size(); i++) {
+            StageWorker worker = workers.get(i);
+            worker.next = i + 1 < workers.size() ? workers.get(i + 1) : null;
+            worker.lastKey = Long.MIN_VALUE;
+            worker.thread = new Thread(worker, name + "-" + worker.name);
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * 작업 스레드를 멈추고 큐에 남은 프레임을 모두 돌려보냅니다.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (StageWorker worker : workers) {
+            worker.thread.interrupt();
+        }
+        for (StageWorker worker : workers) {
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker.thread = null;
+        }
+        for (StageWorker worker : workers) {
+            T frame;
+            while ((frame = worker.queue.poll()) != null) {
+                callback.recycle(frame, false);
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 첫 단계에 프레임을 넣습니다. 첫 단계 큐가 가득 차 있으면 가장 오래된 프레임이 버려집니다.
+     * 합류 단계 앞을 건너뛰는 프레임은 합류 단계 큐에 바로 넣습니다.
+     * stop()과 같은 잠금 안에서 실행 여부 확인과 큐 넣기를 하므로, stop()이 큐를 비운 뒤에 들어와 돌려받지 못하는 프레임이 없습니다.
+     * @return 실행 중이 아니어서 받지 않았으면 false (프레임은 바로 돌려보냄)
+     */
+    public synchronized boolean submit(T frame) {
+        if (!running || workers.isEmpty()) {
+            callback.recycle(frame, false);
+            return false;
+        }
+        StageWorker target = merge != null && merge.bypass.bypasses(frame) ? merge : workers.get(0);
+        target.enqueue(frame);
+        return true;
+    }
+
+    public List<StageStats> getStats() {
+        List<StageStats> stats = new ArrayList<>(workers.size());
+        for (StageWorker worker : workers) {
+            stats.add(worker.stats());
+        }
+        return stats;
+    }
+
+    private class StageWorker implements Runnable {
+        final String name;
+        final FrameQueue<T> queue;
+        final Stage<T> stage;
+        // 합류 단계일 때만 있음
+        final Bypass<T> bypass;
+        StageWorker next;
+        Thread thread;
+        // 합류 단계에서 지금까지 처리한 가장 큰 순서 키
+        long lastKey = Long.MIN_VALUE;
+
+        // 작업 스레드에서만 쓰고 통계 조회 시 읽는 값
+        volatile long processed = 0;
+        volatile long failed = 0;
+        volatile long totalNanos = 0;
+        volatile long stale = 0;
+
+        StageWorker(String name, FrameQueue<T> queue, Stage<T> stage, Bypass<T> bypass) {
+            this.name = name;
+            this.queue = queue;
+            this.stage = stage;
+            this.bypass = bypass;
+        }
+
+        void enqueue(T frame) {
+            T dropped = queue.offer(frame);
+            if (dropped != null) {
+                callback.recycle(dropped, false);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                T frame;
+                try {
+                    frame = queue.take(POLL_TIMEOUT_MS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (frame == null) {
+                    continue;
+                }
+                if (bypass != null) {
+                    long key = bypass.orderKey(frame);
+                    if (key < lastKey && bypass.bypasses(frame)) {
+                        // 더 나중 프레임을 이미 처리했으면 건너뛴 프레임(외삽 등)을 뒤늦게 처리하지 않음
+                        stale++;
+                        callback.recycle(frame, false);
+                        continue;
+                    }
+                    lastKey = Math.max(lastKey, key);
+                }
+
+                boolean forward;
+                long start = System.nanoTime();
+                try {
+                    forward = stage.process(frame);
+                } catch (Exception e) {
+                    failed++;
+                    callback.onError(name, e);
+                    forward = false;
+                }
+                totalNanos += System.nanoTime() - start;
+                processed++;
+
+                if (!forward) {
+                    callback.recycle(frame, false);
+                } else if (next != null) {
+                    next.enqueue(frame);
+                } else {
+                    callback.recycle(frame, true);
+                }
+            }
+        }
+
+        StageStats stats() {
+            long count = processed;
+            return new StageStats(name, queue.size(), queue.capacity(), queue.getMaxDepth(),
+                    queue.getOfferCount(), queue.getDropCount() + stale, count, failed,
+                    count == 0 ? 0f : totalNanos / 1e6f / count);
+        }
+    }
+}
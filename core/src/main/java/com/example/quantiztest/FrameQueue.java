@@ -0,0 +1,189 @@
+package com.example.quantiztest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파이프라인 단계 사이를 잇는 고정 크기 프레임 큐 (생산자 하나, 소비자 하나)
+ * 가득 찬 상태에서 새 프레임이 들어오면 가장 오래된 프레임을 버리고 반환하므로,
+ * 뒤 단계가 느려도 생산자가 막히지 않고 항상 최신 프레임이 처리됩니다.
+ * 버림 정책을 주면 가득 찼을 때 정책이 먼저 버려도 된다고 한 프레임(큐에 있는 가장 오래된 것, 없으면 새 프레임)부터 버립니다.
+ * 순서 키를 주면 여러 경로에서 들어오는 프레임을 키(예: 캡처 시각) 순서로 끼워 넣어, 먼저 찍힌 프레임이 먼저 꺼내집니다.
+ * 버려진 프레임은 호출한 쪽에서 재사용 풀로 돌려보내야 합니다.
+ */
+public class FrameQueue<T> {
+
+    /**
+     * 큐가 가득 찼을 때 다른 프레임보다 먼저 버릴 프레임을 고릅니다.
+     */
+    public interface DropPolicy<T> {
+        /**
+         * @return 이 프레임을 먼저 버려도 되면 true (예: 탐지 단계를 그냥 지나가기만 하는 프레임)
+         */
+        boolean dropFirst(T item);
+    }
+
+    /**
+     * 큐 안에서 프레임 순서를 정하는 값 (작은 값이 먼저 꺼내짐)
+     */
+    public interface OrderKey<T> {
+        long orderKey(T item);
+    }
+
+    private final Object[] items;
+    private final DropPolicy<T> dropPolicy;
+    private final OrderKey<T> order;
+    private int head = 0;
+    private int count = 0;
+
+    // 통계 (큐 잠금 안에서만 갱신)
+    private long offerCount = 0;
+    private long dropCount = 0;
+    private int maxDepth = 0;
+
+    public FrameQueue(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param dropPolicy 가득 찼을 때 먼저 버릴 프레임 (null이면 항상 가장 오래된 프레임)
+     */
+    public FrameQueue(int capacity, DropPolicy<T> dropPolicy) {
+        this(capacity, dropPolicy, null);
+    }
+
+    /**
+     * @param order 프레임을 끼워 넣을 순서 (null이면 들어온 순서, 키가 같으면 먼저 들어온 프레임이 앞)
+     */
+    public FrameQueue(int capacity, DropPolicy<T> dropPolicy, OrderKey<T> order) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.items = new Object[capacity];
+        this.dropPolicy = dropPolicy;
+        this.order = order;
+    }
+
+    /**
+     * 프레임을 넣습니다. 큐가 가득 찼으면 프레임 하나를 버리고 반환합니다.
+     * 버림 정책이 없거나 먼저 버릴 프레임이 없으면 가장 오래된 프레임을 버립니다.
+     * @return 버려진 프레임 (새 프레임 자신일 수 있음, 없으면 null)
+     */
+    public synchronized T offer(T item) {
+        T dropped = null;
+        if (count == items.length) {
+            dropCount++;
+            int index = indexToDrop();
+            if (index < 0 && dropPolicy.dropFirst(item)) {
+                // 큐에 있는 프레임이 모두 더 중요하므로 새 프레임을 버림 (순서는 그대로)
+                offerCount++;
+                return item;
+            }
+            dropped = index <= 0 ? removeFirst() : removeAt(index);
+        }
+        insert(item);
+        offerCount++;
+        maxDepth = Math.max(maxDepth, count);
+        notifyAll();
+        return dropped;
+    }
+
+    /**
+     * 가장 오래된 프레임을 꺼냅니다. 비어 있으면 null을 반환합니다.
+     */
+    public synchronized T poll() {
+        return count == 0 ? null : removeFirst();
+    }
+
+    /**
+     * 프레임이 들어올 때까지 최대 timeoutMs 동안 기다렸다가 꺼냅니다.
+     * @return 꺼낸 프레임 (시간 초과 시 null)
+     */
+    public synchronized T take(long timeoutMs) throws InterruptedException {
+        // 시스템 시각이 바뀌어도 대기 시간이 늘거나 줄지 않도록 단조 시계 기준
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (count == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return removeFirst();
+    }
+
+    /**
+     * 버림 정책이 먼저 버리라고 한 가장 오래된 프레임의 위치 (정책이 없으면 0, 그런 프레임이 없으면 -1)
+     */
+    @SuppressWarnings("unchecked")
+    private int indexToDrop() {
+        if (dropPolicy == null) {
+            return 0;
+        }
+        for (int k = 0; k < count; k++) {
+            if (dropPolicy.dropFirst((T) items[(head + k) % items.length])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 맨 뒤에 넣되, 순서 키가 있으면 키가 더 큰 프레임들 앞으로 끼워 넣음
+     */
+    @SuppressWarnings("unchecked")
+    private void insert(T item) {
+        int index = count;
+        if (order != null) {
+            long key = order.orderKey(item);
+            while (index > 0 && order.orderKey((T) items[(head + index - 1) % items.length]) > key) {
+                items[(head + index) % items.length] = items[(head + index - 1) % items.length];
+                index--;
+            }
+        }
+        items[(head + index) % items.length] = item;
+        count++;
+    }
+
+    /**
+     * 앞에서 index번째 프레임을 빼고 뒤 프레임을 한 칸씩 당김
+     */
+    @SuppressWarnings("unchecked")
+    private T removeAt(int index) {
+        T item = (T) items[(head + index) % items.length];
+        for (int k = index; k < count - 1; k++) {
+            items[(head + k) % items.length] = items[(head + k + 1) % items.length];
+        }
+        items[(head + count - 1) % items.length] = null;
+        count--;
+        return item;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T removeFirst() {
+        T item = (T) items[head];
+        items[head] = null;
+        head = (head + 1) % items.length;
+        count--;
+        return item;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public synchronized long getOfferCount() {
+        return offerCount;
+    }
+
+    public synchronized long getDropCount() {
+        return dropCount;
+    }
+
+    public synchronized int getMaxDepth() {
+        return maxDepth;
+    }
+}
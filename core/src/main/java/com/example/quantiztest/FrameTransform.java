@@ -0,0 +1,88 @@
+package com.example.quantiztest;
+
+/**
+ * 원본 프레임 좌표와 모델 입력 좌표 사이의 변환 (불변)
+ * 모델 좌표 = 원본 좌표 * scale + pad 이며, 탐지 박스는 역변환으로 원본 프레임 좌표로 되돌립니다.
+ * 늘려서 맞추는 경우 가로/세로 배율이 다르고 pad는 0, 레터박스인 경우 배율이 같고 pad가 생깁니다.
+ */
+public final class FrameTransform {
+    private final int sourceWidth;
+    private final int sourceHeight;
+    private final float scaleX;
+    private final float scaleY;
+    private final float padX;
+    private final float padY;
+
+    public FrameTransform(int sourceWidth, int sourceHeight, float scaleX, float scaleY, float padX, float padY) {
+        this.sourceWidth = sourceWidth;
+        this.sourceHeight = sourceHeight;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.padX = padX;
+        this.padY = padY;
+    }
+
+    /**
+     * 원본 전체를 모델 입력 크기로 늘려서 맞추는 변환
+     */
+    public static FrameTransform stretch(int sourceWidth, int sourceHeight, int dstWidth, int dstHeight) {
+        return new FrameTransform(sourceWidth, sourceHeight,
+                (float) dstWidth / sourceWidth, (float) dstHeight / sourceHeight, 0, 0);
+    }
+
+    /**
+     * 비율을 유지하고 남는 영역을 가운데 정렬로 채우는 레터박스 변환
+     */
+    public static FrameTransform letterbox(int sourceWidth, int sourceHeight, int dstWidth, int dstHeight) {
+        float scale = Math.min((float) dstWidth / sourceWidth, (float) dstHeight / sourceHeight);
+        int contentWidth = Math.round(sourceWidth * scale);
+        int contentHeight = Math.round(sourceHeight * scale);
+        return new FrameTransform(sourceWidth, sourceHeight, scale, scale,
+                (dstWidth - contentWidth) / 2, (dstHeight - contentHeight) / 2);
+    }
+
+    public float toSourceX(float modelX) {
+        return (modelX - padX) / scaleX;
+    }
+
+    public float toSourceY(float modelY) {
+        return (modelY - padY) / scaleY;
+    }
+
+    public float toModelX(float sourceX) {
+        return sourceX * scaleX + padX;
+    }
+
+    public float toModelY(float sourceY) {
+        return sourceY * scaleY + padY;
+    }
+
+    /**
+     * 모델 입력 좌표의 탐지 박스를 원본 프레임 좌표로 바꿉니다.
+     * 기존 디코드와 같이 왼쪽/위 좌표만 0으로 자르고, 크기가 없어진 박스는 제거합니다.
+     */
+    public void mapToSource(DetectionBatch batch) {
+        int kept = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            float left = Math.max(0, toSourceX(batch.getLeft(i)));
+            float top = Math.max(0, toSourceY(batch.getTop(i)));
+            float right = toSourceX(batch.getRight(i));
+            float bottom = toSourceY(batch.getBottom(i));
+            if (right > left && bottom > top) {
+                batch.set(kept++, batch.getClassId(i), batch.getConfidence(i), left, top, right, bottom);
+            }
+        }
+        batch.truncate(kept);
+    }
+
+    public boolean matches(int sourceWidth, int sourceHeight) {
+        return this.sourceWidth == sourceWidth && this.sourceHeight == sourceHeight;
+    }
+
+    public int getSourceWidth() { return sourceWidth; }
+    public int getSourceHeight() { return sourceHeight; }
+    public float getScaleX() { return scaleX; }
+    public float getScaleY() { return scaleY; }
+    public float getPadX() { return padX; }
+    public float getPadY() { return padY; }
+}
@@ -0,0 +1,221 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 박스와 클래스별 점수가 한 텐서에 들어 있는 단일 출력 디코더
+ * 출력 형상은 [1, N, 4 + C] (후보 우선) 또는 [1, 4 + C, N] (채널 우선)이고,
+ * 후보마다 cx, cy, w, h 다음에 클래스 C개의 점수가 옵니다. UINT8(양자화)과 FLOAT32 출력을 모두 지원합니다.
+ * 후보마다 먼저 카탈로그에 있는 클래스의 점수만 임계값과 비교하고(양자화 출력은 원시 값으로),
+ * 통과한 후보만 전체 클래스 중 최고 점수가 허용된 클래스인지 확인합니다.
+ * 임계값은 카탈로그의 낮은 신뢰도 하한(getLowThreshold)이며, 신뢰도 단계는 NMS 뒤에 표시합니다.
+ */
+public class FusedOutputDecoder implements OutputDecoder {
+    private final int numAnchors;
+    private final int numClasses;
+    private final int anchorStride;   // 후보 하나 이동 시 원소 간격
+    private final int channelStride;  // 채널 하나 이동 시 원소 간격
+    private final boolean quantized;
+    private final float scale;
+    private final int zeroPoint;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final boolean normalizedBoxes;
+
+    private ProductCatalog catalog;
+    // 카탈로그에서 허용된 클래스 ID 목록과 클래스별 임계값
+    private int[] allowedClasses = new int[0];
+    private float[] classThresholds = new float[0];
+    private int[] classMinRaw = new int[0];
+
+    /**
+     * @param output 융합 출력 텐서 정보
+     * @param inputWidth 모델 입력 너비
+     * @param inputHeight 모델 입력 높이
+     * @param normalizedBoxes 박스 좌표가 0~1로 정규화되어 있으면 true, 입력 픽셀 단위면 false
+     */
+    public FusedOutputDecoder(TensorSpec output, int inputWidth, int inputHeight, boolean normalizedBoxes) {
+        int d1 = output.dim(1);
+        int d2 = output.dim(2);
+        // 채널 수(4 + C)가 후보 수보다 작으므로 작은 쪽이 채널 차원
+        boolean channelsFirst = d1 < d2;
+        this.numAnchors = channelsFirst ? d2 : d1;
+        int channels = channelsFirst ? d1 : d2;
+        this.numClasses = channels - 4;
+        this.anchorStride = channelsFirst ? 1 : channels;
+        this.channelStride = channelsFirst ? numAnchors : 1;
+
+        TensorSpec spec = output.withDefaultQuantization(1.0f / 255, 0);
+        this.quantized = !output.isFloat32();
+        this.scale = spec.getScale();
+        this.zeroPoint = spec.getZeroPoint();
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+        this.normalizedBoxes = normalizedBoxes;
+    }
+
+    @Override
+    public void setCatalog(ProductCatalog catalog) {
+        if (catalog == this.catalog) {
+            return;
+        }
+        this.catalog = catalog;
+
+        int count = 0;
+        int[] allowed = new int[numClasses];
+        float[] thresholds = new float[numClasses];
+        int[] minRaw = new int[numClasses];
+        for (int classId = 0; classId < numClasses; classId++) {
+            thresholds[classId] = Float.MAX_VALUE;
+            minRaw[classId] = Quantization.NO_RAW_VALUE;
+            // 신뢰도는 1.0으로 잘리므로 임계값이 1 이상인 클래스는 제외
+            if (catalog != null && catalog.isAllowed(classId) && catalog.getLowThreshold(classId) < 1.0f) {
+                allowed[count++] = classId;
+                thresholds[classId] = catalog.getLowThreshold(classId);
+                minRaw[classId] = Quantization.minRawAbove(thresholds[classId], scale, zeroPoint);
+            }
+        }
+        this.allowedClasses = Arrays.copyOf(allowed, count);
+        this.classThresholds = thresholds;
+        this.classMinRaw = minRaw;
+    }
+
+    public int getNumAnchors() {
+        return numAnchors;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    @Override
+    public int decode(ByteBuffer[] outputs, int imageWidth, int imageHeight, DetectionBatch out) {
+        return quantized
+                ? decodeQuantized(outputs[0], imageWidth, imageHeight, out)
+                : decodeFloat(outputs[0], imageWidth, imageHeight, out);
+    }
+
+    private int decodeQuantized(ByteBuffer output, int imageWidth, int imageHeight, DetectionBatch out) {
+        final int[] allowed = allowedClasses;
+        final int[] minRaw = classMinRaw;
+        final int scoreOffset = 4 * channelStride;
+        int added = 0;
+
+        for (int i = 0; i < numAnchors; i++) {
+            int base = i * anchorStride;
+            int scoreBase = base + scoreOffset;
+
+            // 허용된 클래스 중 임계값을 넘는 최고 점수 (원시 값으로 비교)
+            int bestClass = -1;
+            int bestRaw = -1;
+            for (int c : allowed) {
+                int raw = output.get(scoreBase + c * channelStride) & 0xFF;
+                if (raw >= minRaw[c] && raw > bestRaw) {
+                    bestRaw = raw;
+                    bestClass = c;
+                }
+            }
+            if (bestClass < 0) {
+                continue;
+            }
+
+            // 전체 클래스 중 더 높은 점수가 있으면 다른 물체로 판단
+            if (hasHigherRaw(output, scoreBase, bestRaw)) {
+                continue;
+            }
+
+            float confidence = Math.min(Quantization.dequantize(bestRaw, scale, zeroPoint), 1.0f);
+            float cx = Quantization.dequantize(output.get(base) & 0xFF, scale, zeroPoint);
+            float cy = Quantization.dequantize(output.get(base + channelStride) & 0xFF, scale, zeroPoint);
+            float w = Quantization.dequantize(output.get(base + 2 * channelStride) & 0xFF, scale, zeroPoint);
+            float h = Quantization.dequantize(output.get(base + 3 * channelStride) & 0xFF, scale, zeroPoint);
+            if (addBox(out, bestClass, confidence, cx, cy, w, h, imageWidth, imageHeight)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private boolean hasHigherRaw(ByteBuffer output, int scoreBase, int bestRaw) {
+        for (int c = 0; c < numClasses; c++) {
+            if ((output.get(scoreBase + c * channelStride) & 0xFF) > bestRaw) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int decodeFloat(ByteBuffer output, int imageWidth, int imageHeight, DetectionBatch out) {
+        final int[] allowed = allowedClasses;
+        final float[] thresholds = classThresholds;
+        final int scoreOffset = 4 * channelStride;
+        int added = 0;
+
+        for (int i = 0; i < numAnchors; i++) {
+            int base = i * anchorStride;
+            int scoreBase = base + scoreOffset;
+
+            int bestClass = -1;
+            float bestScore = -Float.MAX_VALUE;
+            for (int c : allowed) {
+                float score = output.getFloat((scoreBase + c * channelStride) * 4);
+                if (score > thresholds[c] && score > bestScore) {
+                    bestScore = score;
+                    bestClass = c;
+                }
+            }
+            if (bestClass < 0) {
+                continue;
+            }
+
+            boolean higher = false;
+            for (int c = 0; c < numClasses && !higher; c++) {
+                higher = output.getFloat((scoreBase + c * channelStride) * 4) > bestScore;
+            }
+            if (higher) {
+                continue;
+            }
+
+            float cx = output.getFloat(base * 4);
+            float cy = output.getFloat((base + channelStride) * 4);
+            float w = output.getFloat((base + 2 * channelStride) * 4);
+            float h = output.getFloat((base + 3 * channelStride) * 4);
+            if (addBox(out, bestClass, Math.min(bestScore, 1.0f), cx, cy, w, h, imageWidth, imageHeight)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 중심/크기 박스를 원본 이미지 좌표로 변환해서 추가합니다.
+     */
+    private boolean addBox(DetectionBatch out, int classId, float confidence,
+                           float cx, float cy, float w, float h, int imageWidth, int imageHeight) {
+        float x1 = cx - w / 2;
+        float y1 = cy - h / 2;
+        float x2 = cx + w / 2;
+        float y2 = cy + h / 2;
+
+        // 정규화 (0~1 범위로)
+        if (!normalizedBoxes) {
+            x1 /= inputWidth;
+            x2 /= inputWidth;
+            y1 /= inputHeight;
+            y2 /= inputHeight;
+        }
+
+        float left = Math.max(0, x1 * imageWidth);
+        float top = Math.max(0, y1 * imageHeight);
+        float right = x2 * imageWidth;
+        float bottom = y2 * imageHeight;
+
+        // 바운딩 박스 크기가 유효한지 확인
+        if (right > left && bottom > top) {
+            out.add(classId, confidence, left, top, right, bottom);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 원본 ARGB 픽셀에서 바로 샘플링해서 모델 입력 텐서(UINT8 RGB 또는 그레이스케일)를 채우는 전처리
+ * 리사이즈된 중간 비트맵과 픽셀 배열 복사 없이 출력 픽셀마다 원본을 한 번 샘플링하고,
+ * 한 줄씩 모아서 입력 버퍼에 한 번에 씁니다.
+ * 출력 좌표마다의 원본 좌표(와 보간 가중치)는 원본 크기가 바뀔 때만 다시 계산합니다.
+ * 작업 배열을 재사용하므로 한 인스턴스를 여러 스레드에서 동시에 쓰지 않습니다.
+ */
+public class ImagePreprocessor {
+
+    public enum Sampling {
+        // 가장 가까운 픽셀 (기존 Bitmap.createBitmap(..., false)와 같은 방식)
+        NEAREST,
+        // 주변 4픽셀 선형 보간
+        BILINEAR
+    }
+
+    public enum ColorMode {
+        RGB(3),
+        // (R + G + B) / 3 그레이스케일
+        GRAY(1);
+
+        final int channels;
+
+        ColorMode(int channels) {
+            this.channels = channels;
+        }
+    }
+
+    // 레터박스 여백 색 (YOLO 학습 시 사용하는 회색)
+    public static final int PAD_VALUE = 114;
+
+    // 보간 가중치 고정소수점 정밀도 (8비트)
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+
+    private final int dstWidth;
+    private final int dstHeight;
+    private final ColorMode colorMode;
+    private final Sampling sampling;
+    private final boolean letterbox;
+
+    // 출력 한 줄 버퍼
+    private final byte[] row;
+
+    // 출력 열/행마다의 원본 좌표 (-1이면 레터박스 여백), 보간 시 다음 좌표와 가중치
+    private final int[] colX0;
+    private final int[] colX1;
+    private final int[] colWeight;
+    private final int[] rowY0;
+    private final int[] rowY1;
+    private final int[] rowWeight;
+
+    private FrameTransform transform;
+
+    public ImagePreprocessor(int dstWidth, int dstHeight, ColorMode colorMode, Sampling sampling, boolean letterbox) {
+        this.dstWidth = dstWidth;
+        this.dstHeight = dstHeight;
+        this.colorMode = colorMode;
+        this.sampling = sampling;
+        this.letterbox = letterbox;
+        this.row = new byte[dstWidth * colorMode.channels];
+        this.colX0 = new int[dstWidth];
+        this.colX1 = new int[dstWidth];
+        this.colWeight = new int[dstWidth];
+        this.rowY0 = new int[dstHeight];
+        this.rowY1 = new int[dstHeight];
+        this.rowWeight = new int[dstHeight];
+    }
+
+    /**
+     * 원본 픽셀을 샘플링해서 dst의 현재 위치부터 채우고 dst를 처음 위치로 되돌립니다.
+     * @param pixels 원본 ARGB 픽셀 (행 간격 = sourceWidth)
+     * @return 원본 좌표 <-> 모델 좌표 변환 (원본 크기가 같으면 같은 인스턴스)
+     */
+    public FrameTransform process(int[] pixels, int sourceWidth, int sourceHeight, ByteBuffer dst) {
+        if (transform == null || !transform.matches(sourceWidth, sourceHeight)) {
+            transform = letterbox
+                    ? FrameTransform.letterbox(sourceWidth, sourceHeight, dstWidth, dstHeight)
+                    : FrameTransform.stretch(sourceWidth, sourceHeight, dstWidth, dstHeight);
+            buildAxis(colX0, colX1, colWeight, dstWidth, sourceWidth, transform.getScaleX(), transform.getPadX());
+            buildAxis(rowY0, rowY1, rowWeight, dstHeight, sourceHeight, transform.getScaleY(), transform.getPadY());
+        }
+
+        if (sampling == Sampling.NEAREST) {
+            processNearest(pixels, sourceWidth, dst);
+        } else {
+            processBilinear(pixels, sourceWidth, dst);
+        }
+        dst.rewind();
+        return transform;
+    }
+
+    public FrameTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * 한 축의 출력 좌표마다 원본 좌표를 계산합니다 (픽셀 중심 기준).
+     */
+    private void buildAxis(int[] index0, int[] index1, int[] weight, int dstSize, int srcSize, float scale, float pad) {
+        for (int d = 0; d < dstSize; d++) {
+            float center = (d + 0.5f - pad) / scale;
+            if (center < 0 || center >= srcSize) {
+                // 레터박스 여백
+                index0[d] = -1;
+                index1[d] = -1;
+                weight[d] = 0;
+                continue;
+            }
+            if (sampling == Sampling.NEAREST) {
+                index0[d] = Math.min((int) center, srcSize - 1);
+                index1[d] = index0[d];
+                weight[d] = 0;
+            } else {
+                float position = Math.max(0, center - 0.5f);
+                int i0 = Math.min((int) position, srcSize - 1);
+                index0[d] = i0;
+                index1[d] = Math.min(i0 + 1, srcSize - 1);
+                weight[d] = Math.round((position - i0) * WEIGHT_ONE);
+            }
+        }
+    }
+
+    private void processNearest(int[] pixels, int sourceWidth, ByteBuffer dst) {
+        final int[] cols = colX0;
+        final byte[] out = row;
+        final boolean gray = colorMode == ColorMode.GRAY;
+
+        for (int dy = 0; dy < dstHeight; dy++) {
+            int sy = rowY0[dy];
+            if (sy < 0) {
+                Arrays.fill(out, (byte) PAD_VALUE);
+                dst.put(out);
+                continue;
+            }
+            int rowBase = sy * sourceWidth;
+            int o = 0;
+            for (int dx = 0; dx < dstWidth; dx++) {
+                int sx = cols[dx];
+                if (sx < 0) {
+                    for (int c = 0; c < colorMode.channels; c++) {
+                        out[o++] = (byte) PAD_VALUE;
+                    }
+                    continue;
+                }
+                int pixel = pixels[rowBase + sx];
+                int r = (pixel >> 16) & 0xFF;
+                int g = (pixel >> 8) & 0xFF;
+                int b = pixel & 0xFF;
+                if (gray) {
+                    out[o++] = (byte) ((r + g + b) / 3);
+                } else {
+                    out[o++] = (byte) r;
+                    out[o++] = (byte) g;
+                    out[o++] = (byte) b;
+                }
+            }
+            dst.put(out);
+        }
+    }
+
+    private void processBilinear(int[] pixels, int sourceWidth, ByteBuffer dst) {
+        final byte[] out = row;
+        final boolean gray = colorMode == ColorMode.GRAY;
+
+        for (int dy = 0; dy < dstHeight; dy++) {
+            if (rowY0[dy] < 0) {
+                Arrays.fill(out, (byte) PAD_VALUE);
+                dst.put(out);
+                continue;
+            }
+            int base0 = rowY0[dy] * sourceWidth;
+            int base1 = rowY1[dy] * sourceWidth;
+            int fy = rowWeight[dy];
+            int o = 0;
+            for (int dx = 0; dx < dstWidth; dx++) {
+                int x0 = colX0[dx];
+                if (x0 < 0) {
+                    for (int c = 0; c < colorMode.channels; c++) {
+                        out[o++] = (byte) PAD_VALUE;
+                    }
+                    continue;
+                }
+                int x1 = colX1[dx];
+                int fx = colWeight[dx];
+                int p00 = pixels[base0 + x0];
+                int p01 = pixels[base0 + x1];
+                int p10 = pixels[base1 + x0];
+                int p11 = pixels[base1 + x1];
+
+                int r = blend(p00 >> 16, p01 >> 16, p10 >> 16, p11 >> 16, fx, fy);
+                int g = blend(p00 >> 8, p01 >> 8, p10 >> 8, p11 >> 8, fx, fy);
+                int b = blend(p00, p01, p10, p11, fx, fy);
+                if (gray) {
+                    out[o++] = (byte) ((r + g + b) / 3);
+                } else {
+                    out[o++] = (byte) r;
+                    out[o++] = (byte) g;
+                    out[o++] = (byte) b;
+                }
+            }
+            dst.put(out);
+        }
+    }
+
+    /**
+     * 한 채널(하위 8비트)의 4픽셀 고정소수점 선형 보간
+     */
+    private static int blend(int c00, int c01, int c10, int c11, int fx, int fy) {
+        c00 &= 0xFF;
+        c01 &= 0xFF;
+        c10 &= 0xFF;
+        c11 &= 0xFF;
+        int top = c00 * (WEIGHT_ONE - fx) + c01 * fx;
+        int bottom = c10 * (WEIGHT_ONE - fx) + c11 * fx;
+        return (top * (WEIGHT_ONE - fy) + bottom * fy + (1 << (2 * WEIGHT_BITS - 1))) >> (2 * WEIGHT_BITS);
+    }
+}
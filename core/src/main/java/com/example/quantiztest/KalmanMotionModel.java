@@ -0,0 +1,186 @@
+package com.example.quantiztest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 중심점(x, y), 종횡비(a = w/h), 높이(h)에 대한 등속도 칼만 필터 움직임 모델
+ * 상태는 [cx, cy, a, h]와 각각의 초당 변화량이며, 예측은 마지막 보정 이후 실제 경과 시간으로 합니다.
+ * 그래서 탐지 간격이 건너뛰기나 지연으로 들쭉날쭉해도 예측 위치가 그만큼 앞으로 나갑니다.
+ *
+ * 전이, 관측 행렬과 잡음 공분산이 모두 차원별로 나뉘어 있어서, 8x8 공분산 대신 차원마다 2x2 블록
+ * (위치 분산, 위치-속도 공분산, 속도 분산)만 기본형 배열에 보관하고 닫힌 식으로 계산합니다.
+ * 잡음 크기는 박스 높이에 비례합니다 (DeepSORT와 같은 방식, 값은 초 단위로 환산).
+ */
+public class KalmanMotionModel implements MotionModel {
+    private static final int DIMS = 4;                     // cx, cy, a, h
+    private static final float MEASUREMENT_STD = 1f / 20;  // 관측 위치, 높이 표준편차 (높이 대비)
+    private static final float ASPECT_MEASUREMENT_STD = 1e-1f;
+    private static final float POSITION_PROCESS_STD = 0.3f; // 초당 위치 잡음 (높이 대비, sqrt(s) 단위)
+    private static final float VELOCITY_PROCESS_STD = 1f;   // 초당 속도 잡음 (높이 대비)
+    private static final float ASPECT_PROCESS_STD = 5e-2f;
+    private static final float ASPECT_VELOCITY_PROCESS_STD = 1e-3f;
+    private static final float INITIAL_VELOCITY_STD = 2f;  // 처음 속도 불확실성 (높이 대비, 초당)
+
+    public static final Factory FACTORY = new Factory() {
+        @Override
+        public MotionModel create() {
+            return new KalmanMotionModel();
+        }
+    };
+
+    // 마지막 보정 시점의 평균: [cx, cy, a, h, vcx, vcy, va, vh] (속도는 초당)
+    private final float[] mean = new float[DIMS * 2];
+    // 차원 i의 공분산 블록: [3i] 위치 분산, [3i+1] 위치-속도 공분산, [3i+2] 속도 분산
+    private final float[] covariance = new float[DIMS * 3];
+    // 보정에 쓰는 관측값
+    private final float[] measurement = new float[DIMS];
+    private long lastTimestampMs;
+    // 외삽할 때 시작점인 마지막 보정 박스
+    private float lastLeft;
+    private float lastTop;
+    private float lastRight;
+    private float lastBottom;
+
+    @Override
+    public void init(float left, float top, float right, float bottom, long timestampMs) {
+        toMeasurement(left, top, right, bottom);
+        float h = measurement[3];
+        for (int i = 0; i < DIMS; i++) {
+            mean[i] = measurement[i];
+            mean[DIMS + i] = 0;
+        }
+        for (int i = 0; i < DIMS; i++) {
+            float positionStd = i == 2 ? 1e-2f : 2 * MEASUREMENT_STD * h;
+            float velocityStd = i == 2 ? 1e-3f : INITIAL_VELOCITY_STD * h;
+            covariance[3 * i] = positionStd * positionStd;
+            covariance[3 * i + 1] = 0;
+            covariance[3 * i + 2] = velocityStd * velocityStd;
+        }
+        lastTimestampMs = timestampMs;
+        rememberBox(left, top, right, bottom);
+    }
+
+    @Override
+    public void correct(float left, float top, float right, float bottom, long timestampMs) {
+        // 마지막 보정 시점부터 관측 시점까지 예측 (공분산 포함)
+        float dt = elapsedSec(timestampMs);
+        float h = Math.max(mean[3], 1f);
+        for (int i = 0; i < DIMS; i++) {
+            float qp = i == 2 ? ASPECT_PROCESS_STD : POSITION_PROCESS_STD * h;
+            float qv = i == 2 ? ASPECT_VELOCITY_PROCESS_STD : VELOCITY_PROCESS_STD * h;
+            float pp = covariance[3 * i];
+            float pv = covariance[3 * i + 1];
+            float vv = covariance[3 * i + 2];
+            mean[i] += mean[DIMS + i] * dt;
+            covariance[3 * i] = pp + 2 * dt * pv + dt * dt * vv + qp * qp * dt;
+            covariance[3 * i + 1] = pv + dt * vv;
+            covariance[3 * i + 2] = vv + qv * qv * dt;
+        }
+
+        // 관측으로 보정 (관측은 위치 성분만이라 차원마다 스칼라 칼만 이득)
+        toMeasurement(left, top, right, bottom);
+        h = Math.max(mean[3], 1f);
+        for (int i = 0; i < DIMS; i++) {
+            float r = i == 2 ? ASPECT_MEASUREMENT_STD : MEASUREMENT_STD * h;
+            float pp = covariance[3 * i];
+            float pv = covariance[3 * i + 1];
+            float vv = covariance[3 * i + 2];
+            float s = pp + r * r;
+            float kp = pp / s;
+            float kv = pv / s;
+            float innovation = measurement[i] - mean[i];
+            mean[i] += kp * innovation;
+            mean[DIMS + i] += kv * innovation;
+            covariance[3 * i] = (1 - kp) * pp;
+            covariance[3 * i + 1] = (1 - kp) * pv;
+            covariance[3 * i + 2] = vv - kv * pv;
+        }
+        lastTimestampMs = timestampMs;
+        rememberBox(left, top, right, bottom);
+    }
+
+    @Override
+    public void predict(long timestampMs, boolean missed, float[] box) {
+        float dt = elapsedSec(timestampMs);
+        float cx = mean[0] + mean[DIMS] * dt;
+        float cy = mean[1] + mean[DIMS + 1] * dt;
+        float h = Math.max(1f, mean[3] + mean[DIMS + 3] * dt);
+        float w = Math.max(1f, (mean[2] + mean[DIMS + 2] * dt) * h);
+        box[0] = cx - w / 2;
+        box[1] = cy - h / 2;
+        box[2] = cx + w / 2;
+        box[3] = cy + h / 2;
+    }
+
+    @Override
+    public void extrapolate(long timestampMs, float[] box) {
+        // 표시 박스는 마지막 탐지 박스를 경과 시간만큼 중심 속도로 옮긴 것 (크기는 탐지 그대로)
+        float dt = elapsedSec(timestampMs);
+        float dx = mean[DIMS] * dt;
+        float dy = mean[DIMS + 1] * dt;
+        box[0] = lastLeft + dx;
+        box[1] = lastTop + dy;
+        box[2] = lastRight + dx;
+        box[3] = lastBottom + dy;
+    }
+
+    @Override
+    public float getVelocityX() { return mean[DIMS]; }
+
+    @Override
+    public float getVelocityY() { return mean[DIMS + 1]; }
+
+    @Override
+    public void boostVelocity(float factor) {
+        mean[DIMS] *= factor;
+        mean[DIMS + 1] *= factor;
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        for (float v : mean) {
+            out.writeFloat(v);
+        }
+        for (float v : covariance) {
+            out.writeFloat(v);
+        }
+        out.writeLong(lastTimestampMs);
+        out.writeFloat(lastLeft);
+        out.writeFloat(lastTop);
+        out.writeFloat(lastRight);
+        out.writeFloat(lastBottom);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        for (int i = 0; i < mean.length; i++) {
+            mean[i] = in.readFloat();
+        }
+        for (int i = 0; i < covariance.length; i++) {
+            covariance[i] = in.readFloat();
+        }
+        lastTimestampMs = in.readLong();
+        rememberBox(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+    }
+
+    private float elapsedSec(long timestampMs) {
+        return Math.max(0, timestampMs - lastTimestampMs) / 1000f;
+    }
+
+    private void toMeasurement(float left, float top, float right, float bottom) {
+        float h = Math.max(1f, bottom - top);
+        measurement[0] = (left + right) / 2;
+        measurement[1] = (top + bottom) / 2;
+        measurement[2] = (right - left) / h;
+        measurement[3] = h;
+    }
+
+    private void rememberBox(float left, float top, float right, float bottom) {
+        lastLeft = left;
+        lastTop = top;
+        lastRight = right;
+        lastBottom = bottom;
+    }
+}
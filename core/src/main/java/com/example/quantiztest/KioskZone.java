@@ -0,0 +1,40 @@
+package com.example.quantiztest;
+
+/**
+ * 키오스크 영역 (모델 입력 좌표 640x640 기준 사각형)
+ * 서버가 키오스크 앞 사람을 물으면 최신 추적 스냅샷에서 영역 중심에 가장 가까운 사람을 찾습니다.
+ */
+public final class KioskZone {
+    private final float left;
+    private final float top;
+    private final float right;
+    private final float bottom;
+
+    public KioskZone(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public float getLeft() { return left; }
+    public float getTop() { return top; }
+    public float getRight() { return right; }
+    public float getBottom() { return bottom; }
+    public float getCenterX() { return (left + right) / 2f; }
+    public float getCenterY() { return (top + bottom) / 2f; }
+
+    /**
+     * 영역 중심에 가장 가까운 사람 (minConfidence 이상, 없으면 null)
+     */
+    public TrackingSnapshot.Track findNearestPerson(TrackingSnapshot snapshot, float minConfidence) {
+        return snapshot.findNearestPerson(getCenterX(), getCenterY(), minConfidence);
+    }
+
+    /**
+     * 영역 중심과 객체 중심 사이 거리
+     */
+    public float distanceTo(TrackingSnapshot.Track track) {
+        return LineCrossingDetector.distance(getCenterX(), getCenterY(), track.getCenterX(), track.getCenterY());
+    }
+}
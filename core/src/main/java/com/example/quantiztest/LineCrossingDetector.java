@@ -0,0 +1,223 @@
+package com.example.quantiztest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 상품이 가상 선을 건너는지 (내려놓기/집기) 판정하는 선 교차 감지
+ * 선은 모델 입력 좌표(640x640)로 두고, 객체 중심을 캔버스 좌표에서 이 좌표로 바꿔 선의 어느 쪽에 있는지 비교합니다.
+ * 선 교차 상태는 추적 슬롯 번호로 보관하고, 슬롯이 다른 객체에 재사용되면 ID로 구분합니다.
+ * 트래커와 같은 스레드에서 프레임마다 한 번 호출합니다.
+ */
+public class LineCrossingDetector {
+    private static final String TAG = "LineTest";
+    // 선 좌표계 크기 (모델 입력 크기)
+    public static final float LINE_SPACE_SIZE = 640f;
+
+    /**
+     * 선을 건넌 상품마다 호출
+     */
+    public interface Listener {
+        /**
+         * @param obj 선을 건넌 상품 (캔버스 좌표)
+         * @param downward true면 위에서 아래로 (내려놓기), false면 아래에서 위로 (집기)
+         * @param nearestPerson 상품 중심에 가장 가까운 사람 (없으면 null)
+         * @param personDistance 상품 중심과 사람 중심 사이 거리 (캔버스 픽셀, 사람이 없으면 0)
+         */
+        void onCrossing(TrackingSnapshot.Track obj, boolean downward,
+                        TrackingSnapshot.Track nearestPerson, float personDistance);
+    }
+
+    private final float startX;
+    private final float startY;
+    private final float endX;
+    private final float endY;
+    private final long cooldownMs;
+    private final float minConfidence;
+    private Logger logger = Logger.NONE;
+
+    // 선 교차 상태 (추적 슬롯 번호로 찾고, 슬롯이 다른 객체에 재사용되면 stateIds의 ID로 구분)
+    private int[] stateIds = new int[0];
+    // 객체가 선의 아래에 있었는지 여부
+    private boolean[] wasBelow = new boolean[0];
+    // 객체별 마지막 이벤트 발생 시간 (0이면 없음)
+    private long[] lastEventTime = new long[0];
+
+    /**
+     * @param startX 선의 시작점 (선 좌표계)
+     * @param cooldownMs 같은 객체의 다음 이벤트까지 최소 간격
+     * @param minConfidence 이 신뢰도 이상인 상품과 사람만 대상
+     */
+    public LineCrossingDetector(float startX, float startY, float endX, float endY,
+                                long cooldownMs, float minConfidence) {
+        this.startX = startX;
+        this.startY = startY;
+        this.endX = endX;
+        this.endY = endY;
+        this.cooldownMs = cooldownMs;
+        this.minConfidence = minConfidence;
+    }
+
+    public void setLogger(Logger logger) {
+        this.logger = logger != null ? logger : Logger.NONE;
+    }
+
+    public float getStartX() { return startX; }
+    public float getStartY() { return startY; }
+    public float getEndX() { return endX; }
+    public float getEndY() { return endY; }
+    public long getCooldownMs() { return cooldownMs; }
+    public float getMinConfidence() { return minConfidence; }
+
+    /**
+     * 이번 프레임의 추적 결과로 선 교차를 확인합니다.
+     * @param tracks 추적 결과 (캔버스 좌표)
+     * @param catalog 상품 카탈로그 (등록된 상품만 대상, null이면 확인하지 않음)
+     * @param nowMs 현재 시각 (쿨다운 계산용)
+     * @return 발생한 교차 이벤트 수
+     */
+    public int update(List<TrackingSnapshot.Track> tracks, int canvasWidth, int canvasHeight,
+                      ProductCatalog catalog, long nowMs, Listener listener) {
+        if (catalog == null) {
+            return 0;
+        }
+        int events = 0;
+        for (int k = 0; k < tracks.size(); k++) {
+            TrackingSnapshot.Track obj = tracks.get(k);
+            if (obj.getConfidence() < minConfidence || !catalog.isProduct(obj.getLabel())) continue;
+
+            int objectId = obj.getId();
+            int slot = obj.getSlot();
+            ensureCapacity(slot + 1);
+            // 슬롯을 새 객체가 쓰게 되었으면 이전 상태는 없는 것으로 봄
+            boolean hasPrevious = stateIds[slot] == objectId;
+            if (!hasPrevious) {
+                stateIds[slot] = objectId;
+                lastEventTime[slot] = 0;
+            }
+
+            // 캔버스 좌표의 중심점을 선 좌표계로 바꿔서 선 아래인지 판단
+            float centerX = obj.getCenterX();
+            float centerY = obj.getCenterY();
+            boolean below = isBelowLine(centerX * LINE_SPACE_SIZE / canvasWidth,
+                    centerY * LINE_SPACE_SIZE / canvasHeight);
+
+            // 교차 감지: 이전 위치가 있고, 선을 건넜고, 이전 이벤트와 충분한 시간이 지났을 때
+            if (hasPrevious && wasBelow[slot] != below) {
+                long lastTime = lastEventTime[slot];
+                if (lastTime == 0 || (nowMs - lastTime) > cooldownMs) {
+                    // 가장 가까운 사람 찾기 (캔버스 좌표 기준)
+                    TrackingSnapshot.Track nearestPerson = findNearestPerson(tracks, centerX, centerY, minConfidence);
+                    float personDistance = nearestPerson != null
+                            ? distance(centerX, centerY, nearestPerson.getCenterX(), nearestPerson.getCenterY())
+                            : 0f;
+                    if (listener != null) {
+                        listener.onCrossing(obj, below, nearestPerson, personDistance);
+                    }
+                    lastEventTime[slot] = nowMs;
+                    events++;
+                }
+            }
+
+            // 현재 위치 저장
+            wasBelow[slot] = below;
+        }
+        return events;
+    }
+
+    /**
+     * 모든 객체의 선 교차 상태를 버립니다 (카메라를 다시 열 때).
+     */
+    public void reset() {
+        Arrays.fill(stateIds, -1);
+    }
+
+    /**
+     * 슬롯별 선 교차 상태(객체 ID, 선 아래 여부, 마지막 이벤트 시각)를 씁니다 (텐서 기록을 시작할 때).
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(stateIds.length);
+        for (int slot = 0; slot < stateIds.length; slot++) {
+            out.writeInt(stateIds[slot]);
+            out.writeBoolean(wasBelow[slot]);
+            out.writeLong(lastEventTime[slot]);
+        }
+    }
+
+    /**
+     * writeState로 쓴 상태로 바꿈
+     */
+    void readState(DataInput in) throws IOException {
+        int size = in.readInt();
+        stateIds = new int[size];
+        wasBelow = new boolean[size];
+        lastEventTime = new long[size];
+        for (int slot = 0; slot < size; slot++) {
+            stateIds[slot] = in.readInt();
+            wasBelow[slot] = in.readBoolean();
+            lastEventTime[slot] = in.readLong();
+        }
+    }
+
+    /**
+     * 점(선 좌표계)이 선의 아래쪽에 있는지 판단합니다.
+     * 직선의 두 점과 주어진 점으로 이루어진 삼각형의 부호 있는 면적을 직선의 길이로 나눈 부호 있는 거리가 양수이면 아래입니다.
+     */
+    boolean isBelowLine(float pointX, float pointY) {
+        float lineLength = (float) Math.sqrt(
+                (endX - startX) * (endX - startX) + (endY - startY) * (endY - startY));
+        float signedArea = (endY - startY) * pointX - (endX - startX) * pointY
+                + endX * startY - endY * startX;
+        float signedDistance = signedArea / lineLength;
+
+        if (logger.isDebugEnabled(TAG)) {
+            logger.d(TAG, String.format("점(%.1f,%.1f)→선까지 거리: %.1f (절대값: %.1f), 위치: %s",
+                    pointX, pointY, signedDistance, Math.abs(signedDistance),
+                    (signedDistance > 0 ? "아래" : "위")));
+        }
+        return signedDistance > 0;
+    }
+
+    /**
+     * (targetX, targetY)에 중심이 가장 가까운 사람 (minConfidence 이상, 없으면 null)
+     */
+    public static TrackingSnapshot.Track findNearestPerson(List<TrackingSnapshot.Track> tracks,
+                                                           float targetX, float targetY, float minConfidence) {
+        TrackingSnapshot.Track nearestPerson = null;
+        float minDistance = Float.MAX_VALUE;
+        for (int k = 0; k < tracks.size(); k++) {
+            TrackingSnapshot.Track obj = tracks.get(k);
+            if (obj.getConfidence() >= minConfidence && obj.isPerson()) {
+                float d = distance(targetX, targetY, obj.getCenterX(), obj.getCenterY());
+                if (d < minDistance) {
+                    minDistance = d;
+                    nearestPerson = obj;
+                }
+            }
+        }
+        return nearestPerson;
+    }
+
+    public static float distance(float x1, float y1, float x2, float y2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * 선 교차 상태 배열을 슬롯 수만큼 늘립니다 (새 자리는 어떤 객체의 상태도 아님).
+     */
+    private void ensureCapacity(int size) {
+        if (stateIds.length < size) {
+            int capacity = Math.max(size, stateIds.length * 2);
+            int old = stateIds.length;
+            stateIds = Arrays.copyOf(stateIds, capacity);
+            wasBelow = Arrays.copyOf(wasBelow, capacity);
+            lastEventTime = Arrays.copyOf(lastEventTime, capacity);
+            Arrays.fill(stateIds, old, capacity, -1);
+        }
+    }
+}
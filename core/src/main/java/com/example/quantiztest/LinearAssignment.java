@@ -0,0 +1,107 @@
+package com.example.quantiztest;
+
+import java.util.Arrays;
+
+/**
+ * 직사각형 비용 행렬의 최적 1:1 배정 (헝가리안 알고리즘, 퍼텐셜을 쓰는 최단 증가 경로 방식)
+ * 트래커가 추적 객체(행)와 탐지 결과(열)를 연결할 때 사용합니다. 작은 쪽 크기 n, 큰 쪽 m에 대해 O(n^2 m)입니다.
+ * 비용이 INFEASIBLE 이상인 쌍은 게이팅으로 막힌 쌍이며, 결과에서 배정되지 않은 것(-1)으로 나옵니다.
+ * 내부 배열은 호출 사이에 재사용하므로 한 스레드에서만 사용해야 합니다.
+ */
+public class LinearAssignment {
+    /** 게이팅으로 막힌 쌍의 비용 (실제 비용 합보다 훨씬 커서 가능한 쌍 수를 먼저 최대화함) */
+    public static final float INFEASIBLE = 1e6f;
+
+    private double[] u = new double[0];
+    private double[] v = new double[0];
+    private double[] minv = new double[0];
+    private int[] p = new int[0];
+    private int[] way = new int[0];
+    private boolean[] used = new boolean[0];
+
+    /**
+     * @param cost 행 우선(row-major) rows x cols 비용 행렬
+     * @param rowToCol 행마다 배정된 열 인덱스를 채울 배열 (배정되지 않거나 막힌 쌍이면 -1)
+     * @return 배정된 쌍의 수
+     */
+    public int solve(float[] cost, int rows, int cols, int[] rowToCol) {
+        Arrays.fill(rowToCol, 0, rows, -1);
+        if (rows == 0 || cols == 0) {
+            return 0;
+        }
+        // 알고리즘은 n <= m을 가정하므로 행이 더 많으면 전치해서 풂
+        boolean transposed = rows > cols;
+        int n = transposed ? cols : rows;
+        int m = transposed ? rows : cols;
+        ensureCapacity(n, m);
+        Arrays.fill(u, 0, n + 1, 0);
+        Arrays.fill(v, 0, m + 1, 0);
+        Arrays.fill(p, 0, m + 1, 0);
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, 0, m + 1, Double.MAX_VALUE);
+            Arrays.fill(used, 0, m + 1, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    float c = transposed ? cost[(j - 1) * cols + (i0 - 1)] : cost[(i0 - 1) * cols + (j - 1)];
+                    double cur = c - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            // 증가 경로를 따라 배정을 뒤집음
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int assigned = 0;
+        for (int j = 1; j <= m; j++) {
+            if (p[j] == 0) continue;
+            int row = transposed ? j - 1 : p[j] - 1;
+            int col = transposed ? p[j] - 1 : j - 1;
+            if (cost[row * cols + col] < INFEASIBLE) {
+                rowToCol[row] = col;
+                assigned++;
+            }
+        }
+        return assigned;
+    }
+
+    private void ensureCapacity(int n, int m) {
+        if (u.length < n + 1) {
+            u = new double[n + 1];
+        }
+        if (v.length < m + 1) {
+            v = new double[m + 1];
+            minv = new double[m + 1];
+            p = new int[m + 1];
+            way = new int[m + 1];
+            used = new boolean[m + 1];
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.quantiztest;
+
+/**
+ * core 모듈 클래스가 쓰는 로그 출력 (안드로이드에서는 android.util.Log로 연결)
+ * JVM 벤치마크나 서버 재생처럼 안드로이드가 없는 곳에서는 NONE을 그대로 씁니다.
+ */
+public interface Logger {
+
+    Logger NONE = new Logger() {
+        @Override
+        public void d(String tag, String msg) {
+        }
+
+        @Override
+        public void i(String tag, String msg) {
+        }
+
+        @Override
+        public boolean isDebugEnabled(String tag) {
+            return false;
+        }
+    };
+
+    void d(String tag, String msg);
+
+    void i(String tag, String msg);
+
+    /**
+     * 디버그 로그가 켜져 있는지 (프레임마다 도는 코드는 이 값이 true일 때만 로그 문자열을 만듦)
+     */
+    boolean isDebugEnabled(String tag);
+}
@@ -0,0 +1,112 @@
+package com.example.quantiztest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 로드된 모델의 입출력 텐서 정보와 출력 레이아웃 (불변)
+ * TFLiteLoader가 모델 로드 시 한 번 만들고, 각 프로세서는 생성 시 자기가 기대하는 형식인지 검사한 뒤
+ * 필요한 값(입력 크기, 양자화 파라미터)을 미리 꺼내 둡니다.
+ */
+public final class ModelDescriptor {
+
+    /**
+     * 출력 텐서 레이아웃
+     */
+    public enum Layout {
+        // YOLONas 분리 출력: 박스 [1, N, 4], 점수 [1, N], 클래스 [1, N]
+        YOLO_NAS,
+        // 단일 융합 출력: [1, N, 4 + C] 또는 [1, 4 + C, N] (cx, cy, w, h + 클래스별 점수)
+        FUSED,
+        // 얼굴 그리드 출력: 히트맵 [1, H, W, 1], 박스 [1, H, W, 4], 랜드마크 [1, H, W, 10]
+        FACE_GRID,
+        UNKNOWN
+    }
+
+    private final String name;
+    private final List<TensorSpec> inputs;
+    private final List<TensorSpec> outputs;
+    private final Layout layout;
+
+    public ModelDescriptor(String name, List<TensorSpec> inputs, List<TensorSpec> outputs) {
+        this.name = name;
+        this.inputs = Collections.unmodifiableList(new ArrayList<>(inputs));
+        this.outputs = Collections.unmodifiableList(new ArrayList<>(outputs));
+        this.layout = detectLayout(this.outputs);
+    }
+
+    /**
+     * 출력 텐서 형상으로 레이아웃을 판별합니다.
+     */
+    static Layout detectLayout(List<TensorSpec> outputs) {
+        if (outputs.size() == 1) {
+            TensorSpec output = outputs.get(0);
+            if (output.rank() == 3 && output.dim(0) == 1 && Math.min(output.dim(1), output.dim(2)) > 4) {
+                return Layout.FUSED;
+            }
+        }
+        if (outputs.size() == 3) {
+            TensorSpec first = outputs.get(0);
+            TensorSpec second = outputs.get(1);
+            TensorSpec third = outputs.get(2);
+
+            if (first.rank() == 3 && first.dim(2) == 4
+                    && second.hasShape(1, first.dim(1)) && third.hasShape(1, first.dim(1))) {
+                return Layout.YOLO_NAS;
+            }
+            if (first.rank() == 4 && first.dim(3) == 1
+                    && second.hasShape(1, first.dim(1), first.dim(2), 4)
+                    && third.hasShape(1, first.dim(1), first.dim(2), 10)) {
+                return Layout.FACE_GRID;
+            }
+        }
+        return Layout.UNKNOWN;
+    }
+
+    /**
+     * 조건이 맞지 않으면 모델 이름과 텐서 정보를 담은 예외를 던집니다.
+     */
+    public void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(name + ": " + message + "\n" + this);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public int getInputCount() {
+        return inputs.size();
+    }
+
+    public int getOutputCount() {
+        return outputs.size();
+    }
+
+    public TensorSpec getInput(int index) {
+        return inputs.get(index);
+    }
+
+    public TensorSpec getOutput(int index) {
+        return outputs.get(index);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(name).append(" (").append(layout).append(")");
+        for (int i = 0; i < inputs.size(); i++) {
+            builder.append("\n  input #").append(i).append(": ").append(inputs.get(i));
+        }
+        for (int i = 0; i < outputs.size(); i++) {
+            builder.append("\n  output #").append(i).append(": ").append(outputs.get(i));
+        }
+        return builder.toString();
+    }
+}
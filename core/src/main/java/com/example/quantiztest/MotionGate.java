@@ -0,0 +1,254 @@
+package com.example.quantiztest;
+
+/**
+ * 추론 전에 프레임 변화를 싸게 확인해서 정지된 장면에서는 탐지기를 건너뛰게 하는 움직임 게이트
+ * 프레임을 격자 셀로 나누고 셀마다 일정 간격으로 뽑은 밝기(luma) 값을 마지막으로 탐지기를 돌린 프레임과 비교합니다.
+ * 기준 프레임은 탐지기를 돌릴 때만 바뀌므로, 천천히 쌓이는 변화도 결국 임계값을 넘어 탐지를 다시 하게 됩니다.
+ */
+public class MotionGate {
+    public static final int DEFAULT_COLS = 16;
+    public static final int DEFAULT_ROWS = 12;
+    private static final int SAMPLES_PER_SIDE = 8;        // 셀 하나에서 가로, 세로로 뽑는 표본 수
+    private static final int DEFAULT_CELL_THRESHOLD = 12; // 셀 평균 밝기 차이가 이 값을 넘으면 변화로 봄 (0~255)
+    private static final int DEFAULT_MIN_CHANGED_CELLS = 2; // 이 개수 이상 셀이 바뀌어야 탐지기를 돌림 (셀 하나짜리 노이즈 무시)
+    // 연속으로 건너뛸 수 있는 최대 확인 횟수 (update()가 불린 프레임 기준)
+    // 게이트는 탐지 스케줄러가 탐지 차례로 고른 프레임에서만 불리므로, 탐지 간격이 N이면 강제 탐지까지 20 x N 캡처 프레임
+    // (앱의 50ms 캡처 주기에서 적응형 간격 2~4면 약 2~4초, 간격 1이면 약 1초)
+    private static final int DEFAULT_MAX_SKIPPED_FRAMES = 20;
+
+    /**
+     * 한 프레임의 셀별 변화 여부 (프레임마다 재사용)
+     */
+    public static class Mask {
+        private int cols;
+        private int rows;
+        private boolean[] changed = new boolean[0];
+        private int changedCount;
+
+        void reset(int cols, int rows) {
+            if (changed.length < cols * rows) {
+                changed = new boolean[cols * rows];
+            }
+            this.cols = cols;
+            this.rows = rows;
+            this.changedCount = 0;
+            for (int i = 0; i < cols * rows; i++) {
+                changed[i] = false;
+            }
+        }
+
+        /**
+         * 모든 셀을 바뀐 것으로 표시합니다 (기준 프레임이 없거나 강제로 탐지할 때).
+         */
+        void markAll(int cols, int rows) {
+            reset(cols, rows);
+            for (int i = 0; i < cols * rows; i++) {
+                changed[i] = true;
+            }
+            changedCount = cols * rows;
+        }
+
+        void mark(int cell) {
+            changed[cell] = true;
+            changedCount++;
+        }
+
+        public int getChangedCount() {
+            return changedCount;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public boolean isCellChanged(int col, int row) {
+            return changed[row * cols + col];
+        }
+
+        /**
+         * 0~1로 정규화한 영역(left, top, right, bottom)에 걸친 셀 중 바뀐 셀이 있는지
+         */
+        public boolean isRegionChanged(float left, float top, float right, float bottom) {
+            if (cols == 0 || rows == 0) {
+                return true;
+            }
+            int c0 = clamp((int) (left * cols), cols);
+            int c1 = clamp((int) (right * cols), cols);
+            int r0 = clamp((int) (top * rows), rows);
+            int r1 = clamp((int) (bottom * rows), rows);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    if (changed[r * cols + c]) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static int clamp(int value, int size) {
+            return Math.max(0, Math.min(size - 1, value));
+        }
+    }
+
+    private final int cols;
+    private final int rows;
+    private final int cellThreshold;
+    private final int minChangedCells;
+    private final int maxSkippedFrames;
+
+    // 마지막으로 탐지기를 돌린 프레임의 표본 밝기와 이번 프레임 표본 (셀 순서대로 SAMPLES_PER_SIDE^2개씩)
+    private byte[] reference;
+    private byte[] current;
+    private int frameWidth = -1;
+    private int frameHeight = -1;
+    private int skippedInRow = 0;
+    // 기준으로 삼은 프레임이 탐지 전에 버려졌으면 다음 프레임은 비교 없이 탐지
+    private boolean forceNext = false;
+
+    // 통계
+    private long framesChecked = 0;
+    private long framesSkipped = 0;
+    private long totalCheckNanos = 0;
+
+    public MotionGate() {
+        this(DEFAULT_COLS, DEFAULT_ROWS, DEFAULT_CELL_THRESHOLD, DEFAULT_MIN_CHANGED_CELLS, DEFAULT_MAX_SKIPPED_FRAMES);
+    }
+
+    public MotionGate(int cols, int rows, int cellThreshold, int minChangedCells, int maxSkippedFrames) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cellThreshold = cellThreshold;
+        this.minChangedCells = Math.max(1, minChangedCells);
+        this.maxSkippedFrames = maxSkippedFrames;
+        int samples = cols * rows * SAMPLES_PER_SIDE * SAMPLES_PER_SIDE;
+        this.reference = new byte[samples];
+        this.current = new byte[samples];
+    }
+
+    /**
+     * 프레임을 기준 프레임과 비교하고 탐지기를 돌려야 하는지 판단합니다.
+     * 탐지기를 돌리기로 하면 이 프레임이 새 기준 프레임이 됩니다.
+     * @param pixels ARGB 프레임
+     * @param mask 셀별 변화 여부를 채울 마스크 (null이면 채우지 않음)
+     * @return 탐지기를 돌려야 하면 true, 건너뛰어도 되면 false
+     */
+    public synchronized boolean update(int[] pixels, int width, int height, Mask mask) {
+        long start = System.nanoTime();
+        framesChecked++;
+        sample(pixels, width, height, current);
+
+        boolean run;
+        if (width != frameWidth || height != frameHeight || forceNext) {
+            // 첫 프레임이거나 해상도가 바뀌었거나 기준 프레임이 탐지되지 못했으면 비교할 기준이 없음
+            frameWidth = width;
+            frameHeight = height;
+            forceNext = false;
+            if (mask != null) {
+                mask.markAll(cols, rows);
+            }
+            run = true;
+        } else {
+            int changed = compare(mask);
+            run = changed >= minChangedCells || skippedInRow >= maxSkippedFrames;
+        }
+
+        if (run) {
+            byte[] swap = reference;
+            reference = current;
+            current = swap;
+            skippedInRow = 0;
+        } else {
+            skippedInRow++;
+            framesSkipped++;
+        }
+        totalCheckNanos += System.nanoTime() - start;
+        return run;
+    }
+
+    /**
+     * 셀마다 SAMPLES_PER_SIDE x SAMPLES_PER_SIDE 위치의 밝기를 뽑습니다.
+     */
+    private void sample(int[] pixels, int width, int height, byte[] out) {
+        int gridW = cols * SAMPLES_PER_SIDE;
+        int gridH = rows * SAMPLES_PER_SIDE;
+        int perCell = SAMPLES_PER_SIDE * SAMPLES_PER_SIDE;
+        for (int gy = 0; gy < gridH; gy++) {
+            // 표본 칸의 가운데 픽셀
+            int y = (int) (((long) gy * 2 + 1) * height / (gridH * 2));
+            int rowBase = y * width;
+            int cellRow = gy / SAMPLES_PER_SIDE;
+            int sy = gy % SAMPLES_PER_SIDE;
+            for (int gx = 0; gx < gridW; gx++) {
+                int x = (int) (((long) gx * 2 + 1) * width / (gridW * 2));
+                int argb = pixels[rowBase + x];
+                int luma = (77 * ((argb >> 16) & 0xFF) + 150 * ((argb >> 8) & 0xFF) + 29 * (argb & 0xFF)) >> 8;
+                int cell = cellRow * cols + gx / SAMPLES_PER_SIDE;
+                out[cell * perCell + sy * SAMPLES_PER_SIDE + gx % SAMPLES_PER_SIDE] = (byte) luma;
+            }
+        }
+    }
+
+    /**
+     * 셀별 평균 절대 밝기 차이를 기준 프레임과 비교해서 바뀐 셀 수를 반환합니다.
+     */
+    private int compare(Mask mask) {
+        if (mask != null) {
+            mask.reset(cols, rows);
+        }
+        int perCell = SAMPLES_PER_SIDE * SAMPLES_PER_SIDE;
+        int limit = cellThreshold * perCell; // 평균 대신 합으로 비교
+        int changed = 0;
+        for (int cell = 0, base = 0; cell < cols * rows; cell++, base += perCell) {
+            int sum = 0;
+            for (int i = base; i < base + perCell; i++) {
+                sum += Math.abs((current[i] & 0xFF) - (reference[i] & 0xFF));
+            }
+            if (sum > limit) {
+                changed++;
+                if (mask != null) {
+                    mask.mark(cell);
+                }
+            }
+        }
+        return changed;
+    }
+
+    public synchronized long getFramesChecked() {
+        return framesChecked;
+    }
+
+    public synchronized long getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /**
+     * 게이트 판단에 든 프레임당 평균 시간 (ms)
+     */
+    public synchronized float getAverageCheckMillis() {
+        return framesChecked == 0 ? 0f : totalCheckNanos / 1e6f / framesChecked;
+    }
+
+    /**
+     * 탐지하기로 한 프레임이 디코드 전에 버려졌을 때 호출합니다.
+     * 그 프레임이 이미 기준 프레임이 되었으므로, 다음 프레임과 비교하면 실제 변화를 놓치게 됩니다.
+     * 다음 프레임은 비교 없이 탐지하고 새 기준 프레임으로 삼습니다.
+     */
+    public synchronized void forceNext() {
+        forceNext = true;
+    }
+
+    /**
+     * 카메라를 다시 열 때처럼 기준 프레임을 버리고 다음 프레임부터 새로 시작합니다.
+     */
+    public synchronized void reset() {
+        frameWidth = -1;
+        frameHeight = -1;
+        skippedInRow = 0;
+        forceNext = false;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.quantiztest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 추적 객체 하나의 움직임 모델 (속도 추정과 위치 예측)
+ * 트래커가 생성, 탐지 매칭, 외삽 때 호출하며, Factory로 추적 슬롯마다 한 번 만든 뒤 슬롯을 다시 쓸 때 init()으로 초기화합니다.
+ * 박스는 {left, top, right, bottom} 순서의 float[4]로 주고받고, 속도는 초당 이동량(px/s)으로 반환해서 프레임 간격과 무관합니다.
+ */
+public interface MotionModel {
+
+    interface Factory {
+        MotionModel create();
+    }
+
+    /**
+     * 새 추적 객체의 첫 탐지 박스로 상태 초기화
+     */
+    void init(float left, float top, float right, float bottom, long timestampMs);
+
+    /**
+     * 매칭된 탐지 박스로 상태 보정
+     */
+    void correct(float left, float top, float right, float bottom, long timestampMs);
+
+    /**
+     * 매칭 계산용 예측 박스 (상태는 바꾸지 않음)
+     * @param missed 마지막 탐지에서 놓친 객체인지 (참고용 값이라 쓰지 않아도 됨. 기본 모델 둘 다 마지막 보정 이후
+     *               경과 시간으로 예측해서 놓친 동안의 이동이 이미 들어 있으므로, 놓쳤는지와 관계없이 같은 박스를 냄)
+     * @param box 현재 표시 박스를 넣으면 예측 박스로 바뀜
+     */
+    void predict(long timestampMs, boolean missed, float[] box);
+
+    /**
+     * 탐지기를 돌리지 않은 프레임에서 표시 박스를 앞으로 옮김
+     * @param box 현재 표시 박스를 넣으면 옮긴 박스로 바뀜
+     */
+    void extrapolate(long timestampMs, float[] box);
+
+    /**
+     * 중심점의 가로 속도 (px/s)
+     */
+    float getVelocityX();
+
+    /**
+     * 중심점의 세로 속도 (px/s)
+     */
+    float getVelocityY();
+
+    /**
+     * 교차 상황에서 방향 정보를 더 믿도록 속도를 키움
+     */
+    void boostVelocity(float factor);
+
+    /**
+     * 현재 상태를 씁니다 (텐서 기록을 시작할 때, readState로 그대로 복원)
+     */
+    void writeState(DataOutput out) throws IOException;
+
+    /**
+     * writeState로 쓴 상태로 바꿈
+     */
+    void readState(DataInput in) throws IOException;
+}
@@ -0,0 +1,277 @@
+package com.example.quantiztest;
+
+import java.util.Arrays;
+
+/**
+ * DetectionBatch의 기본형 배열 위에서 동작하는 클래스별 NMS
+ * 후보를 신뢰도 내림차순으로 정렬한 뒤 클래스 ID별로 나누고, 클래스마다 채택된 박스를 균일 격자에 등록해서
+ * 후보와 같은 격자 칸에 걸친 박스하고만 IoU를 비교합니다.
+ * 결과는 기존 O(n²) 탐욕 NMS와 같고(같은 클래스에서 먼저 채택된 박스와 IoU가 임계값을 넘으면 제거),
+ * 채택 순서도 전체 신뢰도 내림차순을 유지합니다.
+ * 작업 배열은 모두 재사용하므로 한 인스턴스를 여러 스레드에서 동시에 쓰지 않습니다.
+ */
+public class NmsEngine {
+    public static final float DEFAULT_IOU_THRESHOLD = 0.7f;
+
+    // 클래스별 격자 한 변의 칸 수 (칸 수 = GRID_SIZE * GRID_SIZE)
+    private static final int GRID_SIZE = 16;
+
+    private float defaultIouThreshold = DEFAULT_IOU_THRESHOLD;
+    private float[] classIouThresholds = new float[0];
+
+    // 정렬용 작업 배열
+    private long[] sortKeys = new long[0];
+    private int[] byConfidence = new int[0];
+    private int[] byClass = new int[0];
+    private int[] classStart = new int[0];
+    private boolean[] kept = new boolean[0];
+    private int[] selected = new int[0];
+    private int selectedCount;
+
+    // 격자 칸별 채택 박스 연결 리스트 (head -> next)
+    private final int[] cellHead = new int[GRID_SIZE * GRID_SIZE];
+    private int[] entryBox = new int[0];
+    private int[] entryNext = new int[0];
+    // 후보 하나를 검사할 때 같은 채택 박스를 여러 칸에서 중복 비교하지 않기 위한 표시
+    private int[] visitStamp = new int[0];
+    private int stamp;
+
+    /**
+     * IoU 임계값 표를 설정합니다.
+     * @param defaultThreshold 표에 없는 클래스에 쓰는 임계값
+     * @param classThresholds 클래스 ID -> 임계값 (null 가능, 값을 복사하지 않으므로 호출 후 수정하지 않음)
+     */
+    public void setIouThresholds(float defaultThreshold, float[] classThresholds) {
+        this.defaultIouThreshold = defaultThreshold;
+        this.classIouThresholds = classThresholds != null ? classThresholds : new float[0];
+    }
+
+    public float getIouThreshold(int classId) {
+        return classId >= 0 && classId < classIouThresholds.length
+                ? classIouThresholds[classId] : defaultIouThreshold;
+    }
+
+    /**
+     * NMS를 적용해서 살아남은 탐지를 신뢰도 내림차순으로 out에 복사합니다.
+     * @return 살아남은 탐지 수
+     */
+    public int apply(DetectionBatch detections, DetectionBatch out) {
+        out.clear();
+        int count = select(detections);
+        for (int k = 0; k < count; k++) {
+            out.addFrom(detections, selected[k]);
+        }
+        return count;
+    }
+
+    /**
+     * NMS를 적용하고 살아남은 탐지의 인덱스를 신뢰도 내림차순으로 기록합니다.
+     * 인덱스는 getSelected()로 다음 호출 전까지 읽을 수 있습니다.
+     * @return 살아남은 탐지 수
+     */
+    public int select(DetectionBatch detections) {
+        int count = detections.size();
+        selectedCount = 0;
+        if (count == 0) {
+            return 0;
+        }
+        ensureCapacity(count);
+        if (stamp > Integer.MAX_VALUE - count) {
+            Arrays.fill(visitStamp, 0);
+            stamp = 0;
+        }
+
+        sortByConfidence(detections, count);
+        int numClasses = partitionByClass(detections, count);
+
+        Arrays.fill(kept, 0, count, false);
+        for (int c = 0; c < numClasses; c++) {
+            int start = classStart[c];
+            int end = classStart[c + 1];
+            if (end > start) {
+                suppressClass(detections, start, end, getIouThreshold(c));
+            }
+        }
+
+        // 전체 신뢰도 순서대로 채택된 탐지만 모음
+        for (int k = 0; k < count; k++) {
+            int i = byConfidence[k];
+            if (kept[i]) {
+                selected[selectedCount++] = i;
+            }
+        }
+        return selectedCount;
+    }
+
+    public int getSelected(int k) {
+        return selected[k];
+    }
+
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    /**
+     * 신뢰도(0 이상) 비트와 인덱스를 long 하나로 묶어 기본형 정렬로 내림차순 인덱스를 만듭니다.
+     * 신뢰도가 같으면 원래 순서를 유지합니다.
+     */
+    private void sortByConfidence(DetectionBatch detections, int count) {
+        for (int i = 0; i < count; i++) {
+            long bits = Float.floatToIntBits(detections.getConfidence(i));
+            sortKeys[i] = ((Integer.MAX_VALUE - bits) << 32) | i;
+        }
+        Arrays.sort(sortKeys, 0, count);
+        for (int k = 0; k < count; k++) {
+            byConfidence[k] = (int) sortKeys[k];
+        }
+    }
+
+    /**
+     * 신뢰도 순서를 유지한 채 클래스 ID별로 묶습니다 (계수 정렬).
+     * @return 클래스 수 (가장 큰 클래스 ID + 1)
+     */
+    private int partitionByClass(DetectionBatch detections, int count) {
+        int maxClass = 0;
+        for (int i = 0; i < count; i++) {
+            maxClass = Math.max(maxClass, detections.getClassId(i));
+        }
+        int numClasses = maxClass + 1;
+        if (classStart.length < numClasses + 1) {
+            classStart = new int[numClasses + 1];
+        }
+        Arrays.fill(classStart, 0, numClasses + 1, 0);
+        for (int i = 0; i < count; i++) {
+            classStart[detections.getClassId(i) + 1]++;
+        }
+        for (int c = 0; c < numClasses; c++) {
+            classStart[c + 1] += classStart[c];
+        }
+        // classStart를 쓰기 위치로 사용한 뒤 되돌림
+        for (int k = 0; k < count; k++) {
+            int i = byConfidence[k];
+            byClass[classStart[detections.getClassId(i)]++] = i;
+        }
+        for (int c = numClasses; c > 0; c--) {
+            classStart[c] = classStart[c - 1];
+        }
+        classStart[0] = 0;
+        return numClasses;
+    }
+
+    /**
+     * 한 클래스의 후보 byClass[start, end)에 탐욕 NMS를 적용합니다.
+     */
+    private void suppressClass(DetectionBatch detections, int start, int end, float iouThreshold) {
+        // 이 클래스 후보들의 범위로 격자 크기 결정
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int k = start; k < end; k++) {
+            int i = byClass[k];
+            minX = Math.min(minX, detections.getLeft(i));
+            minY = Math.min(minY, detections.getTop(i));
+            maxX = Math.max(maxX, detections.getRight(i));
+            maxY = Math.max(maxY, detections.getBottom(i));
+        }
+        float cellWidth = Math.max((maxX - minX) / GRID_SIZE, 1e-6f);
+        float cellHeight = Math.max((maxY - minY) / GRID_SIZE, 1e-6f);
+
+        Arrays.fill(cellHead, -1);
+        int entries = 0;
+
+        for (int k = start; k < end; k++) {
+            int i = byClass[k];
+            float left = detections.getLeft(i);
+            float top = detections.getTop(i);
+            float right = detections.getRight(i);
+            float bottom = detections.getBottom(i);
+
+            int cx0 = cell(left, minX, cellWidth);
+            int cx1 = cell(right, minX, cellWidth);
+            int cy0 = cell(top, minY, cellHeight);
+            int cy1 = cell(bottom, minY, cellHeight);
+
+            // 같은 칸에 걸친 채택 박스하고만 비교 (겹치지 않는 박스는 IoU가 0)
+            boolean suppressed = false;
+            stamp++;
+            for (int cy = cy0; cy <= cy1 && !suppressed; cy++) {
+                for (int cx = cx0; cx <= cx1 && !suppressed; cx++) {
+                    for (int e = cellHead[cy * GRID_SIZE + cx]; e >= 0; e = entryNext[e]) {
+                        int j = entryBox[e];
+                        if (visitStamp[j] == stamp) continue;
+                        visitStamp[j] = stamp;
+                        if (iou(detections, j, left, top, right, bottom) > iouThreshold) {
+                            suppressed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (suppressed) {
+                continue;
+            }
+
+            // 채택하고 걸친 모든 칸에 등록
+            kept[i] = true;
+            int cells = (cx1 - cx0 + 1) * (cy1 - cy0 + 1);
+            if (entries + cells > entryBox.length) {
+                int capacity = Math.max(entries + cells, entryBox.length * 2);
+                entryBox = Arrays.copyOf(entryBox, capacity);
+                entryNext = Arrays.copyOf(entryNext, capacity);
+            }
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int c = cy * GRID_SIZE + cx;
+                    entryBox[entries] = i;
+                    entryNext[entries] = cellHead[c];
+                    cellHead[c] = entries++;
+                }
+            }
+        }
+    }
+
+    private static int cell(float value, float origin, float cellSize) {
+        int c = (int) ((value - origin) / cellSize);
+        return c < 0 ? 0 : (c >= GRID_SIZE ? GRID_SIZE - 1 : c);
+    }
+
+    /**
+     * 채택된 박스 j와 후보 박스 사이의 IoU를 계산합니다.
+     */
+    private static float iou(DetectionBatch detections, int j,
+                             float left, float top, float right, float bottom) {
+        float jLeft = detections.getLeft(j);
+        float jTop = detections.getTop(j);
+        float jRight = detections.getRight(j);
+        float jBottom = detections.getBottom(j);
+
+        // 겹치는 영역 계산
+        float xLeft = Math.max(jLeft, left);
+        float yTop = Math.max(jTop, top);
+        float xRight = Math.min(jRight, right);
+        float yBottom = Math.min(jBottom, bottom);
+
+        // 겹치는 영역이 없으면 0 반환
+        if (xRight < xLeft || yBottom < yTop) return 0;
+
+        float intersectionArea = (xRight - xLeft) * (yBottom - yTop);
+        float jArea = (jRight - jLeft) * (jBottom - jTop);
+        float area = (right - left) * (bottom - top);
+
+        return intersectionArea / (jArea + area - intersectionArea);
+    }
+
+    private void ensureCapacity(int count) {
+        if (sortKeys.length < count) {
+            int capacity = Math.max(count, sortKeys.length * 2);
+            sortKeys = new long[capacity];
+            byConfidence = new int[capacity];
+            byClass = new int[capacity];
+            kept = new boolean[capacity];
+            selected = new int[capacity];
+            visitStamp = new int[capacity];
+            stamp = 0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 탐지 모델 출력 텐서를 DetectionBatch로 변환하는 디코더
+ * 입력 크기, 후보 수, 출력 레이아웃은 모두 모델 디스크립터에서 가져오므로
+ * 320/416/640 등 입력 크기가 다른 모델도 코드 수정 없이 사용할 수 있습니다.
+ */
+public interface OutputDecoder {
+
+    /**
+     * 추적 대상 카탈로그를 설정합니다.
+     */
+    void setCatalog(ProductCatalog catalog);
+
+    /**
+     * 출력 텐서를 디코드해서 out 배치에 탐지 결과를 추가합니다.
+     * @param outputs 출력 텐서 버퍼 (디스크립터의 출력 순서)
+     * @param imageWidth 원본 이미지 너비 (좌표 변환용)
+     * @param imageHeight 원본 이미지 높이
+     * @return 추가된 탐지 수
+     */
+    int decode(ByteBuffer[] outputs, int imageWidth, int imageHeight, DetectionBatch out);
+
+    /**
+     * 모델 레이아웃에 맞는 디코더를 만듭니다.
+     * 입력은 NHWC [1, H, W, C] 형식이라고 가정합니다.
+     * @throws IllegalArgumentException 지원하지 않는 출력 레이아웃
+     */
+    static OutputDecoder forModel(ModelDescriptor descriptor) {
+        TensorSpec input = descriptor.getInput(0);
+        int inputHeight = input.dim(1);
+        int inputWidth = input.dim(2);
+
+        switch (descriptor.getLayout()) {
+            case YOLO_NAS: {
+                // 양자화 파라미터가 없는 출력은 기존 기본값 사용
+                TensorSpec boxes = descriptor.getOutput(0).withDefaultQuantization(0.01f, 0);
+                TensorSpec scores = descriptor.getOutput(1).withDefaultQuantization(0.004f, 0);
+                TensorSpec classes = descriptor.getOutput(2).withDefaultQuantization(1.0f, 0);
+                YoloOutputDecoder decoder = new YoloOutputDecoder(boxes.dim(1), inputWidth, inputHeight);
+                decoder.setQuantization(boxes.getScale(), boxes.getZeroPoint(),
+                        scores.getScale(), scores.getZeroPoint(),
+                        classes.getScale(), classes.getZeroPoint());
+                return decoder;
+            }
+            case FUSED:
+                return new FusedOutputDecoder(descriptor.getOutput(0), inputWidth, inputHeight, true);
+            default:
+                descriptor.require(false, "지원하지 않는 탐지 출력 형식입니다");
+                return null;
+        }
+    }
+}
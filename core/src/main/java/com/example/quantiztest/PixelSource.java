@@ -0,0 +1,17 @@
+package com.example.quantiztest;
+
+/**
+ * 탐지기에 넘길 ARGB 프레임 (안드로이드에서는 Bitmap, JVM에서는 디코드한 이미지나 기록된 프레임)
+ * 탐지기는 readPixels()로 재사용하는 자기 배열에 한 번만 복사해서 씁니다.
+ */
+public interface PixelSource {
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * ARGB 픽셀을 dst에 행 간격 getWidth()로 복사합니다 (dst 크기는 getWidth() * getHeight() 이상).
+     */
+    void readPixels(int[] dst);
+}
@@ -0,0 +1,241 @@
+package com.example.quantiztest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 추적할 클래스(사람, 상품) 목록
+ * assets의 product_catalog.json 또는 서버가 보낸 JSON을 라벨 목록 기준으로 컴파일해서
+ * 클래스 ID로 바로 조회할 수 있는 boolean[] 허용 목록과 클래스별 신뢰도/NMS IoU 임계값을 만듭니다.
+ * 신뢰도는 두 단계입니다. threshold를 넘으면 새 추적 객체를 만들 수 있는 탐지이고,
+ * lowThreshold ~ threshold 사이는 기존 추적 객체를 이어 붙이는 데만 쓰는 낮은 신뢰도 탐지입니다.
+ *
+ * JSON 형식:
+ * {
+ *   "defaultThreshold": 0.4,
+ *   "defaultLowThreshold": 0.2,
+ *   "defaultNmsIou": 0.7,
+ *   "items": [
+ *     {"label": "person", "product": false, "nmsIou": 0.65},
+ *     {"label": "cup", "threshold": 0.5, "lowThreshold": 0.3}
+ *   ]
+ * }
+ */
+public class ProductCatalog {
+    public static final float DEFAULT_THRESHOLD = 0.4f;
+    public static final float DEFAULT_LOW_THRESHOLD = 0.2f;
+    public static final float DEFAULT_NMS_IOU = NmsEngine.DEFAULT_IOU_THRESHOLD;
+    public static final float PERSON_NMS_IOU = 0.65f; // 붙어 있는 사람이 하나로 합쳐지지 않도록 더 높은 임계값
+
+    private final boolean[] allowed;     // 클래스 ID -> 추적 대상 여부
+    private final boolean[] products;    // 클래스 ID -> 상품 여부 (선 교차 이벤트 대상)
+    private final float[] thresholds;    // 클래스 ID -> 신뢰도 임계값
+    private final float[] lowThresholds; // 클래스 ID -> 낮은 신뢰도 임계값 (디코드 기준)
+    private final float[] nmsIouThresholds; // 클래스 ID -> NMS IoU 임계값
+    private final float minThreshold;    // 허용된 클래스 중 가장 낮은 임계값
+    private final Set<String> productLabels;
+    private final List<String> unknownLabels;
+
+    private ProductCatalog(boolean[] allowed, boolean[] products, float[] thresholds, float[] lowThresholds,
+                           float[] nmsIouThresholds, Set<String> productLabels, List<String> unknownLabels) {
+        this.allowed = allowed;
+        this.products = products;
+        this.thresholds = thresholds;
+        this.lowThresholds = lowThresholds;
+        this.nmsIouThresholds = nmsIouThresholds;
+        this.productLabels = Collections.unmodifiableSet(productLabels);
+        this.unknownLabels = Collections.unmodifiableList(unknownLabels);
+
+        float min = Float.MAX_VALUE;
+        for (int i = 0; i < allowed.length; i++) {
+            if (allowed[i]) {
+                min = Math.min(min, thresholds[i]);
+            }
+        }
+        this.minThreshold = min;
+    }
+
+    /**
+     * 카탈로그 항목
+     */
+    public static class Item {
+        final String label;
+        final float threshold;
+        final float lowThreshold;
+        final boolean product;
+        final float nmsIou;
+
+        public Item(String label, float threshold, boolean product) {
+            this(label, threshold, product, DEFAULT_NMS_IOU);
+        }
+
+        public Item(String label, float threshold, boolean product, float nmsIou) {
+            this(label, threshold, Math.min(threshold, DEFAULT_LOW_THRESHOLD), product, nmsIou);
+        }
+
+        /**
+         * @param lowThreshold 기존 추적 객체만 이어 붙이는 낮은 신뢰도 탐지의 하한 (threshold 이상이면 낮은 단계 없음)
+         */
+        public Item(String label, float threshold, float lowThreshold, boolean product, float nmsIou) {
+            this.label = label;
+            this.threshold = threshold;
+            this.lowThreshold = Math.min(threshold, lowThreshold);
+            this.product = product;
+            this.nmsIou = nmsIou;
+        }
+    }
+
+    /**
+     * 항목 목록을 라벨 목록 기준의 클래스 ID 배열로 컴파일합니다.
+     * 라벨 목록에 없는 항목은 무시하고 getUnknownLabels()로 알려줍니다.
+     */
+    public static ProductCatalog compile(List<String> labels, List<Item> items) {
+        return compile(labels, items, DEFAULT_NMS_IOU);
+    }
+
+    /**
+     * @param defaultNmsIou 항목에 없는 클래스의 NMS IoU 임계값
+     */
+    public static ProductCatalog compile(List<String> labels, List<Item> items, float defaultNmsIou) {
+        int numClasses = labels.size();
+        boolean[] allowed = new boolean[numClasses];
+        boolean[] products = new boolean[numClasses];
+        float[] thresholds = new float[numClasses];
+        float[] lowThresholds = new float[numClasses];
+        float[] nmsIouThresholds = new float[numClasses];
+        Arrays.fill(nmsIouThresholds, defaultNmsIou);
+        Set<String> productLabels = new HashSet<>();
+        List<String> unknownLabels = new ArrayList<>();
+
+        for (Item item : items) {
+            int classId = labels.indexOf(item.label);
+            if (classId < 0) {
+                unknownLabels.add(item.label);
+                continue;
+            }
+            allowed[classId] = true;
+            products[classId] = item.product;
+            thresholds[classId] = item.threshold;
+            lowThresholds[classId] = item.lowThreshold;
+            nmsIouThresholds[classId] = item.nmsIou;
+            if (item.product) {
+                productLabels.add(item.label);
+            }
+        }
+        return new ProductCatalog(allowed, products, thresholds, lowThresholds, nmsIouThresholds,
+                productLabels, unknownLabels);
+    }
+
+    /**
+     * JSON 문자열을 파싱해서 컴파일합니다.
+     */
+    public static ProductCatalog fromJson(String json, List<String> labels) throws JSONException {
+        JSONObject root = new JSONObject(json);
+        float defaultThreshold = (float) root.optDouble("defaultThreshold", DEFAULT_THRESHOLD);
+        float defaultLowThreshold = (float) root.optDouble("defaultLowThreshold", DEFAULT_LOW_THRESHOLD);
+        float defaultNmsIou = (float) root.optDouble("defaultNmsIou", DEFAULT_NMS_IOU);
+
+        JSONArray array = root.getJSONArray("items");
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject entry = array.getJSONObject(i);
+            items.add(new Item(
+                    entry.getString("label"),
+                    (float) entry.optDouble("threshold", defaultThreshold),
+                    (float) entry.optDouble("lowThreshold", defaultLowThreshold),
+                    entry.optBoolean("product", true),
+                    (float) entry.optDouble("nmsIou", defaultNmsIou)));
+        }
+        return compile(labels, items, defaultNmsIou);
+    }
+
+    /**
+     * 컴파일된 클래스별 표로 카탈로그를 다시 만듭니다 (기록된 텐서 재생용, 배열은 복사하지 않음).
+     */
+    static ProductCatalog restore(List<String> labels, boolean[] allowed, boolean[] products, float[] thresholds,
+                                  float[] lowThresholds, float[] nmsIouThresholds) {
+        Set<String> productLabels = new HashSet<>();
+        for (int i = 0; i < products.length && i < labels.size(); i++) {
+            if (products[i]) {
+                productLabels.add(labels.get(i));
+            }
+        }
+        return new ProductCatalog(allowed, products, thresholds, lowThresholds, nmsIouThresholds,
+                productLabels, new ArrayList<String>());
+    }
+
+    /**
+     * 카탈로그 파일이 없을 때 사용하는 기본 목록 (사람, 컵, 사과, 바나나)
+     */
+    public static ProductCatalog defaultCatalog(List<String> labels) {
+        List<Item> items = new ArrayList<>();
+        items.add(new Item("person", DEFAULT_THRESHOLD, false, PERSON_NMS_IOU));
+        items.add(new Item("cup", DEFAULT_THRESHOLD, true));
+        items.add(new Item("apple", DEFAULT_THRESHOLD, true));
+        items.add(new Item("banana", DEFAULT_THRESHOLD, true));
+        return compile(labels, items);
+    }
+
+    public boolean isAllowed(int classId) {
+        return classId >= 0 && classId < allowed.length && allowed[classId];
+    }
+
+    public boolean isProduct(int classId) {
+        return classId >= 0 && classId < products.length && products[classId];
+    }
+
+    /**
+     * 라벨 문자열 기준 상품 여부 (UI/이벤트 처리용)
+     */
+    public boolean isProduct(String label) {
+        return productLabels.contains(label);
+    }
+
+    public float getThreshold(int classId) {
+        return thresholds[classId];
+    }
+
+    /**
+     * 디코더가 후보를 남기는 하한 (이 값 ~ getThreshold() 사이는 낮은 신뢰도 탐지)
+     */
+    public float getLowThreshold(int classId) {
+        return lowThresholds[classId];
+    }
+
+    /**
+     * 클래스 ID -> 신뢰도 임계값 표 (탐지 배치의 신뢰도 단계 표시에 그대로 넘기므로 수정하지 않음)
+     */
+    public float[] getThresholds() {
+        return thresholds;
+    }
+
+    /**
+     * 클래스 ID -> NMS IoU 임계값 표 (NmsEngine에 그대로 넘기므로 수정하지 않음)
+     */
+    public float[] getNmsIouThresholds() {
+        return nmsIouThresholds;
+    }
+
+    /**
+     * 허용된 클래스 중 가장 낮은 임계값 (허용된 클래스가 없으면 Float.MAX_VALUE)
+     */
+    public float getMinThreshold() {
+        return minThreshold;
+    }
+
+    public int getNumClasses() {
+        return allowed.length;
+    }
+
+    public List<String> getUnknownLabels() {
+        return unknownLabels;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.quantiztest;
+
+/**
+ * UINT8 양자화 텐서 값 변환 유틸리티
+ */
+public final class Quantization {
+    // 임계값을 넘는 원시 값이 하나도 없을 때 반환되는 값 (UINT8 범위 밖)
+    public static final int NO_RAW_VALUE = 256;
+
+    private Quantization() {
+    }
+
+    /**
+     * UINT8 원시 값을 float로 변환합니다.
+     */
+    public static float dequantize(int raw, float scale, int zeroPoint) {
+        return (raw - zeroPoint) * scale;
+    }
+
+    /**
+     * dequantize(raw) > threshold 를 만족하는 가장 작은 원시 값을 구합니다.
+     * 디코드 루프에서는 float 변환 없이 (raw >= 반환값) 정수 비교 한 번으로 같은 판정을 할 수 있습니다.
+     * 루프와 똑같은 float 연산으로 0~255를 한 번씩만 검사하므로 경계값에서도 결과가 달라지지 않습니다.
+     * @return 0~255 사이 값, 어떤 값도 임계값을 넘지 못하면 NO_RAW_VALUE
+     */
+    public static int minRawAbove(float threshold, float scale, int zeroPoint) {
+        for (int raw = 0; raw < 256; raw++) {
+            if (dequantize(raw, scale, zeroPoint) > threshold) {
+                return raw;
+            }
+        }
+        return NO_RAW_VALUE;
+    }
+}
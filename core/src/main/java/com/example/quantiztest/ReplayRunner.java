@@ -0,0 +1,600 @@
+package com.example.quantiztest;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TensorRecorder로 기록한 로그를 안드로이드 없이 JVM에서 다시 돌리는 재생기 (회귀 테스트 + 처리량 측정)
+ * 기록된 출력 텐서를 앱과 같은 DetectionPostprocessor, SimpleTracker, LineCrossingDetector, KioskZone,
+ * FaceOutputDecoder에 넣고, 기기에서 기록한 추적 결과/선 교차/키오스크 응답/얼굴과 비교합니다.
+ * 트래커와 선 교차 판정은 기록에 남은 시작 시점 상태에서 이어서 돌리므로, 기록 전부터 있던 객체의 ID와 쿨다운도 기기와 같습니다.
+ * 단계별 시간(디코드, NMS, 추적, 선/키오스크, 얼굴)도 같이 잽니다.
+ *
+ * 실행: ./gradlew :core:replay -Plog=tensors.bin
+ */
+public class ReplayRunner {
+    // 박스 좌표(픽셀)와 신뢰도 비교 허용 오차 (기기와 JVM의 부동소수점 차이만 허용)
+    static final float BOX_TOLERANCE = 1e-3f;
+    static final float CONFIDENCE_TOLERANCE = 1e-5f;
+    // 그리기/키오스크 레코드가 참조할 수 있도록 보관하는 최근 추적 스냅샷 수
+    private static final int SNAPSHOT_HISTORY = 256;
+
+    /**
+     * 단계 하나의 처리 시간 표본 (나노초)
+     */
+    public static final class Latency {
+        private final String name;
+        private long[] samples = new long[1024];
+        private int count;
+
+        Latency(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        public String getName() { return name; }
+        public int getCount() { return count; }
+
+        public long getTotalNanos() {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += samples[i];
+            }
+            return total;
+        }
+
+        public double getMeanMicros() {
+            return count > 0 ? getTotalNanos() / 1000.0 / count : 0;
+        }
+
+        /**
+         * @param p 0~1 사이 백분위 (예: 0.95)
+         */
+        public double getPercentileMicros(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+            return sorted[Math.max(0, index)] / 1000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s n=%d mean=%.1fus p50=%.1fus p95=%.1fus max=%.1fus", name, count,
+                    getMeanMicros(), getPercentileMicros(0.5), getPercentileMicros(0.95), getPercentileMicros(1.0));
+        }
+    }
+
+    /**
+     * 재생 결과: 처리량, 단계별 시간, 기록된 정답과의 차이
+     */
+    public static final class Report {
+        public final Latency decode = new Latency("decode");
+        public final Latency nms = new Latency("nms");
+        public final Latency track = new Latency("track");
+        public final Latency zones = new Latency("zones");
+        public final Latency face = new Latency("face");
+
+        public int frames;
+        public int detectFrames;
+        public int holdFrames;
+        public int extrapolateFrames;
+        public long wallNanos;
+
+        // 추적 결과 비교 (정답이 있는 프레임 수, 그중 다른 프레임 수, 첫 번째 차이 설명)
+        public int trackFramesCompared;
+        public int trackFramesMismatched;
+        public String firstTrackMismatch;
+        // 선 교차 이벤트 (정답 수, 재생 수, 순서대로 비교해서 다른 이벤트 수)
+        public int goldenCrossings;
+        public int replayCrossings;
+        public int crossingMismatches;
+        // 키오스크 응답, 얼굴 탐지 (비교 수, 다른 수)
+        public int kioskCompared;
+        public int kioskMismatches;
+        public int faceCompared;
+        public int faceMismatches;
+        // 참조한 프레임이 로그에 없어 비교하지 못한 레코드 수 (기록 시작 직후 등)
+        public int skipped;
+
+        public boolean matchesGolden() {
+            return trackFramesMismatched == 0 && crossingMismatches == 0
+                    && kioskMismatches == 0 && faceMismatches == 0;
+        }
+
+        /**
+         * 재생한 프레임 수 / 전체 재생 시간 (파일 읽기 포함)
+         */
+        public double getFramesPerSecond() {
+            return wallNanos > 0 ? frames * 1e9 / wallNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("프레임 %d (탐지 %d, 유지 %d, 외삽 %d), %.1f fps, 전체 %.1fms%n",
+                    frames, detectFrames, holdFrames, extrapolateFrames, getFramesPerSecond(), wallNanos / 1e6));
+            for (Latency stage : Arrays.asList(decode, nms, track, zones, face)) {
+                sb.append("  ").append(stage).append(String.format("%n"));
+            }
+            sb.append(String.format("추적: %d/%d 프레임 다름%s%n", trackFramesMismatched, trackFramesCompared,
+                    firstTrackMismatch != null ? " (처음: " + firstTrackMismatch + ")" : ""));
+            sb.append(String.format("선 교차: 정답 %d, 재생 %d, 다름 %d%n", goldenCrossings, replayCrossings, crossingMismatches));
+            sb.append(String.format("키오스크: %d/%d 다름, 얼굴: %d/%d 다름, 비교 못함 %d%n",
+                    kioskMismatches, kioskCompared, faceMismatches, faceCompared, skipped));
+            sb.append(matchesGolden() ? "결과: 정답과 같음" : "결과: 정답과 다름");
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 탐지 프레임의 출력 텐서를 디코드 전에 받는 쪽 (벤치마크 입력 추출 등)
+     * 버퍼는 다음 탐지 프레임에서 재사용하므로 남겨 두려면 복사해야 합니다.
+     */
+    public interface DetectFrameListener {
+        void onDetectFrame(long timestamp, ByteBuffer[] outputs, int count, FrameTransform transform);
+    }
+
+    private final DataInputStream in;
+    private final Report report = new Report();
+    private DetectFrameListener detectFrameListener;
+
+    // 헤더에서 만든 모델별 후처리
+    private ByteOrder tensorOrder;
+    private ModelDescriptor detector;
+    private List<String> labels;
+    private DetectionPostprocessor postprocessor;
+    private FaceOutputDecoder faceDecoder;
+
+    // CONFIG, CATALOG 레코드에서 만든 판정 상태
+    private SimpleTracker tracker;
+    private LineCrossingDetector lineCrossing;
+    private KioskZone kioskZone;
+    private float kioskMinConfidence;
+    private ProductCatalog catalog;
+
+    // 프레임마다 재사용하는 버퍼
+    private ByteBuffer[] outputs = new ByteBuffer[0];
+    private final DetectionBatch detections = new DetectionBatch();
+    private final DetectionBatch faces = new DetectionBatch();
+    private final MotionGate.Mask mask = new MotionGate.Mask();
+    private ByteBuffer heatmap = ByteBuffer.allocate(0);
+    private ByteBuffer boxes = ByteBuffer.allocate(0);
+
+    // 프레임 시각 -> 재생한 추적 스냅샷 (그리기, 키오스크, 정답 추적 레코드가 참조)
+    private final Map<Long, TrackingSnapshot> snapshots = new LinkedHashMap<Long, TrackingSnapshot>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TrackingSnapshot> eldest) {
+            return size() > SNAPSHOT_HISTORY;
+        }
+    };
+    private TrackingSnapshot lastSnapshot = TrackingSnapshot.EMPTY;
+
+    // 선 교차 이벤트 (프레임 시각, 객체 ID, 방향, 사람 ID)를 순서대로
+    private final List<long[]> goldenCrossings = new ArrayList<>();
+    private final List<long[]> replayCrossings = new ArrayList<>();
+    private long renderFrameTimestamp;
+    private final LineCrossingDetector.Listener crossingListener = (obj, downward, nearestPerson, personDistance) ->
+            replayCrossings.add(crossing(renderFrameTimestamp, obj.getId(), downward,
+                    nearestPerson != null ? nearestPerson.getId() : -1));
+
+    public ReplayRunner(InputStream in) {
+        this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+    }
+
+    public void setDetectFrameListener(DetectFrameListener listener) {
+        this.detectFrameListener = listener;
+    }
+
+    /**
+     * 로그 헤더의 탐지 모델 디스크립터 (run() 이후)
+     */
+    public ModelDescriptor getDetector() {
+        return detector;
+    }
+
+    /**
+     * 로그 헤더의 탐지 모델 라벨 목록 (run() 이후)
+     */
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * 로그 끝까지 재생하고 결과를 반환합니다.
+     * @throws IOException 로그 형식이 다르거나 읽기 실패
+     */
+    public Report run() throws IOException {
+        long start = System.nanoTime();
+        readHeader();
+        while (true) {
+            int type = in.read();
+            if (type < 0) {
+                break;
+            }
+            try {
+                readRecord(type);
+            } catch (EOFException e) {
+                // 기록 중에 앱이 종료되어 마지막 레코드가 잘린 경우
+                break;
+            }
+        }
+        compareCrossings();
+        report.wallNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void readHeader() throws IOException {
+        if (in.readInt() != TensorRecorder.MAGIC) {
+            throw new IOException("텐서 로그 파일이 아닙니다");
+        }
+        int version = in.readInt();
+        if (version != TensorRecorder.VERSION) {
+            throw new IOException("지원하지 않는 텐서 로그 버전: " + version);
+        }
+        tensorOrder = in.readBoolean() ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        detector = TensorRecorder.readDescriptor(in);
+        String[] names = new String[in.readInt()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+        }
+        labels = Arrays.asList(names);
+        postprocessor = new DetectionPostprocessor(detector);
+        if (in.readBoolean()) {
+            faceDecoder = new FaceOutputDecoder(TensorRecorder.readDescriptor(in));
+        }
+        catalog = ProductCatalog.defaultCatalog(labels);
+        detections.setLabels(labels);
+    }
+
+    private void readRecord(int type) throws IOException {
+        switch (type) {
+            case TensorRecorder.CONFIG:
+                readConfig();
+                break;
+            case TensorRecorder.TRACKER_STATE:
+                readTrackerState();
+                break;
+            case TensorRecorder.LINE_STATE:
+                requireConfig();
+                lineCrossing.readState(in);
+                break;
+            case TensorRecorder.CATALOG:
+                readCatalog();
+                break;
+            case TensorRecorder.FRAME:
+                replayFrame();
+                break;
+            case TensorRecorder.TRACKS:
+                compareTracks();
+                break;
+            case TensorRecorder.RENDER:
+                replayRender();
+                break;
+            case TensorRecorder.CROSSING:
+                long frameTimestamp = in.readLong();
+                int objectId = in.readInt();
+                boolean downward = in.readBoolean();
+                goldenCrossings.add(crossing(frameTimestamp, objectId, downward, in.readInt()));
+                break;
+            case TensorRecorder.KIOSK:
+                replayKiosk();
+                break;
+            case TensorRecorder.FACE:
+                replayFaces();
+                break;
+            default:
+                throw new IOException("알 수 없는 레코드 종류: " + type);
+        }
+    }
+
+    private void readConfig() throws IOException {
+        String motionModel = in.readUTF();
+        int confirmHits = in.readInt();
+        float confirmMinConfidence = in.readFloat();
+        tracker = new SimpleTracker("ema".equals(motionModel) ? EmaMotionModel.FACTORY : KalmanMotionModel.FACTORY);
+        tracker.setConfirmation(confirmHits, confirmMinConfidence);
+
+        float startX = in.readFloat();
+        float startY = in.readFloat();
+        float endX = in.readFloat();
+        float endY = in.readFloat();
+        long cooldownMs = in.readLong();
+        lineCrossing = new LineCrossingDetector(startX, startY, endX, endY, cooldownMs, in.readFloat());
+        kioskZone = new KioskZone(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+        kioskMinConfidence = in.readFloat();
+    }
+
+    /**
+     * 기록을 시작할 때의 기기 트래커 상태로 재생 트래커를 시작합니다.
+     * @throws IOException 상태가 설정의 움직임 모델 형식과 맞지 않음
+     */
+    private void readTrackerState() throws IOException {
+        requireConfig();
+        byte[] state = new byte[in.readInt()];
+        in.readFully(state);
+        ByteArrayInputStream bytes = new ByteArrayInputStream(state);
+        try {
+            tracker.readState(new DataInputStream(bytes));
+        } catch (EOFException e) {
+            // 로그가 잘린 것이 아니라 상태 형식이 다른 경우라서 재생을 멈춤
+            throw new IOException("트래커 상태가 설정의 움직임 모델과 맞지 않습니다");
+        }
+        if (bytes.available() != 0) {
+            throw new IOException("트래커 상태가 설정의 움직임 모델과 맞지 않습니다");
+        }
+    }
+
+    private void requireConfig() throws IOException {
+        if (tracker == null) {
+            throw new IOException("CONFIG 레코드 전에 트래커 입력이 있습니다");
+        }
+    }
+
+    private void readCatalog() throws IOException {
+        int numClasses = in.readInt();
+        boolean[] allowed = new boolean[numClasses];
+        boolean[] products = new boolean[numClasses];
+        float[] thresholds = new float[numClasses];
+        float[] lowThresholds = new float[numClasses];
+        float[] nmsIou = new float[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            allowed[c] = in.readBoolean();
+            products[c] = in.readBoolean();
+            thresholds[c] = in.readFloat();
+            lowThresholds[c] = in.readFloat();
+            nmsIou[c] = in.readFloat();
+        }
+        catalog = ProductCatalog.restore(labels, allowed, products, thresholds, lowThresholds, nmsIou);
+    }
+
+    private void replayFrame() throws IOException {
+        int mode = in.readByte();
+        long timestamp = in.readLong();
+        int width = in.readInt();
+        int height = in.readInt();
+        int viewWidth = in.readInt();
+        int viewHeight = in.readInt();
+        requireConfig();
+
+        List<SimpleTracker.TrackedObject> tracked;
+        if (mode == TensorRecorder.MODE_DETECT) {
+            FrameTransform transform = new FrameTransform(in.readInt(), in.readInt(),
+                    in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            int count = in.readInt();
+            if (outputs.length < count) {
+                outputs = Arrays.copyOf(outputs, count);
+            }
+            for (int i = 0; i < count; i++) {
+                outputs[i] = readTensor(outputs[i]);
+            }
+            if (detectFrameListener != null) {
+                detectFrameListener.onDetectFrame(timestamp, outputs, count, transform);
+            }
+
+            long t0 = System.nanoTime();
+            postprocessor.decode(outputs, transform, catalog);
+            long t1 = System.nanoTime();
+            postprocessor.suppress(catalog, labels, detections);
+            // 앱의 디코드 단계와 같이 프레임 좌표를 추적 좌표계(뷰)로 변환
+            FrameTransform.stretch(viewWidth, viewHeight, width, height).mapToSource(detections);
+            long t2 = System.nanoTime();
+            tracked = tracker.update(detections, timestamp);
+            long t3 = System.nanoTime();
+            report.decode.add(t1 - t0);
+            report.nms.add(t2 - t1);
+            report.track.add(t3 - t2);
+            report.detectFrames++;
+        } else if (mode == TensorRecorder.MODE_HOLD) {
+            int cols = in.readInt();
+            int rows = in.readInt();
+            mask.reset(cols, rows);
+            int cells = cols * rows;
+            int bits = 0;
+            for (int i = 0; i < cells; i++) {
+                if ((i & 7) == 0) {
+                    bits = in.readUnsignedByte();
+                }
+                if ((bits & (1 << (i & 7))) != 0) {
+                    mask.mark(i);
+                }
+            }
+            long t0 = System.nanoTime();
+            tracked = tracker.hold(mask, viewWidth, viewHeight, timestamp);
+            report.track.add(System.nanoTime() - t0);
+            report.holdFrames++;
+        } else {
+            long t0 = System.nanoTime();
+            tracked = tracker.extrapolate(timestamp);
+            report.track.add(System.nanoTime() - t0);
+            report.extrapolateFrames++;
+        }
+        report.frames++;
+
+        lastSnapshot = lastSnapshot.next(tracked, timestamp, viewWidth, viewHeight, null);
+        snapshots.put(timestamp, lastSnapshot);
+    }
+
+    /**
+     * 기기의 추적 결과와 같은 시각의 재생 결과를 ID, 클래스, 신뢰도, 박스로 비교합니다.
+     */
+    private void compareTracks() throws IOException {
+        long timestamp = in.readLong();
+        int count = in.readInt();
+        TrackingSnapshot snapshot = snapshots.get(timestamp);
+        String mismatch = null;
+        if (snapshot != null && snapshot.getTracks().size() != count) {
+            mismatch = "객체 수 " + count + " -> " + snapshot.getTracks().size();
+        }
+        for (int k = 0; k < count; k++) {
+            int id = in.readInt();
+            int classId = in.readInt();
+            float confidence = in.readFloat();
+            float left = in.readFloat();
+            float top = in.readFloat();
+            float right = in.readFloat();
+            float bottom = in.readFloat();
+            if (snapshot == null || mismatch != null) {
+                continue;
+            }
+            TrackingSnapshot.Track track = snapshot.getTracks().get(k);
+            if (track.getId() != id || track.getClassId() != classId
+                    || Math.abs(track.getConfidence() - confidence) > CONFIDENCE_TOLERANCE
+                    || Math.abs(track.getLeft() - left) > BOX_TOLERANCE
+                    || Math.abs(track.getTop() - top) > BOX_TOLERANCE
+                    || Math.abs(track.getRight() - right) > BOX_TOLERANCE
+                    || Math.abs(track.getBottom() - bottom) > BOX_TOLERANCE) {
+                mismatch = "ID " + id + " -> " + track;
+            }
+        }
+        if (snapshot == null) {
+            report.skipped++;
+            return;
+        }
+        report.trackFramesCompared++;
+        if (mismatch != null) {
+            report.trackFramesMismatched++;
+            if (report.firstTrackMismatch == null) {
+                report.firstTrackMismatch = "t=" + timestamp + " " + mismatch;
+            }
+        }
+    }
+
+    private void replayRender() throws IOException {
+        long frameTimestamp = in.readLong();
+        int canvasWidth = in.readInt();
+        int canvasHeight = in.readInt();
+        long nowMs = in.readLong();
+        TrackingSnapshot snapshot = snapshots.get(frameTimestamp);
+        if (snapshot == null || lineCrossing == null) {
+            report.skipped++;
+            return;
+        }
+        renderFrameTimestamp = frameTimestamp;
+        long t0 = System.nanoTime();
+        lineCrossing.update(snapshot.getTracks(), canvasWidth, canvasHeight, catalog, nowMs, crossingListener);
+        report.zones.add(System.nanoTime() - t0);
+    }
+
+    private void replayKiosk() throws IOException {
+        long snapshotTimestamp = in.readLong();
+        int goldenPersonId = in.readInt();
+        TrackingSnapshot snapshot = snapshots.get(snapshotTimestamp);
+        if (snapshot == null || kioskZone == null) {
+            report.skipped++;
+            return;
+        }
+        long t0 = System.nanoTime();
+        TrackingSnapshot.Track nearest = kioskZone.findNearestPerson(snapshot, kioskMinConfidence);
+        report.zones.add(System.nanoTime() - t0);
+        report.kioskCompared++;
+        if ((nearest != null ? nearest.getId() : -1) != goldenPersonId) {
+            report.kioskMismatches++;
+        }
+    }
+
+    private void replayFaces() throws IOException {
+        in.readLong();
+        int sourceWidth = in.readInt();
+        int sourceHeight = in.readInt();
+        heatmap = readTensor(heatmap);
+        boxes = readTensor(boxes);
+        int count = in.readInt();
+        float[] golden = new float[count * 5];
+        for (int i = 0; i < golden.length; i++) {
+            golden[i] = in.readFloat();
+        }
+        if (faceDecoder == null) {
+            report.skipped++;
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        int replayed = faceDecoder.decode(heatmap, boxes, sourceWidth, sourceHeight, faces);
+        report.face.add(System.nanoTime() - t0);
+        report.faceCompared++;
+        boolean same = replayed == count;
+        for (int i = 0; same && i < count; i++) {
+            same = Math.abs(faces.getConfidence(i) - golden[i * 5]) <= CONFIDENCE_TOLERANCE
+                    && Math.abs(faces.getLeft(i) - golden[i * 5 + 1]) <= BOX_TOLERANCE
+                    && Math.abs(faces.getTop(i) - golden[i * 5 + 2]) <= BOX_TOLERANCE
+                    && Math.abs(faces.getRight(i) - golden[i * 5 + 3]) <= BOX_TOLERANCE
+                    && Math.abs(faces.getBottom(i) - golden[i * 5 + 4]) <= BOX_TOLERANCE;
+        }
+        if (!same) {
+            report.faceMismatches++;
+        }
+    }
+
+    /**
+     * 선 교차 이벤트를 순서대로 비교합니다 (한쪽에만 있는 이벤트도 차이로 셈).
+     */
+    private void compareCrossings() {
+        report.goldenCrossings = goldenCrossings.size();
+        report.replayCrossings = replayCrossings.size();
+        int n = Math.max(goldenCrossings.size(), replayCrossings.size());
+        for (int i = 0; i < n; i++) {
+            if (i >= goldenCrossings.size() || i >= replayCrossings.size()
+                    || !Arrays.equals(goldenCrossings.get(i), replayCrossings.get(i))) {
+                report.crossingMismatches++;
+            }
+        }
+    }
+
+    /**
+     * 길이와 바이트를 읽어 재사용 버퍼에 채웁니다 (모자라면 새로 할당).
+     */
+    private ByteBuffer readTensor(ByteBuffer buffer) throws IOException {
+        int n = in.readInt();
+        if (buffer == null || buffer.capacity() < n) {
+            buffer = ByteBuffer.allocate(n).order(tensorOrder);
+        }
+        buffer.clear();
+        in.readFully(buffer.array(), 0, n);
+        buffer.limit(n);
+        return buffer;
+    }
+
+    private static long[] crossing(long frameTimestamp, int objectId, boolean downward, int personId) {
+        return new long[]{frameTimestamp, objectId, downward ? 1 : 0, personId};
+    }
+
+    /**
+     * 사용법: ReplayRunner <텐서 로그 파일>
+     * 정답과 다르면 종료 코드 1 (CI에서 회귀 확인용)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args[0].isEmpty()) {
+            System.err.println("사용법: ReplayRunner <텐서 로그 파일>");
+            System.exit(2);
+        }
+        Report report;
+        try (InputStream in = new FileInputStream(args[0])) {
+            report = new ReplayRunner(in).run();
+        }
+        System.out.println(report);
+        if (!report.matchesGolden()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,941 @@
+package com.example.quantiztest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class SimpleTracker {
+    private static final String TAG = "SimpleTracker";
+    private static final float IOU_THRESHOLD = 0.25f;  // 같은 객체로 간주할 IoU 임계값 낮출수록 잘 추정
+    private static final long MAX_AGE_MS = 500;  // 놓친 객체를 사라졌다고 판단하기 전 최대 시간 즉 높을수록 일시적으로 가려져도 유지 (100ms 간격 5프레임)
+    // 방향 정보를 쓰는 최소 속도 (px/s, 100ms 간격에서 프레임당 0.5px)
+    private static final float MIN_DIRECTION_SPEED = 5f;
+
+    private static final boolean USE_VELOCITY_PREDICTION = true;
+    // 추적 중인 객체 (슬롯별 병렬 배열, 사라진 객체의 슬롯은 재사용)
+    private final TrackTable table;
+    // 추적 ID는 슬롯과 달리 재사용하지 않음 (서버와 화면 이벤트가 ID로 사람을 구분)
+    private int nextId = 0;
+    // 프레임 시각 없이 호출될 때 쓰는 시계
+    private final Clock clock;
+    private Logger logger = Logger.NONE;
+    private final TrackTable.RemovalListener removalListener = obj -> {
+        if (logger.isDebugEnabled(TAG)) {
+            logger.d(TAG, "객체 제거: ID=" + obj.getId() + ", Label=" + obj.getLabel());
+        }
+        fire(TrackListener.Event.REMOVED, obj.getSlot());
+    };
+
+    // 생명주기 이벤트: 이 횟수만큼 연속으로 매칭되면 확정 (매칭된 탐지의 신뢰도가 confirmMinConfidence 이상일 때만 셈)
+    private static final int DEFAULT_CONFIRM_HITS = 3;
+    private int confirmHits = DEFAULT_CONFIRM_HITS;
+    private float confirmMinConfidence = 0f;
+    private TrackListener listener;
+    // 프레임마다 재사용하는 매칭 여부 배열
+    private boolean[] matchedBuffer = new boolean[0];
+    // 후보 쌍 게이팅: 중심 거리가 (큰 박스 변 x 배율) 이상이면 IoU와 거리 점수가 모두 0이라 비교하지 않음
+    private static final float GATE_FACTOR = 1.5f;
+    // 겹친 사람은 방향 점수만으로도 매칭될 수 있으므로 더 넓게 봄
+    private static final float OVERLAP_GATE_FACTOR = 3f;
+    // 낮은 신뢰도 탐지는 예측 위치와 이 값보다 많이 겹칠 때만 기존 객체에 이어 붙임
+    private static final float LOW_CONFIDENCE_IOU_THRESHOLD = 0.4f;
+
+    // 가까운 후보만 찾기 위한 격자 (단계마다 다시 만듦)
+    private final SpatialGrid grid = new SpatialGrid();
+    // 배정 단계에서 재사용하는 버퍼 (추적 객체 배열, 후보 쌍, 연결 요소, 비용 행렬)
+    private final LinearAssignment assignment = new LinearAssignment();
+    private TrackedObject[] trackBuffer = new TrackedObject[0];
+    private boolean[] overlapBuffer = new boolean[0];
+    private boolean[] trackMatchedBuffer = new boolean[0];
+    private int[] edgeTrack = new int[0];
+    private int[] edgeDetection = new int[0];
+    private float[] edgeCost = new float[0];
+    private int[] parentBuffer = new int[0];
+    private int[] componentBuffer = new int[0];
+    private int[] localIndexBuffer = new int[0];
+    private int[] rowOrderBuffer = new int[0];
+    private int[] colOrderBuffer = new int[0];
+    private int[] edgeOrderBuffer = new int[0];
+    private int[] rowStartBuffer = new int[0];
+    private int[] colStartBuffer = new int[0];
+    private int[] edgeStartBuffer = new int[0];
+    private int[] rowToColBuffer = new int[0];
+    private float[] costBuffer = new float[0];
+    // 마지막 update()에서 게이트를 통과해 비용을 계산한 후보 쌍 수 (두 단계 합)
+    private int lastCandidatePairs;
+
+    /**
+     * 기본 움직임 모델(속도 이동 평균)을 쓰는 트래커
+     */
+    public SimpleTracker() {
+        this(EmaMotionModel.FACTORY);
+    }
+
+    /**
+     * @param motionModelFactory 추적 객체마다 움직임 모델을 만드는 팩토리 (예: KalmanMotionModel.FACTORY)
+     */
+    public SimpleTracker(MotionModel.Factory motionModelFactory) {
+        this(motionModelFactory, Clock.SYSTEM);
+    }
+
+    /**
+     * @param clock 프레임 시각을 넘기지 않는 update(), hold(), extrapolate()가 쓰는 시계
+     */
+    public SimpleTracker(MotionModel.Factory motionModelFactory, Clock clock) {
+        this.table = new TrackTable(motionModelFactory);
+        this.clock = clock;
+    }
+
+    /**
+     * 추적 객체의 생명주기 이벤트를 받을 리스너를 설정합니다 (null이면 해제).
+     */
+    public void setListener(TrackListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 객체 제거, 사람 교차 로그를 받을 출력을 설정합니다 (기본값은 출력 없음).
+     */
+    public void setLogger(Logger logger) {
+        this.logger = logger != null ? logger : Logger.NONE;
+    }
+
+    /**
+     * 확정 조건을 설정합니다.
+     * @param hits 이 횟수만큼 연속으로 매칭되면 확정 (생성 시 매칭 포함)
+     * @param minConfidence 이 신뢰도 이상인 높은 신뢰도 탐지와 매칭된 경우만 셈 (아니면 연속 횟수가 끊김)
+     */
+    public void setConfirmation(int hits, float minConfidence) {
+        this.confirmHits = Math.max(1, hits);
+        this.confirmMinConfidence = minConfidence;
+    }
+
+    /**
+     * 시계의 현재 시각을 프레임 시각으로 써서 갱신
+     */
+    public List<TrackedObject> update(DetectionBatch detections) {
+        return update(detections, clock.nowMs());
+    }
+
+    /**
+     * 현재 프레임에서 탐지된 객체를 이전 프레임의 추적 객체와 연결
+     * @param detections 현재 프레임에서 탐지된 객체 배치 (호출 후 재사용되므로 참조를 보관하지 않음)
+     * @param timestampMs 프레임 캡처 시각 (속도, 예측, 만료를 모두 이 시각 기준 경과 시간으로 계산)
+     * @return 추적 ID가 할당된 객체의 읽기 전용 목록 (복사본이 아니라 다음 갱신 때 내용이 바뀌므로, 보관하려면 TrackingSnapshot 사용)
+     */
+    public List<TrackedObject> update(DetectionBatch detections, long timestampMs) {
+        // 이번 탐지에서 매칭되는지 다시 표시 (외삽 대상 판단용)
+        for (int k = 0; k < table.size(); k++) {
+            table.matchedInLastUpdate[table.slotAt(k)] = false;
+        }
+
+        // 빈 탐지 목록이면 모든 추적 객체의 나이를 증가시키고 반환
+        if (detections == null || detections.isEmpty()) {
+            increaseAge();
+            removeOldObjects(timestampMs);
+            return table.activeView();
+        }
+
+        // 매칭을 위해 모든 객체에 대해 다음 위치 예측 (새 객체가 추가될 자리까지 버퍼 확보)
+        int trackCount = collectTracks(detections.size());
+        for (int t = 0; t < trackCount; t++) {
+            int slot = trackBuffer[t].getSlot();
+            if (USE_VELOCITY_PREDICTION) {
+                table.predict(slot, timestampMs);
+            } else {
+                table.resetPrediction(slot);
+            }
+        }
+        markPersonOverlaps(trackCount);
+
+        // 현재 프레임에서 탐지된 객체에 일치하는 추적 객체 찾기 (가까운 후보끼리 최적 배정)
+        // 1단계는 높은 신뢰도 탐지, 2단계는 남은 객체와 낮은 신뢰도 탐지 (가려져서 신뢰도가 떨어진 객체를 놓치지 않도록)
+        boolean[] matched = matchedBuffer(detections.size());
+        lastCandidatePairs = 0;
+        associate(detections, trackCount, matched, timestampMs, false);
+        associate(detections, trackCount, matched, timestampMs, true);
+
+        // 일치하는 객체가 없으면 나이만 증가 (위치는 변경하지 않음)
+        for (int t = 0; t < trackCount; t++) {
+            if (!trackMatchedBuffer[t]) {
+                markMissed(trackBuffer[t].getSlot());
+            }
+        }
+
+        // 매칭되지 않은 높은 신뢰도 탐지는 새 객체로 추가하되, 이미 비슷한 위치에 같은 종류의 객체가 있으면 중복으로 간주
+        // 낮은 신뢰도 탐지는 새 객체를 만들지 않음 (오탐과 ID 교체 방지)
+        float maxTrackWidth = indexTrackCenters(trackCount, false, detections);
+        for (int i = 0; i < detections.size(); i++) {
+            if (matched[i] || detections.isLowConfidence(i)) continue;
+
+            float detCenterX = detections.getCenterX(i);
+            float detCenterY = detections.getCenterY(i);
+            float detWidth = detections.getRight(i) - detections.getLeft(i);
+
+            boolean duplicateFound = false;
+            int candidates = grid.query(detCenterX, detCenterY, (maxTrackWidth + detWidth) / 2 * 1.5f);
+            for (int k = 0; k < candidates && !duplicateFound; k++) {
+                TrackedObject existingObj = trackBuffer[grid.getResult(k)];
+                // 같은 클래스의 객체만 확인
+                if (existingObj.getClassId() != detections.getClassId(i)) continue;
+
+                float dx = (existingObj.getLeft() + existingObj.getRight()) / 2 - detCenterX;
+                float dy = (existingObj.getTop() + existingObj.getBottom()) / 2 - detCenterY;
+                float existingWidth = existingObj.getRight() - existingObj.getLeft();
+                float limit = (existingWidth + detWidth) / 2 * 1.5f;
+
+                // 너무 가까이 있으면 중복으로 간주
+                duplicateFound = dx * dx + dy * dy < limit * limit;
+            }
+
+            // 중복이 아닌 경우에만 새 객체 추가 (같은 프레임의 다음 탐지도 이 객체와 중복 검사)
+            if (!duplicateFound) {
+                int slot = table.add(
+                        nextId++,
+                        detections.getClassId(i),
+                        detections.getLabel(i),
+                        detections.getConfidence(i),
+                        detections.getLeft(i),
+                        detections.getTop(i),
+                        detections.getRight(i),
+                        detections.getBottom(i),
+                        timestampMs
+                );
+                trackBuffer[trackCount] = table.view(slot);
+                fire(TrackListener.Event.TENTATIVE, slot);
+                countHit(slot, table.confidence[slot] >= confirmMinConfidence);
+                grid.insert(trackCount, detCenterX, detCenterY);
+                trackCount++;
+                maxTrackWidth = Math.max(maxTrackWidth, detWidth);
+            }
+        }
+
+        detectCrossings(trackCount);
+        Arrays.fill(trackBuffer, 0, trackCount, null);
+
+        // 오래된 객체 제거
+        removeOldObjects(timestampMs);
+
+        // 현재 추적 중인 객체 목록 반환
+        return table.activeView();
+    }
+
+    /**
+     * 움직임이 없어 탐지기를 건너뛴 프레임에서 추적 객체를 유지
+     * 영역에 변화가 있었던 객체만 나이를 증가시키고 (탐지로 확인하지 못했으므로), 나머지는 그 자리에 그대로 있다고 봅니다.
+     * @param motion 이번 프레임의 셀별 변화 여부
+     * @param coordWidth 추적 좌표계의 너비 (박스를 0~1로 정규화할 때 사용)
+     * @param coordHeight 추적 좌표계의 높이
+     * @return 추적 중인 객체 목록
+     */
+    public List<TrackedObject> hold(MotionGate.Mask motion, float coordWidth, float coordHeight) {
+        return hold(motion, coordWidth, coordHeight, clock.nowMs());
+    }
+
+    /**
+     * @param timestampMs 프레임 캡처 시각 (만료 판단에 사용)
+     */
+    public List<TrackedObject> hold(MotionGate.Mask motion, float coordWidth, float coordHeight, long timestampMs) {
+        for (int k = 0; k < table.size(); k++) {
+            int slot = table.slotAt(k);
+            if (motion.isRegionChanged(table.left[slot] / coordWidth, table.top[slot] / coordHeight,
+                    table.right[slot] / coordWidth, table.bottom[slot] / coordHeight)) {
+                markMissed(slot);
+            } else {
+                table.lastSeenTime[slot] = timestampMs;
+            }
+        }
+        removeOldObjects(timestampMs);
+        return table.activeView();
+    }
+
+    /**
+     * 탐지기를 돌리지 않는 프레임에서 마지막 탐지로 확인된 객체의 박스를 마지막 탐지 이후 경과 시간만큼 속도로 옮김
+     * 나이는 늘리지 않으며, 마지막 탐지에서 놓친 객체는 기존처럼 제자리에 둡니다.
+     * @return 추적 중인 객체 목록 (외삽된 위치)
+     */
+    public List<TrackedObject> extrapolate() {
+        return extrapolate(clock.nowMs());
+    }
+
+    /**
+     * @param timestampMs 프레임 캡처 시각
+     */
+    public List<TrackedObject> extrapolate(long timestampMs) {
+        if (USE_VELOCITY_PREDICTION) {
+            for (int k = 0; k < table.size(); k++) {
+                int slot = table.slotAt(k);
+                if (table.matchedInLastUpdate[slot]) {
+                    table.extrapolate(slot, timestampMs);
+                }
+            }
+        }
+        return table.activeView();
+    }
+
+    /**
+     * 추적 객체, 슬롯 배치, 다음 ID를 씁니다 (텐서 기록을 시작할 때 재생이 같은 상태에서 시작하도록).
+     * 갱신과 같은 스레드에서 호출합니다.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(nextId);
+        table.writeState(out);
+    }
+
+    /**
+     * writeState로 쓴 상태로 시작합니다 (새로 만든 트래커에만, 리스너 이벤트는 발생하지 않음).
+     */
+    void readState(DataInput in) throws IOException {
+        nextId = in.readInt();
+        table.readState(in);
+    }
+
+    /**
+     * 마지막 탐지 갱신에서 매칭 비용을 계산한 후보 쌍 수 (격자 게이팅이 전체 쌍 비교로 번지지 않는지 확인용)
+     */
+    int getLastCandidatePairCount() {
+        return lastCandidatePairs;
+    }
+
+    private boolean[] matchedBuffer(int size) {
+        if (matchedBuffer.length < size) {
+            matchedBuffer = new boolean[Math.max(size, matchedBuffer.length * 2)];
+        } else {
+            Arrays.fill(matchedBuffer, 0, size, false);
+        }
+        return matchedBuffer;
+    }
+
+    // 교차 상황 감지 및 처리 메서드 (가까운 사람 쌍만 격자로 찾음)
+    private void detectCrossings(int trackCount) {
+        float maxWidth = indexTrackCenters(trackCount, true, null);
+        if (grid.size() < 2) {
+            return;
+        }
+
+        for (int i = 0; i < trackCount; i++) {
+            TrackedObject person1 = trackBuffer[i];
+            if (!person1.isPerson()) continue;
+
+            float cx1 = (person1.getLeft() + person1.getRight()) / 2;
+            float cy1 = (person1.getTop() + person1.getBottom()) / 2;
+            float width1 = person1.getRight() - person1.getLeft();
+
+            int candidates = grid.query(cx1, cy1, (width1 + maxWidth) / 2);
+            for (int k = 0; k < candidates; k++) {
+                int j = grid.getResult(k);
+                if (j <= i) continue;  // 각 쌍은 한 번만
+                TrackedObject person2 = trackBuffer[j];
+
+                float dx = cx1 - (person2.getLeft() + person2.getRight()) / 2;
+                float dy = cy1 - (person2.getTop() + person2.getBottom()) / 2;
+
+                // 두 사람의 너비 평균
+                float avgWidth = (width1 + (person2.getRight() - person2.getLeft())) / 2;
+
+                // 두 사람이 충분히 가까우면 (겹치거나 거의 겹치는 경우)
+                if (dx * dx + dy * dy < avgWidth * avgWidth) {
+
+                    // 프레임마다 겹친 쌍마다 도는 코드이므로 디버그 로그가 켜진 경우에만
+                    if (logger.isDebugEnabled("personcross")) {
+                        logger.d("personcross", "사람겹칩");
+                    }
+
+                    // 두 사람의 이동 방향
+                    float vx1 = person1.getVelocityX();
+                    float vy1 = person1.getVelocityY();
+                    float vx2 = person2.getVelocityX();
+                    float vy2 = person2.getVelocityY();
+
+                    // 속도가 충분히 큰 경우에만 고려 (제곱으로 비교)
+                    float minSpeedSq = MIN_DIRECTION_SPEED * MIN_DIRECTION_SPEED;
+                    if (vx1 * vx1 + vy1 * vy1 > minSpeedSq && vx2 * vx2 + vy2 * vy2 > minSpeedSq) {
+                        // 방향 내적 (음수면 서로 반대 방향)
+                        float dirDot = vx1 * vx2 + vy1 * vy2;
+
+                        // 서로 다른 방향으로 움직이는 경우 (교차 중)
+                        if (dirDot < 0) {
+                            // 방향 정보를 더 중요하게 사용하기 위해 두 객체의 속도 가중치 증가
+                            table.motion[person1.getSlot()].boostVelocity(1.5f);  // 50% 증가
+                            table.motion[person2.getSlot()].boostVelocity(1.5f);  // 50% 증가
+
+                            if (logger.isDebugEnabled(TAG)) {
+                                logger.d(TAG, "교차 감지: ID " + person1.getId() + " ↔ ID " + person2.getId());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 추적 객체를 배열로 모으고 프레임마다 재사용하는 버퍼 크기를 맞춤
+     * @param extra 이번 갱신에서 새로 추가될 수 있는 객체 수
+     * @return 추적 객체 수
+     */
+    private int collectTracks(int extra) {
+        int count = table.size();
+        if (trackBuffer.length < count + extra) {
+            int capacity = Math.max(count + extra, trackBuffer.length * 2);
+            trackBuffer = new TrackedObject[capacity];
+            overlapBuffer = new boolean[capacity];
+            trackMatchedBuffer = new boolean[capacity];
+            rowOrderBuffer = new int[capacity];
+            rowToColBuffer = new int[capacity];
+        }
+        for (int t = 0; t < count; t++) {
+            trackBuffer[t] = table.view(table.slotAt(t));
+            overlapBuffer[t] = false;
+            trackMatchedBuffer[t] = false;
+        }
+        return count;
+    }
+
+    /**
+     * 추적 객체의 현재 중심점을 격자에 등록 (격자 항목 id = trackBuffer 인덱스)
+     * @param personsOnly 사람만 등록
+     * @param detections null이 아니면 탐지 결과 범위도 격자 범위에 포함 (나중에 새 객체를 추가할 때)
+     * @return 등록한 객체 중 가장 큰 너비
+     */
+    private float indexTrackCenters(int trackCount, boolean personsOnly, DetectionBatch detections) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        float widthSum = 0f, maxWidth = 0f;
+        int indexed = 0;
+        for (int t = 0; t < trackCount; t++) {
+            TrackedObject obj = trackBuffer[t];
+            if (personsOnly && !obj.isPerson()) continue;
+            float cx = (obj.getLeft() + obj.getRight()) / 2;
+            float cy = (obj.getTop() + obj.getBottom()) / 2;
+            float width = obj.getRight() - obj.getLeft();
+            minX = Math.min(minX, cx);
+            minY = Math.min(minY, cy);
+            maxX = Math.max(maxX, cx);
+            maxY = Math.max(maxY, cy);
+            widthSum += width;
+            maxWidth = Math.max(maxWidth, width);
+            indexed++;
+        }
+        if (detections != null) {
+            for (int i = 0; i < detections.size(); i++) {
+                minX = Math.min(minX, detections.getCenterX(i));
+                minY = Math.min(minY, detections.getCenterY(i));
+                maxX = Math.max(maxX, detections.getCenterX(i));
+                maxY = Math.max(maxY, detections.getCenterY(i));
+            }
+        }
+        if (minX > maxX) {
+            minX = maxX = minY = maxY = 0f;
+        }
+        grid.reset(minX, minY, maxX, maxY, indexed > 0 ? widthSum / indexed : 1f);
+        for (int t = 0; t < trackCount; t++) {
+            TrackedObject obj = trackBuffer[t];
+            if (personsOnly && !obj.isPerson()) continue;
+            grid.insert(t, (obj.getLeft() + obj.getRight()) / 2, (obj.getTop() + obj.getBottom()) / 2);
+        }
+        return maxWidth;
+    }
+
+    /**
+     * 서로 겹친 사람 객체 표시 (겹침 상황에서는 방향성 가중치를 높여 ID가 바뀌지 않도록 함)
+     */
+    private void markPersonOverlaps(int trackCount) {
+        float maxWidth = indexTrackCenters(trackCount, true, null);
+        if (grid.size() < 2) {
+            return;
+        }
+        for (int i = 0; i < trackCount; i++) {
+            TrackedObject person1 = trackBuffer[i];
+            if (!person1.isPerson()) continue;
+
+            float cx1 = (person1.getLeft() + person1.getRight()) / 2;
+            float cy1 = (person1.getTop() + person1.getBottom()) / 2;
+            float width1 = person1.getRight() - person1.getLeft();
+
+            int candidates = grid.query(cx1, cy1, (width1 + maxWidth) / 2 * 1.2f);
+            for (int k = 0; k < candidates; k++) {
+                int j = grid.getResult(k);
+                if (j <= i) continue;
+                TrackedObject person2 = trackBuffer[j];
+
+                // 두 사람의 중심점 간 거리 (제곱으로 비교)
+                float dx = cx1 - (person2.getLeft() + person2.getRight()) / 2;
+                float dy = cy1 - (person2.getTop() + person2.getBottom()) / 2;
+
+                // 겹침 여부 판단 (평균 너비의 1.2배 이내면 겹침으로 간주)
+                float limit = (width1 + (person2.getRight() - person2.getLeft())) / 2 * 1.2f;
+                if (dx * dx + dy * dy < limit * limit) {
+                    overlapBuffer[i] = true;
+                    overlapBuffer[j] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 아직 매칭되지 않은 추적 객체와 한 신뢰도 단계의 탐지 결과를 한 번에 연결
+     * 1) 탐지 중심점을 격자에 넣고, 추적 객체마다 게이트 반경 안의 같은 클래스 탐지하고만 비용을 계산해서 후보 쌍을 만듦
+     * 2) 후보 쌍으로 이어진 연결 요소마다 작은 비용 행렬을 만들어 최적 배정 (서로 멀리 떨어진 무리는 따로 풂)
+     * @param lowTier true면 낮은 신뢰도 탐지만 IoU 비용으로 연결
+     */
+    private void associate(DetectionBatch detections, int trackCount, boolean[] matched, long timestampMs,
+                           boolean lowTier) {
+        int detectionCount = detections.size();
+        int nodeCount = trackCount + detectionCount;
+        ensureNodeCapacity(nodeCount, detectionCount);
+
+        // 이번 단계 탐지 중심점 격자
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        float dimSum = 0f, maxDetectionDim = 0f;
+        int tierCount = 0;
+        for (int i = 0; i < detectionCount; i++) {
+            if (detections.isLowConfidence(i) != lowTier) continue;
+            tierCount++;
+            minX = Math.min(minX, detections.getCenterX(i));
+            minY = Math.min(minY, detections.getCenterY(i));
+            maxX = Math.max(maxX, detections.getCenterX(i));
+            maxY = Math.max(maxY, detections.getCenterY(i));
+            float dim = Math.max(detections.getRight(i) - detections.getLeft(i), detections.getBottom(i) - detections.getTop(i));
+            dimSum += dim;
+            maxDetectionDim = Math.max(maxDetectionDim, dim);
+        }
+        if (tierCount == 0) {
+            return;
+        }
+        grid.reset(minX, minY, maxX, maxY, dimSum / tierCount);
+        for (int i = 0; i < detectionCount; i++) {
+            if (detections.isLowConfidence(i) == lowTier) {
+                grid.insert(i, detections.getCenterX(i), detections.getCenterY(i));
+            }
+        }
+
+        // 후보 쌍 (노드: 추적 객체 0..trackCount-1, 탐지 trackCount..)
+        for (int node = 0; node < nodeCount; node++) {
+            parentBuffer[node] = node;
+            componentBuffer[node] = -1;
+        }
+        int edgeCount = 0;
+        for (int t = 0; t < trackCount; t++) {
+            if (trackMatchedBuffer[t]) continue;
+            TrackedObject trackedObj = trackBuffer[t];
+            float px = trackedObj.getPredictedCenterX();
+            float py = trackedObj.getPredictedCenterY();
+            float trackDim = Math.max(trackedObj.getRight() - trackedObj.getLeft(), trackedObj.getBottom() - trackedObj.getTop());
+            float factor = overlapBuffer[t] ? OVERLAP_GATE_FACTOR : GATE_FACTOR;
+
+            int candidates = grid.query(px, py, factor * Math.max(trackDim, maxDetectionDim));
+            for (int k = 0; k < candidates; k++) {
+                int i = grid.getResult(k);
+                if (trackedObj.getClassId() != detections.getClassId(i)) continue;
+
+                float detDim = Math.max(detections.getRight(i) - detections.getLeft(i), detections.getBottom(i) - detections.getTop(i));
+                float gate = factor * Math.max(trackDim, detDim);
+                float dx = px - detections.getCenterX(i);
+                float dy = py - detections.getCenterY(i);
+                if (dx * dx + dy * dy >= gate * gate) continue;
+
+                float cost = lowTier
+                        ? lowConfidenceCost(trackedObj, detections, i)
+                        : associationCost(trackedObj, overlapBuffer[t], detections, i);
+                if (cost >= LinearAssignment.INFEASIBLE) continue;
+
+                if (edgeCount == edgeTrack.length) {
+                    int capacity = Math.max(16, edgeCount * 2);
+                    edgeTrack = Arrays.copyOf(edgeTrack, capacity);
+                    edgeDetection = Arrays.copyOf(edgeDetection, capacity);
+                    edgeCost = Arrays.copyOf(edgeCost, capacity);
+                    edgeOrderBuffer = new int[capacity];
+                }
+                edgeTrack[edgeCount] = t;
+                edgeDetection[edgeCount] = i;
+                edgeCost[edgeCount] = cost;
+                edgeCount++;
+                union(t, trackCount + i);
+            }
+        }
+
+        lastCandidatePairs += edgeCount;
+
+        // 후보 쌍이 있는 연결 요소에 번호를 매기고, 요소별로 행(추적)/열(탐지)/쌍을 모음 (계수 정렬)
+        int componentCount = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            int root = find(edgeTrack[e]);
+            if (componentBuffer[root] < 0) {
+                componentBuffer[root] = componentCount++;
+            }
+        }
+        if (rowStartBuffer.length < componentCount + 1) {
+            int capacity = Math.max(componentCount + 1, rowStartBuffer.length * 2);
+            rowStartBuffer = new int[capacity];
+            colStartBuffer = new int[capacity];
+            edgeStartBuffer = new int[capacity];
+        }
+        Arrays.fill(rowStartBuffer, 0, componentCount + 1, 0);
+        Arrays.fill(colStartBuffer, 0, componentCount + 1, 0);
+        Arrays.fill(edgeStartBuffer, 0, componentCount + 1, 0);
+        for (int node = 0; node < nodeCount; node++) {
+            int component = componentBuffer[find(node)];
+            if (component < 0) continue;
+            if (node < trackCount) {
+                localIndexBuffer[node] = rowStartBuffer[component + 1]++;
+            } else {
+                localIndexBuffer[node] = colStartBuffer[component + 1]++;
+            }
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            edgeStartBuffer[componentBuffer[find(edgeTrack[e])] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            rowStartBuffer[c + 1] += rowStartBuffer[c];
+            colStartBuffer[c + 1] += colStartBuffer[c];
+            edgeStartBuffer[c + 1] += edgeStartBuffer[c];
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            int component = componentBuffer[find(node)];
+            if (component < 0) continue;
+            if (node < trackCount) {
+                rowOrderBuffer[rowStartBuffer[component] + localIndexBuffer[node]] = node;
+            } else {
+                colOrderBuffer[colStartBuffer[component] + localIndexBuffer[node]] = node - trackCount;
+            }
+        }
+        for (int e = 0, c; e < edgeCount; e++) {
+            c = componentBuffer[find(edgeTrack[e])];
+            edgeOrderBuffer[edgeStartBuffer[c]++] = e;
+        }
+        // edgeStartBuffer를 쓰기 위치로 썼으므로 한 칸씩 되돌림
+        for (int c = componentCount; c > 0; c--) {
+            edgeStartBuffer[c] = edgeStartBuffer[c - 1];
+        }
+        edgeStartBuffer[0] = 0;
+
+        // 연결 요소별 최적 배정
+        for (int c = 0; c < componentCount; c++) {
+            int rowStart = rowStartBuffer[c];
+            int rows = rowStartBuffer[c + 1] - rowStart;
+            int colStart = colStartBuffer[c];
+            int cols = colStartBuffer[c + 1] - colStart;
+            if (costBuffer.length < rows * cols) {
+                costBuffer = new float[Math.max(rows * cols, costBuffer.length * 2)];
+            }
+            Arrays.fill(costBuffer, 0, rows * cols, LinearAssignment.INFEASIBLE);
+            for (int k = edgeStartBuffer[c]; k < edgeStartBuffer[c + 1]; k++) {
+                int e = edgeOrderBuffer[k];
+                int row = localIndexBuffer[edgeTrack[e]];
+                int col = localIndexBuffer[trackCount + edgeDetection[e]];
+                costBuffer[row * cols + col] = edgeCost[e];
+            }
+
+            assignment.solve(costBuffer, rows, cols, rowToColBuffer);
+            for (int row = 0; row < rows; row++) {
+                int col = rowToColBuffer[row];
+                if (col < 0) continue;
+                int t = rowOrderBuffer[rowStart + row];
+                int i = colOrderBuffer[colStart + col];
+                int slot = trackBuffer[t].getSlot();
+                table.update(slot, detections, i, timestampMs);
+                markMatched(slot, lowTier);
+                trackMatchedBuffer[t] = true;
+                matched[i] = true;
+            }
+        }
+    }
+
+    private void ensureNodeCapacity(int nodeCount, int detectionCount) {
+        if (parentBuffer.length < nodeCount) {
+            int capacity = Math.max(nodeCount, parentBuffer.length * 2);
+            parentBuffer = new int[capacity];
+            componentBuffer = new int[capacity];
+            localIndexBuffer = new int[capacity];
+        }
+        if (colOrderBuffer.length < detectionCount) {
+            colOrderBuffer = new int[Math.max(detectionCount, colOrderBuffer.length * 2)];
+        }
+    }
+
+    private int find(int node) {
+        while (parentBuffer[node] != node) {
+            parentBuffer[node] = parentBuffer[parentBuffer[node]];
+            node = parentBuffer[node];
+        }
+        return node;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA != rootB) {
+            parentBuffer[rootB] = rootA;
+        }
+    }
+
+    /**
+     * 추적 객체와 탐지 결과를 연결하는 비용 (1 - 점수, 낮을수록 좋음)
+     * 점수는 예측 위치 IoU, 크기 유사도, 중심 거리, 이동 방향을 합친 값이고,
+     * IoU와 점수가 모두 IOU_THRESHOLD 이하이면 같은 객체로 보지 않습니다 (게이팅).
+     */
+    private float associationCost(TrackedObject trackedObj, boolean overlapping, DetectionBatch detections, int i) {
+        // IoU 계산 - 예측된 위치 사용
+        float iou = calculateIoUWithPrediction(trackedObj, detections, i);
+
+        // 크기 유사성 측정
+        float trackedWidth = trackedObj.getRight() - trackedObj.getLeft();
+        float trackedHeight = trackedObj.getBottom() - trackedObj.getTop();
+        float detWidth = detections.getRight(i) - detections.getLeft(i);
+        float detHeight = detections.getBottom(i) - detections.getTop(i);
+
+        float sizeRatio = Math.min(trackedWidth / detWidth, detWidth / trackedWidth) *
+                Math.min(trackedHeight / detHeight, detHeight / trackedHeight);
+
+        // 위치 유사성 (중심점 거리)
+        float detCenterX = detections.getCenterX(i);
+        float detCenterY = detections.getCenterY(i);
+        float dx = trackedObj.getPredictedCenterX() - detCenterX;
+        float dy = trackedObj.getPredictedCenterY() - detCenterY;
+        float centerDistance = (float) Math.sqrt(dx * dx + dy * dy);
+
+        float maxDim = Math.max(
+                Math.max(trackedWidth, trackedHeight),
+                Math.max(detWidth, detHeight));
+
+        float normDistance = Math.max(0, 1 - centerDistance / maxDim);
+
+        float score;
+        if (trackedObj.isPerson()) {
+            if (overlapping) {
+                // 겹침 상황: 방향성 가중치 증가
+                float directionScore = calculateDirectionScore(trackedObj, detCenterX, detCenterY);
+                score = iou * 0.3f + sizeRatio * 0.1f + normDistance * 0.1f + directionScore * 0.5f;
+            } else {
+                // 일반 상황: 방향성은 보지 않음
+                score = iou * 0.55f + sizeRatio * 0.2f + normDistance * 0.25f;
+            }
+        } else {
+            // 다른 객체는 방향성 가중치를 매우 낮게 설정
+            float directionScore = calculateDirectionScore(trackedObj, detCenterX, detCenterY);
+            score = iou * 0.6f + sizeRatio * 0.2f + normDistance * 0.15f + directionScore * 0.05f;
+        }
+
+        if (!(iou > IOU_THRESHOLD || score > IOU_THRESHOLD)) {
+            return LinearAssignment.INFEASIBLE;
+        }
+        return 1 - score;
+    }
+
+    /**
+     * 낮은 신뢰도 탐지의 연결 비용 (1 - IoU)
+     * 신뢰도가 낮은 박스는 크기나 방향보다 예측 위치와 실제로 겹치는지만 믿고, LOW_CONFIDENCE_IOU_THRESHOLD 이하이면 막습니다.
+     */
+    private float lowConfidenceCost(TrackedObject trackedObj, DetectionBatch detections, int i) {
+        float iou = calculateIoUWithPrediction(trackedObj, detections, i);
+        return iou > LOW_CONFIDENCE_IOU_THRESHOLD ? 1 - iou : LinearAssignment.INFEASIBLE;
+    }
+
+    // 방향 점수 계산 메서드
+    private float calculateDirectionScore(TrackedObject obj, float detCenterX, float detCenterY) {
+        float velX = obj.getVelocityX();
+        float velY = obj.getVelocityY();
+
+        // 속도 크기가 충분히 큰 경우에만 방향 고려
+        float speedMagnitude = (float) Math.sqrt(velX * velX + velY * velY);
+
+        // 이 값보다 큰 속도에서만 방향 정보 고려
+        if (speedMagnitude > MIN_DIRECTION_SPEED) {
+            // 현재 위치의 중심점
+            float currentCenterX = (obj.getLeft() + obj.getRight()) / 2;
+            float currentCenterY = (obj.getTop() + obj.getBottom()) / 2;
+
+            // 실제 이동 방향 벡터 (현재 위치 → 탐지된 위치)
+            float actualDirX = detCenterX - currentCenterX;
+            float actualDirY = detCenterY - currentCenterY;
+
+            // 방향 벡터 내적 계산
+            float dotProduct = velX * actualDirX + velY * actualDirY;
+
+            // 실제 이동 벡터의 크기
+            float actualMag = (float) Math.sqrt(actualDirX * actualDirX + actualDirY * actualDirY);
+
+            // 방향 일치도 계산 (코사인 유사도)
+            if (actualMag > 0) {
+                float cosine = dotProduct / (speedMagnitude * actualMag);
+                // -1~1 범위를 0~1로 변환 후 제곱하여 차이를 더 강조
+                float normalizedScore = (cosine + 1) / 2;
+                return normalizedScore * normalizedScore;  // 제곱하여 일치 시 더 높은 점수
+            }
+        }
+
+        // 방향을 고려할 수 없는 경우
+        return 0.3f;  // 낮은 기본값
+    }
+    /**
+     * 모든 추적 객체의 나이를 증가시킴
+     */
+    private void increaseAge() {
+        for (int k = 0; k < table.size(); k++) {
+            markMissed(table.slotAt(k));
+        }
+    }
+
+    /**
+     * 탐지와 매칭된 객체의 상태 갱신 (놓쳤던 확정 객체는 다시 확정 상태로)
+     */
+    private void markMatched(int slot, boolean lowTier) {
+        if (table.state[slot] == TrackTable.STATE_LOST) {
+            table.state[slot] = TrackTable.STATE_CONFIRMED;
+        } else if (table.state[slot] == TrackTable.STATE_TENTATIVE) {
+            countHit(slot, !lowTier && table.confidence[slot] >= confirmMinConfidence);
+        }
+    }
+
+    /**
+     * 확정 전 객체의 연속 매칭 횟수를 세고, 조건을 채우면 확정
+     */
+    private void countHit(int slot, boolean hit) {
+        table.hits[slot] = hit ? table.hits[slot] + 1 : 0;
+        if (table.hits[slot] >= confirmHits) {
+            table.state[slot] = TrackTable.STATE_CONFIRMED;
+            fire(TrackListener.Event.CONFIRMED, slot);
+        }
+    }
+
+    /**
+     * 탐지에서 빠진 객체의 나이를 늘림 (확정 전이면 연속 횟수가 끊기고, 확정된 객체는 LOST)
+     */
+    private void markMissed(int slot) {
+        table.age[slot]++;
+        if (table.state[slot] == TrackTable.STATE_TENTATIVE) {
+            table.hits[slot] = 0;
+        } else if (table.state[slot] == TrackTable.STATE_CONFIRMED) {
+            table.state[slot] = TrackTable.STATE_LOST;
+            fire(TrackListener.Event.LOST, slot);
+        }
+    }
+
+    private void fire(TrackListener.Event event, int slot) {
+        if (listener != null) {
+            listener.onTrackEvent(event, table.view(slot));
+        }
+    }
+
+    /**
+     * 놓친 채로 MAX_AGE_MS보다 오래 확인되지 않은 객체 제거
+     */
+    private void removeOldObjects(long timestampMs) {
+        table.removeExpired(timestampMs, MAX_AGE_MS, removalListener);
+    }
+
+    /**
+     * 두 객체 간의 IoU(Intersection over Union)를 계산 - 예측된 위치 사용
+     */
+    float calculateIoUWithPrediction(TrackedObject trackedObj, DetectionBatch detections, int i) {
+        float detLeft = detections.getLeft(i);
+        float detTop = detections.getTop(i);
+        float detRight = detections.getRight(i);
+        float detBottom = detections.getBottom(i);
+
+        // 교차 영역 계산 - 예측된 위치 사용
+        float xLeft = Math.max(trackedObj.getPredictedLeft(), detLeft);
+        float yTop = Math.max(trackedObj.getPredictedTop(), detTop);
+        float xRight = Math.min(trackedObj.getPredictedRight(), detRight);
+        float yBottom = Math.min(trackedObj.getPredictedBottom(), detBottom);
+
+        // 교차 영역이 없으면 0 반환
+        if (xRight < xLeft || yBottom < yTop) return 0;
+
+        float intersectionArea = (xRight - xLeft) * (yBottom - yTop);
+
+        // 각 영역 계산
+        float trackedObjArea = (trackedObj.getPredictedRight() - trackedObj.getPredictedLeft()) *
+                (trackedObj.getPredictedBottom() - trackedObj.getPredictedTop());
+        float detectionArea = (detRight - detLeft) * (detBottom - detTop);
+
+        // IoU 계산
+        return intersectionArea / (trackedObjArea + detectionArea - intersectionArea);
+    }
+
+    /**
+     * 원래 IoU 계산 메서드 (디스플레이용)
+     */
+    float calculateIoU(TrackedObject trackedObj, DetectionBatch detections, int i) {
+        float detLeft = detections.getLeft(i);
+        float detTop = detections.getTop(i);
+        float detRight = detections.getRight(i);
+        float detBottom = detections.getBottom(i);
+
+        // 교차 영역 계산
+        float xLeft = Math.max(trackedObj.getLeft(), detLeft);
+        float yTop = Math.max(trackedObj.getTop(), detTop);
+        float xRight = Math.min(trackedObj.getRight(), detRight);
+        float yBottom = Math.min(trackedObj.getBottom(), detBottom);
+
+        // 교차 영역이 없으면 0 반환
+        if (xRight < xLeft || yBottom < yTop) return 0;
+
+        float intersectionArea = (xRight - xLeft) * (yBottom - yTop);
+
+        // 각 영역 계산
+        float trackedObjArea = (trackedObj.getRight() - trackedObj.getLeft()) *
+                (trackedObj.getBottom() - trackedObj.getTop());
+        float detectionArea = (detRight - detLeft) * (detBottom - detTop);
+
+        // IoU 계산
+        return intersectionArea / (trackedObjArea + detectionArea - intersectionArea);
+    }
+
+    /**
+     * 추적 객체 한 개의 읽기 전용 뷰
+     * 값은 TrackTable의 슬롯에 있고 뷰는 슬롯마다 하나만 만들어 재사용하므로, 객체가 사라진 뒤 슬롯이 다시 쓰이면
+     * 같은 뷰가 다른 객체를 가리킵니다. 다음 갱신 이후에도 값이 필요하면 TrackingSnapshot으로 복사해야 합니다.
+     */
+    public static final class TrackedObject {
+        private final TrackTable table;
+        private final int slot;
+
+        TrackedObject(TrackTable table, int slot) {
+            this.table = table;
+            this.slot = slot;
+        }
+
+        /**
+         * 트래커 안의 저장 위치 (객체가 사라지면 다른 객체가 재사용하므로 ID와 함께 확인)
+         */
+        public int getSlot() { return slot; }
+
+        // Getters
+        public int getId() { return table.id[slot]; }
+        public int getClassId() { return table.classId[slot]; }
+        public boolean isPerson() { return table.person[slot]; }
+        public String getLabel() { return table.label[slot]; }
+        public float getConfidence() { return table.confidence[slot]; }
+        public float getLeft() { return table.left[slot]; }
+        public float getTop() { return table.top[slot]; }
+        public float getRight() { return table.right[slot]; }
+        public float getBottom() { return table.bottom[slot]; }
+        public int getAge() { return table.age[slot]; }
+        /**
+         * 확정된 적이 있는지 (지금 놓친 상태여도 true)
+         */
+        public boolean isConfirmed() { return table.state[slot] != TrackTable.STATE_TENTATIVE; }
+        public long getLastMatchedTime() { return table.lastMatchedTime[slot]; }
+        public int getExtrapolatedFrames() { return table.extrapolatedFrames[slot]; }
+        public float getVelocityX() { return table.motion[slot].getVelocityX(); }
+        public float getVelocityY() { return table.motion[slot].getVelocityY(); }
+
+        // 예측 위치 getter
+        public float getPredictedLeft() { return table.predictedLeft[slot]; }
+        public float getPredictedTop() { return table.predictedTop[slot]; }
+        public float getPredictedRight() { return table.predictedRight[slot]; }
+        public float getPredictedBottom() { return table.predictedBottom[slot]; }
+        public float getPredictedCenterX() { return (getPredictedLeft() + getPredictedRight()) / 2; }
+        public float getPredictedCenterY() { return (getPredictedTop() + getPredictedBottom()) / 2; }
+
+        @Override
+        public String toString() {
+            return getId() + ": " + getLabel() + " (" + String.format("%.2f", getConfidence() * 100) + "%), age=" + getAge();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.quantiztest;
+
+import java.util.Arrays;
+
+/**
+ * 프레임마다 다시 만드는 균일 격자 공간 인덱스 (점 단위)
+ * 트래커가 추적 객체, 탐지 결과의 중심점을 칸에 등록하고, 가까운 칸에 있는 후보하고만 매칭 비용과 거리 검사를 하도록 합니다.
+ * 칸별 항목은 NmsEngine과 같이 head/next 기본형 배열 연결 리스트로 보관하고, 배열은 호출 사이에 재사용합니다.
+ * 한 스레드에서만 사용해야 합니다.
+ */
+public class SpatialGrid {
+    // 한 변의 최대 칸 수 (객체가 넓게 퍼져 있어도 칸 배열이 커지지 않도록)
+    private static final int MAX_CELLS_PER_SIDE = 64;
+
+    private float originX;
+    private float originY;
+    private float cellSize = 1f;
+    private int cols;
+    private int rows;
+
+    private int[] cellHead = new int[0];
+    private int[] entryNext = new int[0];
+    private int[] entryId = new int[0];
+    private float[] entryX = new float[0];
+    private float[] entryY = new float[0];
+    private int count;
+
+    private int[] results = new int[16];
+    private int resultCount;
+
+    /**
+     * 격자를 비우고 (minX, minY) ~ (maxX, maxY) 범위를 cellSize 크기 칸으로 나눕니다.
+     * 범위가 넓으면 칸 수가 MAX_CELLS_PER_SIDE를 넘지 않도록 칸을 키웁니다.
+     */
+    public void reset(float minX, float minY, float maxX, float maxY, float cellSize) {
+        float width = Math.max(0f, maxX - minX);
+        float height = Math.max(0f, maxY - minY);
+        float size = Math.max(cellSize, 1e-3f);
+        size = Math.max(size, Math.max(width, height) / MAX_CELLS_PER_SIDE);
+        this.originX = minX;
+        this.originY = minY;
+        this.cellSize = size;
+        this.cols = Math.min(MAX_CELLS_PER_SIDE, (int) (width / size) + 1);
+        this.rows = Math.min(MAX_CELLS_PER_SIDE, (int) (height / size) + 1);
+        if (cellHead.length < cols * rows) {
+            cellHead = new int[cols * rows];
+        }
+        Arrays.fill(cellHead, 0, cols * rows, -1);
+        count = 0;
+    }
+
+    /**
+     * 점 (x, y)에 항목 id를 등록합니다.
+     */
+    public void insert(int id, float x, float y) {
+        if (count == entryId.length) {
+            int capacity = Math.max(16, count * 2);
+            entryNext = Arrays.copyOf(entryNext, capacity);
+            entryId = Arrays.copyOf(entryId, capacity);
+            entryX = Arrays.copyOf(entryX, capacity);
+            entryY = Arrays.copyOf(entryY, capacity);
+        }
+        int cell = cellRow(y) * cols + cellCol(x);
+        entryId[count] = id;
+        entryX[count] = x;
+        entryY[count] = y;
+        entryNext[count] = cellHead[cell];
+        cellHead[cell] = count;
+        count++;
+    }
+
+    /**
+     * (x, y)에서 거리가 radius 미만인 항목을 찾습니다 (제곱 거리로 비교).
+     * 결과는 다음 query() 호출 전까지 getResult()로 읽습니다.
+     * @return 찾은 항목 수
+     */
+    public int query(float x, float y, float radius) {
+        resultCount = 0;
+        if (count == 0) {
+            return 0;
+        }
+        float radiusSq = radius * radius;
+        int c0 = cellCol(x - radius);
+        int c1 = cellCol(x + radius);
+        int r0 = cellRow(y - radius);
+        int r1 = cellRow(y + radius);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                for (int e = cellHead[r * cols + c]; e >= 0; e = entryNext[e]) {
+                    float dx = entryX[e] - x;
+                    float dy = entryY[e] - y;
+                    if (dx * dx + dy * dy < radiusSq) {
+                        if (resultCount == results.length) {
+                            results = Arrays.copyOf(results, resultCount * 2);
+                        }
+                        results[resultCount++] = entryId[e];
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    public int getResult(int k) {
+        return results[k];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private int cellCol(float x) {
+        int c = (int) ((x - originX) / cellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int cellRow(float y) {
+        int r = (int) ((y - originY) / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+}
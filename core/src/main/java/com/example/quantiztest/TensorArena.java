@@ -0,0 +1,117 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 인터프리터 하나에 묶여서 재사용되는 입출력 텐서 버퍼 모음
+ * 프레임마다 ByteBuffer, 픽셀 배열, 출력 배열, 출력 맵을 새로 만들지 않도록
+ * 처음 한 번만 할당하고 이후 모든 프레임에서 그대로 다시 사용합니다.
+ */
+public class TensorArena {
+    private final ByteBuffer inputBuffer;
+    private final Object[] inputs;
+    private int[] pixels;
+    private final Map<Integer, Object> outputs = new HashMap<>();
+    // 매 프레임 위치를 되돌려야 하는 direct 출력 버퍼들
+    private final List<ByteBuffer> directOutputs = new ArrayList<>();
+
+    // 아레나가 지금까지 할당한 버퍼 수 (정상 상태에서는 더 이상 증가하지 않아야 함)
+    private int allocationCount = 0;
+
+    /**
+     * 스크래치 픽셀 배열 없이 입출력 텐서 버퍼만 두는 아레나 (원본 픽셀을 호출한 쪽에서 받는 경우)
+     * @param inputBytes 입력 텐서 크기 (바이트)
+     */
+    public TensorArena(int inputBytes) {
+        inputBuffer = ByteBuffer.allocateDirect(inputBytes);
+        inputBuffer.order(ByteOrder.nativeOrder());
+        inputs = new Object[]{inputBuffer};
+        allocationCount++;
+    }
+
+    /**
+     * @param inputBytes 입력 텐서 크기 (바이트)
+     * @param pixelCount 스크래치 픽셀 배열 크기
+     */
+    public TensorArena(int inputBytes, int pixelCount) {
+        this(inputBytes);
+        pixels = new int[pixelCount];
+        allocationCount++;
+    }
+
+    /**
+     * 출력 텐서 버퍼를 등록합니다. 생성 시점에만 호출해야 합니다.
+     */
+    public <T> T addOutput(int index, T buffer) {
+        outputs.put(index, buffer);
+        allocationCount++;
+        return buffer;
+    }
+
+    /**
+     * 네이티브 바이트 순서의 direct 출력 버퍼를 할당해서 등록합니다.
+     * 인터프리터가 다차원 자바 배열로 복사하지 않고 이 버퍼에 바로 씁니다.
+     * 값은 평탄화된 인덱스로 절대 위치 get()을 사용해 읽습니다.
+     */
+    public ByteBuffer addDirectOutput(int index, int bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes);
+        buffer.order(ByteOrder.nativeOrder());
+        directOutputs.add(buffer);
+        return addOutput(index, buffer);
+    }
+
+    /**
+     * 새 프레임을 채우기 위해 입력 버퍼와 출력 버퍼를 처음 위치로 되돌리고 입력 버퍼를 반환합니다.
+     */
+    public ByteBuffer beginFrame() {
+        for (int i = 0; i < directOutputs.size(); i++) {
+            directOutputs.get(i).clear();
+        }
+        inputBuffer.clear();
+        return inputBuffer;
+    }
+
+    public ByteBuffer getInputBuffer() {
+        return inputBuffer;
+    }
+
+    public Object[] getInputs() {
+        return inputs;
+    }
+
+    public Map<Integer, Object> getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * @return 스크래치 픽셀 배열 (픽셀 배열 없이 만든 아레나면 null)
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    /**
+     * 최소 minCount 크기의 픽셀 배열을 반환합니다.
+     * 원본 프레임 크기가 처음보다 커졌을 때만 다시 할당합니다.
+     * @throws IllegalStateException 픽셀 배열 없이 만든 아레나
+     */
+    public int[] getPixels(int minCount) {
+        if (pixels == null) {
+            throw new IllegalStateException("arena has no pixel scratch");
+        }
+        if (pixels.length < minCount) {
+            pixels = new int[minCount];
+            allocationCount++;
+        }
+        return pixels;
+    }
+
+    public int getAllocationCount() {
+        return allocationCount;
+    }
+}
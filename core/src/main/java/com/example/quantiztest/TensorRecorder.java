@@ -0,0 +1,471 @@
+package com.example.quantiztest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 현장에서 모델 출력 텐서와 추적 결과를 그대로 남기는 바이너리 기록기 (재생 회귀 테스트용)
+ * 탐지/얼굴 모델의 원시 출력 바이트, 프레임 시각, 좌표 변환, 카탈로그를 기록하고,
+ * 기기에서 나온 추적 결과와 선 교차/키오스크 응답도 정답(golden)으로 같이 기록합니다.
+ * ReplayRunner가 이 로그를 JVM에서 같은 디코드, NMS, 트래커, 선/키오스크 판정에 다시 넣어 결과를 비교합니다.
+ *
+ * 형식 (DataOutputStream, 빅 엔디언):
+ * 헤더 = MAGIC, VERSION, 텐서 바이트 순서, 탐지 모델 디스크립터, 라벨 목록, 얼굴 모델 디스크립터(있으면)
+ * 이후 레코드마다 종류 1바이트 + 내용 (CONFIG, TRACKER_STATE, LINE_STATE, CATALOG, FRAME, TRACKS, RENDER, CROSSING, KIOSK, FACE)
+ * 기록은 앱이 이미 돌고 있는 중에 시작하므로, 첫 프레임 전에 트래커와 선 교차 상태를 남겨 재생도 같은 상태에서 시작합니다.
+ * 양자화 파라미터는 디스크립터의 텐서 정보에 들어 있습니다.
+ *
+ * 여러 스레드(추적, 그리기, 소켓, 얼굴 탐지)에서 호출하므로 레코드 단위로 동기화합니다.
+ * 쓰기에 실패하면 기록을 멈추고 파이프라인에는 예외를 던지지 않습니다.
+ */
+public class TensorRecorder implements Closeable {
+    private static final String TAG = "TensorRecorder";
+    static final int MAGIC = 0x544C4F47; // "TLOG"
+    static final int VERSION = 2;
+
+    static final int CONFIG = 1;
+    static final int CATALOG = 2;
+    static final int FRAME = 3;
+    static final int TRACKS = 4;
+    static final int RENDER = 5;
+    static final int CROSSING = 6;
+    static final int KIOSK = 7;
+    static final int FACE = 8;
+    static final int TRACKER_STATE = 9;
+    static final int LINE_STATE = 10;
+
+    // FRAME 레코드의 트래커 갱신 방법
+    static final int MODE_DETECT = 0;
+    static final int MODE_HOLD = 1;
+    static final int MODE_EXTRAPOLATE = 2;
+
+    /**
+     * 디코드 단계에서 슬롯을 돌려놓기 전에 복사해 둔 프레임 한 장의 출력 텐서
+     * 추적 단계에서 FRAME 레코드를 쓸 때까지 프레임과 같이 흘러갑니다 (배열은 재사용).
+     */
+    public static final class FrameCapture {
+        private byte[][] tensors = new byte[0][];
+        private int[] lengths = new int[0];
+        private int count;
+        private FrameTransform transform;
+        private ProductCatalog catalog;
+
+        /**
+         * 출력 버퍼 내용을 복사합니다 (버퍼의 위치는 바꾸지 않음).
+         * @param transform 전처리의 원본 <-> 모델 좌표 변환
+         * @param catalog 이 프레임을 디코드할 때 쓴 카탈로그
+         */
+        public void copy(ByteBuffer[] outputs, FrameTransform transform, ProductCatalog catalog) {
+            if (tensors.length < outputs.length) {
+                tensors = new byte[outputs.length][];
+                lengths = new int[outputs.length];
+            }
+            for (int i = 0; i < outputs.length; i++) {
+                ByteBuffer src = outputs[i].duplicate();
+                src.clear();
+                int n = src.remaining();
+                if (tensors[i] == null || tensors[i].length < n) {
+                    tensors[i] = new byte[n];
+                }
+                src.get(tensors[i], 0, n);
+                lengths[i] = n;
+            }
+            this.count = outputs.length;
+            this.transform = transform;
+            this.catalog = catalog;
+        }
+
+        public void clear() {
+            count = 0;
+            transform = null;
+            catalog = null;
+        }
+
+        public boolean isEmpty() {
+            return count == 0;
+        }
+    }
+
+    private final DataOutputStream out;
+    private Logger logger = Logger.NONE;
+    private boolean closed;
+    // 마지막으로 기록한 카탈로그 (바뀔 때만 CATALOG 레코드를 씀)
+    private ProductCatalog lastCatalog;
+    // 출력 버퍼를 스트림으로 옮길 때 쓰는 복사 배열
+    private byte[] copyBuffer = new byte[0];
+
+    /**
+     * 헤더를 쓰고 기록을 시작합니다.
+     * @param out 기록 스트림 (버퍼링된 스트림 권장, close()에서 닫음)
+     * @param detector 탐지 모델 디스크립터 (출력 텐서 형식과 양자화 파라미터)
+     * @param labels 탐지 모델 라벨 목록
+     * @param face 얼굴 모델 디스크립터 (없으면 null)
+     */
+    public TensorRecorder(OutputStream out, ModelDescriptor detector, List<String> labels,
+                          ModelDescriptor face) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeInt(VERSION);
+        // 출력 텐서는 기기의 네이티브 바이트 순서로 기록 (FLOAT32 출력 재생에 필요)
+        this.out.writeBoolean(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN);
+        writeDescriptor(this.out, detector);
+        this.out.writeInt(labels.size());
+        for (String label : labels) {
+            this.out.writeUTF(label);
+        }
+        this.out.writeBoolean(face != null);
+        if (face != null) {
+            writeDescriptor(this.out, face);
+        }
+    }
+
+    public void setLogger(Logger logger) {
+        this.logger = logger != null ? logger : Logger.NONE;
+    }
+
+    public synchronized boolean isRecording() {
+        return !closed;
+    }
+
+    /**
+     * 트래커와 선/키오스크 판정 설정 (기록 시작 직후 한 번)
+     * @param motionModel 트래커 움직임 모델 ("kalman" 또는 "ema")
+     */
+    public synchronized void recordConfig(String motionModel, int confirmHits, float confirmMinConfidence,
+                                          LineCrossingDetector line, KioskZone kiosk, float kioskMinConfidence) {
+        if (closed) return;
+        try {
+            out.writeByte(CONFIG);
+            out.writeUTF(motionModel);
+            out.writeInt(confirmHits);
+            out.writeFloat(confirmMinConfidence);
+            out.writeFloat(line.getStartX());
+            out.writeFloat(line.getStartY());
+            out.writeFloat(line.getEndX());
+            out.writeFloat(line.getEndY());
+            out.writeLong(line.getCooldownMs());
+            out.writeFloat(line.getMinConfidence());
+            out.writeFloat(kiosk.getLeft());
+            out.writeFloat(kiosk.getTop());
+            out.writeFloat(kiosk.getRight());
+            out.writeFloat(kiosk.getBottom());
+            out.writeFloat(kioskMinConfidence);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 기록을 시작할 때의 트래커 상태 (첫 프레임 레코드 전에 한 번, 트래커를 갱신하는 스레드에서 호출)
+     */
+    public synchronized void recordTrackerState(SimpleTracker tracker) {
+        if (closed) return;
+        try {
+            // 움직임 모델마다 상태 길이가 달라서 길이를 앞에 씀 (다른 모델로 읽다가 뒤 레코드까지 어긋나지 않도록)
+            ByteArrayOutputStream state = new ByteArrayOutputStream();
+            tracker.writeState(new DataOutputStream(state));
+            out.writeByte(TRACKER_STATE);
+            out.writeInt(state.size());
+            state.writeTo(out);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 기록을 시작할 때의 선 교차 상태 (첫 RENDER 레코드 전에 한 번, 선 교차를 판정하는 스레드에서 호출)
+     */
+    public synchronized void recordLineState(LineCrossingDetector line) {
+        if (closed) return;
+        try {
+            out.writeByte(LINE_STATE);
+            line.writeState(out);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 탐지기를 돌린 프레임: 출력 텐서와 좌표 변환 (카탈로그가 바뀌었으면 CATALOG 레코드를 먼저 씀)
+     * @param width 탐지기에 넣은 프레임 크기
+     * @param viewWidth 추적 좌표계(프리뷰 뷰) 크기
+     */
+    public synchronized void recordDetectFrame(long timestamp, int width, int height, int viewWidth, int viewHeight,
+                                               FrameCapture capture) {
+        if (closed || capture.isEmpty()) return;
+        try {
+            if (capture.catalog != lastCatalog) {
+                writeCatalog(capture.catalog);
+                lastCatalog = capture.catalog;
+            }
+            writeFrameHeader(MODE_DETECT, timestamp, width, height, viewWidth, viewHeight);
+            FrameTransform transform = capture.transform;
+            out.writeInt(transform.getSourceWidth());
+            out.writeInt(transform.getSourceHeight());
+            out.writeFloat(transform.getScaleX());
+            out.writeFloat(transform.getScaleY());
+            out.writeFloat(transform.getPadX());
+            out.writeFloat(transform.getPadY());
+            out.writeInt(capture.count);
+            for (int i = 0; i < capture.count; i++) {
+                out.writeInt(capture.lengths[i]);
+                out.write(capture.tensors[i], 0, capture.lengths[i]);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 움직임이 없어 탐지를 건너뛴 프레임: 움직임 마스크
+     */
+    public synchronized void recordHoldFrame(long timestamp, int viewWidth, int viewHeight, MotionGate.Mask mask) {
+        if (closed) return;
+        try {
+            writeFrameHeader(MODE_HOLD, timestamp, 0, 0, viewWidth, viewHeight);
+            int cols = mask.getCols();
+            int rows = mask.getRows();
+            out.writeInt(cols);
+            out.writeInt(rows);
+            // 셀 8개를 1바이트로 묶음
+            int bits = 0;
+            int cells = cols * rows;
+            for (int i = 0; i < cells; i++) {
+                if (mask.isCellChanged(i % cols, i / cols)) {
+                    bits |= 1 << (i & 7);
+                }
+                if ((i & 7) == 7 || i == cells - 1) {
+                    out.writeByte(bits);
+                    bits = 0;
+                }
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 탐지 차례가 아니어서 트래커가 외삽한 프레임
+     */
+    public synchronized void recordExtrapolateFrame(long timestamp, int viewWidth, int viewHeight) {
+        if (closed) return;
+        try {
+            writeFrameHeader(MODE_EXTRAPOLATE, timestamp, 0, 0, viewWidth, viewHeight);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 기기에서 나온 추적 결과 (재생 결과와 비교할 정답)
+     */
+    public synchronized void recordTracks(long timestamp, List<SimpleTracker.TrackedObject> tracks) {
+        if (closed) return;
+        try {
+            out.writeByte(TRACKS);
+            out.writeLong(timestamp);
+            out.writeInt(tracks.size());
+            for (int k = 0; k < tracks.size(); k++) {
+                SimpleTracker.TrackedObject obj = tracks.get(k);
+                out.writeInt(obj.getId());
+                out.writeInt(obj.getClassId());
+                out.writeFloat(obj.getConfidence());
+                out.writeFloat(obj.getLeft());
+                out.writeFloat(obj.getTop());
+                out.writeFloat(obj.getRight());
+                out.writeFloat(obj.getBottom());
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 그리기 단계에서 선 교차를 판정한 시점 (판정에 쓴 프레임, 캔버스 크기, 쿨다운 기준 시각)
+     */
+    public synchronized void recordRender(long frameTimestamp, int canvasWidth, int canvasHeight, long nowMs) {
+        if (closed) return;
+        try {
+            out.writeByte(RENDER);
+            out.writeLong(frameTimestamp);
+            out.writeInt(canvasWidth);
+            out.writeInt(canvasHeight);
+            out.writeLong(nowMs);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 기기에서 발생한 선 교차 이벤트 (정답)
+     * @param nearestPerson 가장 가까운 사람 (없으면 null)
+     */
+    public synchronized void recordCrossing(long frameTimestamp, TrackingSnapshot.Track obj, boolean downward,
+                                            TrackingSnapshot.Track nearestPerson) {
+        if (closed) return;
+        try {
+            out.writeByte(CROSSING);
+            out.writeLong(frameTimestamp);
+            out.writeInt(obj.getId());
+            out.writeBoolean(downward);
+            out.writeInt(nearestPerson != null ? nearestPerson.getId() : -1);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 키오스크 요청에 응답한 사람 (정답)
+     * @param snapshotTimestamp 응답에 쓴 추적 스냅샷의 프레임 시각
+     * @param nearestPerson 응답한 사람 (없으면 null)
+     */
+    public synchronized void recordKiosk(long snapshotTimestamp, TrackingSnapshot.Track nearestPerson) {
+        if (closed) return;
+        try {
+            out.writeByte(KIOSK);
+            out.writeLong(snapshotTimestamp);
+            out.writeInt(nearestPerson != null ? nearestPerson.getId() : -1);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 얼굴 모델 출력 텐서(히트맵, 박스)와 기기에서 나온 얼굴 박스 (정답)
+     */
+    public synchronized void recordFaces(long timestamp, int sourceWidth, int sourceHeight,
+                                         ByteBuffer heatmap, ByteBuffer boxes, DetectionBatch faces) {
+        if (closed) return;
+        try {
+            out.writeByte(FACE);
+            out.writeLong(timestamp);
+            out.writeInt(sourceWidth);
+            out.writeInt(sourceHeight);
+            writeTensor(heatmap);
+            writeTensor(boxes);
+            out.writeInt(faces.size());
+            for (int i = 0; i < faces.size(); i++) {
+                out.writeFloat(faces.getConfidence(i));
+                out.writeFloat(faces.getLeft(i));
+                out.writeFloat(faces.getTop(i));
+                out.writeFloat(faces.getRight(i));
+                out.writeFloat(faces.getBottom(i));
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * 기록을 끝내고 스트림을 닫습니다. 이후 호출은 무시됩니다.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.i(TAG, "텐서 기록 종료 오류: " + e.getMessage());
+        }
+    }
+
+    private void writeFrameHeader(int mode, long timestamp, int width, int height,
+                                  int viewWidth, int viewHeight) throws IOException {
+        out.writeByte(FRAME);
+        out.writeByte(mode);
+        out.writeLong(timestamp);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(viewWidth);
+        out.writeInt(viewHeight);
+    }
+
+    private void writeCatalog(ProductCatalog catalog) throws IOException {
+        out.writeByte(CATALOG);
+        int numClasses = catalog.getNumClasses();
+        out.writeInt(numClasses);
+        float[] nmsIou = catalog.getNmsIouThresholds();
+        for (int c = 0; c < numClasses; c++) {
+            out.writeBoolean(catalog.isAllowed(c));
+            out.writeBoolean(catalog.isProduct(c));
+            out.writeFloat(catalog.getThreshold(c));
+            out.writeFloat(catalog.getLowThreshold(c));
+            out.writeFloat(nmsIou[c]);
+        }
+    }
+
+    private void writeTensor(ByteBuffer buffer) throws IOException {
+        ByteBuffer src = buffer.duplicate();
+        src.clear();
+        int n = src.remaining();
+        if (copyBuffer.length < n) {
+            copyBuffer = new byte[n];
+        }
+        src.get(copyBuffer, 0, n);
+        out.writeInt(n);
+        out.write(copyBuffer, 0, n);
+    }
+
+    private void fail(IOException e) {
+        logger.i(TAG, "텐서 기록 실패, 기록을 멈춥니다: " + e.getMessage());
+        close();
+    }
+
+    static void writeDescriptor(DataOutputStream out, ModelDescriptor descriptor) throws IOException {
+        out.writeUTF(descriptor.getName() != null ? descriptor.getName() : "");
+        out.writeInt(descriptor.getInputCount());
+        for (int i = 0; i < descriptor.getInputCount(); i++) {
+            writeSpec(out, descriptor.getInput(i));
+        }
+        out.writeInt(descriptor.getOutputCount());
+        for (int i = 0; i < descriptor.getOutputCount(); i++) {
+            writeSpec(out, descriptor.getOutput(i));
+        }
+    }
+
+    static ModelDescriptor readDescriptor(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        TensorSpec[] inputs = new TensorSpec[in.readInt()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = readSpec(in);
+        }
+        TensorSpec[] outputs = new TensorSpec[in.readInt()];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = readSpec(in);
+        }
+        return new ModelDescriptor(name, Arrays.asList(inputs), Arrays.asList(outputs));
+    }
+
+    private static void writeSpec(DataOutputStream out, TensorSpec spec) throws IOException {
+        out.writeUTF(spec.getName() != null ? spec.getName() : "");
+        int[] shape = spec.getShape();
+        out.writeInt(shape.length);
+        for (int d : shape) {
+            out.writeInt(d);
+        }
+        out.writeUTF(spec.getDataType());
+        out.writeFloat(spec.getScale());
+        out.writeInt(spec.getZeroPoint());
+    }
+
+    private static TensorSpec readSpec(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        int[] shape = new int[in.readInt()];
+        for (int d = 0; d < shape.length; d++) {
+            shape[d] = in.readInt();
+        }
+        String dataType = in.readUTF();
+        float scale = in.readFloat();
+        int zeroPoint = in.readInt();
+        return new TensorSpec(name, shape, dataType, scale, zeroPoint);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.quantiztest;
+
+import java.util.Arrays;
+
+/**
+ * 모델 입출력 텐서 하나의 형상, 타입, 양자화 파라미터 (불변)
+ * 모델 로드 시 한 번 만들어서 프레임마다 인터프리터에 묻지 않고 사용합니다.
+ */
+public final class TensorSpec {
+    private final String name;
+    private final int[] shape;
+    private final String dataType;   // "UINT8", "FLOAT32" 등 (TFLite DataType 이름)
+    private final float scale;       // 양자화되지 않은 텐서는 0
+    private final int zeroPoint;
+
+    public TensorSpec(String name, int[] shape, String dataType, float scale, int zeroPoint) {
+        this.name = name;
+        this.shape = shape.clone();
+        this.dataType = dataType;
+        this.scale = scale;
+        this.zeroPoint = zeroPoint;
+    }
+
+    /**
+     * 양자화 파라미터가 없으면(스케일 0 또는 NaN) 주어진 기본값을 쓰는 사본을 반환합니다.
+     */
+    public TensorSpec withDefaultQuantization(float defaultScale, int defaultZeroPoint) {
+        if (isQuantized()) {
+            return this;
+        }
+        return new TensorSpec(name, shape, dataType, defaultScale, defaultZeroPoint);
+    }
+
+    public boolean isQuantized() {
+        return scale != 0 && !Float.isNaN(scale);
+    }
+
+    public boolean isUint8() {
+        return "UINT8".equals(dataType);
+    }
+
+    public boolean isFloat32() {
+        return "FLOAT32".equals(dataType);
+    }
+
+    /**
+     * 원소 하나의 바이트 수
+     */
+    public int elementBytes() {
+        switch (dataType) {
+            case "FLOAT32":
+            case "INT32":
+                return 4;
+            case "INT64":
+                return 8;
+            case "INT16":
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * 텐서 전체 바이트 수 (출력 버퍼 크기)
+     */
+    public int numBytes() {
+        return numElements() * elementBytes();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    public int rank() {
+        return shape.length;
+    }
+
+    /**
+     * i번째 차원 크기 (음수 인덱스는 뒤에서부터)
+     */
+    public int dim(int i) {
+        return shape[i < 0 ? shape.length + i : i];
+    }
+
+    public int numElements() {
+        int count = 1;
+        for (int d : shape) {
+            count *= d;
+        }
+        return count;
+    }
+
+    public boolean hasShape(int... expected) {
+        return Arrays.equals(shape, expected);
+    }
+
+    public String getDataType() {
+        return dataType;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public int getZeroPoint() {
+        return zeroPoint;
+    }
+
+    @Override
+    public String toString() {
+        return name + " " + dataType + " " + Arrays.toString(shape)
+                + (isQuantized() ? " scale=" + scale + " zp=" + zeroPoint : "");
+    }
+}
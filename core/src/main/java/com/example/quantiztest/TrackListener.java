@@ -0,0 +1,18 @@
+package com.example.quantiztest;
+
+/**
+ * 추적 객체의 상태가 바뀔 때 SimpleTracker가 호출하는 리스너
+ * 상태가 바뀐 객체에 대해서만 호출되므로, 매 프레임 전체 목록을 이전 프레임과 비교할 필요가 없습니다.
+ * 트래커 갱신 중에 같은 스레드에서 호출되며, 전달된 TrackedObject는 호출 동안만 유효합니다 (슬롯이 재사용됨).
+ */
+public interface TrackListener {
+
+    enum Event {
+        TENTATIVE,  // 높은 신뢰도 탐지로 새 객체가 생김 (아직 확정 전)
+        CONFIRMED,  // 연속으로 충분히 매칭되어 확정됨 (객체마다 한 번)
+        LOST,       // 확정된 객체가 탐지에서 빠지기 시작함 (다시 매칭되면 조용히 확정 상태로 돌아감)
+        REMOVED     // 놓친 채로 MAX_AGE_MS가 지나 트래커에서 제거됨 (이후 슬롯이 재사용됨)
+    }
+
+    void onTrackEvent(Event event, SimpleTracker.TrackedObject obj);
+}
@@ -0,0 +1,397 @@
+package com.example.quantiztest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 추적 객체 상태를 슬롯 번호로 보관하는 기본형 병렬 배열(struct-of-arrays) 표
+ * 객체가 사라지면 슬롯을 빈 슬롯 스택(free-list)에 돌려놓고 새 객체가 다시 쓰므로, 객체 수가 최대치에 이른 뒤에는 할당이 없습니다.
+ * 슬롯마다 읽기 전용 뷰(TrackedObject)와 움직임 모델을 한 번만 만들어 재사용합니다.
+ * 슬롯 번호는 재사용되므로, 슬롯으로 상태를 따로 보관하는 쪽은 ID가 같은지 함께 확인해야 합니다.
+ */
+final class TrackTable {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // 생명주기 상태
+    static final int STATE_TENTATIVE = 0;
+    static final int STATE_CONFIRMED = 1;
+    static final int STATE_LOST = 2;
+
+    private final MotionModel.Factory motionModelFactory;
+
+    int[] id;
+    int[] classId;
+    String[] label;
+    boolean[] person;
+    float[] confidence;
+    float[] left;
+    float[] top;
+    float[] right;
+    float[] bottom;
+    int[] age;
+    long[] lastMatchedTime;
+    // 마지막으로 있다고 확인한 시각 (탐지 매칭, 또는 움직임 없는 프레임에서 영역이 그대로인 경우)
+    long[] lastSeenTime;
+    // 마지막 탐지 이후 외삽한 프레임 수
+    int[] extrapolatedFrames;
+    // 마지막 update()에서 탐지와 매칭되었는지 (새로 생긴 객체 포함)
+    boolean[] matchedInLastUpdate;
+    // 생명주기 상태와 확정 전 연속 매칭 횟수
+    int[] state;
+    int[] hits;
+    // 매칭 계산용 예측 위치 (화면에 표시되지 않음)
+    float[] predictedLeft;
+    float[] predictedTop;
+    float[] predictedRight;
+    float[] predictedBottom;
+    // 슬롯별 움직임 모델 (슬롯을 다시 쓸 때 init()으로 초기화)
+    MotionModel[] motion;
+    private SimpleTracker.TrackedObject[] views;
+
+    // 사용 중인 슬롯 (생성 순서 유지) 과 빈 슬롯 스택
+    private int[] activeSlots;
+    private int activeCount;
+    private int[] freeSlots;
+    private int freeCount;
+    private int capacity;
+
+    // 움직임 모델과 박스를 주고받는 버퍼 {left, top, right, bottom}
+    private final float[] boxBuffer = new float[4];
+
+    // 사용 중인 객체를 생성 순서로 보여주는 읽기 전용 목록 (항상 같은 인스턴스)
+    private final List<SimpleTracker.TrackedObject> activeView = new ActiveList();
+
+    TrackTable(MotionModel.Factory motionModelFactory) {
+        this.motionModelFactory = motionModelFactory;
+        id = new int[0];
+        classId = new int[0];
+        label = new String[0];
+        person = new boolean[0];
+        confidence = new float[0];
+        left = new float[0];
+        top = new float[0];
+        right = new float[0];
+        bottom = new float[0];
+        age = new int[0];
+        lastMatchedTime = new long[0];
+        lastSeenTime = new long[0];
+        extrapolatedFrames = new int[0];
+        matchedInLastUpdate = new boolean[0];
+        state = new int[0];
+        hits = new int[0];
+        predictedLeft = new float[0];
+        predictedTop = new float[0];
+        predictedRight = new float[0];
+        predictedBottom = new float[0];
+        motion = new MotionModel[0];
+        views = new SimpleTracker.TrackedObject[0];
+        activeSlots = new int[0];
+        freeSlots = new int[0];
+    }
+
+    /**
+     * 새 객체를 빈 슬롯에 넣고 슬롯 번호를 반환합니다. 빈 슬롯이 없을 때만 배열을 늘립니다.
+     */
+    int add(int trackId, int classId, String label, float confidence,
+            float left, float top, float right, float bottom, long timestampMs) {
+        if (freeCount == 0) {
+            grow(Math.max(DEFAULT_CAPACITY, capacity * 2));
+        }
+        int slot = freeSlots[--freeCount];
+        activeSlots[activeCount++] = slot;
+
+        this.id[slot] = trackId;
+        this.classId[slot] = classId;
+        this.label[slot] = label;
+        this.person[slot] = "person".equals(label);
+        this.confidence[slot] = confidence;
+        this.left[slot] = left;
+        this.top[slot] = top;
+        this.right[slot] = right;
+        this.bottom[slot] = bottom;
+        this.age[slot] = 0;
+        this.lastMatchedTime[slot] = timestampMs;
+        this.lastSeenTime[slot] = timestampMs;
+        this.extrapolatedFrames[slot] = 0;
+        this.matchedInLastUpdate[slot] = true;
+        this.state[slot] = STATE_TENTATIVE;
+        this.hits[slot] = 0;
+
+        // 초기 예측 위치는 현재 위치와 동일
+        predictedLeft[slot] = left;
+        predictedTop[slot] = top;
+        predictedRight[slot] = right;
+        predictedBottom[slot] = bottom;
+
+        if (motion[slot] == null) {
+            motion[slot] = motionModelFactory.create();
+        }
+        motion[slot].init(left, top, right, bottom, timestampMs);
+        return slot;
+    }
+
+    private void grow(int newCapacity) {
+        id = Arrays.copyOf(id, newCapacity);
+        classId = Arrays.copyOf(classId, newCapacity);
+        label = Arrays.copyOf(label, newCapacity);
+        person = Arrays.copyOf(person, newCapacity);
+        confidence = Arrays.copyOf(confidence, newCapacity);
+        left = Arrays.copyOf(left, newCapacity);
+        top = Arrays.copyOf(top, newCapacity);
+        right = Arrays.copyOf(right, newCapacity);
+        bottom = Arrays.copyOf(bottom, newCapacity);
+        age = Arrays.copyOf(age, newCapacity);
+        lastMatchedTime = Arrays.copyOf(lastMatchedTime, newCapacity);
+        lastSeenTime = Arrays.copyOf(lastSeenTime, newCapacity);
+        extrapolatedFrames = Arrays.copyOf(extrapolatedFrames, newCapacity);
+        matchedInLastUpdate = Arrays.copyOf(matchedInLastUpdate, newCapacity);
+        state = Arrays.copyOf(state, newCapacity);
+        hits = Arrays.copyOf(hits, newCapacity);
+        predictedLeft = Arrays.copyOf(predictedLeft, newCapacity);
+        predictedTop = Arrays.copyOf(predictedTop, newCapacity);
+        predictedRight = Arrays.copyOf(predictedRight, newCapacity);
+        predictedBottom = Arrays.copyOf(predictedBottom, newCapacity);
+        motion = Arrays.copyOf(motion, newCapacity);
+        views = Arrays.copyOf(views, newCapacity);
+        activeSlots = Arrays.copyOf(activeSlots, newCapacity);
+        freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+
+        // 새 슬롯은 번호가 작은 것부터 꺼내도록 스택에 역순으로 쌓음
+        for (int slot = newCapacity - 1; slot >= capacity; slot--) {
+            views[slot] = new SimpleTracker.TrackedObject(this, slot);
+            freeSlots[freeCount++] = slot;
+        }
+        capacity = newCapacity;
+    }
+
+    /**
+     * 놓친 상태로 maxAgeMs보다 오래 확인되지 않은 객체를 빼고 슬롯을 돌려놓습니다 (남은 객체의 순서는 유지).
+     * @param timestampMs 현재 프레임 시각
+     * @param listener 제거되는 객체마다 호출 (null 가능)
+     * @return 제거한 객체 수
+     */
+    int removeExpired(long timestampMs, long maxAgeMs, RemovalListener listener) {
+        int kept = 0;
+        for (int k = 0; k < activeCount; k++) {
+            int slot = activeSlots[k];
+            if (age[slot] > 0 && timestampMs - lastSeenTime[slot] > maxAgeMs) {
+                if (listener != null) {
+                    listener.onRemoved(views[slot]);
+                }
+                label[slot] = null;
+                freeSlots[freeCount++] = slot;
+            } else {
+                activeSlots[kept++] = slot;
+            }
+        }
+        int removed = activeCount - kept;
+        activeCount = kept;
+        return removed;
+    }
+
+    interface RemovalListener {
+        void onRemoved(SimpleTracker.TrackedObject obj);
+    }
+
+    /**
+     * 새로운 탐지 결과로 슬롯의 객체를 갱신 (속도 보정, 나이 초기화, 예측 위치도 현재 위치로)
+     */
+    void update(int slot, DetectionBatch detections, int i, long timestampMs) {
+        float l = detections.getLeft(i);
+        float t = detections.getTop(i);
+        float r = detections.getRight(i);
+        float b = detections.getBottom(i);
+        motion[slot].correct(l, t, r, b, timestampMs);
+        extrapolatedFrames[slot] = 0;
+        matchedInLastUpdate[slot] = true;
+
+        confidence[slot] = detections.getConfidence(i);
+        left[slot] = l;
+        top[slot] = t;
+        right[slot] = r;
+        bottom[slot] = b;
+        age[slot] = 0;  // 탐지되었으므로 나이 초기화
+        lastMatchedTime[slot] = timestampMs;
+        lastSeenTime[slot] = timestampMs;
+
+        predictedLeft[slot] = l;
+        predictedTop[slot] = t;
+        predictedRight[slot] = r;
+        predictedBottom[slot] = b;
+    }
+
+    /**
+     * 표시 위치를 움직임 모델로 앞으로 옮김 (모델 상태는 그대로 두어 다음 탐지 때 속도를 다시 계산)
+     */
+    void extrapolate(int slot, long timestampMs) {
+        writeBox(slot);
+        motion[slot].extrapolate(timestampMs, boxBuffer);
+        left[slot] = boxBuffer[0];
+        top[slot] = boxBuffer[1];
+        right[slot] = boxBuffer[2];
+        bottom[slot] = boxBuffer[3];
+        extrapolatedFrames[slot]++;
+    }
+
+    /**
+     * 매칭 계산용 위치 예측 (실제 표시되는 위치는 변경되지 않음)
+     */
+    void predict(int slot, long timestampMs) {
+        writeBox(slot);
+        motion[slot].predict(timestampMs, age[slot] > 0, boxBuffer);
+        predictedLeft[slot] = boxBuffer[0];
+        predictedTop[slot] = boxBuffer[1];
+        predictedRight[slot] = boxBuffer[2];
+        predictedBottom[slot] = boxBuffer[3];
+    }
+
+    /**
+     * 예측 없이 현재 위치를 예측 위치로 씀
+     */
+    void resetPrediction(int slot) {
+        predictedLeft[slot] = left[slot];
+        predictedTop[slot] = top[slot];
+        predictedRight[slot] = right[slot];
+        predictedBottom[slot] = bottom[slot];
+    }
+
+    private void writeBox(int slot) {
+        boxBuffer[0] = left[slot];
+        boxBuffer[1] = top[slot];
+        boxBuffer[2] = right[slot];
+        boxBuffer[3] = bottom[slot];
+    }
+
+    /**
+     * 슬롯 배치(사용 중, 빈 슬롯 순서)와 사용 중인 객체의 상태를 씁니다.
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(capacity);
+        out.writeInt(activeCount);
+        for (int k = 0; k < activeCount; k++) {
+            out.writeInt(activeSlots[k]);
+        }
+        out.writeInt(freeCount);
+        for (int k = 0; k < freeCount; k++) {
+            out.writeInt(freeSlots[k]);
+        }
+        for (int k = 0; k < activeCount; k++) {
+            int slot = activeSlots[k];
+            out.writeInt(id[slot]);
+            out.writeInt(classId[slot]);
+            out.writeUTF(label[slot]);
+            out.writeFloat(confidence[slot]);
+            out.writeFloat(left[slot]);
+            out.writeFloat(top[slot]);
+            out.writeFloat(right[slot]);
+            out.writeFloat(bottom[slot]);
+            out.writeInt(age[slot]);
+            out.writeLong(lastMatchedTime[slot]);
+            out.writeLong(lastSeenTime[slot]);
+            out.writeInt(extrapolatedFrames[slot]);
+            out.writeBoolean(matchedInLastUpdate[slot]);
+            out.writeInt(state[slot]);
+            out.writeInt(hits[slot]);
+            out.writeFloat(predictedLeft[slot]);
+            out.writeFloat(predictedTop[slot]);
+            out.writeFloat(predictedRight[slot]);
+            out.writeFloat(predictedBottom[slot]);
+            motion[slot].writeState(out);
+        }
+    }
+
+    /**
+     * writeState로 쓴 상태를 같은 슬롯 번호로 복원합니다 (슬롯으로 상태를 보관하는 선 교차 감지도 그대로 이어지도록).
+     * @throws IllegalStateException 이미 객체를 넣은 적이 있는 표
+     */
+    void readState(DataInput in) throws IOException {
+        if (capacity > 0) {
+            throw new IllegalStateException("새로 만든 추적 표에만 상태를 읽을 수 있습니다");
+        }
+        int newCapacity = in.readInt();
+        if (newCapacity > 0) {
+            grow(newCapacity);
+        }
+        activeCount = in.readInt();
+        for (int k = 0; k < activeCount; k++) {
+            activeSlots[k] = in.readInt();
+        }
+        freeCount = in.readInt();
+        for (int k = 0; k < freeCount; k++) {
+            freeSlots[k] = in.readInt();
+        }
+        for (int k = 0; k < activeCount; k++) {
+            int slot = activeSlots[k];
+            id[slot] = in.readInt();
+            classId[slot] = in.readInt();
+            label[slot] = in.readUTF();
+            person[slot] = "person".equals(label[slot]);
+            confidence[slot] = in.readFloat();
+            left[slot] = in.readFloat();
+            top[slot] = in.readFloat();
+            right[slot] = in.readFloat();
+            bottom[slot] = in.readFloat();
+            age[slot] = in.readInt();
+            lastMatchedTime[slot] = in.readLong();
+            lastSeenTime[slot] = in.readLong();
+            extrapolatedFrames[slot] = in.readInt();
+            matchedInLastUpdate[slot] = in.readBoolean();
+            state[slot] = in.readInt();
+            hits[slot] = in.readInt();
+            predictedLeft[slot] = in.readFloat();
+            predictedTop[slot] = in.readFloat();
+            predictedRight[slot] = in.readFloat();
+            predictedBottom[slot] = in.readFloat();
+            if (motion[slot] == null) {
+                motion[slot] = motionModelFactory.create();
+            }
+            motion[slot].readState(in);
+        }
+    }
+
+    int size() {
+        return activeCount;
+    }
+
+    /**
+     * 생성 순서로 index번째 사용 중인 슬롯
+     */
+    int slotAt(int index) {
+        return activeSlots[index];
+    }
+
+    SimpleTracker.TrackedObject view(int slot) {
+        return views[slot];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 사용 중인 객체의 읽기 전용 목록 (복사하지 않으며 다음 갱신 때 내용이 바뀜)
+     */
+    List<SimpleTracker.TrackedObject> activeView() {
+        return activeView;
+    }
+
+    private final class ActiveList extends AbstractList<SimpleTracker.TrackedObject> implements RandomAccess {
+        @Override
+        public SimpleTracker.TrackedObject get(int index) {
+            if (index < 0 || index >= activeCount) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + activeCount);
+            }
+            return views[activeSlots[index]];
+        }
+
+        @Override
+        public int size() {
+            return activeCount;
+        }
+    }
+}
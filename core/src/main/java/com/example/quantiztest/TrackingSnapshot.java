@@ -0,0 +1,186 @@
+package com.example.quantiztest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 트래커 갱신 직후의 추적 결과를 복사해 둔 불변 스냅샷
+ * 파이프라인 추적 단계가 매 프레임 새 스냅샷을 만들어 AtomicReference로 교체하고,
+ * 소켓 요청 처리처럼 다른 스레드는 잠금이나 추가 추론 없이 가장 최근 스냅샷을 읽어서 바로 응답합니다.
+ */
+public final class TrackingSnapshot {
+
+    public static final TrackingSnapshot EMPTY =
+            new TrackingSnapshot(0, 0, 0, 0, Collections.<Track>emptyList(), null);
+
+    /**
+     * 스냅샷 시점의 추적 객체 한 개 (TrackedObject는 트래커가 계속 바꾸므로 값만 복사)
+     */
+    public static final class Track {
+        private final int id;
+        private final int slot;
+        private final int classId;
+        private final String label;
+        private final boolean person;
+        private final float confidence;
+        private final float left;
+        private final float top;
+        private final float right;
+        private final float bottom;
+        private final int age;
+
+        Track(SimpleTracker.TrackedObject obj) {
+            this.id = obj.getId();
+            this.slot = obj.getSlot();
+            this.classId = obj.getClassId();
+            this.label = obj.getLabel();
+            this.person = obj.isPerson();
+            this.confidence = obj.getConfidence();
+            this.left = obj.getLeft();
+            this.top = obj.getTop();
+            this.right = obj.getRight();
+            this.bottom = obj.getBottom();
+            this.age = obj.getAge();
+        }
+
+        public int getId() { return id; }
+        /**
+         * 트래커 안의 저장 위치 (사라진 객체의 슬롯은 재사용되므로 슬롯별 상태는 ID와 함께 확인)
+         */
+        public int getSlot() { return slot; }
+        public int getClassId() { return classId; }
+        public String getLabel() { return label; }
+        public boolean isPerson() { return person; }
+        public float getConfidence() { return confidence; }
+        public float getLeft() { return left; }
+        public float getTop() { return top; }
+        public float getRight() { return right; }
+        public float getBottom() { return bottom; }
+        public float getCenterX() { return (left + right) / 2; }
+        public float getCenterY() { return (top + bottom) / 2; }
+        public int getAge() { return age; }
+
+        @Override
+        public String toString() {
+            return id + ": " + label + " (" + String.format("%.2f", confidence * 100) + "%), age=" + age;
+        }
+    }
+
+    /**
+     * 마지막으로 탐지기를 돌린 카메라 프레임 (캡처 해상도 ARGB)
+     * 재사용 프레임과 분리된 복사본이며, 만든 뒤에는 아무도 픽셀을 바꾸지 않습니다.
+     */
+    public static final class FrameImage {
+        private final int[] pixels;
+        private final int width;
+        private final int height;
+        private final long timestamp;
+
+        FrameImage(int[] pixels, int width, int height, long timestamp) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * 읽기 전용으로만 사용해야 합니다 (복사하지 않고 그대로 반환).
+         */
+        public int[] getPixels() { return pixels; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public long getTimestamp() { return timestamp; }
+    }
+
+    private final long sequence;
+    private final long timestamp;
+    private final int coordWidth;
+    private final int coordHeight;
+    private final List<Track> tracks;
+    private final FrameImage frame;
+
+    private TrackingSnapshot(long sequence, long timestamp, int coordWidth, int coordHeight,
+                             List<Track> tracks, FrameImage frame) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.coordWidth = coordWidth;
+        this.coordHeight = coordHeight;
+        this.tracks = tracks;
+        this.frame = frame;
+    }
+
+    /**
+     * 트래커 결과를 복사해서 다음 스냅샷을 만듭니다.
+     * @param trackedObjects 트래커가 반환한 목록 (값만 복사하므로 이후 트래커가 바꿔도 영향 없음)
+     * @param timestamp 추적 결과가 해당하는 프레임 시각
+     * @param coordWidth 추적 좌표계(프리뷰 뷰)의 너비
+     * @param coordHeight 추적 좌표계의 높이
+     * @param frame 이번 프레임 이미지 (null이면 이전 스냅샷의 이미지를 그대로 씀)
+     */
+    public TrackingSnapshot next(List<SimpleTracker.TrackedObject> trackedObjects, long timestamp,
+                                 int coordWidth, int coordHeight, FrameImage frame) {
+        List<Track> copied = new ArrayList<>(trackedObjects.size());
+        for (SimpleTracker.TrackedObject obj : trackedObjects) {
+            copied.add(new Track(obj));
+        }
+        return new TrackingSnapshot(sequence + 1, timestamp, coordWidth, coordHeight,
+                Collections.unmodifiableList(copied), frame != null ? frame : this.frame);
+    }
+
+    /**
+     * 픽셀을 복사해서 스냅샷에 넣을 프레임 이미지를 만듭니다.
+     */
+    public static FrameImage copyFrame(int[] pixels, int width, int height, long timestamp) {
+        int[] copy = new int[width * height];
+        System.arraycopy(pixels, 0, copy, 0, copy.length);
+        return new FrameImage(copy, width, height, timestamp);
+    }
+
+    public long getSequence() { return sequence; }
+    public long getTimestamp() { return timestamp; }
+    public int getCoordWidth() { return coordWidth; }
+    public int getCoordHeight() { return coordHeight; }
+    public List<Track> getTracks() { return tracks; }
+
+    /**
+     * 마지막으로 탐지한 프레임 이미지 (아직 없으면 null)
+     */
+    public FrameImage getFrame() { return frame; }
+
+    public boolean isEmpty() {
+        return sequence == 0;
+    }
+
+    public Track findTrack(int id) {
+        for (Track track : tracks) {
+            if (track.id == id) {
+                return track;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * (x, y)에 중심이 가장 가까운 사람을 찾습니다.
+     * @param minConfidence 이 신뢰도 이상인 사람만 고려
+     * @return 없으면 null
+     */
+    public Track findNearestPerson(float x, float y, float minConfidence) {
+        Track nearest = null;
+        float minDistanceSq = Float.MAX_VALUE;
+        for (Track track : tracks) {
+            if (!track.person || track.confidence < minConfidence) {
+                continue;
+            }
+            float dx = track.getCenterX() - x;
+            float dy = track.getCenterY() - y;
+            float distanceSq = dx * dx + dy * dy;
+            if (distanceSq < minDistanceSq) {
+                minDistanceSq = distanceSq;
+                nearest = track;
+            }
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * YOLONas 양자화 출력 텐서를 탐지 결과로 변환하는 디코더
+ * 신뢰도 임계값을 미리 UINT8 원시 값으로 바꿔 두고, 루프에서는 정수 비교 한 번으로 후보를 걸러낸 뒤
+ * 살아남은 후보만 클래스와 박스 좌표를 dequantize 합니다.
+ * 클래스 필터와 클래스별 임계값은 ProductCatalog의 클래스 ID 배열로 라벨 조회 전에 적용합니다.
+ * 트래커가 낮은 신뢰도 탐지도 쓰므로 임계값은 카탈로그의 낮은 신뢰도 하한(getLowThreshold)입니다.
+ */
+public class YoloOutputDecoder implements OutputDecoder {
+    private final int numDetections;
+    private final int inputWidth;
+    private final int inputHeight;
+
+    // 추적 대상 클래스 목록과 클래스별 임계값
+    private ProductCatalog catalog;
+
+    // 출력 텐서 양자화 파라미터
+    private float boxScale = 0.01f;
+    private int boxZeroPoint = 0;
+    private float scoreScale = Float.NaN;
+    private int scoreZeroPoint = 0;
+    private float classScale = 1.0f;
+    private int classZeroPoint = 0;
+
+    // 클래스별로 이 값 이상인 원시 점수만 해당 클래스의 임계값을 넘음
+    private int[] classMinRawScores = new int[0];
+    // 허용된 클래스 중 가장 낮은 원시 임계값 (1차 필터)
+    private int minRawScore = Quantization.NO_RAW_VALUE;
+
+    /**
+     * @param numDetections 후보(앵커) 수
+     * @param inputWidth 모델 입력 너비 (박스 좌표 정규화에 사용)
+     * @param inputHeight 모델 입력 높이
+     */
+    public YoloOutputDecoder(int numDetections, int inputWidth, int inputHeight) {
+        this.numDetections = numDetections;
+        this.inputWidth = inputWidth;
+        this.inputHeight = inputHeight;
+    }
+
+    /**
+     * 추적 대상 카탈로그를 설정합니다. 바뀐 경우에만 원시 임계값을 다시 계산합니다.
+     */
+    @Override
+    public void setCatalog(ProductCatalog catalog) {
+        if (catalog != this.catalog) {
+            this.catalog = catalog;
+            updateRawThresholds();
+        }
+    }
+
+    /**
+     * 출력 텐서의 양자화 파라미터를 설정합니다.
+     * 점수 파라미터가 바뀐 경우에만 원시 임계값을 다시 계산합니다.
+     */
+    public void setQuantization(float boxScale, int boxZeroPoint,
+                                float scoreScale, int scoreZeroPoint,
+                                float classScale, int classZeroPoint) {
+        this.boxScale = boxScale;
+        this.boxZeroPoint = boxZeroPoint;
+        this.classScale = classScale;
+        this.classZeroPoint = classZeroPoint;
+
+        if (scoreScale != this.scoreScale || scoreZeroPoint != this.scoreZeroPoint) {
+            this.scoreScale = scoreScale;
+            this.scoreZeroPoint = scoreZeroPoint;
+            updateRawThresholds();
+        }
+    }
+
+    /**
+     * 카탈로그의 클래스별 임계값을 현재 점수 양자화 파라미터 기준 원시 값으로 변환합니다.
+     */
+    private void updateRawThresholds() {
+        if (catalog == null || Float.isNaN(scoreScale)) {
+            minRawScore = Quantization.NO_RAW_VALUE;
+            return;
+        }
+        int numClasses = catalog.getNumClasses();
+        if (classMinRawScores.length != numClasses) {
+            classMinRawScores = new int[numClasses];
+        }
+        int globalMin = Quantization.NO_RAW_VALUE;
+        for (int classId = 0; classId < numClasses; classId++) {
+            int raw = Quantization.NO_RAW_VALUE;
+            if (catalog.isAllowed(classId)) {
+                float threshold = catalog.getLowThreshold(classId);
+                // 신뢰도는 1.0으로 잘리므로 임계값이 1 이상이면 어떤 후보도 통과할 수 없음
+                if (threshold < 1.0f) {
+                    raw = Quantization.minRawAbove(threshold, scoreScale, scoreZeroPoint);
+                }
+            }
+            classMinRawScores[classId] = raw;
+            globalMin = Math.min(globalMin, raw);
+        }
+        minRawScore = globalMin;
+    }
+
+    public int getMinRawScore() {
+        return minRawScore;
+    }
+
+    @Override
+    public int decode(ByteBuffer[] outputs, int imageWidth, int imageHeight, DetectionBatch out) {
+        return decode(outputs[0], outputs[1], outputs[2], imageWidth, imageHeight, out);
+    }
+
+    /**
+     * 출력 텐서를 디코드해서 out 배치에 탐지 결과를 추가합니다.
+     * 라벨 문자열은 만들지 않고 클래스 ID만 기록합니다.
+     * @param boxes 바운딩 박스 [numDetections * 4]
+     * @param scores 신뢰도 점수 [numDetections]
+     * @param classes 클래스 인덱스 [numDetections]
+     * @param imageWidth 원본 이미지 너비 (좌표 변환용)
+     * @param imageHeight 원본 이미지 높이
+     * @param out 결과를 추가할 배치
+     * @return 추가된 탐지 수
+     */
+    public int decode(ByteBuffer boxes, ByteBuffer scores, ByteBuffer classes,
+                      int imageWidth, int imageHeight, DetectionBatch out) {
+        final int minRaw = minRawScore;
+        final int[] classMinRaw = classMinRawScores;
+        final int numClasses = classMinRaw.length;
+        int added = 0;
+
+        for (int i = 0; i < numDetections; ++i) {
+            // 양자화 영역에서 바로 비교 - 대부분의 후보는 여기서 걸러짐
+            int rawScore = scores.get(i) & 0xFF;
+            if (rawScore < minRaw) {
+                continue;
+            }
+
+            // 클래스 인덱스 dequantize 후 카탈로그의 클래스별 임계값 적용 (허용되지 않은 클래스는 NO_RAW_VALUE)
+            int classIndex = (int) (((classes.get(i) & 0xFF) - classZeroPoint) * classScale);
+            if (classIndex < 0 || classIndex >= numClasses || rawScore < classMinRaw[classIndex]) {
+                continue;
+            }
+
+            // 살아남은 후보만 신뢰도 dequantize
+            float confidence = Math.min(Quantization.dequantize(rawScore, scoreScale, scoreZeroPoint), 1.0f);
+
+            // 바운딩 박스 좌표 dequantize (UINT8 -> float)
+            int boxOffset = i * 4;
+            float x1 = ((boxes.get(boxOffset) & 0xFF) - boxZeroPoint) * boxScale;
+            float y1 = ((boxes.get(boxOffset + 1) & 0xFF) - boxZeroPoint) * boxScale;
+            float x2 = ((boxes.get(boxOffset + 2) & 0xFF) - boxZeroPoint) * boxScale;
+            float y2 = ((boxes.get(boxOffset + 3) & 0xFF) - boxZeroPoint) * boxScale;
+
+            // 정규화 (0~1 범위로)
+            x1 = x1 / inputWidth;
+            y1 = y1 / inputHeight;
+            x2 = x2 / inputWidth;
+            y2 = y2 / inputHeight;
+
+            float left = x1 * imageWidth;
+            float top = y1 * imageHeight;
+            float right = x2 * imageWidth;
+            float bottom = y2 * imageHeight;
+
+            // 좌표가 유효한지 확인
+            if (left < 0) left = 0;
+            if (top < 0) top = 0;
+
+            // 바운딩 박스 크기가 유효한지 확인
+            if (right > left && bottom > top) {
+                out.add(classIndex, confidence, left, top, right, bottom);
+                added++;
+            }
+        }
+        return added;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * DetectionBatch 재사용과 클래스 ID 기준 추적 확인
+ */
+public class DetectionBatchTest {
+    private static final List<String> LABELS = Arrays.asList("person", "cup");
+
+    @Test
+    public void clear_reusesArraysAcrossFrames() {
+        DetectionBatch batch = new DetectionBatch(4);
+        for (int frame = 0; frame < 100; frame++) {
+            batch.clear();
+            for (int i = 0; i < 300; i++) {
+                batch.add(i % 2, 0.5f, i, i, i + 10, i + 10);
+            }
+        }
+        assertEquals(300, batch.size());
+        // 첫 프레임에서 늘어난 뒤로는 다시 늘어나지 않음
+        assertEquals(512, batch.capacity());
+    }
+
+    @Test
+    public void add_storesClassLabelAndBox() {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(LABELS);
+        batch.add(1, 0.9f, 1, 2, 3, 4);
+
+        assertEquals(1, batch.getClassId(0));
+        assertEquals("cup", batch.getLabel(0));
+        assertEquals(0.9f, batch.getConfidence(0), 0f);
+        assertEquals(1f, batch.getLeft(0), 0f);
+        assertEquals(2f, batch.getTop(0), 0f);
+        assertEquals(3f, batch.getRight(0), 0f);
+        assertEquals(4f, batch.getBottom(0), 0f);
+    }
+
+    @Test
+    public void tracker_matchesByClassId() {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(LABELS);
+        SimpleTracker tracker = new SimpleTracker();
+
+        batch.add(0, 0.9f, 100, 100, 200, 300);
+        List<SimpleTracker.TrackedObject> first = tracker.update(batch);
+        assertEquals(1, first.size());
+        int id = first.get(0).getId();
+        assertEquals("person", first.get(0).getLabel());
+
+        // 같은 위치 근처의 같은 클래스는 기존 ID 유지
+        batch.clear();
+        batch.add(0, 0.8f, 105, 100, 205, 300);
+        List<SimpleTracker.TrackedObject> second = tracker.update(batch);
+        assertEquals(1, second.size());
+        assertEquals(id, second.get(0).getId());
+        assertEquals(105f, second.get(0).getLeft(), 0f);
+    }
+}
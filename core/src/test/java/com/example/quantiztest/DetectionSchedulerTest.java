@@ -0,0 +1,105 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 탐지 간격 스케줄과, 탐지 사이 프레임에서 트래커가 박스를 외삽하는지 확인합니다.
+ */
+public class DetectionSchedulerTest {
+
+    @Test
+    public void fixedInterval_detectsEveryNthFrame() {
+        DetectionScheduler scheduler = DetectionScheduler.fixed(3);
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < 9; i++) {
+            pattern.append(scheduler.nextFrame() ? 'D' : '-');
+        }
+        assertEquals("D--D--D--", pattern.toString());
+        assertEquals(3, scheduler.getFramesScheduled());
+        assertEquals(6, scheduler.getFramesExtrapolated());
+
+        DetectionScheduler every = DetectionScheduler.everyFrame();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(every.nextFrame());
+        }
+    }
+
+    @Test
+    public void requestDetection_detectsOnNextFrame() {
+        DetectionScheduler scheduler = DetectionScheduler.fixed(4);
+        assertTrue(scheduler.nextFrame());
+        assertFalse(scheduler.nextFrame());
+        scheduler.requestDetection();
+        assertTrue(scheduler.nextFrame());
+        assertFalse(scheduler.nextFrame());
+    }
+
+    private static final long FRAME_MS = 100;
+
+    @Test
+    public void adaptive_shortensIntervalForFastTracks() {
+        DetectionScheduler scheduler = DetectionScheduler.adaptive(1, 4);
+        SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(FRAME_MS));
+
+        // 정지한 객체: 최대 간격
+        List<SimpleTracker.TrackedObject> tracks = tracker.update(batch(100, 100));
+        tracks = tracker.update(batch(100, 100));
+        scheduler.onTracksUpdated(tracks);
+        assertEquals(4, scheduler.getInterval());
+
+        // 박스(50px) 대비 프레임당 20px 이상 이동: 최소 간격
+        tracks = tracker.update(batch(130, 100));
+        scheduler.onTracksUpdated(tracks);
+        assertEquals(1, scheduler.getInterval());
+
+        // 추적 객체가 없으면 새 객체를 빨리 잡도록 최소 간격
+        scheduler.onTracksUpdated(java.util.Collections.<SimpleTracker.TrackedObject>emptyList());
+        assertEquals(1, scheduler.getInterval());
+    }
+
+    @Test
+    public void tracker_extrapolatesBetweenDetectionsByElapsedTime() {
+        SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(FRAME_MS));
+        tracker.update(batch(100, 100));
+        // 첫 탐지 직후엔 속도가 없어서 제자리
+        SimpleTracker.TrackedObject obj = tracker.extrapolate().get(0);
+        assertEquals(100f, obj.getLeft(), 1e-4f);
+        assertEquals(1, obj.getExtrapolatedFrames());
+
+        // 두 프레임(200ms) 뒤 20px 이동 -> 초당 100px, 이동 평균 가중치 0.7 적용
+        obj = tracker.update(batch(120, 100)).get(0);
+        assertEquals(70f, obj.getVelocityX(), 1e-3f);
+        assertEquals(0, obj.getExtrapolatedFrames());
+
+        // 다음 프레임(100ms)만큼 이동
+        obj = tracker.extrapolate().get(0);
+        assertEquals(127f, obj.getLeft(), 1e-3f);
+        assertEquals(177f, obj.getRight(), 1e-3f);
+        assertEquals(100f, obj.getTop(), 1e-4f);
+    }
+
+    @Test
+    public void tracker_doesNotExtrapolateMissedTracks() {
+        SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(FRAME_MS));
+        tracker.update(batch(100, 100));
+        tracker.update(batch(110, 100));
+        // 탐지에서 놓친 객체는 제자리
+        SimpleTracker.TrackedObject obj = tracker.update(new DetectionBatch()).get(0);
+        assertTrue(obj.getVelocityX() > 0);
+        float left = obj.getLeft();
+        assertEquals(left, tracker.extrapolate().get(0).getLeft(), 1e-4f);
+        assertEquals(0, obj.getExtrapolatedFrames());
+    }
+
+    private static DetectionBatch batch(float left, float top) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("bottle"));
+        batch.add(0, 0.9f, left, top, left + 50, top + 80);
+        return batch;
+    }
+}
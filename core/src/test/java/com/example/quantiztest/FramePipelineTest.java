@@ -0,0 +1,468 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 고정 크기 큐의 오래된 프레임 버림과, 느린 단계가 있어도 프레임이 새지 않고 스레드가 늘지 않는지,
+ * 한 단계가 바쁜 동안 앞뒤 단계가 다른 프레임을 처리하는지,
+ * 탐지 단계를 건너뛰는 프레임이 추론이 멈춰 있어도 추적 단계까지 가는지 확인합니다.
+ */
+public class FramePipelineTest {
+
+    @Test
+    public void frameQueue_dropsOldestWhenFull() throws InterruptedException {
+        FrameQueue<Integer> queue = new FrameQueue<>(2);
+        assertNull(queue.offer(1));
+        assertNull(queue.offer(2));
+        assertEquals(Integer.valueOf(1), queue.offer(3));
+        assertEquals(Integer.valueOf(2), queue.offer(4));
+
+        assertEquals(2, queue.size());
+        assertEquals(4, queue.getOfferCount());
+        assertEquals(2, queue.getDropCount());
+        assertEquals(2, queue.getMaxDepth());
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertEquals(Integer.valueOf(4), queue.take(10));
+        assertNull(queue.take(10));
+    }
+
+    @Test
+    public void frameQueue_dropsPolicyFramesFirst() {
+        // 음수는 먼저 버려도 되는 프레임 (탐지기를 돌리지 않는 유지/외삽 프레임 역할)
+        FrameQueue<Integer> queue = new FrameQueue<>(2, new FrameQueue.DropPolicy<Integer>() {
+            @Override
+            public boolean dropFirst(Integer item) {
+                return item < 0;
+            }
+        });
+        assertNull(queue.offer(1));
+        assertNull(queue.offer(-2));
+        // 큐 안의 버려도 되는 프레임이 오래된 탐지 프레임보다 먼저 버려짐
+        assertEquals(Integer.valueOf(-2), queue.offer(3));
+        // 큐가 탐지 프레임뿐이면 새로 들어온 버려도 되는 프레임을 버림
+        assertEquals(Integer.valueOf(-4), queue.offer(-4));
+        // 탐지 프레임끼리는 가장 오래된 것부터
+        assertEquals(Integer.valueOf(1), queue.offer(5));
+
+        assertEquals(3, queue.getDropCount());
+        assertEquals(5, queue.getOfferCount());
+        assertEquals(Integer.valueOf(3), queue.poll());
+        assertEquals(Integer.valueOf(5), queue.poll());
+        assertNull(queue.poll());
+
+        // 가운데 프레임을 빼도 순서 유지
+        FrameQueue<Integer> ring = new FrameQueue<>(3, new FrameQueue.DropPolicy<Integer>() {
+            @Override
+            public boolean dropFirst(Integer item) {
+                return item < 0;
+            }
+        });
+        ring.offer(0);
+        ring.poll();
+        ring.offer(1);
+        ring.offer(-2);
+        ring.offer(3);
+        assertEquals(Integer.valueOf(-2), ring.offer(4));
+        assertEquals(Integer.valueOf(1), ring.poll());
+        assertEquals(Integer.valueOf(3), ring.poll());
+        assertEquals(Integer.valueOf(4), ring.poll());
+    }
+
+    @Test
+    public void frameQueue_insertsByOrderKey() {
+        FrameQueue<int[]> queue = new FrameQueue<>(3, null, new FrameQueue.OrderKey<int[]>() {
+            @Override
+            public long orderKey(int[] item) {
+                return item[0];
+            }
+        });
+        queue.offer(new int[]{20, 0});
+        queue.offer(new int[]{10, 0});
+        queue.offer(new int[]{20, 1});
+        // 가득 차면 순서상 가장 앞(가장 오래된) 프레임을 버림
+        assertEquals(10, queue.offer(new int[]{15, 0})[0]);
+
+        assertArrayEquals(new int[]{15, 0}, queue.poll());
+        // 키가 같으면 먼저 들어온 프레임이 앞
+        assertArrayEquals(new int[]{20, 0}, queue.poll());
+        assertArrayEquals(new int[]{20, 1}, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void frames_passThroughStagesInOrder() throws InterruptedException {
+        final List<String> trace = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch done = new CountDownLatch(3);
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void recycle(int[] frame, boolean completed) {
+                super.recycle(frame, completed);
+                done.countDown();
+            }
+        };
+        FramePipeline<int[]> pipeline = new FramePipeline<>("test", callback);
+        for (final String name : new String[]{"a", "b", "c"}) {
+            pipeline.addStage(name, 4, new FramePipeline.Stage<int[]>() {
+                @Override
+                public boolean process(int[] frame) {
+                    trace.add(name + frame[0]);
+                    return true;
+                }
+            });
+        }
+        pipeline.start();
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(new int[]{i});
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pipeline.stop();
+
+        assertEquals(3, callback.completed.get());
+        assertEquals(0, callback.dropped.get());
+        for (int i = 0; i < 3; i++) {
+            int a = trace.indexOf("a" + i);
+            int b = trace.indexOf("b" + i);
+            int c = trace.indexOf("c" + i);
+            assertTrue(a >= 0 && a < b && b < c);
+        }
+    }
+
+    @Test
+    public void slowStage_dropsOldestAndRecyclesEveryFrame() throws InterruptedException {
+        final int frames = 200;
+        final CountDownLatch recycled = new CountDownLatch(frames);
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void recycle(int[] frame, boolean completed) {
+                super.recycle(frame, completed);
+                recycled.countDown();
+            }
+        };
+        FramePipeline<int[]> pipeline = new FramePipeline<>("test", callback);
+        final AtomicInteger published = new AtomicInteger();
+        // 느린 단계는 첫 프레임을 잡은 채 멈춰 있고, 앞 단계가 처리한 프레임 수는 세마포어로 알림
+        final Semaphore fastProcessed = new Semaphore(0);
+        final CountDownLatch slowBusy = new CountDownLatch(1);
+        final CountDownLatch releaseSlow = new CountDownLatch(1);
+        pipeline.addStage("fast", 1, new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) {
+                fastProcessed.release();
+                return true;
+            }
+        });
+        pipeline.addStage("slow", 1, new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) throws InterruptedException {
+                slowBusy.countDown();
+                assertTrue(releaseSlow.await(5, TimeUnit.SECONDS));
+                published.incrementAndGet();
+                return true;
+            }
+        });
+        pipeline.addStage("fail", 1, new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) {
+                if (frame[0] % 2 == 0) {
+                    throw new IllegalStateException("frame " + frame[0]);
+                }
+                return true;
+            }
+        });
+
+        int threadsBefore = Thread.activeCount();
+        pipeline.start();
+        // 0번은 느린 단계에서 멈추고, 1번은 느린 단계 큐에서 대기하다 2번에 밀려남
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(new int[]{i});
+            assertTrue(fastProcessed.tryAcquire(5, TimeUnit.SECONDS));
+            if (i == 0) {
+                assertTrue(slowBusy.await(5, TimeUnit.SECONDS));
+            }
+        }
+        // 나머지는 느린 단계가 멈춰 있는 동안 한꺼번에 들어와 앞 단계 큐에서도 밀려남
+        for (int i = 3; i < frames; i++) {
+            pipeline.submit(new int[]{i});
+        }
+        assertTrue(Thread.activeCount() <= threadsBefore + 3);
+        releaseSlow.countDown();
+
+        // 모든 프레임은 정확히 한 번씩 돌아와야 함
+        assertTrue(recycled.await(5, TimeUnit.SECONDS));
+        pipeline.stop();
+        List<FramePipeline.StageStats> stats = pipeline.getStats();
+
+        assertEquals(frames, callback.completed.get() + callback.dropped.get());
+        FramePipeline.StageStats slow = stats.get(1);
+        assertTrue("slow stage should drop frames: " + slow, slow.dropped > 0);
+        assertTrue(slow.maxQueueDepth <= slow.queueCapacity);
+        assertTrue(published.get() < frames / 2);
+        assertEquals(stats.get(2).failed, callback.errors.get());
+        assertFalse(pipeline.isRunning());
+        assertFalse(pipeline.submit(new int[]{-1}));
+    }
+
+    @Test
+    public void submitDuringStop_recyclesEveryFrame() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            RecordingCallback callback = new RecordingCallback();
+            final FramePipeline<int[]> pipeline = new FramePipeline<>("stop", callback);
+            pipeline.addStage("a", 1, new FramePipeline.Stage<int[]>() {
+                @Override
+                public boolean process(int[] frame) {
+                    return true;
+                }
+            });
+            pipeline.start();
+            final AtomicInteger submitted = new AtomicInteger();
+            final CountDownLatch submitting = new CountDownLatch(1);
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // stop()과 겹치도록 멈춘 뒤에도 잠깐 계속 넣음
+                    for (int i = 0; i < 2000; i++) {
+                        pipeline.submit(new int[]{i});
+                        submitted.incrementAndGet();
+                        if (i == 100) {
+                            submitting.countDown();
+                        }
+                    }
+                }
+            });
+            producer.start();
+            assertTrue(submitting.await(5, TimeUnit.SECONDS));
+            pipeline.stop();
+            producer.join();
+
+            // stop() 직전에 실행 여부를 확인한 프레임도 큐에 남지 않고 돌아와야 함
+            assertEquals(submitted.get(), callback.completed.get() + callback.dropped.get());
+        }
+    }
+
+    @Test
+    public void slottedStages_overlapPreprocessInferenceAndDecode() throws InterruptedException {
+        final int frames = 3;
+        // 추론 단계가 1번 프레임에서 멈춰 있는 동안 앞뒤 단계가 다른 프레임을 처리하는지 확인
+        final CountDownLatch inferBusy = new CountDownLatch(1);
+        final CountDownLatch releaseInfer = new CountDownLatch(1);
+        final CountDownLatch decoded0 = new CountDownLatch(1);
+        final CountDownLatch preprocessed2 = new CountDownLatch(1);
+
+        // 슬롯 3개를 돌려쓰면서 단계마다 다른 스레드
+        final ArrayBlockingQueue<Object> slots = new ArrayBlockingQueue<>(3);
+        for (int i = 0; i < 3; i++) {
+            slots.offer(new Object());
+        }
+        final Object[] held = new Object[frames];
+        final CountDownLatch done = new CountDownLatch(frames);
+        FramePipeline<int[]> pipeline = new FramePipeline<>("slots", new FramePipeline.Callback<int[]>() {
+            @Override
+            public void recycle(int[] frame, boolean completed) {
+                assertTrue(completed);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String stage, Throwable error) {
+                fail(stage + ": " + error);
+            }
+        });
+        pipeline.addStage("preprocess", frames, new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) throws InterruptedException {
+                held[frame[0]] = slots.take();
+                if (frame[0] == 2) {
+                    preprocessed2.countDown();
+                }
+                return true;
+            }
+        }).addStage("infer", frames, new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) throws InterruptedException {
+                if (frame[0] == 1) {
+                    inferBusy.countDown();
+                    assertTrue(releaseInfer.await(5, TimeUnit.SECONDS));
+                }
+                return true;
+            }
+        }).addStage("decode", frames, new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) {
+                slots.offer(held[frame[0]]);
+                if (frame[0] == 0) {
+                    decoded0.countDown();
+                }
+                return true;
+            }
+        });
+        pipeline.start();
+        for (int i = 0; i < frames; i++) {
+            pipeline.submit(new int[]{i});
+        }
+
+        assertTrue(inferBusy.await(5, TimeUnit.SECONDS));
+        // 추론이 1번 프레임을 잡고 있는 동안 0번은 디코드, 2번은 전처리까지 끝남
+        assertTrue(decoded0.await(5, TimeUnit.SECONDS));
+        assertTrue(preprocessed2.await(5, TimeUnit.SECONDS));
+        // 1, 2번은 추론을 통과하지 못했으므로 아직 돌아오지 않음
+        assertTrue(done.getCount() >= 2);
+        releaseInfer.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pipeline.stop();
+        assertEquals(3, slots.size());
+    }
+
+    @Test
+    public void passThroughFrames_reachMergeStageWhileInferStalls() throws InterruptedException {
+        // 프레임 = {캡처 시각, 탐지 여부}, 탐지하지 않는 프레임은 탐지 단계를 건너뛰고 추적 단계로 바로 감
+        final CountDownLatch inferBusy = new CountDownLatch(1);
+        final CountDownLatch releaseInfer = new CountDownLatch(1);
+        final CountDownLatch extrapolated = new CountDownLatch(2);
+        final CountDownLatch done = new CountDownLatch(3);
+        final List<Integer> tracked = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Integer> inferred = Collections.synchronizedList(new ArrayList<Integer>());
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void recycle(int[] frame, boolean completed) {
+                super.recycle(frame, completed);
+                done.countDown();
+            }
+        };
+        FramePipeline<int[]> pipeline = detectAndTrackPipeline(callback, inferred, tracked,
+                new FramePipeline.Stage<int[]>() {
+                    @Override
+                    public boolean process(int[] frame) throws InterruptedException {
+                        inferBusy.countDown();
+                        assertTrue(releaseInfer.await(5, TimeUnit.SECONDS));
+                        return true;
+                    }
+                }, extrapolated);
+        pipeline.start();
+        pipeline.submit(new int[]{0, 1});
+        assertTrue(inferBusy.await(5, TimeUnit.SECONDS));
+        pipeline.submit(new int[]{33, 0});
+        pipeline.submit(new int[]{66, 0});
+
+        // 추론이 0번 프레임에서 멈춰 있어도 외삽 프레임은 추적 단계까지 감
+        assertTrue(extrapolated.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(33, 66), new ArrayList<>(tracked));
+        releaseInfer.countDown();
+
+        // 늦게 끝난 탐지 결과도 버리지 않고 추적 단계에 넣음
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pipeline.stop();
+        assertEquals(Arrays.asList(33, 66, 0), tracked);
+        assertEquals(Collections.singletonList(0), inferred);
+        assertEquals(3, callback.completed.get());
+    }
+
+    @Test
+    public void passThroughFrames_olderThanProcessedDetectionAreDropped() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(3);
+        final List<Integer> tracked = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch detected = new CountDownLatch(1);
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void recycle(int[] frame, boolean completed) {
+                super.recycle(frame, completed);
+                if (frame[1] == 1) {
+                    detected.countDown();
+                }
+                done.countDown();
+            }
+        };
+        FramePipeline<int[]> pipeline = detectAndTrackPipeline(callback, new ArrayList<Integer>(), tracked,
+                new FramePipeline.Stage<int[]>() {
+                    @Override
+                    public boolean process(int[] frame) {
+                        return true;
+                    }
+                }, new CountDownLatch(0));
+        pipeline.start();
+        pipeline.submit(new int[]{100, 1});
+        assertTrue(detected.await(5, TimeUnit.SECONDS));
+        // 이미 처리한 탐지보다 오래된 외삽 프레임은 추적하지 않고, 더 나중 프레임은 추적
+        pipeline.submit(new int[]{66, 0});
+        pipeline.submit(new int[]{133, 0});
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pipeline.stop();
+
+        assertEquals(Arrays.asList(100, 133), tracked);
+        assertEquals(1, callback.dropped.get());
+        assertEquals(1, pipeline.getStats().get(3).dropped);
+    }
+
+    /**
+     * 전처리 -> 추론 -> 디코드 -> 추적 (추적은 탐지하지 않는 프레임이 합류하는 단계)
+     */
+    private static FramePipeline<int[]> detectAndTrackPipeline(RecordingCallback callback, final List<Integer> inferred,
+                                                             final List<Integer> tracked, final FramePipeline.Stage<int[]> infer,
+                                                             final CountDownLatch extrapolated) {
+        FramePipeline.Stage<int[]> pass = new FramePipeline.Stage<int[]>() {
+            @Override
+            public boolean process(int[] frame) {
+                assertEquals(1, frame[1]);
+                return true;
+            }
+        };
+        return new FramePipeline<>("detect", callback)
+                .addStage("preprocess", 1, pass)
+                .addStage("infer", 1, new FramePipeline.Stage<int[]>() {
+                    @Override
+                    public boolean process(int[] frame) throws Exception {
+                        inferred.add(frame[0]);
+                        return infer.process(frame);
+                    }
+                })
+                .addStage("decode", 1, pass)
+                .addMergeStage("track", 2, new FramePipeline.Stage<int[]>() {
+                    @Override
+                    public boolean process(int[] frame) {
+                        tracked.add(frame[0]);
+                        if (frame[1] == 0) {
+                            extrapolated.countDown();
+                        }
+                        return true;
+                    }
+                }, null, new FramePipeline.Bypass<int[]>() {
+                    @Override
+                    public boolean bypasses(int[] frame) {
+                        return frame[1] == 0;
+                    }
+
+                    @Override
+                    public long orderKey(int[] frame) {
+                        return frame[0];
+                    }
+                });
+    }
+
+    private static class RecordingCallback implements FramePipeline.Callback<int[]> {
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger dropped = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+
+        @Override
+        public void recycle(int[] frame, boolean completed) {
+            (completed ? this.completed : dropped).incrementAndGet();
+        }
+
+        @Override
+        public void onError(String stage, Throwable error) {
+            errors.incrementAndGet();
+        }
+    }
+}
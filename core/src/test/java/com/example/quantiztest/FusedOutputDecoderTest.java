@@ -0,0 +1,144 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 모델 형상에서 디코더를 만드는지, 융합 출력 두 가지 배치와 UINT8/FLOAT32가 같은 결과를 내는지 확인합니다.
+ */
+public class FusedOutputDecoderTest {
+    private static final int NUM_CLASSES = 80;
+    private static final int NUM_ANCHORS = 2100; // 320x320 입력
+    private static final int INPUT = 320;
+    private static final float SCALE = 1.0f / 255;
+    private static final List<String> LABELS = SyntheticYoloOutputs.labels();
+
+    @Test
+    public void forModel_usesInputSizeAndAnchorCountFromDescriptor() {
+        ModelDescriptor descriptor = new ModelDescriptor("yolo320",
+                Collections.singletonList(new TensorSpec("input", new int[]{1, INPUT, INPUT, 3}, "UINT8", 1f, 0)),
+                Arrays.asList(
+                        new TensorSpec("boxes", new int[]{1, NUM_ANCHORS, 4}, "UINT8", 2f, 0),
+                        new TensorSpec("scores", new int[]{1, NUM_ANCHORS}, "UINT8", SCALE, 0),
+                        new TensorSpec("classes", new int[]{1, NUM_ANCHORS}, "UINT8", 1f, 0)));
+        OutputDecoder decoder = OutputDecoder.forModel(descriptor);
+        assertTrue(decoder instanceof YoloOutputDecoder);
+        decoder.setCatalog(ProductCatalog.defaultCatalog(LABELS));
+
+        ByteBuffer boxes = direct(NUM_ANCHORS * 4);
+        ByteBuffer scores = direct(NUM_ANCHORS);
+        ByteBuffer classes = direct(NUM_ANCHORS);
+        // 마지막 후보 하나만 사람 (박스 픽셀 좌표 = 원시 값 * 2)
+        int last = NUM_ANCHORS - 1;
+        scores.put(last, (byte) 230);
+        boxes.put(last * 4, (byte) 40).put(last * 4 + 1, (byte) 20).put(last * 4 + 2, (byte) 80).put(last * 4 + 3, (byte) 100);
+
+        DetectionBatch out = new DetectionBatch();
+        decoder.decode(new ByteBuffer[]{boxes, scores, classes}, 640, 480, out);
+        assertEquals(1, out.size());
+        assertEquals(0, out.getClassId(0));
+        assertEquals(80f / INPUT * 640, out.getLeft(0), 1e-3f);
+        assertEquals(200f / INPUT * 480, out.getBottom(0), 1e-3f);
+    }
+
+    @Test
+    public void fusedLayouts_andDataTypes_decodeTheSame() {
+        Random random = new Random(11);
+        float[][] scores = new float[NUM_ANCHORS][NUM_CLASSES];
+        float[][] boxes = new float[NUM_ANCHORS][4];
+        for (int i = 0; i < NUM_ANCHORS; i++) {
+            for (int c = 0; c < NUM_CLASSES; c++) {
+                scores[i][c] = random.nextInt(30) * SCALE;
+            }
+            if (random.nextInt(20) == 0) {
+                // 허용 클래스 또는 다른 클래스가 가장 높은 후보
+                int c = random.nextBoolean() ? 41 : random.nextInt(NUM_CLASSES);
+                scores[i][c] = (100 + random.nextInt(156)) * SCALE;
+            }
+            boxes[i] = new float[]{(40 + random.nextInt(170)) * SCALE, (40 + random.nextInt(170)) * SCALE,
+                    (5 + random.nextInt(60)) * SCALE, (5 + random.nextInt(60)) * SCALE};
+        }
+
+        DetectionBatch expected = reference(scores, boxes);
+        assertTrue(expected.size() > 0);
+
+        for (boolean channelsFirst : new boolean[]{false, true}) {
+            for (boolean quantized : new boolean[]{false, true}) {
+                int[] shape = channelsFirst ? new int[]{1, 4 + NUM_CLASSES, NUM_ANCHORS}
+                        : new int[]{1, NUM_ANCHORS, 4 + NUM_CLASSES};
+                TensorSpec spec = new TensorSpec("output", shape, quantized ? "UINT8" : "FLOAT32",
+                        quantized ? SCALE : 0f, 0);
+                FusedOutputDecoder decoder = new FusedOutputDecoder(spec, INPUT, INPUT, true);
+                assertEquals(NUM_ANCHORS, decoder.getNumAnchors());
+                assertEquals(NUM_CLASSES, decoder.getNumClasses());
+                decoder.setCatalog(ProductCatalog.defaultCatalog(LABELS));
+
+                ByteBuffer buffer = pack(scores, boxes, channelsFirst, quantized);
+                DetectionBatch actual = new DetectionBatch();
+                decoder.decode(new ByteBuffer[]{buffer}, 1280, 720, actual);
+
+                String name = (channelsFirst ? "channelsFirst" : "channelsLast") + (quantized ? " uint8" : " float");
+                assertEquals(name, expected.size(), actual.size());
+                for (int k = 0; k < expected.size(); k++) {
+                    assertEquals(name, expected.getClassId(k), actual.getClassId(k));
+                    assertEquals(name, expected.getConfidence(k), actual.getConfidence(k), 1e-5f);
+                    assertEquals(name, expected.getLeft(k), actual.getLeft(k), 1e-2f);
+                    assertEquals(name, expected.getBottom(k), actual.getBottom(k), 1e-2f);
+                }
+            }
+        }
+    }
+
+    /**
+     * 전체 클래스 argmax 후 카탈로그의 낮은 신뢰도 하한으로 거르는 단순 디코드
+     */
+    private static DetectionBatch reference(float[][] scores, float[][] boxes) {
+        ProductCatalog catalog = ProductCatalog.defaultCatalog(LABELS);
+        DetectionBatch out = new DetectionBatch();
+        for (int i = 0; i < scores.length; i++) {
+            int best = 0;
+            for (int c = 1; c < NUM_CLASSES; c++) {
+                if (scores[i][c] > scores[i][best]) best = c;
+            }
+            if (!catalog.isAllowed(best) || !(scores[i][best] > catalog.getLowThreshold(best))) continue;
+            float[] b = boxes[i];
+            float left = Math.max(0, (b[0] - b[2] / 2) * 1280);
+            float top = Math.max(0, (b[1] - b[3] / 2) * 720);
+            float right = (b[0] + b[2] / 2) * 1280;
+            float bottom = (b[1] + b[3] / 2) * 720;
+            if (right > left && bottom > top) {
+                out.add(best, Math.min(scores[i][best], 1f), left, top, right, bottom);
+            }
+        }
+        return out;
+    }
+
+    private static ByteBuffer pack(float[][] scores, float[][] boxes, boolean channelsFirst, boolean quantized) {
+        int channels = 4 + NUM_CLASSES;
+        ByteBuffer buffer = direct(NUM_ANCHORS * channels * (quantized ? 1 : 4));
+        for (int i = 0; i < NUM_ANCHORS; i++) {
+            for (int k = 0; k < channels; k++) {
+                float value = k < 4 ? boxes[i][k] : scores[i][k - 4];
+                int index = channelsFirst ? k * NUM_ANCHORS + i : i * channels + k;
+                if (quantized) {
+                    buffer.put(index, (byte) Math.round(value / SCALE));
+                } else {
+                    buffer.putFloat(index * 4, value);
+                }
+            }
+        }
+        return buffer;
+    }
+
+    private static ByteBuffer direct(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
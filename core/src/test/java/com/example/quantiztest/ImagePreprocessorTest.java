@@ -0,0 +1,128 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 원본 픽셀에서 바로 샘플링하는 전처리가 기존 리사이즈 + 변환 결과와 같은지,
+ * 레터박스 여백과 역변환이 맞는지 확인합니다.
+ */
+public class ImagePreprocessorTest {
+
+    @Test
+    public void nearestStretch_matchesUnfilteredResizeThenPack() {
+        int[][] sizes = {{1280, 720, 640, 640}, {1920, 1080, 416, 416}, {320, 240, 640, 480}};
+        for (int[] size : sizes) {
+            int srcW = size[0], srcH = size[1], dstW = size[2], dstH = size[3];
+            int[] pixels = randomPixels(srcW * srcH, 3);
+            ImagePreprocessor preprocessor = new ImagePreprocessor(dstW, dstH,
+                    ImagePreprocessor.ColorMode.RGB, ImagePreprocessor.Sampling.NEAREST, false);
+            ByteBuffer dst = ByteBuffer.allocateDirect(dstW * dstH * 3);
+            preprocessor.process(pixels, srcW, srcH, dst);
+            assertEquals(0, dst.position());
+
+            for (int dy = 0; dy < dstH; dy++) {
+                int sy = (2 * dy + 1) * srcH / (2 * dstH);
+                for (int dx = 0; dx < dstW; dx++) {
+                    int sx = (2 * dx + 1) * srcW / (2 * dstW);
+                    int pixel = pixels[sy * srcW + sx];
+                    int o = (dy * dstW + dx) * 3;
+                    String at = srcW + "x" + srcH + " (" + dx + ", " + dy + ")";
+                    assertEquals(at, (pixel >> 16) & 0xFF, dst.get(o) & 0xFF);
+                    assertEquals(at, (pixel >> 8) & 0xFF, dst.get(o + 1) & 0xFF);
+                    assertEquals(at, pixel & 0xFF, dst.get(o + 2) & 0xFF);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void gray_averagesChannels() {
+        int[] pixels = {0xFF102030, 0xFFFFFFFF, 0xFF000000, 0xFF0A0B0C};
+        ImagePreprocessor preprocessor = new ImagePreprocessor(2, 2,
+                ImagePreprocessor.ColorMode.GRAY, ImagePreprocessor.Sampling.NEAREST, false);
+        ByteBuffer dst = ByteBuffer.allocateDirect(4);
+        preprocessor.process(pixels, 2, 2, dst);
+        assertEquals((0x10 + 0x20 + 0x30) / 3, dst.get(0) & 0xFF);
+        assertEquals(255, dst.get(1) & 0xFF);
+        assertEquals(0, dst.get(2) & 0xFF);
+        assertEquals((0x0A + 0x0B + 0x0C) / 3, dst.get(3) & 0xFF);
+    }
+
+    @Test
+    public void bilinear_keepsFlatColorAndInterpolatesGradient() {
+        int srcW = 64, srcH = 8;
+        int[] pixels = new int[srcW * srcH];
+        for (int y = 0; y < srcH; y++) {
+            for (int x = 0; x < srcW; x++) {
+                int v = x * 4;
+                pixels[y * srcW + x] = 0xFF000000 | (v << 16) | (77 << 8) | (255 - v);
+            }
+        }
+        ImagePreprocessor preprocessor = new ImagePreprocessor(160, 20,
+                ImagePreprocessor.ColorMode.RGB, ImagePreprocessor.Sampling.BILINEAR, false);
+        ByteBuffer dst = ByteBuffer.allocateDirect(160 * 20 * 3);
+        preprocessor.process(pixels, srcW, srcH, dst);
+
+        int previous = -1;
+        for (int dx = 0; dx < 160; dx++) {
+            int o = (10 * 160 + dx) * 3;
+            int r = dst.get(o) & 0xFF;
+            assertEquals(77, dst.get(o + 1) & 0xFF);
+            assertEquals(255, r + (dst.get(o + 2) & 0xFF), 1);
+            assertTrue("monotonic at " + dx, r >= previous);
+            // 원본 중심 좌표에서의 선형 보간 값과 비교
+            float sx = Math.max(0, Math.min(srcW - 1, (dx + 0.5f) * srcW / 160 - 0.5f));
+            assertEquals(sx * 4, r, 1.01f);
+            previous = r;
+        }
+    }
+
+    @Test
+    public void letterbox_padsAndMapsBoxesBackToSource() {
+        int srcW = 1280, srcH = 720;
+        int[] pixels = randomPixels(srcW * srcH, 5);
+        ImagePreprocessor preprocessor = new ImagePreprocessor(640, 640,
+                ImagePreprocessor.ColorMode.RGB, ImagePreprocessor.Sampling.NEAREST, true);
+        ByteBuffer dst = ByteBuffer.allocateDirect(640 * 640 * 3);
+        FrameTransform transform = preprocessor.process(pixels, srcW, srcH, dst);
+
+        assertEquals(0.5f, transform.getScaleX(), 0f);
+        assertEquals(140f, transform.getPadY(), 0f);
+        // 위/아래 여백
+        for (int dy : new int[]{0, 139, 500, 639}) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(ImagePreprocessor.PAD_VALUE, dst.get((dy * 640 + 320) * 3 + c) & 0xFF);
+            }
+        }
+        // 내용 영역 첫 픽셀은 원본 (1, 1) 픽셀 중심에서 샘플링
+        int pixel = pixels[srcW + 1];
+        assertEquals((pixel >> 16) & 0xFF, dst.get((140 * 640) * 3) & 0xFF);
+
+        assertEquals(321f, transform.toModelX(transform.toSourceX(321f)), 1e-3f);
+        DetectionBatch batch = new DetectionBatch();
+        batch.add(0, 0.9f, 100, 150, 300, 400);  // 모델 좌표
+        batch.add(1, 0.8f, 10, 20, 30, 130);     // 위쪽 여백에만 있는 박스 (제거)
+        transform.mapToSource(batch);
+        assertEquals(1, batch.size());
+        assertEquals(200f, batch.getLeft(0), 1e-3f);
+        assertEquals(20f, batch.getTop(0), 1e-3f);
+        assertEquals(600f, batch.getRight(0), 1e-3f);
+        assertEquals(520f, batch.getBottom(0), 1e-3f);
+
+        assertSame(transform, preprocessor.process(pixels, srcW, srcH, dst));
+    }
+
+    private static int[] randomPixels(int count, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[count];
+        for (int i = 0; i < count; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return pixels;
+    }
+}
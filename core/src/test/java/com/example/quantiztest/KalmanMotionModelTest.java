@@ -0,0 +1,116 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 칼만 움직임 모델이 실제 경과 시간으로 예측해서, 탐지 간격이 벌어져도 같은 ID로 이어 붙이는지 확인합니다.
+ */
+public class KalmanMotionModelTest {
+    private static final long FRAME_MS = 50;
+    private static final float SPEED = 0.2f;  // px/ms (프레임당 10px)
+
+    @Test
+    public void velocity_convergesOnIrregularIntervals() {
+        KalmanMotionModel model = new KalmanMotionModel();
+        long[] times = {0, 50, 100, 250, 300, 500, 550, 600, 800, 850};
+        model.init(0, 100, 50, 180, times[0]);
+        for (int k = 1; k < times.length; k++) {
+            float left = SPEED * times[k];
+            model.correct(left, 100, left + 50, 180, times[k]);
+        }
+
+        // 초당 속도 (프레임 간격과 무관)
+        assertEquals(SPEED * 1000, model.getVelocityX(), 10f);
+        assertEquals(0f, model.getVelocityY(), 10f);
+
+        // 예측은 경과 시간에 비례하고 크기는 유지
+        float[] box = new float[4];
+        model.predict(850 + 400, true, box);
+        assertEquals(SPEED * 1250, box[0], 5f);
+        assertEquals(50f, box[2] - box[0], 1f);
+        assertEquals(80f, box[3] - box[1], 1f);
+    }
+
+    @Test
+    public void predict_ignoresMissedFlagAndKeepsState() {
+        KalmanMotionModel model = new KalmanMotionModel();
+        model.init(0, 0, 40, 40, 0);
+        for (long t = 50; t <= 300; t += 50) {
+            model.correct(SPEED * t, 0, SPEED * t + 40, 40, t);
+        }
+        float velocity = model.getVelocityX();
+
+        // 놓친 객체도 경과 시간만큼만 앞으로 (속도를 줄이거나 잡음을 키우지 않음)
+        float[] missed = new float[4];
+        float[] matched = new float[4];
+        model.predict(500, true, missed);
+        model.predict(500, false, matched);
+        assertArrayEquals(matched, missed, 0f);
+        // 예측은 필터 평균 위치에서 시작하므로 마지막 탐지 박스와는 1px 이내로만 맞음
+        assertEquals(SPEED * 300 + velocity * 0.2f, missed[0], 1f);
+
+        // 예측은 상태를 바꾸지 않음
+        assertEquals(velocity, model.getVelocityX(), 0f);
+        float[] again = new float[4];
+        model.predict(500, true, again);
+        assertArrayEquals(missed, again, 0f);
+    }
+
+    @Test
+    public void extrapolate_movesLastDetectionByElapsedTime() {
+        KalmanMotionModel model = new KalmanMotionModel();
+        model.init(0, 0, 40, 40, 0);
+        for (long t = 50; t <= 500; t += 50) {
+            model.correct(SPEED * t, 0, SPEED * t + 40, 40, t);
+        }
+
+        float[] box = new float[4];
+        model.extrapolate(600, box);
+        // 마지막 탐지 (left 100)에서 100ms 동안 20px
+        assertEquals(120f, box[0], 2f);
+        assertEquals(40f, box[2] - box[0], 1e-4f);
+    }
+
+    @Test
+    public void tracker_keepsIdAcrossLongDetectionGap() {
+        SimpleTracker kalman = new SimpleTracker(KalmanMotionModel.FACTORY);
+        SimpleTracker ema = new SimpleTracker();
+        for (long t = 0; t <= 300; t += FRAME_MS) {
+            kalman.update(person(SPEED * t), t);
+            ema.update(person(SPEED * t), t);
+        }
+
+        // 탐지가 1초 밀림 (200px 이동, 박스 크기보다 큼)
+        long late = 1300;
+        List<SimpleTracker.TrackedObject> kalmanTracks = kalman.update(person(SPEED * late), late);
+        List<SimpleTracker.TrackedObject> emaTracks = ema.update(person(SPEED * late), late);
+
+        SimpleTracker.TrackedObject matched = find(kalmanTracks, SPEED * late);
+        assertEquals(0, matched.getId());
+        assertEquals(0, matched.getAge());
+        // 이동 평균 모델도 경과 시간만큼 예측하므로 같은 ID로 이어짐
+        assertEquals(0, find(emaTracks, SPEED * late).getId());
+    }
+
+    private static SimpleTracker.TrackedObject find(List<SimpleTracker.TrackedObject> tracks, float left) {
+        for (SimpleTracker.TrackedObject obj : tracks) {
+            if (obj.getAge() == 0 && Math.abs(obj.getLeft() - left) < 1e-3f) {
+                return obj;
+            }
+        }
+        fail("no track at " + left);
+        return null;
+    }
+
+    private static DetectionBatch person(float left) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person"));
+        batch.add(0, 0.9f, left, 100, left + 50, 180);
+        return batch;
+    }
+}
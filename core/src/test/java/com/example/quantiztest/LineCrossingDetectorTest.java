@@ -0,0 +1,94 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 선 교차 판정과 키오스크 영역이 안드로이드 없이 추적 스냅샷만으로 동작하는지 확인합니다.
+ */
+public class LineCrossingDetectorTest {
+    private static final List<String> LABELS = Arrays.asList("person", "cup");
+    private static final ProductCatalog CATALOG = ProductCatalog.compile(LABELS, Arrays.asList(
+            new ProductCatalog.Item("person", 0.5f, false),
+            new ProductCatalog.Item("cup", 0.5f, true)));
+
+    @Test
+    public void cupCrossingLine_reportsDirectionAndNearestPerson() {
+        // 캔버스 640x640 = 선 좌표계, 수평선 y=500
+        LineCrossingDetector detector = new LineCrossingDetector(640, 500, 0, 500, 1000, 0.7f);
+        SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, () -> 0L);
+        List<Boolean> directions = new ArrayList<>();
+        List<Integer> persons = new ArrayList<>();
+        LineCrossingDetector.Listener listener = (obj, downward, nearestPerson, personDistance) -> {
+            directions.add(downward);
+            persons.add(nearestPerson != null ? nearestPerson.getId() : -1);
+        };
+
+        // 첫 프레임은 이전 위치가 없으므로 이벤트 없음
+        assertEquals(0, detector.update(tracks(tracker, 490, 1000), 640, 640, CATALOG, 1000, listener));
+        // 위에서 아래로 건너면 내려놓기
+        assertEquals(1, detector.update(tracks(tracker, 510, 1100), 640, 640, CATALOG, 1100, listener));
+        // 쿨다운 안에 다시 건너면 무시
+        assertEquals(0, detector.update(tracks(tracker, 490, 1200), 640, 640, CATALOG, 1200, listener));
+        // 아래에 머물다가 쿨다운이 지난 뒤 아래에서 위로 건너면 집기
+        for (long t = 1300; t <= 2100; t += 100) {
+            assertEquals(0, detector.update(tracks(tracker, 510, t), 640, 640, CATALOG, t, listener));
+        }
+        assertEquals(1, detector.update(tracks(tracker, 490, 2200), 640, 640, CATALOG, 2200, listener));
+
+        assertEquals(Arrays.asList(true, false), directions);
+        assertEquals(0, (int) persons.get(0));
+    }
+
+    @Test
+    public void catalogMissing_orNonProduct_isIgnored() {
+        LineCrossingDetector detector = new LineCrossingDetector(640, 500, 0, 500, 0, 0.7f);
+        SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, () -> 0L);
+        int[] events = new int[1];
+        LineCrossingDetector.Listener listener = (obj, downward, nearestPerson, personDistance) -> events[0]++;
+
+        detector.update(tracks(tracker, 490, 0), 640, 640, null, 0, listener);
+        detector.update(tracks(tracker, 510, 100), 640, 640, null, 100, listener);
+        assertEquals(0, events[0]);
+
+        // 카탈로그에서 상품이 아닌 컵
+        ProductCatalog noProducts = ProductCatalog.compile(LABELS, Arrays.asList(
+                new ProductCatalog.Item("cup", 0.5f, false)));
+        detector.update(tracks(tracker, 490, 200), 640, 640, noProducts, 200, listener);
+        detector.update(tracks(tracker, 510, 300), 640, 640, noProducts, 300, listener);
+        assertEquals(0, events[0]);
+    }
+
+    @Test
+    public void kioskZone_findsNearestConfidentPerson() {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(LABELS);
+        batch.add(0, 0.9f, 300, 300, 340, 380);
+        batch.add(0, 0.9f, 40, 340, 80, 420);   // 키오스크 바로 앞
+        batch.add(0, 0.5f, 50, 370, 80, 420);   // 더 가깝지만 신뢰도 낮음
+        TrackingSnapshot snapshot = TrackingSnapshot.EMPTY.next(
+                new SimpleTracker(EmaMotionModel.FACTORY, () -> 0L).update(batch), 0, 640, 640, null);
+
+        KioskZone zone = new KioskZone(30, 370, 100, 420);
+        TrackingSnapshot.Track nearest = zone.findNearestPerson(snapshot, 0.7f);
+        assertEquals(1, nearest.getId());
+        assertEquals(LineCrossingDetector.distance(65, 395, 60, 380), zone.distanceTo(nearest), 1e-4f);
+    }
+
+    /**
+     * 사람은 제자리에 있고 컵(중심 y = cupCenterY)이 움직이는 장면을 추적해서 스냅샷 목록으로 반환
+     */
+    private static List<TrackingSnapshot.Track> tracks(SimpleTracker tracker, float cupCenterY, long timestampMs) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(LABELS);
+        batch.add(0, 0.9f, 280, 300, 340, 460);
+        batch.add(1, 0.9f, 290, cupCenterY - 20, 330, cupCenterY + 20);
+        return TrackingSnapshot.EMPTY.next(tracker.update(batch, timestampMs), timestampMs, 640, 640, null)
+                .getTracks();
+    }
+}
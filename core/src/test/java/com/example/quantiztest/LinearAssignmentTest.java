@@ -0,0 +1,130 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 최적 배정이 완전 탐색과 같은 비용을 내는지, 트래커가 탐욕 매칭처럼 다른 객체의 탐지를 가로채지 않는지 확인합니다.
+ */
+public class LinearAssignmentTest {
+
+    @Test
+    public void solve_matchesBruteForceOnRandomMatrices() {
+        Random random = new Random(7);
+        LinearAssignment assignment = new LinearAssignment();
+        int[] rowToCol = new int[8];
+        for (int trial = 0; trial < 300; trial++) {
+            int rows = 1 + random.nextInt(6);
+            int cols = 1 + random.nextInt(6);
+            float[] cost = new float[rows * cols];
+            for (int i = 0; i < cost.length; i++) {
+                cost[i] = random.nextInt(5) == 0 ? LinearAssignment.INFEASIBLE : random.nextFloat();
+            }
+
+            int assigned = assignment.solve(cost, rows, cols, rowToCol);
+
+            float[] best = bruteForce(cost, rows, cols, 0, new boolean[cols], 0, 0f);
+            boolean[] usedCols = new boolean[cols];
+            float total = 0f;
+            int count = 0;
+            for (int r = 0; r < rows; r++) {
+                int c = rowToCol[r];
+                if (c < 0) continue;
+                assertFalse("column assigned twice", usedCols[c]);
+                usedCols[c] = true;
+                assertTrue(cost[r * cols + c] < LinearAssignment.INFEASIBLE);
+                total += cost[r * cols + c];
+                count++;
+            }
+            assertEquals(count, assigned);
+            assertEquals("pairs in trial " + trial, (int) best[0], count);
+            assertEquals("cost in trial " + trial, best[1], total, 1e-4f);
+        }
+    }
+
+    @Test
+    public void solve_handlesEmptyAndFullyGatedMatrices() {
+        LinearAssignment assignment = new LinearAssignment();
+        int[] rowToCol = new int[2];
+        assertEquals(0, assignment.solve(new float[0], 2, 0, rowToCol));
+        assertArrayEquals(new int[]{-1, -1}, rowToCol);
+
+        float[] gated = {LinearAssignment.INFEASIBLE, LinearAssignment.INFEASIBLE};
+        assertEquals(0, assignment.solve(gated, 2, 1, rowToCol));
+        assertArrayEquals(new int[]{-1, -1}, rowToCol);
+    }
+
+    @Test
+    public void tracker_doesNotStealNeighbourDetection() {
+        SimpleTracker tracker = new SimpleTracker();
+        // 멀리서 생긴 B가 A 옆으로 다가옴
+        tracker.update(bottles(0, 200));
+        tracker.update(bottles(0, 160));
+        tracker.update(bottles(0, 120));
+        tracker.update(bottles(0, 100));
+
+        // A는 왼쪽으로 크게, B도 왼쪽으로 이동: A 기준으로는 B의 새 위치가 IoU가 더 높음
+        List<SimpleTracker.TrackedObject> tracked = tracker.update(bottles(-60, 40));
+
+        assertEquals(2, tracked.size());
+        for (SimpleTracker.TrackedObject obj : tracked) {
+            assertEquals(0, obj.getAge());
+            assertEquals(obj.getId() == 0 ? -60f : 40f, obj.getLeft(), 1e-4f);
+        }
+    }
+
+    @Test
+    public void tracker_matchesOnlyWithinSameClass() {
+        SimpleTracker tracker = new SimpleTracker();
+        DetectionBatch first = new DetectionBatch();
+        first.setLabels(Arrays.asList("bottle", "can"));
+        first.add(0, 0.9f, 0, 0, 100, 100);
+        tracker.update(first);
+
+        // 같은 자리에 다른 클래스가 나오면 기존 객체는 나이만 늘고 새 객체가 생김
+        DetectionBatch second = new DetectionBatch();
+        second.setLabels(Arrays.asList("bottle", "can"));
+        second.add(1, 0.9f, 0, 0, 100, 100);
+        List<SimpleTracker.TrackedObject> tracked = tracker.update(second);
+
+        assertEquals(2, tracked.size());
+        for (SimpleTracker.TrackedObject obj : tracked) {
+            assertEquals(obj.getClassId() == 0 ? 1 : 0, obj.getAge());
+        }
+    }
+
+    /**
+     * @return {배정 쌍 수, 비용 합} - 쌍 수를 먼저 최대화하고 그 안에서 비용 최소
+     */
+    private static float[] bruteForce(float[] cost, int rows, int cols, int row, boolean[] used, int pairs, float total) {
+        if (row == rows) {
+            return new float[]{pairs, total};
+        }
+        // 이 행을 배정하지 않는 경우
+        float[] best = bruteForce(cost, rows, cols, row + 1, used, pairs, total);
+        for (int c = 0; c < cols; c++) {
+            float value = cost[row * cols + c];
+            if (used[c] || value >= LinearAssignment.INFEASIBLE) continue;
+            used[c] = true;
+            float[] candidate = bruteForce(cost, rows, cols, row + 1, used, pairs + 1, total + value);
+            used[c] = false;
+            if (candidate[0] > best[0] || (candidate[0] == best[0] && candidate[1] < best[1])) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static DetectionBatch bottles(float leftA, float leftB) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("bottle"));
+        batch.add(0, 0.9f, leftA, 0, leftA + 100, 100);
+        batch.add(0, 0.9f, leftB, 0, leftB + 100, 100);
+        return batch;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 낮은 신뢰도 탐지가 기존 추적 객체만 이어 붙이고 새 객체는 만들지 않는지 확인합니다.
+ */
+public class LowConfidenceAssociationTest {
+    private static final List<String> LABELS = Arrays.asList("person", "cup");
+    private static final float[] THRESHOLDS = {0.4f, 0.5f};
+
+    @Test
+    public void markLowConfidence_usesClassThresholds() {
+        DetectionBatch batch = new DetectionBatch(2);
+        batch.add(0, 0.45f, 0, 0, 10, 10);  // 사람 임계값 초과
+        batch.add(1, 0.45f, 0, 0, 10, 10);  // 컵 임계값 이하
+        batch.add(0, 0.4f, 0, 0, 10, 10);   // 임계값과 같으면 낮은 신뢰도
+        batch.add(1, 0.9f, 5, 5, 20, 20);
+
+        assertEquals(2, batch.markLowConfidence(THRESHOLDS));
+        assertFalse(batch.isLowConfidence(0));
+        assertTrue(batch.isLowConfidence(1));
+        assertTrue(batch.isLowConfidence(2));
+
+        // 복사해도 단계가 유지되고, 제거하면 높은 신뢰도만 순서대로 남음
+        DetectionBatch copy = new DetectionBatch();
+        copy.addFrom(batch, 1);
+        assertTrue(copy.isLowConfidence(0));
+
+        batch.removeLowConfidence();
+        assertEquals(2, batch.size());
+        assertEquals(0.45f, batch.getConfidence(0), 0f);
+        assertEquals(5f, batch.getLeft(1), 0f);
+        assertFalse(batch.isLowConfidence(1));
+    }
+
+    @Test
+    public void catalogItem_lowThresholdNeverAboveThreshold() {
+        ProductCatalog catalog = ProductCatalog.compile(LABELS, Arrays.asList(
+                new ProductCatalog.Item("person", 0.4f, false),
+                new ProductCatalog.Item("cup", 0.1f, 0.3f, true, ProductCatalog.DEFAULT_NMS_IOU)));
+        assertEquals(ProductCatalog.DEFAULT_LOW_THRESHOLD, catalog.getLowThreshold(0), 0f);
+        assertEquals(0.1f, catalog.getLowThreshold(1), 0f);
+        assertEquals(0.4f, catalog.getThresholds()[0], 0f);
+    }
+
+    @Test
+    public void occludedPerson_keepsIdThroughLowConfidenceFrames() {
+        SimpleTracker tracker = new SimpleTracker();
+        tracker.update(person(100, 0.9f));
+
+        // 가려져서 MAX_AGE보다 오래 낮은 신뢰도로만 보임
+        List<SimpleTracker.TrackedObject> tracked = null;
+        for (int frame = 1; frame <= 10; frame++) {
+            tracked = tracker.update(person(100 + frame * 3, 0.25f));
+        }
+        assertEquals(1, tracked.size());
+        assertEquals(0, tracked.get(0).getAge());
+        assertEquals(130f, tracked.get(0).getLeft(), 1e-4f);
+
+        tracked = tracker.update(person(133, 0.9f));
+        assertEquals(1, tracked.size());
+        assertEquals(0, tracked.get(0).getId());
+    }
+
+    @Test
+    public void lowConfidenceDetection_neverCreatesTrack() {
+        SimpleTracker tracker = new SimpleTracker();
+        List<SimpleTracker.TrackedObject> tracked = tracker.update(person(100, 0.3f));
+        assertTrue(tracked.isEmpty());
+
+        tracker.update(person(100, 0.9f));
+        // 멀리 떨어진 낮은 신뢰도 탐지는 무시하고, 기존 객체는 나이만 증가
+        tracked = tracker.update(person(400, 0.3f));
+        assertEquals(1, tracked.size());
+        assertEquals(1, tracked.get(0).getAge());
+        assertEquals(100f, tracked.get(0).getLeft(), 1e-4f);
+    }
+
+    @Test
+    public void highConfidenceDetection_winsOverOverlappingLowOne() {
+        SimpleTracker tracker = new SimpleTracker();
+        tracker.update(person(100, 0.9f));
+
+        DetectionBatch batch = batch();
+        batch.add(0, 0.3f, 102, 100, 152, 180);
+        batch.add(0, 0.8f, 110, 100, 160, 180);
+        batch.markLowConfidence(THRESHOLDS);
+        List<SimpleTracker.TrackedObject> tracked = tracker.update(batch);
+
+        assertEquals(1, tracked.size());
+        assertEquals(110f, tracked.get(0).getLeft(), 1e-4f);
+        assertEquals(0.8f, tracked.get(0).getConfidence(), 1e-4f);
+    }
+
+    private static DetectionBatch person(float left, float confidence) {
+        DetectionBatch batch = batch();
+        batch.add(0, confidence, left, 100, left + 50, 180);
+        batch.markLowConfidence(THRESHOLDS);
+        return batch;
+    }
+
+    private static DetectionBatch batch() {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(LABELS);
+        return batch;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 모델 디스크립터의 레이아웃 판별과 양자화 기본값 확인
+ */
+public class ModelDescriptorTest {
+
+    @Test
+    public void detectsYoloNasLayout() {
+        ModelDescriptor descriptor = new ModelDescriptor("yolo",
+                Collections.singletonList(new TensorSpec("input", new int[]{1, 640, 640, 3}, "UINT8", 1f, 0)),
+                Arrays.asList(
+                        new TensorSpec("boxes", new int[]{1, 8400, 4}, "UINT8", 2.6f, 0),
+                        new TensorSpec("scores", new int[]{1, 8400}, "UINT8", 0.0039f, 0),
+                        new TensorSpec("classes", new int[]{1, 8400}, "UINT8", 0f, 0)));
+        assertEquals(ModelDescriptor.Layout.YOLO_NAS, descriptor.getLayout());
+        assertEquals(8400, descriptor.getOutput(0).dim(1));
+        assertEquals(4, descriptor.getOutput(0).dim(-1));
+    }
+
+    @Test
+    public void detectsFusedLayout_inBothChannelOrders() {
+        for (int[] shape : new int[][]{{1, 8400, 84}, {1, 84, 8400}}) {
+            ModelDescriptor descriptor = new ModelDescriptor("fused",
+                    Collections.singletonList(new TensorSpec("input", new int[]{1, 416, 416, 3}, "UINT8", 1f, 0)),
+                    Collections.singletonList(new TensorSpec("output", shape, "FLOAT32", 0f, 0)));
+            assertEquals(ModelDescriptor.Layout.FUSED, descriptor.getLayout());
+            assertEquals(8400 * 84 * 4, descriptor.getOutput(0).numBytes());
+            assertTrue(OutputDecoder.forModel(descriptor) instanceof FusedOutputDecoder);
+        }
+    }
+
+    @Test
+    public void detectsFaceGridLayout() {
+        ModelDescriptor descriptor = new ModelDescriptor("face",
+                Collections.singletonList(new TensorSpec("input", new int[]{1, 480, 640, 1}, "UINT8", 1f, 0)),
+                Arrays.asList(
+                        new TensorSpec("heatmap", new int[]{1, 60, 80, 1}, "UINT8", 0.01f, 0),
+                        new TensorSpec("boxes", new int[]{1, 60, 80, 4}, "UINT8", 0.01f, 0),
+                        new TensorSpec("landmarks", new int[]{1, 60, 80, 10}, "UINT8", 0.01f, 0)));
+        assertEquals(ModelDescriptor.Layout.FACE_GRID, descriptor.getLayout());
+    }
+
+    @Test
+    public void withDefaultQuantization_onlyFillsMissingParameters() {
+        TensorSpec missing = new TensorSpec("classes", new int[]{1, 8400}, "UINT8", 0f, 5);
+        TensorSpec filled = missing.withDefaultQuantization(1.0f, 0);
+        assertEquals(1.0f, filled.getScale(), 0f);
+        assertEquals(0, filled.getZeroPoint());
+
+        TensorSpec present = new TensorSpec("scores", new int[]{1, 8400}, "UINT8", 0.004f, 3);
+        assertSame(present, present.withDefaultQuantization(1.0f, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void require_throwsOnMismatch() {
+        ModelDescriptor descriptor = new ModelDescriptor("unknown",
+                Collections.<TensorSpec>emptyList(), Collections.<TensorSpec>emptyList());
+        assertEquals(ModelDescriptor.Layout.UNKNOWN, descriptor.getLayout());
+        descriptor.require(descriptor.getLayout() == ModelDescriptor.Layout.YOLO_NAS, "layout");
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 정지된 장면은 탐지를 건너뛰고, 셀 변화나 최대 건너뜀 횟수에서는 다시 탐지하는지 확인합니다.
+ */
+public class MotionGateTest {
+    private static final int W = 160;
+    private static final int H = 120;
+
+    @Test
+    public void staticScene_skipsAfterFirstFrame() {
+        MotionGate gate = new MotionGate(16, 12, 12, 2, 100);
+        int[] frame = scene();
+        MotionGate.Mask mask = new MotionGate.Mask();
+
+        assertTrue(gate.update(frame, W, H, mask));
+        for (int i = 0; i < 10; i++) {
+            assertFalse(gate.update(addNoise(scene(), i), W, H, mask));
+            assertEquals(0, mask.getChangedCount());
+        }
+        assertEquals(11, gate.getFramesChecked());
+        assertEquals(10, gate.getFramesSkipped());
+    }
+
+    @Test
+    public void movingObject_triggersDetectionAndMarksRegion() {
+        MotionGate gate = new MotionGate(16, 12, 12, 2, 100);
+        MotionGate.Mask mask = new MotionGate.Mask();
+        gate.update(scene(), W, H, mask);
+
+        // 오른쪽 아래에 밝은 사각형 (셀 4개 이상)
+        int[] moved = scene();
+        fillRect(moved, 100, 70, 130, 100, 0xFFFFFFFF);
+        assertTrue(gate.update(moved, W, H, mask));
+        assertTrue(mask.getChangedCount() >= 2);
+        assertTrue(mask.isRegionChanged(0.65f, 0.6f, 0.8f, 0.8f));
+        assertFalse(mask.isRegionChanged(0f, 0f, 0.3f, 0.3f));
+
+        // 바뀐 프레임이 새 기준이 되므로 같은 프레임은 다시 건너뜀
+        assertFalse(gate.update(moved, W, H, mask));
+    }
+
+    @Test
+    public void singleCellNoise_isIgnored() {
+        MotionGate gate = new MotionGate(16, 12, 12, 2, 100);
+        MotionGate.Mask mask = new MotionGate.Mask();
+        gate.update(scene(), W, H, mask);
+
+        int[] flicker = scene();
+        fillRect(flicker, 0, 0, 10, 10, 0xFFFFFFFF); // 셀 하나
+        assertFalse(gate.update(flicker, W, H, mask));
+        assertEquals(1, mask.getChangedCount());
+        assertTrue(mask.isCellChanged(0, 0));
+    }
+
+    @Test
+    public void maxSkippedFrames_forcesDetection() {
+        MotionGate gate = new MotionGate(16, 12, 12, 2, 3);
+        int[] frame = scene();
+        assertTrue(gate.update(frame, W, H, null));
+        assertFalse(gate.update(frame, W, H, null));
+        assertFalse(gate.update(frame, W, H, null));
+        assertFalse(gate.update(frame, W, H, null));
+        assertTrue(gate.update(frame, W, H, null));
+
+        // 해상도가 바뀌어도 다시 탐지
+        assertFalse(gate.update(frame, W, H, null));
+        assertTrue(gate.update(new int[80 * 60], 80, 60, null));
+    }
+
+    @Test
+    public void droppedDetectFrame_nextFrameStillRunsDetector() {
+        MotionGate gate = new MotionGate(16, 12, 12, 2, 100);
+        MotionGate.Mask mask = new MotionGate.Mask();
+        gate.update(scene(), W, H, mask);
+
+        // 움직임으로 탐지하기로 한 프레임이 디코드 전에 버려짐
+        int[] moved = scene();
+        fillRect(moved, 100, 70, 130, 100, 0xFFFFFFFF);
+        assertTrue(gate.update(moved, W, H, mask));
+        gate.forceNext();
+
+        // 다음 프레임은 버려진 프레임과 거의 같아도 탐지하고, 바뀐 영역을 놓치지 않음
+        assertTrue(gate.update(moved, W, H, mask));
+        assertTrue(mask.isRegionChanged(0.65f, 0.6f, 0.8f, 0.8f));
+        // 그 다음부터는 다시 비교
+        assertFalse(gate.update(moved, W, H, mask));
+    }
+
+    @Test
+    public void trackerHold_agesOnlyTracksInChangedCells() {
+        SimpleTracker tracker = new SimpleTracker();
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person", "bottle"));
+        batch.add(0, 0.9f, 10, 10, 40, 50);     // 왼쪽 위
+        batch.add(1, 0.9f, 100, 70, 130, 100);  // 오른쪽 아래
+        tracker.update(batch);
+
+        MotionGate gate = new MotionGate(16, 12, 12, 3, 100);
+        MotionGate.Mask mask = new MotionGate.Mask();
+        gate.update(scene(), W, H, mask);
+        int[] changed = scene();
+        fillRect(changed, 112, 80, 120, 90, 0xFFFFFFFF); // 셀 2개만 바뀌어서 탐지는 건너뜀
+        assertFalse(gate.update(changed, W, H, mask));
+
+        List<SimpleTracker.TrackedObject> held = tracker.hold(mask, W, H);
+        assertEquals(2, held.size());
+        for (SimpleTracker.TrackedObject obj : held) {
+            assertEquals(obj.getLabel(), "bottle".equals(obj.getLabel()) ? 1 : 0, obj.getAge());
+        }
+    }
+
+    private static int[] scene() {
+        int[] pixels = new int[W * H];
+        for (int y = 0; y < H; y++) {
+            for (int x = 0; x < W; x++) {
+                int v = (x * 255 / W + y * 2) & 0xFF;
+                pixels[y * W + x] = 0xFF000000 | (v << 16) | (v << 8) | v;
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * 센서 노이즈 흉내 (+-3 정도의 밝기 흔들림)
+     */
+    private static int[] addNoise(int[] pixels, int seed) {
+        for (int i = 0; i < pixels.length; i++) {
+            int n = ((i * 31 + seed * 17) % 7) - 3;
+            int v = Math.max(0, Math.min(255, (pixels[i] & 0xFF) + n));
+            pixels[i] = 0xFF000000 | (v << 16) | (v << 8) | v;
+        }
+        return pixels;
+    }
+
+    private static void fillRect(int[] pixels, int left, int top, int right, int bottom, int color) {
+        for (int y = top; y < bottom; y++) {
+            for (int x = left; x < right; x++) {
+                pixels[y * W + x] = color;
+            }
+        }
+    }
+}
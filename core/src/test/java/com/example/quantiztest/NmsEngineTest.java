@@ -0,0 +1,126 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 격자 기반 NMS가 기존 O(n²) 탐욕 NMS와 같은 결과를 내는지 확인합니다 (시간 비교는 :benchmark의 NmsBenchmark).
+ */
+public class NmsEngineTest {
+    private static final int NUM_CLASSES = 80;
+    private static final int PERSON = 0;
+
+    @Test
+    public void select_matchesPairwiseNms() {
+        NmsEngine engine = new NmsEngine();
+        float[] table = personTable();
+        engine.setIouThresholds(NmsEngine.DEFAULT_IOU_THRESHOLD, table);
+
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            DetectionBatch batch = crowdedFrame(random, 1 + random.nextInt(400));
+            List<Integer> expected = pairwiseNms(batch, table);
+
+            int count = engine.select(batch);
+            assertEquals("round " + round, expected.size(), count);
+            for (int k = 0; k < count; k++) {
+                assertEquals("round " + round + " k " + k, (int) expected.get(k), engine.getSelected(k));
+            }
+        }
+    }
+
+    @Test
+    public void apply_copiesSurvivorsInConfidenceOrder() {
+        NmsEngine engine = new NmsEngine();
+        DetectionBatch batch = new DetectionBatch();
+        batch.add(1, 0.5f, 0, 0, 10, 10);
+        batch.add(1, 0.9f, 0.5f, 0.5f, 10.5f, 10.5f); // 위 박스를 제거
+        batch.add(2, 0.7f, 1, 1, 11, 11);   // 다른 클래스는 유지
+        batch.add(1, 0.6f, 100, 100, 110, 110);
+
+        DetectionBatch out = new DetectionBatch();
+        assertEquals(3, engine.apply(batch, out));
+        assertEquals(0.9f, out.getConfidence(0), 0f);
+        assertEquals(2, out.getClassId(1));
+        assertEquals(100f, out.getLeft(2), 0f);
+    }
+
+    private static float[] personTable() {
+        float[] table = new float[NUM_CLASSES];
+        Arrays.fill(table, NmsEngine.DEFAULT_IOU_THRESHOLD);
+        table[PERSON] = ProductCatalog.PERSON_NMS_IOU;
+        return table;
+    }
+
+    /**
+     * 사람 위주로 몰려 있는 후보 박스 (같은 객체 주변에 여러 후보가 겹침)
+     */
+    private static DetectionBatch crowdedFrame(Random random, int count) {
+        DetectionBatch batch = new DetectionBatch();
+        int objects = Math.max(1, count / 8);
+        float[][] centers = new float[objects][];
+        for (int o = 0; o < objects; o++) {
+            centers[o] = new float[]{random.nextFloat() * 1280, random.nextFloat() * 720,
+                    20 + random.nextFloat() * 200, 20 + random.nextFloat() * 300};
+        }
+        for (int i = 0; i < count; i++) {
+            float[] c = centers[random.nextInt(objects)];
+            float cx = c[0] + random.nextFloat() * 20 - 10;
+            float cy = c[1] + random.nextFloat() * 20 - 10;
+            float w = c[2] * (0.8f + random.nextFloat() * 0.4f);
+            float h = c[3] * (0.8f + random.nextFloat() * 0.4f);
+            int classId = random.nextInt(3) == 0 ? random.nextInt(NUM_CLASSES) : PERSON;
+            // 일부 신뢰도는 같은 값으로 (원래 순서 유지 확인)
+            float confidence = random.nextInt(4) == 0 ? 0.5f : random.nextFloat();
+            batch.add(classId, confidence, Math.max(0, cx - w / 2), Math.max(0, cy - h / 2), cx + w / 2, cy + h / 2);
+        }
+        return batch;
+    }
+
+    /**
+     * 기존 applyNMS와 같은 정렬 + 전체 쌍 비교
+     */
+    private static List<Integer> pairwiseNms(DetectionBatch batch, float[] table) {
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            sorted.add(i);
+        }
+        Collections.sort(sorted, (a, b) -> Float.compare(batch.getConfidence(b), batch.getConfidence(a)));
+
+        List<Integer> selected = new ArrayList<>();
+        boolean[] removed = new boolean[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            if (removed[i]) continue;
+            int current = sorted.get(i);
+            selected.add(current);
+            for (int j = i + 1; j < sorted.size(); j++) {
+                if (removed[j]) continue;
+                int next = sorted.get(j);
+                if (batch.getClassId(next) != batch.getClassId(current)) continue;
+                if (iou(batch, current, next) > table[batch.getClassId(current)]) {
+                    removed[j] = true;
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static float iou(DetectionBatch b, int i, int j) {
+        float xLeft = Math.max(b.getLeft(i), b.getLeft(j));
+        float yTop = Math.max(b.getTop(i), b.getTop(j));
+        float xRight = Math.min(b.getRight(i), b.getRight(j));
+        float yBottom = Math.min(b.getBottom(i), b.getBottom(j));
+        if (xRight < xLeft || yBottom < yTop) return 0;
+        float inter = (xRight - xLeft) * (yBottom - yTop);
+        float a1 = (b.getRight(i) - b.getLeft(i)) * (b.getBottom(i) - b.getTop(i));
+        float a2 = (b.getRight(j) - b.getLeft(j)) * (b.getBottom(j) - b.getTop(j));
+        return inter / (a1 + a2 - inter);
+    }
+}
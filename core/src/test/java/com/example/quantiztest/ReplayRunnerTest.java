@@ -0,0 +1,259 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 기기 파이프라인처럼 추적 도중에 텐서와 추적 결과를 기록하기 시작해도 재생하면 같은 결과가 나오는지,
+ * 시작 상태가 없거나 기록과 다른 설정으로 돌린 결과는 차이로 잡히는지 확인합니다.
+ */
+public class ReplayRunnerTest {
+    private static final int INPUT = 320;
+    private static final int ANCHORS = 100;
+    private static final int VIEW = 640;
+    private static final int FRAMES = 80;
+    // 이 프레임부터 기록 (앱처럼 이미 추적 중인 객체가 있는 상태에서 시작)
+    private static final int RECORD_START = 30;
+    private static final List<String> LABELS = Arrays.asList("person", "cup");
+    private static final ProductCatalog CATALOG = ProductCatalog.compile(LABELS, Arrays.asList(
+            new ProductCatalog.Item("person", 0.5f, false),
+            new ProductCatalog.Item("cup", 0.5f, true)));
+
+    private static final ModelDescriptor DETECTOR = new ModelDescriptor("yolo320",
+            Collections.singletonList(new TensorSpec("input", new int[]{1, INPUT, INPUT, 3}, "UINT8", 1f, 0)),
+            Arrays.asList(
+                    new TensorSpec("boxes", new int[]{1, ANCHORS, 4}, "UINT8", 2f, 0),
+                    new TensorSpec("scores", new int[]{1, ANCHORS}, "UINT8", 1f / 255, 0),
+                    new TensorSpec("classes", new int[]{1, ANCHORS}, "UINT8", 1f, 0)));
+    private static final ModelDescriptor FACE = new ModelDescriptor("face",
+            Collections.singletonList(new TensorSpec("input", new int[]{1, 480, 640, 1}, "UINT8", 1f, 0)),
+            Arrays.asList(
+                    new TensorSpec("heatmap", new int[]{1, 60, 80, 1}, "UINT8", 0.01f, 0),
+                    new TensorSpec("boxes", new int[]{1, 60, 80, 4}, "UINT8", 0.01f, 0),
+                    new TensorSpec("landmarks", new int[]{1, 60, 80, 10}, "UINT8", 0.01f, 0)));
+
+    @Test
+    public void recordedSession_replaysToGoldenResults() throws IOException {
+        byte[] log = recordSession(KalmanMotionModel.FACTORY, RECORD_START, true);
+        ReplayRunner.Report report = new ReplayRunner(new ByteArrayInputStream(log)).run();
+
+        assertTrue(report.toString(), report.matchesGolden());
+        assertEquals(FRAMES - RECORD_START, report.frames);
+        assertTrue(report.detectFrames > 0 && report.holdFrames > 0 && report.extrapolateFrames > 0);
+        assertEquals(FRAMES - RECORD_START, report.trackFramesCompared);
+        // 컵이 선을 여러 번 건넘
+        assertTrue(report.goldenCrossings >= 2);
+        assertEquals(report.goldenCrossings, report.replayCrossings);
+        assertEquals((FRAMES - RECORD_START) / 10, report.kioskCompared);
+        assertEquals(1, report.faceCompared);
+        assertEquals(0, report.skipped);
+        assertEquals(report.detectFrames, report.decode.getCount());
+        assertTrue(report.getFramesPerSecond() > 0);
+    }
+
+    @Test
+    public void detectFrameListener_receivesRecordedTensorsInOrder() throws IOException {
+        byte[] log = recordSession(KalmanMotionModel.FACTORY, RECORD_START, true);
+        ReplayRunner runner = new ReplayRunner(new ByteArrayInputStream(log));
+        final List<Long> timestamps = new ArrayList<>();
+        final List<byte[]> scores = new ArrayList<>();
+        runner.setDetectFrameListener(new ReplayRunner.DetectFrameListener() {
+            @Override
+            public void onDetectFrame(long timestamp, ByteBuffer[] outputs, int count, FrameTransform transform) {
+                assertEquals(3, count);
+                assertEquals(INPUT, transform.getSourceWidth());
+                timestamps.add(timestamp);
+                byte[] copy = new byte[outputs[1].remaining()];
+                outputs[1].duplicate().get(copy);
+                scores.add(copy);
+            }
+        });
+        ReplayRunner.Report report = runner.run();
+
+        assertEquals(report.detectFrames, timestamps.size());
+        assertSame(DETECTOR.getLayout(), runner.getDetector().getLayout());
+        assertEquals(LABELS, runner.getLabels());
+        // 기록을 시작한 프레임은 외삽 프레임이라 다음 프레임이 첫 탐지 프레임이고, 기록할 때와 같은 출력 텐서가 나옴
+        assertEquals(1000 + (RECORD_START + 1) * 100L, (long) timestamps.get(0));
+        ByteBuffer[] expected = {ByteBuffer.allocate(ANCHORS * 4), ByteBuffer.allocate(ANCHORS),
+                ByteBuffer.allocate(ANCHORS)};
+        fillScene(expected, RECORD_START + 1);
+        assertArrayEquals(expected[1].array(), scores.get(0));
+    }
+
+    @Test
+    public void recordingWithoutStartState_isReportedAsMismatch() throws IOException {
+        // 기록 전부터 있던 객체의 ID를 재생 트래커가 알 수 없으므로 처음부터 다름
+        byte[] log = recordSession(KalmanMotionModel.FACTORY, RECORD_START, false);
+        ReplayRunner.Report report = new ReplayRunner(new ByteArrayInputStream(log)).run();
+
+        assertFalse(report.matchesGolden());
+        assertTrue(report.firstTrackMismatch, report.firstTrackMismatch.startsWith("t=" + (1000 + RECORD_START * 100L)));
+    }
+
+    @Test
+    public void differentTrackerOnDevice_isReportedAsMismatch() throws IOException {
+        // 기기에서는 EMA 모델로 추적했지만 기록된 설정은 칼만이라 움직이는 컵의 박스가 달라짐
+        byte[] log = recordSession(EmaMotionModel.FACTORY, 0, false);
+        ReplayRunner.Report report = new ReplayRunner(new ByteArrayInputStream(log)).run();
+
+        assertFalse(report.matchesGolden());
+        assertTrue(report.trackFramesMismatched > 0);
+        assertNotNull(report.firstTrackMismatch);
+    }
+
+    @Test(expected = IOException.class)
+    public void startStateOfOtherMotionModel_isRejected() throws IOException {
+        byte[] log = recordSession(EmaMotionModel.FACTORY, RECORD_START, true);
+        new ReplayRunner(new ByteArrayInputStream(log)).run();
+    }
+
+    @Test
+    public void truncatedLog_replaysCompleteRecords() throws IOException {
+        byte[] log = recordSession(KalmanMotionModel.FACTORY, RECORD_START, true);
+        byte[] truncated = Arrays.copyOf(log, log.length - 7);
+        ReplayRunner.Report report = new ReplayRunner(new ByteArrayInputStream(truncated)).run();
+        assertEquals(FRAMES - RECORD_START, report.frames);
+        assertEquals(0, report.faceCompared);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFile_isRejected() throws IOException {
+        new ReplayRunner(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})).run();
+    }
+
+    /**
+     * 앱의 디코드, 추적, 그리기 단계와 같은 순서로 장면을 처리하고, recordStart 프레임부터 기록합니다.
+     * 트래커와 선 교차 감지는 기록 전후로 같은 인스턴스를 씁니다 (앱처럼 기록이 추적 결과를 바꾸지 않음).
+     * 사람은 제자리에 있고, 컵은 선(y=500) 위아래를 오가며, 프레임 일부는 유지/외삽입니다.
+     * @param writeStartState 기록 시작 시점의 트래커와 선 교차 상태를 남길지
+     */
+    private static byte[] recordSession(MotionModel.Factory deviceMotionModel, int recordStart,
+                                        boolean writeStartState) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SimpleTracker tracker = new SimpleTracker(deviceMotionModel);
+        tracker.setConfirmation(3, 0.7f);
+        LineCrossingDetector line = new LineCrossingDetector(640, 500, 0, 500, 1000, 0.7f);
+        KioskZone kiosk = new KioskZone(30, 370, 100, 420);
+        TensorRecorder recorder = null;
+
+        DetectionPostprocessor postprocessor = new DetectionPostprocessor(DETECTOR);
+        ByteBuffer[] outputs = {ByteBuffer.allocateDirect(ANCHORS * 4), ByteBuffer.allocateDirect(ANCHORS),
+                ByteBuffer.allocateDirect(ANCHORS)};
+        FrameTransform transform = FrameTransform.stretch(INPUT, INPUT, INPUT, INPUT);
+        TensorRecorder.FrameCapture capture = new TensorRecorder.FrameCapture();
+        DetectionBatch detections = new DetectionBatch();
+        MotionGate.Mask mask = new MotionGate.Mask();
+        TrackingSnapshot snapshot = TrackingSnapshot.EMPTY;
+
+        for (int f = 0; f < FRAMES; f++) {
+            long timestamp = 1000 + f * 100L;
+            if (f == recordStart) {
+                recorder = new TensorRecorder(bytes, DETECTOR, LABELS, FACE);
+                recorder.recordConfig("kalman", 3, 0.7f, line, kiosk, 0.7f);
+                if (writeStartState) {
+                    recorder.recordTrackerState(tracker);
+                    recorder.recordLineState(line);
+                }
+            }
+            List<SimpleTracker.TrackedObject> tracked;
+            if (f > 10 && f % 7 == 0) {
+                // 컵 근처만 바뀐 움직임 마스크
+                mask.reset(8, 6);
+                mask.mark(2 * 8 + 3);
+                mask.mark(5 * 8 + 7);
+                tracked = tracker.hold(mask, VIEW, VIEW, timestamp);
+                if (recorder != null) {
+                    recorder.recordHoldFrame(timestamp, VIEW, VIEW, mask);
+                }
+            } else if (f > 10 && f % 5 == 0) {
+                tracked = tracker.extrapolate(timestamp);
+                if (recorder != null) {
+                    recorder.recordExtrapolateFrame(timestamp, VIEW, VIEW);
+                }
+            } else {
+                fillScene(outputs, f);
+                capture.copy(outputs, transform, CATALOG);
+                postprocessor.process(outputs, transform, CATALOG, LABELS, detections);
+                FrameTransform.stretch(VIEW, VIEW, INPUT, INPUT).mapToSource(detections);
+                tracked = tracker.update(detections, timestamp);
+                if (recorder != null) {
+                    recorder.recordDetectFrame(timestamp, INPUT, INPUT, VIEW, VIEW, capture);
+                }
+            }
+            snapshot = snapshot.next(tracked, timestamp, VIEW, VIEW, null);
+            if (recorder == null) {
+                line.update(snapshot.getTracks(), VIEW, VIEW, CATALOG, timestamp, null);
+                continue;
+            }
+            recorder.recordTracks(timestamp, tracked);
+
+            // 그리기 단계: 선 교차
+            final long frameTimestamp = timestamp;
+            final TensorRecorder frameRecorder = recorder;
+            recorder.recordRender(timestamp, VIEW, VIEW, timestamp);
+            line.update(snapshot.getTracks(), VIEW, VIEW, CATALOG, timestamp,
+                    (obj, downward, nearestPerson, personDistance) ->
+                            frameRecorder.recordCrossing(frameTimestamp, obj, downward, nearestPerson));
+
+            // 소켓 요청: 키오스크 앞 사람
+            if (f % 10 == 9) {
+                recorder.recordKiosk(timestamp, kiosk.findNearestPerson(snapshot, 0.7f));
+            }
+        }
+
+        // 얼굴 탐지 한 번
+        ByteBuffer heatmap = ByteBuffer.allocateDirect(60 * 80);
+        ByteBuffer boxes = ByteBuffer.allocateDirect(60 * 80 * 4);
+        for (int cell : new int[]{10 * 80 + 20, 30 * 80 + 60}) {
+            heatmap.put(cell, (byte) 250);
+            boxes.put(cell * 4 + 2, (byte) 200);
+            boxes.put(cell * 4 + 3, (byte) 150);
+        }
+        DetectionBatch faces = new DetectionBatch();
+        new FaceOutputDecoder(FACE).decode(heatmap, boxes, 640, 480, faces);
+        assertTrue(faces.size() > 0);
+        recorder.recordFaces(9000, 640, 480, heatmap, boxes, faces);
+
+        recorder.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 모델 출력 (박스 픽셀 = 원시 값 * 2): 사람 한 명과 40프레임 주기로 위아래로 움직이는 컵 하나
+     */
+    private static void fillScene(ByteBuffer[] outputs, int frame) {
+        ByteBuffer boxes = outputs[0];
+        ByteBuffer scores = outputs[1];
+        ByteBuffer classes = outputs[2];
+        for (int i = 0; i < ANCHORS; i++) {
+            scores.put(i, (byte) 0);
+        }
+        // 사람: 모델 좌표 (100, 100) ~ (200, 300)
+        putBox(boxes, 0, 50, 50, 100, 150);
+        scores.put(0, (byte) 230);
+        classes.put(0, (byte) 0);
+
+        // 컵: 중심 y = 230 ~ 270 (뷰 좌표 460 ~ 540, 선 y = 500)
+        int phase = frame % 40;
+        int centerRaw = 115 + (phase < 20 ? phase : 40 - phase);
+        putBox(boxes, 1, 70, centerRaw - 5, 80, centerRaw + 5);
+        scores.put(1, (byte) 220);
+        classes.put(1, (byte) 1);
+    }
+
+    private static void putBox(ByteBuffer boxes, int anchor, int x1, int y1, int x2, int y2) {
+        boxes.put(anchor * 4, (byte) x1).put(anchor * 4 + 1, (byte) y1)
+                .put(anchor * 4 + 2, (byte) x2).put(anchor * 4 + 3, (byte) y2);
+    }
+}
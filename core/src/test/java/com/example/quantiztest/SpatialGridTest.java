@@ -0,0 +1,119 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 격자 질의가 전수 비교와 같은 결과를 내는지, 격자를 쓰는 트래커가 객체가 많아도 ID를 유지하고 후보 쌍이 늘지 않는지 확인합니다.
+ * (시간 측정은 :benchmark의 TrackerBenchmark)
+ */
+public class SpatialGridTest {
+
+    @Test
+    public void query_matchesBruteForce() {
+        Random random = new Random(3);
+        SpatialGrid grid = new SpatialGrid();
+        for (int trial = 0; trial < 50; trial++) {
+            int n = random.nextInt(200);
+            float[] xs = new float[n];
+            float[] ys = new float[n];
+            grid.reset(0, 0, 1000, 800, 10 + random.nextFloat() * 100);
+            for (int i = 0; i < n; i++) {
+                xs[i] = random.nextFloat() * 1000;
+                ys[i] = random.nextFloat() * 800;
+                grid.insert(i, xs[i], ys[i]);
+            }
+            assertEquals(n, grid.size());
+
+            for (int q = 0; q < 20; q++) {
+                // 범위 밖 질의점도 포함
+                float x = random.nextFloat() * 1200 - 100;
+                float y = random.nextFloat() * 1000 - 100;
+                float radius = random.nextFloat() * 300;
+
+                int found = grid.query(x, y, radius);
+                int[] actual = new int[found];
+                for (int k = 0; k < found; k++) {
+                    actual[k] = grid.getResult(k);
+                }
+                Arrays.sort(actual);
+
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    float dx = xs[i] - x;
+                    float dy = ys[i] - y;
+                    if (dx * dx + dy * dy < radius * radius) {
+                        expected.add(i);
+                    }
+                }
+                assertEquals(expected.size(), found);
+                for (int k = 0; k < found; k++) {
+                    assertEquals((int) expected.get(k), actual[k]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void query_handlesSinglePointAndWideSpread() {
+        SpatialGrid grid = new SpatialGrid();
+        grid.reset(5, 5, 5, 5, 0);
+        assertEquals(0, grid.query(5, 5, 10));
+        grid.insert(7, 5, 5);
+        assertEquals(1, grid.query(5, 5, 1));
+        assertEquals(7, grid.getResult(0));
+
+        // 범위가 아주 넓어도 칸 수는 제한되고 결과는 정확함
+        grid.reset(0, 0, 1e6f, 1e6f, 1f);
+        grid.insert(0, 0, 0);
+        grid.insert(1, 1e6f, 1e6f);
+        assertEquals(1, grid.query(0, 0, 100));
+        assertEquals(0, grid.getResult(0));
+    }
+
+    @Test
+    public void tracker_keepsIdsForManySpreadObjects() {
+        SimpleTracker tracker = new SimpleTracker();
+        int columns = 20;
+        int rows = 10;
+        List<SimpleTracker.TrackedObject> tracked = null;
+        int frames = 30;
+        for (int frame = 0; frame < frames; frame++) {
+            tracked = tracker.update(grid(columns, rows, frame * 2f));
+            if (frame > 0) {
+                // 박스 간격(70)이 게이트 반경(1.5 x 40)보다 넓어서 객체마다 자기 탐지 하나만 후보가 됨 (전체 쌍이면 200 x 200)
+                assertEquals(columns * rows, tracker.getLastCandidatePairCount());
+            }
+        }
+
+        assertEquals(columns * rows, tracked.size());
+        for (SimpleTracker.TrackedObject obj : tracked) {
+            assertEquals(0, obj.getAge());
+            // 처음 만든 순서대로 ID가 유지되어야 함 (i번째 박스 = ID i)
+            int id = obj.getId();
+            assertTrue(id < columns * rows);
+            float expectedLeft = (id % columns) * 70 + (frames - 1) * 2f;
+            assertEquals(expectedLeft, obj.getLeft(), 1e-3f);
+            assertEquals((id / columns) * 70, obj.getTop(), 1e-3f);
+        }
+    }
+
+    private static DetectionBatch grid(int columns, int rows, float offsetX) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("bottle"));
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                float left = c * 70 + offsetX;
+                float top = r * 70;
+                batch.add(0, 0.9f, left, top, left + 40, top + 40);
+            }
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.quantiztest;
+
+/**
+ * 테스트용 시계: 읽을 때마다 한 프레임 간격만큼 시간이 흐름 (트래커 호출 한 번 = 한 프레임)
+ */
+final class SteppingClock implements Clock {
+    private final long stepMs;
+    private long now;
+
+    SteppingClock(long stepMs) {
+        this.stepMs = stepMs;
+    }
+
+    @Override
+    public long nowMs() {
+        now += stepMs;
+        return now;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * TensorArena 재사용 시 프레임 크기가 바뀌어도 버퍼를 그대로 쓰고,
+ * YOLO 전처리 -> 디코드 -> NMS 경로가 프레임당 힙 할당 없이 도는지 확인하는 테스트
+ */
+public class TensorArenaTest {
+    private static final int INPUT_SIZE = SyntheticYoloOutputs.INPUT_SIZE;
+    private static final int NUM_DETECTIONS = SyntheticYoloOutputs.NUM_DETECTIONS;
+    private static final int FRAMES = 2000;
+    private static final ImagePreprocessor PREPROCESSOR = new ImagePreprocessor(INPUT_SIZE, INPUT_SIZE,
+            ImagePreprocessor.ColorMode.RGB, ImagePreprocessor.Sampling.NEAREST, false);
+
+    // 얼굴 모델 (그레이스케일 입력, 원본 픽셀을 아레나의 스크래치 배열로 읽음)
+    private static final int FACE_WIDTH = 640;
+    private static final int FACE_HEIGHT = 480;
+    private static final ImagePreprocessor FACE_PREPROCESSOR = new ImagePreprocessor(FACE_WIDTH, FACE_HEIGHT,
+            ImagePreprocessor.ColorMode.GRAY, ImagePreprocessor.Sampling.NEAREST, false);
+
+    @Test
+    public void frameSizeChanges_reuseTensorBuffersAndGrowPixelsOnlyWhenLarger() {
+        TensorArena arena = newFaceArena();
+        ByteBuffer input = arena.getInputBuffer();
+        Object heatmap = arena.getOutputs().get(0);
+        Object boxes = arena.getOutputs().get(1);
+        int[] initialPixels = arena.getPixels();
+        int afterSetup = arena.getAllocationCount();
+
+        // 처음 픽셀 배열(640x480)보다 작거나 같은 프레임은 같은 배열을 씀
+        int[] small = runFaceFrame(arena, 320, 240);
+        int[] medium = runFaceFrame(arena, 640, 480);
+        assertSame(initialPixels, small);
+        assertSame(initialPixels, medium);
+        assertEquals(afterSetup, arena.getAllocationCount());
+
+        // 더 큰 프레임이 오면 픽셀 배열만 한 번 늘어남
+        int[] large = runFaceFrame(arena, 1280, 720);
+        assertNotSame(initialPixels, large);
+        assertEquals(1280 * 720, large.length);
+        assertEquals(afterSetup + 1, arena.getAllocationCount());
+
+        // 이후에는 크기가 바뀌어도 늘어난 배열을 계속 씀
+        assertSame(large, runFaceFrame(arena, 640, 480));
+        assertSame(large, runFaceFrame(arena, 1280, 720));
+        assertSame(large, runFaceFrame(arena, 320, 240));
+        assertEquals(afterSetup + 1, arena.getAllocationCount());
+
+        // 입력, 출력 텐서 버퍼는 프레임 크기와 관계없이 그대로
+        assertSame(input, arena.beginFrame());
+        assertSame(input, arena.getInputs()[0]);
+        assertSame(heatmap, arena.getOutputs().get(0));
+        assertSame(boxes, arena.getOutputs().get(1));
+    }
+
+    @Test
+    public void yoloArena_hasNoPixelScratch() {
+        // YOLO 슬롯은 원본 픽셀을 호출한 쪽에서 받으므로 스크래치 픽셀 배열을 두지 않음
+        TensorArena arena = newYoloArena();
+        assertNull(arena.getPixels());
+        assertEquals(4, arena.getAllocationCount());
+        try {
+            arena.getPixels(1);
+            fail("yolo arena should not hand out pixels");
+        } catch (IllegalStateException expected) {
+            // 기대한 예외
+        }
+    }
+
+    @Test
+    public void buffers_areReusedAcrossFrames() {
+        TensorArena arena = newYoloArena();
+        ByteBuffer input = arena.getInputBuffer();
+        Object[] inputs = arena.getInputs();
+        Object boxes = arena.getOutputs().get(0);
+        int[] pixels = new int[INPUT_SIZE * INPUT_SIZE];
+
+        for (int frame = 0; frame < 100; frame++) {
+            pixels[frame] = frame;
+            PREPROCESSOR.process(pixels, INPUT_SIZE, INPUT_SIZE, arena.beginFrame());
+        }
+
+        assertSame(input, arena.beginFrame());
+        assertSame(inputs, arena.getInputs());
+        assertSame(input, arena.getInputs()[0]);
+        assertSame(boxes, arena.getOutputs().get(0));
+    }
+
+    @Test
+    public void directOutputs_areNativeOrderAndRewoundEachFrame() {
+        TensorArena arena = newYoloArena();
+        ByteBuffer boxes = (ByteBuffer) arena.getOutputs().get(0);
+        assertTrue(boxes.isDirect());
+        assertEquals(java.nio.ByteOrder.nativeOrder(), boxes.order());
+        assertEquals(NUM_DETECTIONS * 4, boxes.capacity());
+
+        // 인터프리터가 버퍼에 쓰고 나면 위치가 이동하므로 다음 프레임 전에 되돌려야 함
+        boxes.position(boxes.capacity());
+        arena.beginFrame();
+        assertEquals(0, boxes.position());
+        assertEquals(boxes.capacity(), boxes.remaining());
+    }
+
+    @Test
+    public void steadyStateFrames_preprocessDecodeAndNmsAllocateNoHeap() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return; // 할당량 측정을 지원하지 않는 JVM
+        }
+        com.sun.management.ThreadMXBean allocBean = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+
+        // YoloImageProcessor의 슬롯 하나와 같은 구성 (인터프리터 대신 고정된 출력 텐서)
+        ModelDescriptor descriptor = SyntheticYoloOutputs.descriptor();
+        TensorArena arena = newYoloArena();
+        ByteBuffer[] outputs = new ByteBuffer[3];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = (ByteBuffer) arena.getOutputs().get(i);
+        }
+        SyntheticYoloOutputs.fill(outputs, new Random(7L));
+        List<String> labels = SyntheticYoloOutputs.labels();
+        ProductCatalog catalog = ProductCatalog.defaultCatalog(labels);
+        DetectionPostprocessor postprocessor = new DetectionPostprocessor(descriptor);
+        DetectionBatch results = new DetectionBatch();
+        results.setLabels(labels);
+        int[] pixels = new int[1280 * 720];
+
+        // 워밍업 (클래스 로딩, JIT, 후보 배치와 NMS 작업 배열이 최대 크기까지 늘어남)
+        for (int frame = 0; frame < 200; frame++) {
+            runYoloFrame(arena, postprocessor, outputs, catalog, labels, pixels, results, frame);
+        }
+        int detected = results.size();
+        assertTrue("fixed tensor should produce detections", detected > 0);
+
+        long before = allocBean.getThreadAllocatedBytes(threadId);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            runYoloFrame(arena, postprocessor, outputs, catalog, labels, pixels, results, frame);
+        }
+        long allocated = allocBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(detected, results.size());
+        // 프레임마다 변환 객체(수십 바이트)만 만들어도 2000프레임이면 수십 KB가 되므로 작게 잡음
+        assertTrue("allocated " + allocated + " bytes over " + FRAMES + " frames",
+                allocated < 16 * 1024);
+    }
+
+    private static TensorArena newYoloArena() {
+        TensorArena arena = new TensorArena(INPUT_SIZE * INPUT_SIZE * 3);
+        arena.addDirectOutput(0, NUM_DETECTIONS * 4);
+        arena.addDirectOutput(1, NUM_DETECTIONS);
+        arena.addDirectOutput(2, NUM_DETECTIONS);
+        return arena;
+    }
+
+    private static TensorArena newFaceArena() {
+        int cells = FaceOutputDecoder.GRID_WIDTH * FaceOutputDecoder.GRID_HEIGHT;
+        TensorArena arena = new TensorArena(FACE_WIDTH * FACE_HEIGHT, FACE_WIDTH * FACE_HEIGHT);
+        arena.addDirectOutput(0, cells);
+        arena.addDirectOutput(1, cells * 4);
+        arena.addDirectOutput(2, cells * 10);
+        return arena;
+    }
+
+    /**
+     * 원본 프레임 크기가 width x height인 한 프레임을 FaceDetector.detectFaces와 같은 순서로 입력 버퍼에 전처리
+     * @return 이 프레임에 쓴 픽셀 배열
+     */
+    private static int[] runFaceFrame(TensorArena arena, int width, int height) {
+        int[] pixels = arena.getPixels(width * height);
+        FACE_PREPROCESSOR.process(pixels, width, height, arena.beginFrame());
+        return pixels;
+    }
+
+    /**
+     * YoloImageProcessor의 preprocess -> infer -> decode와 같은 순서로 버퍼를 쓰는 한 프레임 (인터프리터 제외)
+     */
+    private static void runYoloFrame(TensorArena arena, DetectionPostprocessor postprocessor, ByteBuffer[] outputs,
+                                     ProductCatalog catalog, List<String> labels, int[] pixels,
+                                     DetectionBatch results, int frame) {
+        pixels[frame % pixels.length] = frame;
+        FrameTransform transform = PREPROCESSOR.process(pixels, 1280, 720, arena.beginFrame());
+        results.clear();
+        postprocessor.process(outputs, transform, catalog, labels, results);
+    }
+}
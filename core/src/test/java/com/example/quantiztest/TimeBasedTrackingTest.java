@@ -0,0 +1,73 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 속도, 예측, 만료가 프레임 수가 아니라 경과 시간으로 계산되어 프레임 간격을 바꿔도 추적 결과가 같은지 확인합니다.
+ */
+public class TimeBasedTrackingTest {
+    private static final float SPEED = 200f;  // px/s
+
+    @Test
+    public void velocity_sameAcrossFrameIntervals() {
+        for (long frameMs : new long[]{30, 100, 150}) {
+            SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(frameMs));
+            SimpleTracker.TrackedObject obj = null;
+            for (int frame = 1; frame <= 20; frame++) {
+                obj = tracker.update(batch(SPEED * frame * frameMs / 1000f)).get(0);
+            }
+            assertEquals("frame " + frameMs + "ms", SPEED, obj.getVelocityX(), 0.5f);
+            assertEquals(0, obj.getId());
+        }
+    }
+
+    @Test
+    public void expiry_usesElapsedTime() {
+        // 빠른 간격: 마지막 탐지 후 500ms까지는 유지, 넘으면 제거 (주석은 경과 시간)
+        SimpleTracker fast = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(50));
+        fast.update(batch(100));
+        for (int frame = 0; frame < 8; frame++) {
+            fast.update(new DetectionBatch());
+        }
+        assertEquals(1, fast.update(new DetectionBatch()).size());   // 450ms
+        fast.update(new DetectionBatch());                            // 500ms
+        assertTrue(fast.update(new DetectionBatch()).isEmpty());      // 550ms
+
+        // 느린 간격: 두 번만 놓쳐도 같은 시간이 지나면 제거
+        SimpleTracker slow = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(250));
+        slow.update(batch(100));
+        assertEquals(1, slow.update(new DetectionBatch()).size());    // 250ms
+        assertEquals(1, slow.update(new DetectionBatch()).size());    // 500ms
+        assertTrue(slow.update(new DetectionBatch()).isEmpty());      // 750ms
+    }
+
+    @Test
+    public void hold_keepsStillTracksAlive() {
+        SimpleTracker tracker = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(100));
+        tracker.update(batch(100));
+        MotionGate.Mask still = new MotionGate.Mask();
+        still.reset(8, 8);
+
+        // 움직임이 없는 동안은 탐지를 건너뛰어도 만료되지 않음
+        List<SimpleTracker.TrackedObject> tracked = null;
+        for (int frame = 0; frame < 20; frame++) {
+            tracked = tracker.hold(still, 640, 640);
+        }
+        assertEquals(1, tracked.size());
+
+        // 다음 탐지에서 놓치면 그때부터 시간을 셈
+        assertEquals(1, tracker.update(new DetectionBatch()).size());
+    }
+
+    private static DetectionBatch batch(float left) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person"));
+        batch.add(0, 0.9f, left, 100, left + 50, 180);
+        return batch;
+    }
+}
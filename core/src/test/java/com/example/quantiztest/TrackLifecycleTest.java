@@ -0,0 +1,115 @@
+package com.example.quantiztest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 트래커가 상태가 바뀐 객체에 대해서만 생명주기 이벤트를 보내는지 확인합니다.
+ */
+public class TrackLifecycleTest {
+    private static final List<String> LABELS = Arrays.asList("person", "cup");
+    private static final float[] THRESHOLDS = {0.4f, 0.4f};
+
+    private final List<String> events = new ArrayList<>();
+    private SimpleTracker tracker;
+
+    @Before
+    public void setUp() {
+        tracker = new SimpleTracker(EmaMotionModel.FACTORY, new SteppingClock(100));
+        tracker.setConfirmation(3, 0.7f);
+        tracker.setListener((event, obj) -> events.add(event + " " + obj.getId()));
+    }
+
+    @Test
+    public void confirmedAfterConsecutiveHits_thenLostAndRemoved() {
+        tracker.update(person(100, 0.9f));
+        assertEquals(Arrays.asList("TENTATIVE 0"), events);
+
+        tracker.update(person(102, 0.9f));
+        tracker.update(person(104, 0.9f));
+        assertEquals(Arrays.asList("TENTATIVE 0", "CONFIRMED 0"), events);
+
+        // 안정적으로 추적되는 동안에는 이벤트 없음
+        for (int frame = 0; frame < 5; frame++) {
+            tracker.update(person(106, 0.9f));
+        }
+        assertEquals(2, events.size());
+
+        events.clear();
+        tracker.update(new DetectionBatch());
+        assertEquals(Arrays.asList("LOST 0"), events);
+
+        // 다시 매칭되면 조용히 확정 상태로 돌아가고, 다시 놓쳐야 LOST
+        tracker.update(person(106, 0.9f));
+        assertEquals(1, events.size());
+
+        for (int frame = 0; frame < 6; frame++) {
+            tracker.update(new DetectionBatch());
+        }
+        assertEquals(Arrays.asList("LOST 0", "LOST 0", "REMOVED 0"), events);
+    }
+
+    @Test
+    public void lowConfidenceOrMissedFrame_resetsHitCount() {
+        tracker.update(person(100, 0.9f));
+        tracker.update(person(100, 0.5f));  // 확정 신뢰도 미만
+        tracker.update(person(100, 0.9f));
+        tracker.update(new DetectionBatch());
+        tracker.update(person(100, 0.9f));
+        tracker.update(person(100, 0.9f));
+        assertEquals(Arrays.asList("TENTATIVE 0"), events);
+
+        tracker.update(person(100, 0.9f));
+        assertEquals(Arrays.asList("TENTATIVE 0", "CONFIRMED 0"), events);
+    }
+
+    @Test
+    public void unconfirmedTrack_removedWithoutLost() {
+        tracker.update(person(100, 0.9f));
+        SimpleTracker.TrackedObject[] removed = new SimpleTracker.TrackedObject[1];
+        tracker.setListener((event, obj) -> {
+            events.add(event + " " + obj.getId());
+            if (event == TrackListener.Event.REMOVED) {
+                assertFalse(obj.isConfirmed());
+                removed[0] = obj;
+            }
+        });
+        for (int frame = 0; frame < 6; frame++) {
+            tracker.update(new DetectionBatch());
+        }
+        assertEquals(Arrays.asList("TENTATIVE 0", "REMOVED 0"), events);
+        assertNotNull(removed[0]);
+    }
+
+    @Test
+    public void hold_emitsEventsOnlyForChangedRegions() {
+        for (int frame = 0; frame < 3; frame++) {
+            tracker.update(person(100, 0.9f));
+        }
+        events.clear();
+
+        MotionGate.Mask mask = new MotionGate.Mask();
+        mask.reset(8, 8);
+        tracker.hold(mask, 640, 640);
+        assertTrue(events.isEmpty());
+
+        // 객체가 있는 셀이 바뀌면 탐지로 확인하지 못했으므로 LOST
+        mask.mark(1 * 8 + 1);
+        tracker.hold(mask, 640, 640);
+        assertEquals(Arrays.asList("LOST 0"), events);
+    }
+
+    private static DetectionBatch person(float left, float confidence) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(LABELS);
+        batch.add(0, confidence, left, 100, left + 50, 180);
+        batch.markLowConfidence(THRESHOLDS);
+        return batch;
+    }
+}
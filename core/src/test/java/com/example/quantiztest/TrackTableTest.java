@@ -0,0 +1,102 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 슬롯 기반 추적 객체 표가 사라진 객체의 슬롯을 재사용하고, 트래커가 복사 없이 읽기 전용 목록을 반환하는지 확인합니다.
+ */
+public class TrackTableTest {
+
+    @Test
+    public void update_returnsSameReadOnlyList() {
+        SimpleTracker tracker = new SimpleTracker();
+        List<SimpleTracker.TrackedObject> first = tracker.update(batch(100f), 0);
+        List<SimpleTracker.TrackedObject> second = tracker.update(batch(104f), 50);
+
+        assertSame(first, second);
+        assertSame(first, tracker.extrapolate(100));
+        assertEquals(1, second.size());
+        try {
+            second.remove(0);
+            fail("tracker list must be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // 읽기 전용
+        }
+    }
+
+    @Test
+    public void removedTrack_slotReusedWithNewId() {
+        SimpleTracker tracker = new SimpleTracker();
+        SimpleTracker.TrackedObject first = tracker.update(batch(100f), 0).get(0);
+        int slot = first.getSlot();
+        assertEquals(0, first.getId());
+
+        // 놓친 채로 MAX_AGE_MS를 넘겨 제거
+        List<SimpleTracker.TrackedObject> tracked = null;
+        for (int frame = 1; frame <= 6; frame++) {
+            tracked = tracker.update(new DetectionBatch(), frame * 100L);
+        }
+        assertTrue(tracked.isEmpty());
+
+        // 새 객체는 같은 슬롯을 쓰지만 ID는 새로 받고, 움직임 모델도 초기화됨
+        SimpleTracker.TrackedObject second = tracker.update(batch(400f), 700).get(0);
+        assertEquals(slot, second.getSlot());
+        assertEquals(1, second.getId());
+        assertEquals(0, second.getAge());
+        assertEquals(400f, second.getLeft(), 0f);
+        assertEquals(0f, second.getVelocityX(), 0f);
+    }
+
+    @Test
+    public void removal_keepsCreationOrder() {
+        TrackTable table = new TrackTable(EmaMotionModel.FACTORY);
+        for (int id = 0; id < 5; id++) {
+            table.add(id, 0, "person", 0.9f, id * 100, 0, id * 100 + 50, 80, 0);
+        }
+        table.age[table.slotAt(1)] = 1;
+        table.age[table.slotAt(3)] = 1;
+        table.lastSeenTime[table.slotAt(4)] = 400;
+
+        assertEquals(2, table.removeExpired(600, 500, null));
+        List<SimpleTracker.TrackedObject> view = table.activeView();
+        assertEquals(3, view.size());
+        assertEquals(0, view.get(0).getId());
+        assertEquals(2, view.get(1).getId());
+        assertEquals(4, view.get(2).getId());
+
+        // 빈 슬롯을 먼저 채우므로 용량이 늘지 않음
+        int capacity = table.capacity();
+        table.add(5, 0, "person", 0.9f, 0, 0, 50, 80, 0);
+        table.add(6, 0, "person", 0.9f, 0, 0, 50, 80, 0);
+        assertEquals(capacity, table.capacity());
+        assertEquals(6, view.get(4).getId());
+    }
+
+    @Test
+    public void manyTracks_growPastInitialCapacity() {
+        SimpleTracker tracker = new SimpleTracker();
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person"));
+        for (int i = 0; i < 40; i++) {
+            batch.add(0, 0.9f, i * 200f, 100, i * 200f + 50, 180);
+        }
+        List<SimpleTracker.TrackedObject> tracked = tracker.update(batch, 0);
+        assertEquals(40, tracked.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, tracked.get(i).getId());
+            assertEquals(i * 200f, tracked.get(i).getLeft(), 0f);
+        }
+    }
+
+    private static DetectionBatch batch(float left) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person"));
+        batch.add(0, 0.9f, left, 100, left + 50, 180);
+        return batch;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * 스냅샷이 트래커의 이후 변경과 분리되어 있고, 다른 스레드가 잠금 없이 일관된 값을 읽는지 확인합니다.
+ */
+public class TrackingSnapshotTest {
+
+    @Test
+    public void snapshot_isDetachedFromTracker() {
+        SimpleTracker tracker = new SimpleTracker();
+        List<SimpleTracker.TrackedObject> tracked = tracker.update(batch(100, 100));
+        int[] pixels = {1, 2, 3, 4};
+        TrackingSnapshot snapshot = TrackingSnapshot.EMPTY.next(tracked, 42, 640, 480,
+                TrackingSnapshot.copyFrame(pixels, 2, 2, 42));
+
+        // 트래커와 원본 픽셀이 바뀌어도 스냅샷은 그대로
+        tracker.update(batch(140, 100));
+        pixels[0] = 99;
+
+        assertEquals(1, snapshot.getSequence());
+        assertEquals(42, snapshot.getTimestamp());
+        TrackingSnapshot.Track track = snapshot.getTracks().get(0);
+        assertEquals(100f, track.getLeft(), 1e-4f);
+        assertTrue(track.isPerson());
+        assertEquals(1, snapshot.getFrame().getPixels()[0]);
+        try {
+            snapshot.getTracks().clear();
+            fail("tracks must be read-only");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void next_keepsPreviousFrameWhenNoNewImage() {
+        TrackingSnapshot first = TrackingSnapshot.EMPTY.next(new SimpleTracker().update(batch(0, 0)), 1, 640, 480,
+                TrackingSnapshot.copyFrame(new int[4], 2, 2, 1));
+        TrackingSnapshot second = first.next(new SimpleTracker().update(batch(10, 0)), 2, 640, 480, null);
+
+        assertSame(first.getFrame(), second.getFrame());
+        assertEquals(2, second.getSequence());
+        assertTrue(TrackingSnapshot.EMPTY.isEmpty());
+        assertNull(TrackingSnapshot.EMPTY.getFrame());
+    }
+
+    @Test
+    public void findNearestPerson_ignoresOtherClassesAndLowConfidence() {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person", "bottle"));
+        batch.add(1, 0.9f, 0, 0, 20, 20);        // 가장 가깝지만 사람이 아님
+        batch.add(0, 0.5f, 300, 300, 320, 340);  // 신뢰도 낮음
+        batch.add(0, 0.9f, 100, 100, 140, 180);
+        batch.add(0, 0.9f, 500, 100, 540, 180);
+        TrackingSnapshot snapshot = TrackingSnapshot.EMPTY.next(new SimpleTracker().update(batch), 1, 640, 480, null);
+
+        TrackingSnapshot.Track nearest = snapshot.findNearestPerson(0, 0, 0.7f);
+        assertNotNull(nearest);
+        assertEquals(120f, nearest.getCenterX(), 1e-4f);
+        assertSame(nearest, snapshot.findTrack(nearest.getId()));
+        assertNull(snapshot.findTrack(-1));
+    }
+
+    @Test
+    public void readers_seeConsistentSnapshotsWhileTrackerUpdates() throws InterruptedException {
+        final AtomicReference<TrackingSnapshot> latest = new AtomicReference<>(TrackingSnapshot.EMPTY);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicBoolean torn = new AtomicBoolean(false);
+
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running.get()) {
+                    TrackingSnapshot snapshot = latest.get();
+                    // 타임스탬프와 박스 위치는 항상 같은 프레임에서 온 값이어야 함
+                    for (TrackingSnapshot.Track track : snapshot.getTracks()) {
+                        if (track.getLeft() != snapshot.getTimestamp() * 0.5f) {
+                            torn.set(true);
+                        }
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        SimpleTracker tracker = new SimpleTracker();
+        for (int i = 0; i < 2000; i++) {
+            List<SimpleTracker.TrackedObject> tracked = tracker.update(batch(i * 0.5f, 100));
+            latest.set(latest.get().next(tracked, i, 640, 480, null));
+        }
+        running.set(false);
+        reader.join();
+
+        assertFalse(torn.get());
+        assertEquals(2000, latest.get().getSequence());
+        assertEquals(1, latest.get().getTracks().size());
+    }
+
+    private static DetectionBatch batch(float left, float top) {
+        DetectionBatch batch = new DetectionBatch();
+        batch.setLabels(Arrays.asList("person"));
+        batch.add(0, 0.9f, left, top, left + 50, top + 80);
+        return batch;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.quantiztest;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 양자화 영역 점수 필터가 기존 방식(모든 점수를 float로 변환 후 비교)과 같은 결과를 내는지 확인합니다.
+ * (디코드 시간 비교는 :benchmark의 DecodeBenchmark)
+ */
+public class YoloDecodeEquivalenceTest {
+    private static final int FRAMES = 32;
+    private static final List<String> LABELS = SyntheticYoloOutputs.labels();
+
+    @Test
+    public void minRawAbove_matchesFloatComparison() {
+        float[] scales = {0.004f, 0.0039215f, 0.01f, 0.00392157f, 1.0f / 255};
+        int[] zeroPoints = {0, 3, 128, -5};
+        float[] thresholds = {0.0f, 0.1f, 0.4f, 0.5f, 0.8f, 0.99f, 2.0f};
+        for (float scale : scales) {
+            for (int zp : zeroPoints) {
+                for (float t : thresholds) {
+                    int minRaw = Quantization.minRawAbove(t, scale, zp);
+                    for (int raw = 0; raw < 256; raw++) {
+                        boolean expected = ((raw) - zp) * scale > t;
+                        assertEquals("scale=" + scale + " zp=" + zp + " t=" + t + " raw=" + raw,
+                                expected, raw >= minRaw);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void minHeatmapRawAbove_matchesNormalizedComparison() {
+        float[] scales = {0.01f, 0.0039215f, 0.125f};
+        int[] zeroPoints = {0, 17, 255};
+        for (float scale : scales) {
+            for (int zp : zeroPoints) {
+                int minRaw = FaceOutputDecoder.minHeatmapRawAbove(0.8, scale, zp);
+                for (int raw = 0; raw < 256; raw++) {
+                    float score = (raw - zp) * scale;
+                    float minScore = (0 - zp) * scale;
+                    float maxScore = (255 - zp) * scale;
+                    float normalizedScore = (score - minScore) / (maxScore - minScore);
+                    assertEquals(normalizedScore > 0.8, raw >= minRaw);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void prefilterDecode_matchesBaseline() {
+        ByteBuffer[][] frames = SyntheticYoloOutputs.frames(FRAMES, 42L);
+
+        // 기존 코드와 같은 클래스를 같은 임계값으로 (낮은 신뢰도 단계 없이) 양자화 영역에서 거름
+        ModelDescriptor descriptor = SyntheticYoloOutputs.descriptor();
+        OutputDecoder decoder = OutputDecoder.forModel(descriptor);
+        decoder.setCatalog(BaselineYoloDecoder.matchingCatalog(LABELS));
+        BaselineYoloDecoder baseline = new BaselineYoloDecoder(descriptor, LABELS);
+
+        int total = 0;
+        for (ByteBuffer[] frame : frames) {
+            DetectionBatch expected = new DetectionBatch();
+            expected.setLabels(LABELS);
+            DetectionBatch actual = new DetectionBatch();
+            actual.setLabels(LABELS);
+            baseline.decode(frame[0], frame[1], frame[2], 1280, 720, expected);
+            decoder.decode(frame, 1280, 720, actual);
+            assertSameDetections(expected, actual);
+            total += expected.size();
+        }
+        assertTrue(total > 0);
+    }
+
+    private static void assertSameDetections(DetectionBatch expected, DetectionBatch actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getClassId(i), actual.getClassId(i));
+            assertEquals(expected.getLabel(i), actual.getLabel(i));
+            assertEquals(expected.getConfidence(i), actual.getConfidence(i), 0f);
+            assertEquals(expected.getLeft(i), actual.getLeft(i), 1e-3f);
+            assertEquals(expected.getTop(i), actual.getTop(i), 1e-3f);
+            assertEquals(expected.getRight(i), actual.getRight(i), 1e-3f);
+            assertEquals(expected.getBottom(i), actual.getBottom(i), 1e-3f);
+        }
+    }
+}
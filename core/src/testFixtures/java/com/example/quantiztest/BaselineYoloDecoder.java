@@ -0,0 +1,95 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 양자화 영역 점수 필터 이전의 processImage 디코드 루프 (YoloDecodeEquivalenceTest, DecodeBenchmark의 비교 기준)
+ * 모든 점수를 float로 dequantize한 뒤 1.0으로 자르고 0.4와 비교하며, 클래스는 라벨 문자열로 거릅니다.
+ */
+public final class BaselineYoloDecoder {
+    // 기존 processImage의 float 비교 임계값
+    public static final float THRESHOLD = 0.4f;
+    private static final String[] LABELS = {"person", "cup", "apple", "banana"};
+
+    private final int numDetections;
+    private final int inputWidth;
+    private final int inputHeight;
+    private final float boxScale;
+    private final int boxZeroPoint;
+    private final float scoreScale;
+    private final int scoreZeroPoint;
+    private final float classScale;
+    private final int classZeroPoint;
+    private final List<String> labels;
+
+    /**
+     * @param descriptor YOLO-NAS 출력(boxes, scores, classes)의 모델 디스크립터 (양자화 파라미터 포함)
+     * @throws IllegalArgumentException 다른 출력 레이아웃
+     */
+    public BaselineYoloDecoder(ModelDescriptor descriptor, List<String> labels) {
+        descriptor.require(descriptor.getLayout() == ModelDescriptor.Layout.YOLO_NAS,
+                "기존 디코드 루프는 YOLO-NAS 출력만 지원합니다");
+        TensorSpec input = descriptor.getInput(0);
+        TensorSpec boxes = descriptor.getOutput(0);
+        TensorSpec scores = descriptor.getOutput(1);
+        TensorSpec classes = descriptor.getOutput(2);
+        this.numDetections = boxes.dim(1);
+        this.inputHeight = input.dim(1);
+        this.inputWidth = input.dim(2);
+        this.boxScale = boxes.getScale();
+        this.boxZeroPoint = boxes.getZeroPoint();
+        this.scoreScale = scores.getScale();
+        this.scoreZeroPoint = scores.getZeroPoint();
+        this.classScale = classes.getScale();
+        this.classZeroPoint = classes.getZeroPoint();
+        this.labels = labels;
+    }
+
+    /**
+     * YoloOutputDecoder가 이 루프와 같은 결과를 내는 카탈로그
+     * (같은 클래스, 같은 임계값, 낮은 신뢰도 단계 없음)
+     */
+    public static ProductCatalog matchingCatalog(List<String> labels) {
+        List<ProductCatalog.Item> items = new ArrayList<>();
+        for (String label : LABELS) {
+            items.add(new ProductCatalog.Item(label, THRESHOLD, THRESHOLD, true, ProductCatalog.DEFAULT_NMS_IOU));
+        }
+        return ProductCatalog.compile(labels, items);
+    }
+
+    /**
+     * @return 추가된 탐지 수
+     */
+    public int decode(ByteBuffer boxes, ByteBuffer scores, ByteBuffer classes,
+                      int imageWidth, int imageHeight, DetectionBatch out) {
+        int added = 0;
+        for (int i = 0; i < numDetections; ++i) {
+            float confidence = ((scores.get(i) & 0xFF) - scoreZeroPoint) * scoreScale;
+            confidence = Math.min(confidence, 1.0f);
+            if (confidence > THRESHOLD) {
+                int classIndex = (int) (((classes.get(i) & 0xFF) - classZeroPoint) * classScale);
+                if (classIndex >= 0 && classIndex < labels.size()) {
+                    String label = labels.get(classIndex);
+                    if (!label.equals("cup") && !label.equals("person") && !label.equals("apple") && !label.equals("banana")) {
+                        continue;
+                    }
+                    float x1 = ((boxes.get(i * 4) & 0xFF) - boxZeroPoint) * boxScale / inputWidth;
+                    float y1 = ((boxes.get(i * 4 + 1) & 0xFF) - boxZeroPoint) * boxScale / inputHeight;
+                    float x2 = ((boxes.get(i * 4 + 2) & 0xFF) - boxZeroPoint) * boxScale / inputWidth;
+                    float y2 = ((boxes.get(i * 4 + 3) & 0xFF) - boxZeroPoint) * boxScale / inputHeight;
+                    float left = Math.max(0, x1 * imageWidth);
+                    float top = Math.max(0, y1 * imageHeight);
+                    float right = x2 * imageWidth;
+                    float bottom = y2 * imageHeight;
+                    if (right > left && bottom > top) {
+                        out.add(classIndex, confidence, left, top, right, bottom);
+                        added++;
+                    }
+                }
+            }
+        }
+        return added;
+    }
+}
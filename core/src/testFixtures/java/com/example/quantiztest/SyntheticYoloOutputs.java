@@ -0,0 +1,94 @@
+package com.example.quantiztest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * core 테스트와 :benchmark가 같이 쓰는 YOLO(640, 8400 앵커) uint8 출력 텐서와 COCO 라벨
+ * 실제 프레임의 출력 분포를 흉내 냅니다 (대부분 낮은 점수, 일부 객체 주변에 높은 점수).
+ * 시드가 같으면 실행마다 같은 텐서가 나옵니다.
+ */
+public final class SyntheticYoloOutputs {
+    public static final int NUM_DETECTIONS = 8400;
+    public static final int INPUT_SIZE = 640;
+    public static final int NUM_CLASSES = 80;
+    public static final int PERSON = 0;
+    public static final int CUP = 41;
+    public static final int BANANA = 46;
+    public static final int APPLE = 47;
+
+    // 실제 모델 출력과 비슷한 양자화 파라미터
+    public static final float BOX_SCALE = 2.6f;
+    public static final int BOX_ZERO_POINT = 0;
+    public static final float SCORE_SCALE = 0.0039215f;
+    public static final int SCORE_ZERO_POINT = 0;
+
+    private SyntheticYoloOutputs() {
+    }
+
+    /**
+     * 위 양자화 파라미터를 쓰는 모델 설명 (입력 1개, 출력 boxes/scores/classes)
+     */
+    public static ModelDescriptor descriptor() {
+        return new ModelDescriptor("yolo",
+                Collections.singletonList(new TensorSpec("input", new int[]{1, INPUT_SIZE, INPUT_SIZE, 3}, "UINT8", 1f, 0)),
+                Arrays.asList(
+                        new TensorSpec("boxes", new int[]{1, NUM_DETECTIONS, 4}, "UINT8", BOX_SCALE, BOX_ZERO_POINT),
+                        new TensorSpec("scores", new int[]{1, NUM_DETECTIONS}, "UINT8", SCORE_SCALE, SCORE_ZERO_POINT),
+                        new TensorSpec("classes", new int[]{1, NUM_DETECTIONS}, "UINT8", 1f, 0)));
+    }
+
+    /**
+     * count개 프레임의 출력 텐서 {boxes, scores, classes} (direct, 네이티브 바이트 순서)
+     */
+    public static ByteBuffer[][] frames(int count, long seed) {
+        Random random = new Random(seed);
+        ByteBuffer[][] frames = new ByteBuffer[count][];
+        for (int f = 0; f < count; f++) {
+            ByteBuffer[] outputs = {
+                    ByteBuffer.allocateDirect(NUM_DETECTIONS * 4).order(ByteOrder.nativeOrder()),
+                    ByteBuffer.allocateDirect(NUM_DETECTIONS).order(ByteOrder.nativeOrder()),
+                    ByteBuffer.allocateDirect(NUM_DETECTIONS).order(ByteOrder.nativeOrder())};
+            fill(outputs, random);
+            frames[f] = outputs;
+        }
+        return frames;
+    }
+
+    /**
+     * 이미 할당된 출력 텐서 {boxes, scores, classes}에 한 프레임을 채움 (버퍼 위치는 바꾸지 않음)
+     */
+    public static void fill(ByteBuffer[] outputs, Random random) {
+        for (int i = 0; i < NUM_DETECTIONS; i++) {
+            boolean object = random.nextInt(100) < 2;
+            outputs[1].put(i, (byte) (object ? 80 + random.nextInt(176) : random.nextInt(40)));
+            outputs[2].put(i, (byte) (object && random.nextBoolean() ? PERSON : random.nextInt(NUM_CLASSES)));
+            int x1 = random.nextInt(200);
+            int y1 = random.nextInt(200);
+            outputs[0].put(i * 4, (byte) x1);
+            outputs[0].put(i * 4 + 1, (byte) y1);
+            outputs[0].put(i * 4 + 2, (byte) Math.min(255, x1 + 5 + random.nextInt(50)));
+            outputs[0].put(i * 4 + 3, (byte) Math.min(255, y1 + 5 + random.nextInt(50)));
+        }
+    }
+
+    /**
+     * 기본 카탈로그가 쓰는 클래스(사람, 컵, 바나나, 사과)만 이름이 있고 나머지는 "class<번호>"인 80개 라벨
+     */
+    public static List<String> labels() {
+        List<String> labels = new ArrayList<>(Arrays.asList(new String[NUM_CLASSES]));
+        for (int i = 0; i < labels.size(); i++) {
+            labels.set(i, "class" + i);
+        }
+        labels.set(PERSON, "person");
+        labels.set(CUP, "cup");
+        labels.set(BANANA, "banana");
+        labels.set(APPLE, "apple");
+        return labels;
+    }
+}